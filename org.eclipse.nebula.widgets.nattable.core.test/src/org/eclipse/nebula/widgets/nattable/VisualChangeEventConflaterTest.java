@@ -14,10 +14,19 @@
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.eclipse.nebula.widgets.nattable.conflation.EventConflaterChain;
 import org.eclipse.nebula.widgets.nattable.conflation.VisualChangeEventConflater;
+import org.eclipse.nebula.widgets.nattable.edit.event.DataUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.selection.event.CellSelectionEvent;
 import org.eclipse.nebula.widgets.nattable.test.fixture.LayerEventFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.NatTableFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.eclipse.swt.graphics.Rectangle;
 import org.junit.Test;
 
 public class VisualChangeEventConflaterTest {
@@ -38,4 +47,104 @@ public void shouldAccumulateEvents() throws Exception {
 
         assertEquals(0, conflater.getCount());
     }
+
+    @Test
+    public void shouldCoalesceEventsIntoOneFrame() {
+        NatTableFixture natTable = new NatTableFixture();
+        VisualChangeEventConflater conflater = new VisualChangeEventConflater(natTable);
+
+        conflater.addEvent(new CellVisualChangeEvent(natTable, 1, 1));
+        conflater.addEvent(new CellVisualChangeEvent(natTable, 2, 3));
+        conflater.addEvent(new CellVisualChangeEvent(natTable, 1, 2));
+        assertEquals(3, conflater.getCount());
+
+        conflater.getConflaterTask().run();
+
+        assertEquals(0, conflater.getCount());
+        assertEquals(3, conflater.getTotalEventCount());
+        assertEquals(1, conflater.getFrameCount());
+        assertEquals(2, conflater.getCoalescedEventCount());
+        assertEquals(0, conflater.getFullRefreshCount());
+    }
+
+    @Test
+    public void shouldRefreshFullyOnUnspecifiedChange() {
+        NatTableFixture natTable = new NatTableFixture();
+        VisualChangeEventConflater conflater = new VisualChangeEventConflater(natTable);
+
+        conflater.addEvent(new CellVisualChangeEvent(natTable, 1, 1));
+        conflater.addEvent(new LayerEventFixture());
+
+        conflater.getConflaterTask().run();
+
+        assertEquals(1, conflater.getFrameCount());
+        assertEquals(1, conflater.getFullRefreshCount());
+    }
+
+    @Test
+    public void shouldRefreshFullyOnDataChange() {
+        NatTableFixture natTable = new NatTableFixture();
+        VisualChangeEventConflater conflater = new VisualChangeEventConflater(natTable);
+
+        // cells that depend on the changed cell, e.g. summary rows, also need
+        // to be repainted
+        conflater.addEvent(new DataUpdateEvent(natTable, 1, 1, "old", "new"));
+
+        conflater.getConflaterTask().run();
+
+        assertEquals(1, conflater.getFrameCount());
+        assertEquals(1, conflater.getFullRefreshCount());
+    }
+
+    @Test
+    public void shouldRefreshFullyOnSelectionChange() {
+        NatTableFixture natTable = new NatTableFixture();
+        VisualChangeEventConflater conflater = new VisualChangeEventConflater(natTable);
+        SelectionLayer selectionLayer = new SelectionLayer(new DataLayerFixture());
+
+        // the previous selection needs to be repainted too, but the event
+        // only contains the new selection anchor
+        conflater.addEvent(new CellSelectionEvent(selectionLayer, 1, 1, false, false));
+
+        conflater.getConflaterTask().run();
+
+        assertEquals(1, conflater.getFrameCount());
+        assertEquals(1, conflater.getFullRefreshCount());
+    }
+
+    @Test
+    public void shouldRefreshFullyWithoutDirtyRegion() {
+        NatTableFixture natTable = new NatTableFixture();
+        VisualChangeEventConflater conflater = new VisualChangeEventConflater(natTable);
+
+        // an empty rectangle does not specify a region to repaint
+        conflater.addEvent(new LayerEventFixture() {
+            @Override
+            public Collection<Rectangle> getChangedPositionRectangles() {
+                return Collections.singletonList(new Rectangle(1, 1, 0, 0));
+            }
+        });
+
+        conflater.getConflaterTask().run();
+
+        assertEquals(1, conflater.getFrameCount());
+        assertEquals(1, conflater.getFullRefreshCount());
+    }
+
+    @Test
+    public void shouldRespectMaxFrameRate() {
+        NatTableFixture natTable = new NatTableFixture();
+        VisualChangeEventConflater conflater = new VisualChangeEventConflater(natTable);
+        conflater.setMaxFrameRate(1);
+
+        conflater.addEvent(new CellVisualChangeEvent(natTable, 1, 1));
+        conflater.getConflaterTask().run();
+        assertEquals(1, conflater.getFrameCount());
+
+        // the next frame is due in one second, so the event is kept
+        conflater.addEvent(new CellVisualChangeEvent(natTable, 2, 2));
+        conflater.getConflaterTask().run();
+        assertEquals(1, conflater.getFrameCount());
+        assertEquals(1, conflater.getCount());
+    }
 }
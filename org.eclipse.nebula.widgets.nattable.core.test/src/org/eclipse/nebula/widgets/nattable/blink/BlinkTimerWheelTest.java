@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.blink;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BlinkTimerWheelTest {
+
+    private BlinkTimerWheel<String> wheel;
+
+    @Before
+    public void setup() {
+        this.wheel = new BlinkTimerWheel<>(10, 8);
+    }
+
+    @Test
+    public void shouldExpireAfterDelay() {
+        this.wheel.schedule("A", 1, "a1", 100, 1000);
+        this.wheel.schedule("A", 2, "a2", 50, 1000);
+        this.wheel.schedule("B", BlinkTimerWheel.ROW, "b", 100, 1005);
+
+        assertEquals(3, this.wheel.size());
+        assertEquals("a1", this.wheel.get("A", 1));
+        assertEquals("b", this.wheel.get("B", BlinkTimerWheel.ROW));
+        assertNull(this.wheel.get("B", 1));
+
+        assertEquals(0, this.wheel.advance(1049));
+        assertEquals(1, this.wheel.advance(1050));
+        assertNull(this.wheel.get("A", 2));
+
+        // both remaining values expire in the same batch
+        assertEquals(0, this.wheel.advance(1099));
+        assertEquals(2, this.wheel.advance(1110));
+        assertTrue(this.wheel.isEmpty());
+    }
+
+    @Test
+    public void shouldReplaceExistingValue() {
+        this.wheel.schedule("A", 1, "old", 50, 1000);
+        this.wheel.schedule("A", 1, "new", 100, 1020);
+
+        assertEquals(1, this.wheel.size());
+        assertEquals(0, this.wheel.advance(1060));
+        assertEquals("new", this.wheel.get("A", 1));
+        assertEquals(1, this.wheel.advance(1120));
+        assertNull(this.wheel.get("A", 1));
+    }
+
+    @Test
+    public void shouldSupportDelaysLongerThanARevolution() {
+        // the wheel covers 80 ms per revolution
+        this.wheel.schedule("A", 1, "long", 500, 0);
+        this.wheel.schedule("A", 2, "short", 20, 0);
+
+        for (long now = 0; now < 500; now += 10) {
+            this.wheel.advance(now);
+        }
+        assertEquals("long", this.wheel.get("A", 1));
+        assertNull(this.wheel.get("A", 2));
+
+        assertEquals(1, this.wheel.advance(500));
+        assertTrue(this.wheel.isEmpty());
+    }
+
+    @Test
+    public void shouldExpireOnDelayedAdvance() {
+        this.wheel.schedule("A", 1, "a", 20, 0);
+        this.wheel.schedule("B", 1, "b", 300, 0);
+
+        // no advance for several revolutions
+        assertEquals(2, this.wheel.advance(10_000));
+        assertTrue(this.wheel.isEmpty());
+    }
+
+    @Test
+    public void shouldRemoveValue() {
+        this.wheel.schedule("A", 1, "a", 20, 0);
+        this.wheel.schedule("A", 2, "b", 20, 0);
+
+        assertEquals("a", this.wheel.remove("A", 1));
+        assertNull(this.wheel.remove("A", 1));
+        assertEquals(1, this.wheel.size());
+        assertEquals(1, this.wheel.advance(20));
+
+        this.wheel.schedule("A", 1, "a", 20, 30);
+        this.wheel.clear();
+        assertTrue(this.wheel.isEmpty());
+        assertEquals(0, this.wheel.advance(100));
+    }
+
+    @Test
+    public void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new BlinkTimerWheel<String>(0, 8));
+        assertThrows(IllegalArgumentException.class, () -> new BlinkTimerWheel<String>(10, 0));
+    }
+}
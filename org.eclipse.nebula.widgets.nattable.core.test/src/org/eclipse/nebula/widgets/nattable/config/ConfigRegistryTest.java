@@ -13,9 +13,15 @@
 package org.eclipse.nebula.widgets.nattable.config;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.style.CellStyleAttributes;
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.style.HorizontalAlignmentEnum;
+import org.eclipse.nebula.widgets.nattable.style.Style;
 import org.junit.Test;
 
 public class ConfigRegistryTest {
@@ -433,4 +439,93 @@ public void regressionRegisterWithDisplayModeAndMultipleConfigLabels() {
                 "testLabel");
         assertEquals("testValueNormalLabel_1", actual);
     }
+
+    @Test
+    public void shouldCacheResolvedValues() {
+        this.configRegistry.setResolvedStyleCacheEnabled(true);
+        this.configRegistry.registerConfigAttribute(
+                this.testAttribute,
+                "testValue",
+                DisplayMode.NORMAL,
+                "testLabel");
+
+        LabelStack labels = new LabelStack("otherLabel", "testLabel");
+        assertEquals("testValue", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT, labels));
+        assertNull(this.configRegistry.getConfigAttribute(this.testAttribute1, DisplayMode.SELECT, labels));
+        assertEquals(0, this.configRegistry.getResolvedStyleCacheHitCount());
+        assertEquals(2, this.configRegistry.getResolvedStyleCacheMissCount());
+
+        // an equal label stack hits the cache, also for missing values
+        assertEquals("testValue", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT, "otherLabel", "testLabel"));
+        assertNull(this.configRegistry.getConfigAttribute(this.testAttribute1, DisplayMode.SELECT, labels));
+        assertEquals(2, this.configRegistry.getResolvedStyleCacheHitCount());
+        assertEquals(2, this.configRegistry.getResolvedStyleCacheMissCount());
+
+        // modifying the label stack does not affect the cache key
+        labels.removeLabel("testLabel");
+        assertNull(this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT, labels));
+        assertEquals("testValue", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT, "otherLabel", "testLabel"));
+    }
+
+    @Test
+    public void shouldInvalidateResolvedValuesOnRegistrationChange() {
+        this.configRegistry.setResolvedStyleCacheEnabled(true);
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "testValue");
+        assertEquals("testValue", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "labelValue", DisplayMode.NORMAL, "testLabel");
+        assertEquals("labelValue", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+
+        this.configRegistry.unregisterConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel");
+        assertEquals("testValue", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+
+        this.configRegistry.unregisterConfigAttribute(this.testAttribute);
+        assertNull(this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+    }
+
+    @Test
+    public void shouldNotCacheResolvedStyleAttributesByDefault() {
+        assertFalse(this.configRegistry.isResolvedStyleCacheEnabled());
+
+        Style style = new Style();
+        style.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.LEFT);
+        this.configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_STYLE, style, DisplayMode.NORMAL, "testLabel");
+
+        LabelStack labels = new LabelStack("testLabel");
+        assertEquals(HorizontalAlignmentEnum.LEFT, this.configRegistry.getStyleAttributeValue(
+                CellConfigAttributes.CELL_STYLE, CellStyleAttributes.HORIZONTAL_ALIGNMENT, DisplayMode.NORMAL, labels));
+
+        // a registered style that is modified in place, e.g. by CSS styling
+        style.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.RIGHT);
+        assertEquals(HorizontalAlignmentEnum.RIGHT, this.configRegistry.getStyleAttributeValue(
+                CellConfigAttributes.CELL_STYLE, CellStyleAttributes.HORIZONTAL_ALIGNMENT, DisplayMode.NORMAL, labels));
+        assertEquals(0, this.configRegistry.getResolvedStyleCacheHitCount());
+    }
+
+    @Test
+    public void shouldCacheResolvedStyleAttributes() {
+        this.configRegistry.setResolvedStyleCacheEnabled(true);
+        Style style = new Style();
+        style.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.LEFT);
+        this.configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_STYLE, style, DisplayMode.NORMAL, "testLabel");
+
+        LabelStack labels = new LabelStack("testLabel");
+        assertEquals(HorizontalAlignmentEnum.LEFT, this.configRegistry.getStyleAttributeValue(
+                CellConfigAttributes.CELL_STYLE, CellStyleAttributes.HORIZONTAL_ALIGNMENT, DisplayMode.NORMAL, labels));
+        assertEquals(HorizontalAlignmentEnum.LEFT, this.configRegistry.getStyleAttributeValue(
+                CellConfigAttributes.CELL_STYLE, CellStyleAttributes.HORIZONTAL_ALIGNMENT, DisplayMode.NORMAL, labels));
+        assertEquals(1, this.configRegistry.getResolvedStyleCacheHitCount());
+
+        // a modified style needs an explicit cache clear
+        style.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.RIGHT);
+        this.configRegistry.clearResolvedStyleCache();
+        assertEquals(HorizontalAlignmentEnum.RIGHT, this.configRegistry.getStyleAttributeValue(
+                CellConfigAttributes.CELL_STYLE, CellStyleAttributes.HORIZONTAL_ALIGNMENT, DisplayMode.NORMAL, labels));
+
+        // disabled cache
+        this.configRegistry.setResolvedStyleCacheEnabled(false);
+        style.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.CENTER);
+        assertEquals(HorizontalAlignmentEnum.CENTER, this.configRegistry.getStyleAttributeValue(
+                CellConfigAttributes.CELL_STYLE, CellStyleAttributes.HORIZONTAL_ALIGNMENT, DisplayMode.NORMAL, labels));
+    }
 }
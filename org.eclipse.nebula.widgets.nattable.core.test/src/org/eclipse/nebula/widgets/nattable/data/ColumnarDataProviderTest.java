@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.nebula.widgets.nattable.data.ColumnarDataProvider.ColumnType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarDataProviderTest {
+
+    private ColumnarDataProvider dataProvider;
+
+    @Before
+    public void setup() {
+        this.dataProvider = new ColumnarDataProvider(3, ColumnType.DOUBLE, ColumnType.LONG, ColumnType.STRING);
+    }
+
+    @Test
+    public void shouldInitializeWithNullValues() {
+        assertEquals(3, this.dataProvider.getColumnCount());
+        assertEquals(3, this.dataProvider.getRowCount());
+        assertEquals(ColumnType.LONG, this.dataProvider.getColumnType(1));
+
+        for (int column = 0; column < 3; column++) {
+            for (int row = 0; row < 3; row++) {
+                assertNull(this.dataProvider.getDataValue(column, row));
+                assertTrue(this.dataProvider.isNull(column, row));
+            }
+        }
+        assertTrue(Double.isNaN(this.dataProvider.getDouble(0, 0)));
+        assertEquals(0, this.dataProvider.getLong(1, 0));
+    }
+
+    @Test
+    public void shouldSetAndGetValues() {
+        this.dataProvider.setDataValue(0, 0, 1.5d);
+        this.dataProvider.setDataValue(1, 0, 42);
+        this.dataProvider.setDataValue(2, 0, "Homer");
+
+        assertEquals(1.5d, this.dataProvider.getDataValue(0, 0));
+        assertEquals(42L, this.dataProvider.getDataValue(1, 0));
+        assertEquals("Homer", this.dataProvider.getDataValue(2, 0));
+        assertFalse(this.dataProvider.isNull(0, 0));
+
+        this.dataProvider.setDouble(0, 1, 2.5d);
+        this.dataProvider.setLong(1, 1, 7L);
+
+        assertEquals(2.5d, this.dataProvider.getDouble(0, 1), 0);
+        assertEquals(2L, this.dataProvider.getLong(0, 1));
+        assertEquals(7d, this.dataProvider.getDouble(1, 1), 0);
+        assertEquals(7L, this.dataProvider.getLong(1, 1));
+
+        // reset to null
+        this.dataProvider.setDataValue(0, 0, null);
+        this.dataProvider.setDataValue(2, 0, null);
+        assertNull(this.dataProvider.getDataValue(0, 0));
+        assertNull(this.dataProvider.getDataValue(2, 0));
+        assertTrue(this.dataProvider.isNull(2, 0));
+    }
+
+    @Test
+    public void shouldEncodeStrings() {
+        this.dataProvider.setDataValue(2, 0, "Homer");
+        this.dataProvider.setDataValue(2, 1, "Marge");
+        this.dataProvider.setDataValue(2, 2, "Homer");
+
+        assertEquals(2, this.dataProvider.getDictionarySize(2));
+        assertEquals(this.dataProvider.getDictionaryCode(2, 0), this.dataProvider.getDictionaryCode(2, 2));
+        assertEquals("Marge", this.dataProvider.getDictionaryValue(2, this.dataProvider.getDictionaryCode(2, 1)));
+
+        this.dataProvider.setDataValue(2, 1, null);
+        assertEquals(-1, this.dataProvider.getDictionaryCode(2, 1));
+        assertNull(this.dataProvider.getDictionaryValue(2, -1));
+    }
+
+    @Test
+    public void shouldCompareValues() {
+        this.dataProvider.setDataValue(0, 0, 3d);
+        this.dataProvider.setDataValue(0, 1, 1d);
+        this.dataProvider.setDataValue(1, 0, 3);
+        this.dataProvider.setDataValue(1, 1, 1);
+        this.dataProvider.setDataValue(2, 0, "Marge");
+        this.dataProvider.setDataValue(2, 1, "Homer");
+
+        for (int column = 0; column < 3; column++) {
+            assertTrue(this.dataProvider.compare(column, 0, 1) > 0);
+            assertTrue(this.dataProvider.compare(column, 1, 0) < 0);
+            assertEquals(0, this.dataProvider.compare(column, 0, 0));
+            // null is smaller than all values
+            assertTrue(this.dataProvider.compare(column, 2, 1) < 0);
+        }
+    }
+
+    @Test
+    public void shouldAddRows() {
+        this.dataProvider.setDataValue(0, 2, 2d);
+
+        assertEquals(3, this.dataProvider.addRows(100));
+        assertEquals(103, this.dataProvider.getRowCount());
+        assertEquals(2d, this.dataProvider.getDataValue(0, 2));
+        assertNull(this.dataProvider.getDataValue(0, 102));
+
+        this.dataProvider.setDataValue(2, 102, "Bart");
+        assertEquals("Bart", this.dataProvider.getDataValue(2, 102));
+
+        this.dataProvider.clear();
+        assertEquals(0, this.dataProvider.getRowCount());
+        assertEquals(0, this.dataProvider.getDictionarySize(2));
+    }
+
+    @Test
+    public void shouldThrowExceptionOnInvalidAccess() {
+        assertThrows(IndexOutOfBoundsException.class, () -> this.dataProvider.getDataValue(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> this.dataProvider.setDataValue(0, 0, "Homer"));
+        assertThrows(IllegalArgumentException.class, () -> this.dataProvider.getDouble(2, 0));
+        assertThrows(IllegalArgumentException.class, () -> this.dataProvider.getDictionaryCode(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ColumnarDataProvider(-1, ColumnType.DOUBLE));
+    }
+}
@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.eclipse.nebula.widgets.nattable.dataset.person.Address;
+import org.eclipse.nebula.widgets.nattable.dataset.person.Person;
+import org.eclipse.nebula.widgets.nattable.dataset.person.Person.Gender;
+import org.eclipse.nebula.widgets.nattable.dataset.person.PersonWithAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MethodHandleColumnPropertyAccessorTest {
+
+    private MethodHandleColumnPropertyAccessor<PersonWithAddress> accessor;
+    private PersonWithAddress person;
+
+    private MethodHandleColumnPropertyAccessor<Bean> beanAccessor;
+    private Bean testBean;
+
+    @Before
+    public void setup() {
+        String[] propertyNames = {
+                "firstName",
+                "lastName",
+                "gender",
+                "married",
+                "birthday",
+                "address.street",
+                "address.housenumber",
+                "address.postalCode",
+                "address.city", };
+
+        this.accessor = new MethodHandleColumnPropertyAccessor<>(propertyNames);
+
+        Address address = new Address();
+        address.setStreet("Some Street");
+        address.setHousenumber(42);
+        address.setPostalCode(12345);
+        address.setCity("In the clouds");
+        this.person = new PersonWithAddress(42, "Ralph", "Wiggum", Gender.MALE, false, new Date(), address);
+
+        String[] beanPropertyNames = {
+                "name",
+                "sub.active",
+                "sub.intAmount",
+                "sub.longAmount",
+                "sub.doubleAmount" };
+
+        this.beanAccessor = new MethodHandleColumnPropertyAccessor<>(beanPropertyNames);
+
+        SubBean sub = new SubBean();
+        sub.active = true;
+        sub.intAmount = 500;
+        sub.longAmount = 30000l;
+        sub.doubleAmount = 42d;
+
+        this.testBean = new Bean();
+        this.testBean.name = "Private-Test";
+        this.testBean.sub = sub;
+    }
+
+    @Test
+    public void shouldGetFirstLevelProperty() {
+        assertEquals("Ralph", this.accessor.getDataValue(this.person, 0));
+        assertEquals("Wiggum", this.accessor.getDataValue(this.person, 1));
+        assertEquals(Gender.MALE, this.accessor.getDataValue(this.person, 2));
+        assertEquals(Boolean.FALSE, this.accessor.getDataValue(this.person, 3));
+    }
+
+    @Test
+    public void shouldGetSecondLevelProperty() {
+        assertEquals("Some Street", this.accessor.getDataValue(this.person, 5));
+        assertEquals(42, this.accessor.getDataValue(this.person, 6));
+        assertEquals(12345, this.accessor.getDataValue(this.person, 7));
+        assertEquals("In the clouds", this.accessor.getDataValue(this.person, 8));
+    }
+
+    @Test
+    public void shouldSetFirstLevelProperty() {
+        this.accessor.setDataValue(this.person, 0, "Sarah");
+        this.accessor.setDataValue(this.person, 2, Gender.FEMALE);
+        this.accessor.setDataValue(this.person, 3, Boolean.TRUE);
+
+        assertEquals("Sarah", this.accessor.getDataValue(this.person, 0));
+        assertEquals("Wiggum", this.accessor.getDataValue(this.person, 1));
+        assertEquals(Gender.FEMALE, this.accessor.getDataValue(this.person, 2));
+        assertEquals(Boolean.TRUE, this.accessor.getDataValue(this.person, 3));
+    }
+
+    @Test
+    public void shouldSetFirstLevelPropertyToNull() {
+        this.accessor.setDataValue(this.person, 0, null);
+        assertNull(this.accessor.getDataValue(this.person, 0));
+
+        this.accessor.setDataValue(this.person, 0, "Clancy");
+        assertEquals("Clancy", this.accessor.getDataValue(this.person, 0));
+    }
+
+    @Test
+    public void shouldSetSecondLevelProperty() {
+        this.accessor.setDataValue(this.person, 5, "Evergreen Terrace");
+        this.accessor.setDataValue(this.person, 6, 742);
+
+        assertEquals("Evergreen Terrace", this.accessor.getDataValue(this.person, 5));
+        assertEquals(742, this.accessor.getDataValue(this.person, 6));
+        assertEquals(12345, this.accessor.getDataValue(this.person, 7));
+        assertEquals("In the clouds", this.accessor.getDataValue(this.person, 8));
+    }
+
+    @Test
+    public void shouldHandleNullValuesInHierarchical() {
+        this.person.setAddress(null);
+
+        assertNull(this.accessor.getDataValue(this.person, 5));
+        assertNull(this.accessor.getDataValue(this.person, 6));
+
+        // setting a value with a null object in the path has no effect
+        this.accessor.setDataValue(this.person, 5, "Evergreen Terrace");
+        assertNull(this.person.getAddress());
+    }
+
+    @Test
+    public void shouldAccessPropertiesOfDifferentClasses() {
+        MethodHandleColumnPropertyAccessor<Person> personAccessor =
+                new MethodHandleColumnPropertyAccessor<>("firstName", "lastName");
+
+        Person simple = new Person(1, "Homer", "Simpson", Gender.MALE, true, new Date());
+
+        assertEquals("Homer", personAccessor.getDataValue(simple, 0));
+        assertEquals("Ralph", personAccessor.getDataValue(this.person, 0));
+        assertEquals("Simpson", personAccessor.getDataValue(simple, 1));
+        assertEquals("Wiggum", personAccessor.getDataValue(this.person, 1));
+
+        personAccessor.setDataValue(simple, 0, "Marge");
+        personAccessor.setDataValue(this.person, 0, "Clancy");
+        assertEquals("Marge", simple.getFirstName());
+        assertEquals("Clancy", this.person.getFirstName());
+    }
+
+    @Test
+    public void shouldAccessNotPublicClass() {
+        assertEquals("Private-Test", this.beanAccessor.getDataValue(this.testBean, 0));
+        assertEquals(Boolean.TRUE, this.beanAccessor.getDataValue(this.testBean, 1));
+        assertEquals(500, this.beanAccessor.getDataValue(this.testBean, 2));
+        assertEquals(30000l, this.beanAccessor.getDataValue(this.testBean, 3));
+        assertEquals(42d, this.beanAccessor.getDataValue(this.testBean, 4));
+
+        this.beanAccessor.setDataValue(this.testBean, 0, "Blubb");
+        this.beanAccessor.setDataValue(this.testBean, 1, Boolean.FALSE);
+        this.beanAccessor.setDataValue(this.testBean, 2, 1000);
+        this.beanAccessor.setDataValue(this.testBean, 3, 250000l);
+        this.beanAccessor.setDataValue(this.testBean, 4, 3.14d);
+
+        assertEquals("Blubb", this.beanAccessor.getDataValue(this.testBean, 0));
+        assertEquals(Boolean.FALSE, this.beanAccessor.getDataValue(this.testBean, 1));
+        assertEquals(1000, this.beanAccessor.getDataValue(this.testBean, 2));
+        assertEquals(250000l, this.beanAccessor.getDataValue(this.testBean, 3));
+        assertEquals(3.14d, this.beanAccessor.getDataValue(this.testBean, 4));
+    }
+
+    @Test
+    public void shouldWidenPrimitiveValues() {
+        // Integer value for a long property
+        this.beanAccessor.setDataValue(this.testBean, 3, 42);
+        assertEquals(42l, this.beanAccessor.getDataValue(this.testBean, 3));
+    }
+
+    @Test
+    public void shouldNotSetInvalidValues() {
+        // null for a primitive property
+        this.beanAccessor.setDataValue(this.testBean, 2, null);
+        assertEquals(500, this.beanAccessor.getDataValue(this.testBean, 2));
+
+        // String for an int property
+        this.beanAccessor.setDataValue(this.testBean, 2, "Test");
+        assertEquals(500, this.beanAccessor.getDataValue(this.testBean, 2));
+    }
+
+    @Test
+    public void shouldInvokeSetterOnlyOnceOnException() {
+        MethodHandleColumnPropertyAccessor<FailingBean> failingAccessor = new MethodHandleColumnPropertyAccessor<>("value");
+        FailingBean bean = new FailingBean();
+
+        assertThrows(IllegalStateException.class, () -> failingAccessor.setDataValue(bean, 0, "Test"));
+        assertEquals(1, bean.setterCalls);
+    }
+
+    @Test
+    public void shouldAccessConcurrently() {
+        List<PersonWithAddress> persons = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Address address = new Address();
+            address.setHousenumber(i);
+            persons.add(new PersonWithAddress(i, "Ralph", "Wiggum", Gender.MALE, false, new Date(), address));
+        }
+
+        int sum = IntStream.range(0, persons.size())
+                .parallel()
+                .map(i -> (Integer) this.accessor.getDataValue(persons.get(i), 6))
+                .sum();
+
+        assertEquals(499500, sum);
+    }
+
+    @Test
+    public void shouldThrowExceptionOnNotAvailableGetter() {
+        this.beanAccessor = new MethodHandleColumnPropertyAccessor<>("names", "sub.intAmounts");
+
+        assertThrows(IllegalStateException.class, () -> this.beanAccessor.getDataValue(this.testBean, 0));
+        assertThrows(IllegalStateException.class, () -> this.beanAccessor.getDataValue(this.testBean, 1));
+    }
+
+    @Test
+    public void shouldThrowExceptionOnNotAvailableSetter() {
+        this.beanAccessor = new MethodHandleColumnPropertyAccessor<>("names", "sub.intAmounts", "readOnly");
+
+        assertThrows(IllegalStateException.class, () -> this.beanAccessor.setDataValue(this.testBean, 0, "Test"));
+        assertThrows(IllegalStateException.class, () -> this.beanAccessor.setDataValue(this.testBean, 1, 1111));
+        assertThrows(IllegalStateException.class, () -> this.beanAccessor.setDataValue(this.testBean, 2, "Test"));
+    }
+
+    @Test
+    public void shouldReturnColumnInformation() {
+        assertEquals(9, this.accessor.getColumnCount());
+        assertEquals("address.street", this.accessor.getColumnProperty(5));
+        assertEquals(5, this.accessor.getColumnIndex("address.street"));
+        assertEquals(-1, this.accessor.getColumnIndex("address"));
+    }
+
+    public static class FailingBean {
+        int setterCalls;
+
+        public String getValue() {
+            return null;
+        }
+
+        public void setValue(String value) {
+            this.setterCalls++;
+            throw new ClassCastException("Failure in setter");
+        }
+    }
+
+    // private classes to test the access if no lambda can be created
+
+    private static class SubBean {
+        boolean active;
+        int intAmount;
+        long longAmount;
+        double doubleAmount;
+
+        public boolean isActive() {
+            return this.active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public int getIntAmount() {
+            return this.intAmount;
+        }
+
+        public void setIntAmount(int intAmount) {
+            this.intAmount = intAmount;
+        }
+
+        public long getLongAmount() {
+            return this.longAmount;
+        }
+
+        public void setLongAmount(long longAmount) {
+            this.longAmount = longAmount;
+        }
+
+        public double getDoubleAmount() {
+            return this.doubleAmount;
+        }
+
+        public void setDoubleAmount(double doubleAmount) {
+            this.doubleAmount = doubleAmount;
+        }
+    }
+
+    private static class Bean {
+        String name;
+        SubBean sub;
+
+        public String getName() {
+            return this.name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public SubBean getSub() {
+            return this.sub;
+        }
+
+        public void setSub(SubBean sub) {
+            this.sub = sub;
+        }
+
+        public String getReadOnly() {
+            return this.name;
+        }
+    }
+}
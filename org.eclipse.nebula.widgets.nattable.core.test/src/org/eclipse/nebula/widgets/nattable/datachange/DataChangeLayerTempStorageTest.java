@@ -446,4 +446,45 @@ public void shouldNotDirtyNullToNull() {
         assertFalse("Row 1 is dirty", this.dataChangeLayer.isRowDirty(1));
         assertFalse("Cell is dirty", this.dataChangeLayer.isCellDirty(1, 1));
     }
+
+    @Test
+    public void shouldCompactRepeatedChangesAndSaveLastValue() {
+        this.dataChangeLayer.setCompactDataChanges(true);
+
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 1, "Lovejoy"));
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 2, "Lovejoy"));
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 1, "Flanders"));
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 1, "Skinner"));
+
+        assertEquals(2, this.dataChangeLayer.dataChanges.size());
+        assertEquals("Simpson", this.dataLayer.getDataValue(1, 1));
+        assertEquals("Skinner", this.dataChangeLayer.getDataValueByPosition(1, 1));
+
+        this.dataChangeLayer.doCommand(new SaveDataChangesCommand());
+
+        assertEquals("Skinner", this.dataLayer.getDataValue(1, 1));
+        assertEquals("Lovejoy", this.dataLayer.getDataValue(1, 2));
+        assertFalse("Cell is dirty", this.dataChangeLayer.isCellDirty(1, 1));
+        assertTrue("tracked changes are not empty", this.dataChangeLayer.dataChanges.isEmpty());
+    }
+
+    @Test
+    public void shouldConsolidateEventsOnSave() {
+        this.dataChangeLayer.setConsolidateDataUpdateEvents(true);
+
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 1, "Lovejoy"));
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 2, "Lovejoy"));
+
+        LayerListenerFixture listener = new LayerListenerFixture();
+        this.dataChangeLayer.addLayerListener(listener);
+
+        this.dataChangeLayer.doCommand(new SaveDataChangesCommand());
+
+        assertEquals("Lovejoy", this.dataLayer.getDataValue(1, 1));
+        assertEquals("Lovejoy", this.dataLayer.getDataValue(1, 2));
+
+        // only the final SaveDataChangesCompletedEvent
+        assertEquals(1, listener.getEventsCount());
+        assertTrue(listener.getReceivedEvents().get(0) instanceof SaveDataChangesCompletedEvent);
+    }
 }
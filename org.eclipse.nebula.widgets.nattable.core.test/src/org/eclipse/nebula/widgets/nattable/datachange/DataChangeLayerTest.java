@@ -840,4 +840,71 @@ public void shouldDiscardAfterInsert() {
         assertTrue("changes are not empty", this.handler.dataChanges.isEmpty());
         assertTrue("tracked changes are not empty", this.dataChangeLayer.dataChanges.isEmpty());
     }
+
+    @Test
+    public void shouldCompactRepeatedChangesAndDiscardToOriginal() {
+        this.dataChangeLayer.setCompactDataChanges(true);
+
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 1, "Lovejoy"));
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 1, "Flanders"));
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 1, "Skinner"));
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 2, "Lovejoy"));
+
+        assertEquals(2, this.dataChangeLayer.dataChanges.size());
+        assertEquals("Skinner", this.dataLayer.getDataValue(1, 1));
+
+        this.dataChangeLayer.doCommand(new DiscardDataChangesCommand());
+
+        assertEquals("Simpson", this.dataLayer.getDataValue(1, 1));
+        assertEquals("Simpson", this.dataLayer.getDataValue(1, 2));
+        assertFalse("Cell is dirty", this.dataChangeLayer.isCellDirty(1, 1));
+        assertTrue("tracked changes are not empty", this.dataChangeLayer.dataChanges.isEmpty());
+    }
+
+    @Test
+    public void shouldConsolidateEventsOnDiscard() {
+        this.dataChangeLayer.setConsolidateDataUpdateEvents(true);
+
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 1, "Lovejoy"));
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 2, "Lovejoy"));
+
+        LayerListenerFixture listener = new LayerListenerFixture();
+        this.dataChangeLayer.addLayerListener(listener);
+
+        this.dataChangeLayer.doCommand(new DiscardDataChangesCommand());
+
+        assertEquals("Simpson", this.dataLayer.getDataValue(1, 1));
+        assertEquals("Simpson", this.dataLayer.getDataValue(1, 2));
+
+        // only the final DiscardDataChangesCompletedEvent
+        assertEquals(1, listener.getEventsCount());
+        assertTrue(listener.getReceivedEvents().get(0) instanceof DiscardDataChangesCompletedEvent);
+
+        // events are propagated again after discard
+        this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 1, 1, "Lovejoy"));
+        assertEquals(2, listener.getEventsCount());
+        assertTrue(listener.getReceivedEvents().get(1) instanceof DataUpdateEvent);
+    }
+
+    @Test
+    public void shouldCheckDirtyStateOfManyChanges() {
+        int rowCount = this.dataModel.size();
+        for (int row = 0; row < rowCount; row++) {
+            this.dataChangeLayer.doCommand(new UpdateDataCommand(this.dataChangeLayer, 0, row, "Changed"));
+        }
+
+        for (int row = 0; row < rowCount; row++) {
+            assertTrue("Cell is not dirty", this.dataChangeLayer.isCellDirty(0, row));
+            assertFalse("Cell is dirty", this.dataChangeLayer.isCellDirty(1, row));
+            assertTrue(this.handler.containsChangedCell(0, row));
+        }
+
+        // the changed cells are updated on structural changes
+        this.dataModel.remove(0);
+        this.dataLayer.fireLayerEvent(new RowDeleteEvent(this.dataLayer, 0));
+
+        assertEquals(rowCount - 1, this.handler.changedCells.size());
+        assertFalse(this.handler.containsChangedCell(0, rowCount - 1));
+        assertTrue("Cell is not dirty", this.dataChangeLayer.isCellDirty(0, rowCount - 2));
+    }
 }
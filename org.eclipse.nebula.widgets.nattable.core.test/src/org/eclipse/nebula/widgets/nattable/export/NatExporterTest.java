@@ -0,0 +1,253 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.export.csv.CsvExporter;
+import org.eclipse.nebula.widgets.nattable.export.excel.DefaultExportFormatter;
+import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NatExporterTest {
+
+    private DataLayer dataLayer;
+    private Set<Thread> accessingThreads;
+    private ConfigRegistry configRegistry;
+    private ByteArrayOutputStream output;
+    private IOutputStreamProvider outputStreamProvider;
+    private NatExporter natExporter;
+    private ProgressListener listener;
+
+    @Before
+    public void setup() {
+        this.accessingThreads = ConcurrentHashMap.newKeySet();
+        this.dataLayer = new DataLayer(new DummyBodyDataProvider(3, 250)) {
+            @Override
+            public ILayerCell getCellByPosition(int columnPosition, int rowPosition) {
+                NatExporterTest.this.accessingThreads.add(Thread.currentThread());
+                return super.getCellByPosition(columnPosition, rowPosition);
+            }
+        };
+        this.configRegistry = new ConfigRegistry();
+        this.configRegistry.registerConfigAttribute(
+                ExportConfigAttributes.EXPORT_FORMATTER,
+                new DefaultExportFormatter());
+
+        this.output = new ByteArrayOutputStream();
+        this.outputStreamProvider = new IOutputStreamProvider() {
+
+            @Override
+            public OutputStream getOutputStream(Shell shell) {
+                return NatExporterTest.this.output;
+            }
+
+            @Override
+            public Object getResult() {
+                return null;
+            }
+        };
+
+        this.natExporter = new NatExporter(null);
+        this.natExporter.disablePreRendering();
+        this.natExporter.setOpenResult(false);
+        this.natExporter.enableBackgroundExport();
+        this.natExporter.setExportChunkSize(10);
+        this.natExporter.setMaxPendingChunks(2);
+
+        this.listener = new ProgressListener();
+        this.natExporter.addExportProgressListener(this.listener);
+    }
+
+    @Test
+    public void shouldExportInBackground() throws InterruptedException {
+        IClientAreaProvider clientAreaProvider = this.dataLayer.getClientAreaProvider();
+
+        this.natExporter.exportSingleLayer(new CsvExporter(this.outputStreamProvider), this.dataLayer, this.configRegistry);
+
+        assertTrue(this.listener.finished.await(10, TimeUnit.SECONDS));
+        assertTrue(this.listener.succeeded);
+        assertFalse(this.listener.cancelled);
+        assertFalse(this.natExporter.isExportRunning());
+
+        assertEquals(250, this.listener.exportedRows.get());
+        assertEquals(25, this.listener.progressCount.get());
+        assertTrue(this.listener.rowsPerSecond > 0);
+
+        String[] lines = new String(this.output.toByteArray()).split(System.getProperty("line.separator")); //$NON-NLS-1$
+        assertEquals(250, lines.length);
+        assertEquals("\"Col: 1, Row: 1\";\"Col: 2, Row: 1\";\"Col: 3, Row: 1\"", lines[0]);
+        assertEquals("\"Col: 1, Row: 250\";\"Col: 2, Row: 250\";\"Col: 3, Row: 250\"", lines[249]);
+
+        // the layer state is restored
+        assertSame(clientAreaProvider, this.dataLayer.getClientAreaProvider());
+
+        // the layer is only accessed by the calling thread
+        assertEquals(Collections.singleton(Thread.currentThread()), this.accessingThreads);
+    }
+
+    @Test
+    public void shouldExportInBackgroundWithShell() throws InterruptedException {
+        Shell shell = new Shell(Display.getDefault());
+        try {
+            NatExporter exporter = new NatExporter(shell);
+            exporter.disablePreRendering();
+            exporter.setOpenResult(false);
+            exporter.enableBackgroundExport();
+            exporter.setExportChunkSize(10);
+            exporter.setMaxPendingChunks(2);
+            exporter.addExportProgressListener(this.listener);
+
+            exporter.exportSingleLayer(new CsvExporter(this.outputStreamProvider), this.dataLayer, this.configRegistry);
+
+            // the rows are collected in the UI thread
+            long start = System.currentTimeMillis();
+            while (this.listener.finished.getCount() > 0 && System.currentTimeMillis() - start < 10000) {
+                if (!shell.getDisplay().readAndDispatch()) {
+                    Thread.sleep(5);
+                }
+            }
+
+            assertEquals(0, this.listener.finished.getCount());
+            assertTrue(this.listener.succeeded);
+            assertFalse(exporter.isExportRunning());
+            assertEquals(250, this.listener.exportedRows.get());
+
+            String[] lines = new String(this.output.toByteArray()).split(System.getProperty("line.separator")); //$NON-NLS-1$
+            assertEquals(250, lines.length);
+
+            // the layer is only accessed by the UI thread
+            assertEquals(Collections.singleton(shell.getDisplay().getThread()), this.accessingThreads);
+        } finally {
+            shell.dispose();
+        }
+    }
+
+    @Test
+    public void shouldRestoreLayerAfterChunksAreWritten() {
+        IClientAreaProvider clientAreaProvider = this.dataLayer.getClientAreaProvider();
+        this.dataLayer.setColumnWidthByPosition(1, 0);
+        Set<ILayer> cellLayers = ConcurrentHashMap.newKeySet();
+        AtomicInteger hiddenCells = new AtomicInteger();
+        AtomicBoolean restoredWhileWriting = new AtomicBoolean(false);
+
+        this.natExporter.exportSingleLayer(new CsvExporter(this.outputStreamProvider) {
+            @Override
+            public void exportCell(OutputStream outputStream, Object exportDisplayValue, ILayerCell cell, IConfigRegistry configRegistry) throws IOException {
+                super.exportCell(outputStream, exportDisplayValue, cell, configRegistry);
+                cellLayers.add(cell.getLayer());
+                if (cell.getLayer().getColumnWidthByPosition(cell.getColumnPosition()) == 0) {
+                    hiddenCells.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void exportRowEnd(OutputStream outputStream, int rowPosition) throws IOException {
+                super.exportRowEnd(outputStream, rowPosition);
+                if (NatExporterTest.this.dataLayer.getClientAreaProvider() == clientAreaProvider) {
+                    restoredWhileWriting.set(true);
+                }
+            }
+        }, this.dataLayer, this.configRegistry);
+
+        assertEquals(0, this.listener.finished.getCount());
+        assertTrue(this.listener.succeeded);
+
+        // the cells do not reference the exported layer
+        assertEquals(1, cellLayers.size());
+        assertNotSame(this.dataLayer, cellLayers.iterator().next());
+        assertEquals(250, hiddenCells.get());
+
+        // the layer is restored after all chunks are written
+        assertFalse(restoredWhileWriting.get());
+        assertSame(clientAreaProvider, this.dataLayer.getClientAreaProvider());
+    }
+
+    @Test
+    public void shouldCancelBackgroundExport() {
+        AtomicBoolean runningOnCancel = new AtomicBoolean(false);
+        IClientAreaProvider clientAreaProvider = this.dataLayer.getClientAreaProvider();
+
+        this.natExporter.exportSingleLayer(new CsvExporter(this.outputStreamProvider) {
+            @Override
+            public void exportRowBegin(OutputStream outputStream, int rowPosition) throws IOException {
+                super.exportRowBegin(outputStream, rowPosition);
+                if (rowPosition == 10) {
+                    runningOnCancel.set(NatExporterTest.this.natExporter.isExportRunning());
+                    NatExporterTest.this.natExporter.cancelExport();
+                }
+            }
+        }, this.dataLayer, this.configRegistry);
+
+        // without a Shell the export is finished when the method returns
+        assertTrue(runningOnCancel.get());
+        assertEquals(0, this.listener.finished.getCount());
+        assertFalse(this.listener.succeeded);
+        assertTrue(this.listener.cancelled);
+        assertFalse(this.natExporter.isExportRunning());
+        assertTrue(this.listener.exportedRows.get() < 250);
+
+        // the layer state is restored
+        assertSame(clientAreaProvider, this.dataLayer.getClientAreaProvider());
+    }
+
+    private static class ProgressListener implements IExportProgressListener {
+
+        final CountDownLatch finished = new CountDownLatch(1);
+        final AtomicInteger exportedRows = new AtomicInteger();
+        final AtomicInteger progressCount = new AtomicInteger();
+        volatile double rowsPerSecond;
+        volatile boolean succeeded;
+        volatile boolean cancelled;
+
+        @Override
+        public void exportProgress(int exportedRows, int totalRows, double rowsPerSecond) {
+            assertEquals(250, totalRows);
+            this.exportedRows.set(exportedRows);
+            this.progressCount.incrementAndGet();
+            this.rowsPerSecond = rowsPerSecond;
+        }
+
+        @Override
+        public void exportFinished(boolean succeeded, boolean cancelled) {
+            this.succeeded = succeeded;
+            this.cancelled = cancelled;
+            this.finished.countDown();
+        }
+    }
+}
@@ -14,10 +14,22 @@
 package org.eclipse.nebula.widgets.nattable.formula;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
-
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.IndexCoordinate;
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
 import org.junit.Test;
 
 public class FormulaDataProviderTest {
@@ -34,6 +46,18 @@ public void shouldReturnEvaluatedFormula() {
         assertEquals(new BigDecimal("15"), this.formulaDataProvider.getDataValue(2, 0));
     }
 
+    @Test
+    public void shouldEnableFormulaCompilationByDefault() {
+        assertEquals(FormulaParser.DEFAULT_FORMULA_CACHE_SIZE, this.formulaDataProvider.getFormulaCacheSize());
+
+        // a given parser is not changed
+        FormulaDataProvider provider = new FormulaDataProvider(this.dataProvider, new FormulaParser(this.dataProvider));
+        assertEquals(0, provider.getFormulaCacheSize());
+
+        this.formulaDataProvider.setFormulaCacheSize(0);
+        assertEquals(0, this.formulaDataProvider.getFormulaParser().getFormulaCacheSize());
+    }
+
     @Test
     public void shouldReturnNativeFormula() {
         this.dataProvider.setDataValue(0, 0, "5");
@@ -78,4 +102,130 @@ public void shouldHandleNumberValueTypes() {
         this.dataProvider.setDataValue(1, 0, "3");
         assertEquals(new BigDecimal("15.6"), this.formulaDataProvider.getDataValue(2, 0));
     }
+
+    @Test
+    public void shouldOnlyRecalculateDependentFormulas() throws InterruptedException {
+        Map<IndexCoordinate, AtomicInteger> calculations = new ConcurrentHashMap<>();
+        FormulaDataProvider provider = new FormulaDataProvider(this.dataProvider) {
+            @Override
+            protected Object processFormula(String formula, int columnIndex, int rowIndex) {
+                calculations.computeIfAbsent(new IndexCoordinate(columnIndex, rowIndex), c -> new AtomicInteger()).incrementAndGet();
+                return super.processFormula(formula, columnIndex, rowIndex);
+            }
+        };
+        provider.configureCaching(new DataLayer(provider));
+
+        this.dataProvider.setDataValue(0, 0, "5");
+        this.dataProvider.setDataValue(1, 0, "3");
+        this.dataProvider.setDataValue(2, 0, "=A1*B1");
+        this.dataProvider.setDataValue(3, 0, "=C1+1");
+        this.dataProvider.setDataValue(0, 1, "2");
+        this.dataProvider.setDataValue(2, 1, "=A2*2");
+
+        assertEquals(new BigDecimal("15"), waitForValue(provider, 2, 0, new BigDecimal("15")));
+        assertEquals(new BigDecimal("16"), waitForValue(provider, 3, 0, new BigDecimal("16")));
+        assertEquals(new BigDecimal("4"), waitForValue(provider, 2, 1, new BigDecimal("4")));
+
+        IndexCoordinate a1 = new IndexCoordinate(0, 0);
+        IndexCoordinate c1 = new IndexCoordinate(2, 0);
+        IndexCoordinate d1 = new IndexCoordinate(3, 0);
+        assertEquals(Arrays.asList(c1, d1), provider.getDependencyGraph().getDependents(a1));
+
+        provider.setDataValue(0, 0, "6");
+
+        assertEquals(new BigDecimal("18"), waitForValue(provider, 2, 0, new BigDecimal("18")));
+        assertEquals(new BigDecimal("19"), waitForValue(provider, 3, 0, new BigDecimal("19")));
+
+        // the formula that does not reference the changed cell is not
+        // recalculated
+        assertEquals(new BigDecimal("4"), provider.getDataValue(2, 1));
+        assertEquals(1, calculations.get(new IndexCoordinate(2, 1)).get());
+        assertEquals(2, calculations.get(c1).get());
+        assertEquals(2, calculations.get(d1).get());
+    }
+
+    @Test
+    public void shouldUpdateDependenciesOnChangedFormula() throws InterruptedException {
+        this.formulaDataProvider.configureCaching(new DataLayer(this.formulaDataProvider));
+
+        this.dataProvider.setDataValue(0, 0, "5");
+        this.dataProvider.setDataValue(1, 0, "3");
+        this.dataProvider.setDataValue(2, 0, "=A1*2");
+
+        assertEquals(new BigDecimal("10"), waitForValue(this.formulaDataProvider, 2, 0, new BigDecimal("10")));
+
+        this.formulaDataProvider.setDataValue(2, 0, "=B1*2");
+        assertEquals(new BigDecimal("6"), waitForValue(this.formulaDataProvider, 2, 0, new BigDecimal("6")));
+
+        // the formula does not depend on A1 anymore
+        assertTrue(this.formulaDataProvider.getDependencyGraph().getDependents(new IndexCoordinate(0, 0)).isEmpty());
+
+        this.formulaDataProvider.setDataValue(1, 0, "4");
+        assertEquals(new BigDecimal("8"), waitForValue(this.formulaDataProvider, 2, 0, new BigDecimal("8")));
+    }
+
+    @Test
+    public void shouldFireSingleRefreshForDependentFormulas() throws InterruptedException {
+        DataLayer dataLayer = new DataLayer(this.formulaDataProvider);
+        this.formulaDataProvider.configureCaching(dataLayer);
+
+        this.dataProvider.setDataValue(0, 0, "5");
+        this.dataProvider.setDataValue(1, 0, "=A1*2");
+        this.dataProvider.setDataValue(2, 0, "=B1+1");
+        this.dataProvider.setDataValue(3, 0, "=A1+B1");
+
+        assertEquals(new BigDecimal("10"), waitForValue(this.formulaDataProvider, 1, 0, new BigDecimal("10")));
+        assertEquals(new BigDecimal("11"), waitForValue(this.formulaDataProvider, 2, 0, new BigDecimal("11")));
+        assertEquals(new BigDecimal("15"), waitForValue(this.formulaDataProvider, 3, 0, new BigDecimal("15")));
+
+        // only count the events fired on updating the value, not the batched
+        // events of the background calculations
+        Thread updateThread = Thread.currentThread();
+        AtomicInteger refreshCount = new AtomicInteger();
+        dataLayer.addLayerListener(event -> {
+            if (event instanceof VisualRefreshEvent && Thread.currentThread() == updateThread) {
+                refreshCount.incrementAndGet();
+            }
+        });
+
+        this.formulaDataProvider.setDataValue(0, 0, "6");
+
+        // one refresh for all direct and indirect dependents
+        assertEquals(1, refreshCount.get());
+        assertEquals(new BigDecimal("12"), waitForValue(this.formulaDataProvider, 1, 0, new BigDecimal("12")));
+        assertEquals(new BigDecimal("13"), waitForValue(this.formulaDataProvider, 2, 0, new BigDecimal("13")));
+        assertEquals(new BigDecimal("18"), waitForValue(this.formulaDataProvider, 3, 0, new BigDecimal("18")));
+
+        // no refresh if no formula depends on the changed cell
+        this.formulaDataProvider.setDataValue(5, 5, "1");
+        assertEquals(1, refreshCount.get());
+    }
+
+    @Test
+    public void shouldNotAddReferencedValuesAsNodes() {
+        this.dataProvider.setDataValue(0, 0, "5");
+        this.dataProvider.setDataValue(1, 0, "=A1*2");
+        this.dataProvider.setDataValue(2, 0, "=B1+C2");
+
+        IndexCoordinate cell = new IndexCoordinate(2, 0);
+        Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences = new HashMap<>();
+        assertEquals(new BigDecimal("10"),
+                this.formulaDataProvider.getFormulaParser().parseFunction("=B1+C2", cell, parsedReferences).getValue());
+
+        // only the formula cells are nodes, the value cell A1 and the empty
+        // cell C2 are only referenced
+        assertEquals(2, parsedReferences.size());
+        assertEquals(new HashSet<>(Arrays.asList(new IndexCoordinate(1, 0), new IndexCoordinate(2, 1))), parsedReferences.get(cell));
+        assertEquals(Collections.singleton(new IndexCoordinate(0, 0)), parsedReferences.get(new IndexCoordinate(1, 0)));
+    }
+
+    private Object waitForValue(FormulaDataProvider provider, int column, int row, Object expected) throws InterruptedException {
+        Object value = provider.getDataValue(column, row);
+        long start = System.currentTimeMillis();
+        while (!expected.equals(value) && System.currentTimeMillis() - start < 5000) {
+            Thread.sleep(10);
+            value = provider.getDataValue(column, row);
+        }
+        return value;
+    }
 }
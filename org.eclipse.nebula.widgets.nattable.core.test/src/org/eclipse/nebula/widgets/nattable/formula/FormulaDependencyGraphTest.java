@@ -0,0 +1,100 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.formula;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.IndexCoordinate;
+import org.junit.Test;
+
+public class FormulaDependencyGraphTest {
+
+    FormulaDependencyGraph graph = new FormulaDependencyGraph();
+
+    IndexCoordinate a1 = new IndexCoordinate(0, 0);
+    IndexCoordinate b1 = new IndexCoordinate(1, 0);
+    IndexCoordinate c1 = new IndexCoordinate(2, 0);
+    IndexCoordinate d1 = new IndexCoordinate(3, 0);
+    IndexCoordinate e1 = new IndexCoordinate(4, 0);
+
+    @Test
+    public void shouldReturnDependentsInTopologicalOrder() {
+        // E1 = D1 + B1, D1 = C1 + B1, C1 = B1, B1 = A1
+        this.graph.setReferences(this.e1, references(this.d1, this.b1));
+        this.graph.setReferences(this.d1, references(this.c1, this.b1));
+        this.graph.setReferences(this.c1, references(this.b1));
+        this.graph.setReferences(this.b1, references(this.a1));
+
+        List<IndexCoordinate> dependents = this.graph.getDependents(this.a1);
+        assertEquals(Arrays.asList(this.b1, this.c1, this.d1, this.e1), dependents);
+
+        dependents = this.graph.getDependents(this.c1);
+        assertEquals(Arrays.asList(this.d1, this.e1), dependents);
+
+        assertTrue(this.graph.getDependents(this.e1).isEmpty());
+    }
+
+    @Test
+    public void shouldReplaceReferences() {
+        this.graph.setReferences(this.c1, references(this.a1));
+        assertEquals(Collections.singletonList(this.c1), this.graph.getDependents(this.a1));
+
+        this.graph.setReferences(this.c1, references(this.b1));
+        assertTrue(this.graph.getDependents(this.a1).isEmpty());
+        assertEquals(Collections.singletonList(this.c1), this.graph.getDependents(this.b1));
+
+        this.graph.removeReferences(this.c1);
+        assertTrue(this.graph.getDependents(this.b1).isEmpty());
+        assertEquals(0, this.graph.size());
+    }
+
+    @Test
+    public void shouldAddParsedReferences() {
+        this.graph.setReferences(this.c1, references(this.a1));
+        this.graph.setReferences(this.b1, references(this.d1));
+
+        // B1 was only partially evaluated as nested formula of C1
+        Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences = new HashMap<>();
+        parsedReferences.put(this.c1, references(this.b1));
+        parsedReferences.put(this.b1, references(this.e1));
+        this.graph.addParsedReferences(this.c1, parsedReferences);
+
+        assertEquals(references(this.b1), this.graph.getReferences(this.c1));
+        assertEquals(references(this.d1, this.e1), this.graph.getReferences(this.b1));
+        assertEquals(Arrays.asList(this.b1, this.c1), this.graph.getDependents(this.d1));
+    }
+
+    @Test
+    public void shouldReturnDependentsOfCycle() {
+        this.graph.setReferences(this.c1, references(this.b1));
+        this.graph.setReferences(this.b1, references(this.a1));
+        this.graph.setReferences(this.a1, references(this.c1));
+
+        // the dependents of a cycle are still returned
+        assertEquals(Arrays.asList(this.b1, this.c1), this.graph.getDependents(this.a1));
+    }
+
+    private Set<IndexCoordinate> references(IndexCoordinate... coordinates) {
+        return new HashSet<>(Arrays.asList(coordinates));
+    }
+}
@@ -16,14 +16,20 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.nebula.widgets.nattable.coordinate.IndexCoordinate;
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
@@ -870,4 +876,141 @@ public void shouldNoticeCycleReferenceWithRange() {
         this.parser.parseFunction("=C3");
     }
 
+    @Test
+    public void shouldNotNoticeCycleForMultipleReferencesToSameCell() {
+        this.dataProvider.setDataValue(1, 0, "=C1*2");
+        this.dataProvider.setDataValue(2, 0, "=D1+D1");
+        this.dataProvider.setDataValue(3, 0, "5");
+
+        // C1 is referenced directly and via B1 which is not a cycle
+        assertEquals(new BigDecimal("30"), this.parser.parseFunction("=C1+B1").getValue());
+    }
+
+    @Test
+    public void shouldCollectReferencesOfCell() {
+        this.dataProvider.setDataValue(0, 0, "5");
+        this.dataProvider.setDataValue(1, 0, "=A1*2");
+        this.dataProvider.setDataValue(2, 0, "=B1+D1");
+
+        IndexCoordinate c1 = new IndexCoordinate(2, 0);
+        Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences = new HashMap<>();
+        assertEquals(new BigDecimal("10"), this.parser.parseFunction("=B1+D1", c1, parsedReferences).getValue());
+
+        // the empty cell D1 is also collected
+        assertEquals(new HashSet<>(Arrays.asList(new IndexCoordinate(1, 0), new IndexCoordinate(3, 0))), parsedReferences.get(c1));
+        assertEquals(Collections.singleton(new IndexCoordinate(0, 0)), parsedReferences.get(new IndexCoordinate(1, 0)));
+    }
+
+    @Test
+    public void shouldEvaluateCompiledFormulaLikeParsedFormula() {
+        this.dataProvider.setDataValue(0, 0, "5");
+        this.dataProvider.setDataValue(1, 0, "3.5");
+        this.dataProvider.setDataValue(2, 0, "=A1*2");
+        this.dataProvider.setDataValue(0, 1, "-4");
+        this.dataProvider.setDataValue(1, 1, "=SUM(A1:C1)");
+
+        FormulaParser uncompiled = new FormulaParser(this.dataProvider);
+        this.parser.setFormulaCacheSize(FormulaParser.DEFAULT_FORMULA_CACHE_SIZE);
+
+        String[] formulas = new String[] {
+                "=A1+B1*C1",
+                "=(A1+B1)*(C1-2)",
+                "=SUM(A1:C1;B2)/2",
+                "=SUM(A1;AVERAGE(A1:C1);(2+3)*4)",
+                "=POWER(A1;2)^2-NEGATE(B1)",
+                "=MOD(C1;3)+QUOTIENT(C1;2)",
+                "=A2*B1",
+                "=(SUM(1;2)+3)*2",
+                "=-A1+-(B1*2)",
+                "=SQRT(16)+PRODUCT(A1;2)" };
+
+        for (String formula : formulas) {
+            // evaluate twice to use the cached compiled formula
+            assertEquals(formula, evaluate(uncompiled, formula), evaluate(this.parser, formula));
+            assertEquals(formula, evaluate(uncompiled, formula), evaluate(this.parser, formula));
+        }
+    }
+
+    private Object evaluate(FormulaParser formulaParser, String formula) {
+        try {
+            return formulaParser.parseFunction(formula).getValue();
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    @Test
+    public void shouldEvaluateCompiledFormulaWithChangedData() {
+        this.parser.setFormulaCacheSize(FormulaParser.DEFAULT_FORMULA_CACHE_SIZE);
+
+        this.dataProvider.setDataValue(0, 0, "5");
+        this.dataProvider.setDataValue(1, 0, "3");
+
+        assertEquals(new BigDecimal("8"), this.parser.parseFunction("=A1+B1").getValue());
+
+        this.dataProvider.setDataValue(0, 0, "10");
+        assertEquals(new BigDecimal("13"), this.parser.parseFunction("=A1+B1").getValue());
+
+        this.dataProvider.setDataValue(0, 0, "=B1*3");
+        assertEquals(new BigDecimal("12"), this.parser.parseFunction("=A1+B1").getValue());
+    }
+
+    @Test(expected = FunctionException.class)
+    public void shouldNoticeCycleReferenceInCompiledFormula() {
+        this.parser.setFormulaCacheSize(FormulaParser.DEFAULT_FORMULA_CACHE_SIZE);
+
+        this.dataProvider.setDataValue(0, 0, "5");
+        this.dataProvider.setDataValue(1, 0, "=A1+C1");
+
+        assertEquals(new BigDecimal("5"), this.parser.parseFunction("=B1").getValue());
+
+        // the same compiled formula now contains a cycle
+        this.dataProvider.setDataValue(2, 0, "=B1");
+        this.parser.parseFunction("=B1");
+    }
+
+    @Test
+    public void shouldReportErrorOnCompiledFormulaAgain() {
+        this.parser.setFormulaCacheSize(FormulaParser.DEFAULT_FORMULA_CACHE_SIZE);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                this.parser.parseFunction("=SUM(1;2");
+                fail("Exception expected");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Parameter list not closed", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void shouldUseNewlyRegisteredFunctionInCompiledFormula() {
+        this.parser.setFormulaCacheSize(FormulaParser.DEFAULT_FORMULA_CACHE_SIZE);
+
+        assertEquals(new BigDecimal("3"), this.parser.parseFunction("=SUM(1;2)").getValue());
+
+        this.parser.registerFunction("SUM", ProductFunction.class);
+        assertEquals(new BigDecimal("2"), this.parser.parseFunction("=SUM(1;2)").getValue());
+    }
+
+    @Test
+    public void shouldNotCompileIfProcessingIsOverridden() {
+        AtomicInteger calls = new AtomicInteger();
+        FormulaParser customParser = new FormulaParser(this.dataProvider) {
+            @Override
+            protected List<FunctionValue> processPower(List<FunctionValue> values) {
+                calls.incrementAndGet();
+                return super.processPower(values);
+            }
+        };
+        customParser.setFormulaCacheSize(FormulaParser.DEFAULT_FORMULA_CACHE_SIZE);
+
+        // evaluate twice to use a cached compiled formula if any
+        assertEquals(new BigDecimal("8"), customParser.parseFunction("=2^3").getValue());
+        int firstCalls = calls.get();
+        assertTrue(firstCalls > 0);
+        assertEquals(new BigDecimal("8"), customParser.parseFunction("=2^3").getValue());
+        assertEquals(2 * firstCalls, calls.get());
+    }
+
 }
@@ -22,6 +22,7 @@
 import java.util.Properties;
 
 import org.eclipse.nebula.widgets.nattable.group.performance.GroupModel.Group;
+import org.eclipse.nebula.widgets.nattable.group.performance.GroupModel.IndexPositionConverter;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -1200,4 +1201,162 @@ public void shouldLoadState() {
         assertFalse(group3.isUnbreakable());
         assertEquals(0, group3.getStaticIndexes().length);
     }
+
+    @Test
+    public void shouldUpdateLookupsOnModification() {
+        // trigger the creation of the lookup index
+        assertEquals(TEST_GROUP_NAME_2, this.model.getGroupByPosition(7).getName());
+        assertNull(this.model.getGroupByPosition(8));
+        assertNull(this.model.findGroupByMemberIndex(8));
+
+        Group group2 = this.model.getGroupByName(TEST_GROUP_NAME_2);
+        this.model.addPositionsToGroup(group2, 8);
+        assertEquals(group2, this.model.getGroupByPosition(8));
+        assertEquals(group2, this.model.findGroupByMemberIndex(8));
+
+        this.model.addStaticIndexesToGroup(group2, 6);
+        assertEquals(group2, this.model.getGroupByStaticIndex(6));
+        group2.removeStaticIndexes(6);
+        assertNull(this.model.getGroupByStaticIndex(6));
+
+        group2.setVisibleSpan(1);
+        assertEquals(group2, this.model.getGroupByPosition(5));
+        assertNull(this.model.getGroupByPosition(6));
+
+        this.model.removeGroup(group2);
+        assertNull(this.model.getGroupByPosition(5));
+        assertNull(this.model.findGroupByMemberIndex(5));
+
+        this.model.addGroup("new", 20, 5);
+        assertEquals("new", this.model.getGroupByPosition(24).getName());
+        assertEquals("new", this.model.findGroupByMemberIndex(20).getName());
+
+        this.model.clear();
+        assertNull(this.model.getGroupByPosition(24));
+        assertNull(this.model.findGroupByMemberIndex(20));
+    }
+
+    @Test
+    public void shouldLookupInHugeGroupModel() {
+        GroupModel hugeModel = new GroupModel();
+        // add the groups in reverse order to verify that the lookup does not
+        // depend on the insertion order
+        for (int i = 19_999; i >= 0; i--) {
+            hugeModel.addGroup("Group " + i, i * 3, 2);
+            hugeModel.addStaticIndexesToGroup(hugeModel.getGroupByPosition(i * 3), i * 3 + 1);
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            String name = "Group " + i;
+            assertEquals(name, hugeModel.getGroupByPosition(i * 3).getName());
+            assertEquals(name, hugeModel.getGroupByPosition(i * 3 + 1).getName());
+            assertNull(hugeModel.getGroupByPosition(i * 3 + 2));
+            assertEquals(name, hugeModel.findGroupByMemberIndex(i * 3 + 1).getName());
+            assertEquals(name, hugeModel.getGroupByStaticIndex(i * 3 + 1).getName());
+            assertNull(hugeModel.getGroupByStaticIndex(i * 3));
+        }
+        assertNull(hugeModel.getGroupByPosition(-1));
+        assertNull(hugeModel.getGroupByPosition(60_000));
+    }
+
+    @Test
+    public void shouldReturnFirstGroupForOverlappingGroups() {
+        this.model.addGroup("overlap", 2, 5);
+
+        assertEquals(TEST_GROUP_NAME_1, this.model.getGroupByPosition(3).getName());
+        assertEquals("overlap", this.model.getGroupByPosition(4).getName());
+        assertEquals(TEST_GROUP_NAME_2, this.model.getGroupByPosition(6).getName());
+        assertEquals(TEST_GROUP_NAME_1, this.model.findGroupByMemberIndex(2).getName());
+        assertEquals("overlap", this.model.findGroupByMemberIndex(4).getName());
+    }
+
+    @Test
+    public void shouldLookupWithMultipleHiddenGroups() {
+        this.model.addGroup("hidden1", 100, 2);
+        this.model.addGroup("hidden2", 110, 2);
+
+        // hide all indexes starting at 100
+        this.model.setIndexPositionConverter(new IndexPositionConverter() {
+
+            @Override
+            public int convertPositionToIndex(int position) {
+                return position < 100 ? position : -1;
+            }
+
+            @Override
+            public int convertIndexToPosition(int index) {
+                return index < 100 ? index : -1;
+            }
+        });
+
+        Group hidden1 = this.model.getGroupByName("hidden1");
+        Group hidden2 = this.model.getGroupByName("hidden2");
+        assertEquals(-1, hidden1.getVisibleStartPosition());
+        assertEquals(0, hidden1.getVisibleSpan());
+        assertEquals(-1, hidden2.getVisibleStartPosition());
+        assertEquals(0, hidden2.getVisibleSpan());
+
+        assertEquals(TEST_GROUP_NAME_1, this.model.getGroupByPosition(3).getName());
+        assertNull(this.model.getGroupByPosition(4));
+        assertEquals(TEST_GROUP_NAME_2, this.model.getGroupByPosition(5).getName());
+        assertEquals(TEST_GROUP_NAME_3, this.model.getGroupByPosition(13).getName());
+        assertEquals(hidden1, this.model.getGroupByPosition(-1));
+        assertEquals(hidden2, this.model.findGroupByMemberIndex(111));
+
+        this.model.removeGroup(hidden1);
+        assertEquals(hidden2, this.model.getGroupByPosition(-1));
+        assertNull(this.model.findGroupByMemberIndex(100));
+    }
+
+    @Test
+    public void shouldUpdateLookupsOnVisibleRangeChanges() {
+        GroupModel hugeModel = new GroupModel();
+        for (int i = 0; i < 20_000; i++) {
+            hugeModel.addGroup("Group " + i, i * 3, 3);
+            hugeModel.getGroupByName("Group " + i).setVisibleSpan(2);
+        }
+
+        // alternate lookups and span changes like the group header layers do
+        // on structural changes
+        for (int i = 0; i < 20_000; i++) {
+            Group group = hugeModel.getGroupByPosition(i * 3);
+            assertEquals("Group " + i, group.getName());
+            assertNull(hugeModel.getGroupByPosition(i * 3 + 2));
+            group.setVisibleSpan(3);
+            assertEquals(group, hugeModel.getGroupByPosition(i * 3 + 2));
+        }
+
+        // a range that collides with its neighbour is still found
+        Group first = hugeModel.getGroupByPosition(0);
+        first.setOriginalSpan(4);
+        first.setVisibleSpan(4);
+        assertEquals(first, hugeModel.getGroupByPosition(3));
+        first.setVisibleSpan(3);
+        assertEquals("Group 1", hugeModel.getGroupByPosition(3).getName());
+    }
+
+    @Test
+    public void shouldUpdateSharedMemberLookups() {
+        this.model.addGroup("overlap", 2, 5);
+        Group group1 = this.model.getGroupByName(TEST_GROUP_NAME_1);
+        Group overlap = this.model.getGroupByName("overlap");
+
+        this.model.addStaticIndexesToGroup(group1, 3);
+        overlap.addStaticIndexes(3);
+        assertEquals(group1, this.model.findGroupByMemberIndex(3));
+        assertEquals(group1, this.model.getGroupByStaticIndex(3));
+
+        group1.removeMembers(3);
+        group1.removeStaticIndexes(3);
+        assertEquals(overlap, this.model.findGroupByMemberIndex(3));
+        assertEquals(overlap, this.model.getGroupByStaticIndex(3));
+        assertEquals(group1, this.model.findGroupByMemberIndex(2));
+
+        this.model.removeGroup(group1);
+        assertEquals(overlap, this.model.findGroupByMemberIndex(2));
+        assertNull(this.model.findGroupByMemberIndex(1));
+
+        group1.addMembers(1);
+        assertNull(this.model.findGroupByMemberIndex(1));
+    }
 }
@@ -19,6 +19,7 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 
 import org.eclipse.nebula.widgets.nattable.hideshow.indicator.HideIndicatorConstants;
 import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
@@ -409,4 +410,35 @@ public void shouldReturnHiddenRowIndexes() {
 
         assertFalse(this.rowHideShowLayer.hasHiddenRows());
     }
+
+    @Test
+    public void shouldUpdateMappingIncrementallyOnHideShow() {
+        DataLayerFixture dataLayer = new DataLayerFixture(2, 1000, 100, 20);
+        // only updated incrementally, the cache is never rebuilt
+        RowHideShowLayer incremental = new RowHideShowLayer(dataLayer);
+        Random random = new Random(42);
+
+        for (int run = 0; run < 50; run++) {
+            int rowIndex = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                incremental.hideRowIndexes(rowIndex, (rowIndex + 7) % 1000);
+            } else {
+                incremental.showRowIndexes(rowIndex);
+            }
+
+            // compare with a completely rebuilt cache
+            RowHideShowLayer rebuilt = new RowHideShowLayer(dataLayer);
+            rebuilt.hideRowIndexes(incremental.getHiddenRowIndexesArray());
+            rebuilt.invalidateCache();
+
+            assertEquals(rebuilt.getRowCount(), incremental.getRowCount());
+            for (int i = 0; i < 1000; i++) {
+                int position = rebuilt.getRowPositionByIndex(i);
+                assertEquals(position, incremental.getRowPositionByIndex(i));
+                if (position >= 0) {
+                    assertEquals(i, incremental.getRowIndexByPosition(position));
+                }
+            }
+        }
+    }
 }
@@ -143,6 +143,70 @@ public void testReset() {
         assertTrue(sc.isPositionResizable(2));
     }
 
+    @Test
+    public void getPositionByPixel() {
+        assertEquals(-1, this.sizeConfig.getPositionByPixel(-1));
+        assertEquals(0, this.sizeConfig.getPositionByPixel(0));
+        assertEquals(0, this.sizeConfig.getPositionByPixel(99));
+        assertEquals(1, this.sizeConfig.getPositionByPixel(100));
+        assertEquals(10, this.sizeConfig.getPositionByPixel(1050));
+    }
+
+    @Test
+    public void getPositionByPixelWithSizeOverrides() {
+        this.sizeConfig.setSize(0, 10);
+        this.sizeConfig.setSize(5, 120);
+        this.sizeConfig.setDefaultSize(7, 0);
+
+        assertEquals(0, this.sizeConfig.getPositionByPixel(9));
+        assertEquals(1, this.sizeConfig.getPositionByPixel(10));
+        assertEquals(4, this.sizeConfig.getPositionByPixel(409));
+        assertEquals(5, this.sizeConfig.getPositionByPixel(410));
+        assertEquals(5, this.sizeConfig.getPositionByPixel(529));
+        assertEquals(6, this.sizeConfig.getPositionByPixel(530));
+        // position 7 has a size of 0 and therefore contains no pixel
+        assertEquals(8, this.sizeConfig.getPositionByPixel(630));
+        assertEquals(630, this.sizeConfig.getAggregateSize(7));
+        assertEquals(630, this.sizeConfig.getAggregateSize(8));
+        assertEquals(1030, this.sizeConfig.getAggregateSize(12));
+    }
+
+    @Test
+    public void getPositionByPixelIsInverseOfAggregateSize() {
+        for (int i = 0; i < 1000; i += 7) {
+            this.sizeConfig.setSize(i, i % 3 == 0 ? 0 : 20 + (i % 50));
+        }
+        for (int position = 0; position < 1000; position++) {
+            int start = this.sizeConfig.getAggregateSize(position);
+            int size = this.sizeConfig.getSize(position);
+            assertEquals(start + size, this.sizeConfig.getAggregateSize(position + 1));
+            if (size > 0) {
+                assertEquals(position, this.sizeConfig.getPositionByPixel(start));
+                assertEquals(position, this.sizeConfig.getPositionByPixel(start + size - 1));
+            }
+        }
+    }
+
+    @Test
+    public void updateAggregateSizeOnResize() {
+        this.sizeConfig.setSize(5, 120);
+        assertEquals(1020, this.sizeConfig.getAggregateSize(10));
+
+        // resize an already customized position
+        this.sizeConfig.setSize(5, 50);
+        assertEquals(950, this.sizeConfig.getAggregateSize(10));
+        assertEquals(5, this.sizeConfig.getPositionByPixel(549));
+        assertEquals(6, this.sizeConfig.getPositionByPixel(550));
+
+        // resize a position that was not customized before
+        this.sizeConfig.setSize(2, 10);
+        assertEquals(860, this.sizeConfig.getAggregateSize(10));
+        assertEquals(3, this.sizeConfig.getPositionByPixel(210));
+
+        this.sizeConfig.resetConfiguredSize(5);
+        assertEquals(910, this.sizeConfig.getAggregateSize(10));
+    }
+
     @Test
     public void testAggregateSizeWithScaling() {
         SizeConfig sc = new SizeConfig(100);
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer.event;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.factory.primitive.IntSets;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.junit.Test;
+
+public class StructuralChangeEventHelperTest {
+
+    private ILayer underlyingLayer = new DataLayerFixture(200, 200, 100, 20);
+
+    private static StructuralDiff delete(int start, int end) {
+        return new StructuralDiff(DiffTypeEnum.DELETE, new Range(start, end), new Range(start, start));
+    }
+
+    private static StructuralDiff insert(int start, int end) {
+        return new StructuralDiff(DiffTypeEnum.ADD, new Range(start, start), new Range(start, end));
+    }
+
+    @Test
+    public void shouldDeleteMultipleRangesFromSet() {
+        MutableIntSet hidden = IntSets.mutable.of(1, 5, 8, 12, 20);
+
+        StructuralChangeEventHelper.handleRowDelete(
+                Arrays.asList(delete(10, 11), delete(3, 6)),
+                this.underlyingLayer,
+                hidden,
+                false);
+
+        assertEquals(IntSets.mutable.of(1, 5, 8, 16), hidden);
+    }
+
+    @Test
+    public void shouldDeleteFromListKeepingOrder() {
+        MutableIntList order = IntLists.mutable.of(4, 0, 3, 1, 2, 5);
+
+        StructuralChangeEventHelper.handleColumnDelete(
+                Arrays.asList(delete(1, 3)),
+                this.underlyingLayer,
+                order,
+                true);
+
+        assertEquals(IntLists.mutable.of(2, 0, 1, 3), order);
+    }
+
+    @Test
+    public void shouldInsertMultipleRowsIntoSet() {
+        MutableIntSet hidden = IntSets.mutable.of(1, 5, 8);
+
+        StructuralChangeEventHelper.handleRowInsert(
+                Arrays.asList(insert(9, 10), insert(3, 5)),
+                this.underlyingLayer,
+                hidden,
+                false);
+
+        assertEquals(IntSets.mutable.of(1, 7, 11), hidden);
+    }
+
+    @Test
+    public void shouldInsertMultipleColumnsIntoList() {
+        MutableIntList order = IntLists.mutable.of(2, 0, 1, 3);
+
+        StructuralChangeEventHelper.handleColumnInsert(
+                Arrays.asList(insert(1, 3)),
+                this.underlyingLayer,
+                order,
+                true);
+
+        assertEquals(IntLists.mutable.of(4, 1, 2, 0, 3, 5), order);
+    }
+
+    @Test
+    public void shouldMatchCollectionVariantsForRandomDiffs() {
+        Random random = new Random(42);
+        for (int run = 0; run < 50; run++) {
+            int size = 100;
+            List<Integer> shuffled = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                shuffled.add(i);
+            }
+            Collections.shuffle(shuffled, random);
+            List<Integer> expected = new ArrayList<>(shuffled.subList(0, 30));
+            MutableIntList actual = IntLists.mutable.empty();
+            expected.forEach(actual::add);
+
+            // non overlapping delete ranges
+            Collection<StructuralDiff> deletes = new ArrayList<>();
+            int start = random.nextInt(10);
+            while (start < size) {
+                int end = Math.min(start + 1 + random.nextInt(5), size);
+                deletes.add(delete(start, end));
+                start = end + 1 + random.nextInt(10);
+            }
+
+            List<Integer> reference = new ArrayList<>();
+            for (Integer index : expected) {
+                int deletedBefore = 0;
+                boolean deleted = false;
+                for (StructuralDiff diff : deletes) {
+                    Range range = diff.getBeforePositionRange();
+                    deleted |= range.contains(index);
+                    deletedBefore += index >= range.end ? range.size() : 0;
+                }
+                if (!deleted) {
+                    reference.add(index - deletedBefore);
+                }
+            }
+
+            StructuralChangeEventHelper.handleRowDelete(deletes, this.underlyingLayer, expected, true);
+            StructuralChangeEventHelper.handleRowDelete(deletes, this.underlyingLayer, actual, true);
+            assertEquals(reference, expected);
+            assertEquals(expected, toList(actual));
+
+            // non overlapping multi row inserts in random order
+            List<StructuralDiff> inserts = new ArrayList<>();
+            int position = random.nextInt(5);
+            while (position < size) {
+                int end = position + 1 + random.nextInt(4);
+                inserts.add(insert(position, end));
+                position = end + 1 + random.nextInt(5);
+            }
+            Collections.shuffle(inserts, random);
+
+            // the insert ranges are positions after the insert
+            List<Range> sorted = new ArrayList<>();
+            inserts.forEach(diff -> sorted.add(diff.getAfterPositionRange()));
+            sorted.sort((r1, r2) -> Integer.compare(r1.start, r2.start));
+            reference.clear();
+            for (Integer index : expected) {
+                int modIndex = index;
+                for (Range range : sorted) {
+                    if (range.start <= modIndex) {
+                        modIndex += range.size();
+                    }
+                }
+                reference.add(modIndex);
+            }
+
+            StructuralChangeEventHelper.handleRowInsert(inserts, this.underlyingLayer, expected, false);
+            StructuralChangeEventHelper.handleRowInsert(inserts, this.underlyingLayer, actual, false);
+            assertEquals(reference, expected);
+            assertEquals(expected, toList(actual));
+
+            // the inserted indexes are added to a cache of all indexes
+            List<Integer> all = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                all.add(i);
+            }
+            MutableIntList allActual = IntLists.mutable.empty();
+            all.forEach(allActual::add);
+
+            StructuralChangeEventHelper.handleColumnInsert(inserts, this.underlyingLayer, all, true);
+            StructuralChangeEventHelper.handleColumnInsert(inserts, this.underlyingLayer, allActual, true);
+            int insertedCount = sorted.stream().mapToInt(Range::size).sum();
+            assertEquals(size + insertedCount, all.size());
+            for (int i = 0; i < all.size(); i++) {
+                assertEquals(Integer.valueOf(i), all.get(i));
+            }
+            assertEquals(all, toList(allActual));
+        }
+    }
+
+    private static List<Integer> toList(MutableIntList values) {
+        List<Integer> result = new ArrayList<>(values.size());
+        values.forEach(result::add);
+        return result;
+    }
+}
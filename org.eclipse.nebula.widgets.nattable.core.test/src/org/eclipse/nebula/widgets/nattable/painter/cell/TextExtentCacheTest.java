@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.cell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+import org.eclipse.nebula.widgets.nattable.painter.cell.TextExtentCache.FontTextMetrics;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextExtentCacheTest {
+
+    private TextExtentCache cache;
+    private AtomicInteger extentCalls;
+
+    // every character has a width of 7, except 'W' which is wider
+    private final IntUnaryOperator advance = c -> c == 'W' ? 11 : 7;
+
+    @Before
+    public void setup() {
+        this.cache = new TextExtentCache(3);
+        this.extentCalls = new AtomicInteger();
+    }
+
+    private ToIntFunction<String> extent(int kerning) {
+        return extent("AV", kerning);
+    }
+
+    private ToIntFunction<String> extent(String kernedPair, int kerning) {
+        return text -> {
+            this.extentCalls.incrementAndGet();
+            int width = 0;
+            for (int i = 0; i < text.length(); i++) {
+                width += this.advance.applyAsInt(text.charAt(i));
+            }
+            // reduce the width for every kerned pair
+            return width - kerning * (text.split(kernedPair, -1).length - 1);
+        };
+    }
+
+    @Test
+    public void shouldNotUseFastPathByDefault() {
+        FontTextMetrics metrics = new FontTextMetrics();
+
+        assertFalse(this.cache.isFastPathEnabled());
+        assertEquals(35, this.cache.getTextWidth(metrics, "Hello", extent(0), this.advance));
+
+        // no calibration, only the text was measured
+        assertEquals(1, this.extentCalls.get());
+        assertEquals(0, this.cache.getFastPathCount());
+        assertEquals(1, this.cache.getMissCount());
+    }
+
+    @Test
+    public void shouldUseFastPathForAsciiText() {
+        this.cache.setFastPathEnabled(true);
+        FontTextMetrics metrics = new FontTextMetrics();
+
+        assertEquals(35, this.cache.getTextWidth(metrics, "Hello", extent(0), this.advance));
+        assertEquals(39, this.cache.getTextWidth(metrics, "World", extent(0), this.advance));
+
+        // the calibration text and the verified samples were measured
+        assertEquals(3, this.extentCalls.get());
+        assertEquals(2, this.cache.getFastPathCount());
+        assertEquals(0, this.cache.getMissCount());
+
+        // after the samples only every n-th text is verified
+        for (int i = 2; i < TextExtentCache.VERIFICATION_SAMPLES + TextExtentCache.VERIFICATION_INTERVAL; i++) {
+            this.cache.getTextWidth(metrics, "Text" + i, extent(0), this.advance);
+        }
+        assertEquals(2 + TextExtentCache.VERIFICATION_SAMPLES, this.extentCalls.get());
+    }
+
+    @Test
+    public void shouldDisableFastPathOnMismatch() {
+        this.cache.setFastPathEnabled(true);
+        FontTextMetrics metrics = new FontTextMetrics();
+        // the kerned pair is not part of the calibration text
+        ToIntFunction<String> extent = extent("Wo", 3);
+
+        assertEquals(35, this.cache.getTextWidth(metrics, "Hello", extent, this.advance));
+        assertEquals(1, this.cache.getFastPathCount());
+
+        // the mismatch returns the measured width
+        assertEquals(36, this.cache.getTextWidth(metrics, "World", extent, this.advance));
+        assertEquals(Boolean.FALSE, metrics.fastPath);
+
+        // the fast path is not used anymore for the font
+        assertEquals(35, this.cache.getTextWidth(metrics, "Hallo", extent, this.advance));
+        assertEquals(36, this.cache.getTextWidth(metrics, "World", extent, this.advance));
+        assertEquals(1, this.cache.getFastPathCount());
+        assertEquals(1, this.cache.getHitCount());
+    }
+
+    @Test
+    public void shouldCacheNonAsciiText() {
+        this.cache.setFastPathEnabled(true);
+        FontTextMetrics metrics = new FontTextMetrics();
+
+        assertEquals(35, this.cache.getTextWidth(metrics, "Größe", extent(0), this.advance));
+        assertEquals(35, this.cache.getTextWidth(metrics, "Größe", extent(0), this.advance));
+
+        // calibration and one measurement
+        assertEquals(2, this.extentCalls.get());
+        assertEquals(1, this.cache.getMissCount());
+        assertEquals(1, this.cache.getHitCount());
+    }
+
+    @Test
+    public void shouldNotUseFastPathForKernedFont() {
+        this.cache.setFastPathEnabled(true);
+        FontTextMetrics metrics = new FontTextMetrics();
+
+        assertEquals(12, this.cache.getTextWidth(metrics, "AV", extent(2), this.advance));
+        assertEquals(12, this.cache.getTextWidth(metrics, "AV", extent(2), this.advance));
+
+        assertEquals(0, this.cache.getFastPathCount());
+        assertEquals(1, this.cache.getMissCount());
+        assertEquals(1, this.cache.getHitCount());
+    }
+
+    @Test
+    public void shouldSeparateFonts() {
+        FontTextMetrics metrics1 = new FontTextMetrics();
+        FontTextMetrics metrics2 = new FontTextMetrics();
+
+        assertEquals(12, this.cache.getTextWidth(metrics1, "AV", extent(2), this.advance));
+        assertEquals(13, this.cache.getTextWidth(metrics2, "AV", extent(1), this.advance));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        FontTextMetrics metrics = new FontTextMetrics();
+        ToIntFunction<String> extent = extent(2);
+
+        this.cache.getTextWidth(metrics, "AV1", extent, this.advance);
+        this.cache.getTextWidth(metrics, "AV2", extent, this.advance);
+        this.cache.getTextWidth(metrics, "AV3", extent, this.advance);
+        // access the first entry so the second is the eldest
+        this.cache.getTextWidth(metrics, "AV1", extent, this.advance);
+        this.cache.getTextWidth(metrics, "AV4", extent, this.advance);
+
+        assertEquals(1, this.cache.getEvictionCount());
+        assertEquals(3, metrics.widths.size());
+        assertTrue(metrics.widths.containsKey("AV1"));
+        assertFalse(metrics.widths.containsKey("AV2"));
+
+        this.cache.resetStatistics();
+        assertEquals(0, this.cache.getHitCount());
+        assertEquals(0, this.cache.getMissCount());
+        assertEquals(0, this.cache.getEvictionCount());
+    }
+
+    @Test
+    public void shouldRejectInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> this.cache.setMaxEntriesPerFont(0));
+    }
+}
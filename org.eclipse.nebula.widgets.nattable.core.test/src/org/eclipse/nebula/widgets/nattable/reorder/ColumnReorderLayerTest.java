@@ -13,12 +13,14 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.reorder;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.eclipse.nebula.widgets.nattable.grid.cell.AlternatingRowConfigLabelAccumulator;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
@@ -327,4 +329,36 @@ private void registerCellStyleAccumulators(DataLayer bodyDataLayer, ColumnOverri
         bodyDataLayer.setConfigLabelAccumulator(aggregrateConfigLabelAccumulator);
     }
 
+    @Test
+    public void shouldMoveMultipleColumnsLikeSingleMoves() {
+        ColumnReorderLayer reorderLayer = new ColumnReorderLayer(new DataLayerFixture(100, 2, 100, 20));
+        ColumnReorderLayer expectedLayer = new ColumnReorderLayer(new DataLayerFixture(100, 2, 100, 20));
+        Random random = new Random(42);
+
+        for (int run = 0; run < 100; run++) {
+            int[] fromColumnPositions = random.ints(1 + random.nextInt(10), 0, 100).distinct().sorted().toArray();
+            int toColumnPosition = random.nextInt(100);
+            boolean reorderToLeftEdge = random.nextBoolean();
+
+            reorderLayer.reorderMultipleColumnPositions(fromColumnPositions.clone(), toColumnPosition, reorderToLeftEdge);
+
+            // move the columns one after the other
+            int last = fromColumnPositions[fromColumnPositions.length - 1];
+            if (toColumnPosition > last) {
+                for (int i = 0; i < fromColumnPositions.length; i++) {
+                    expectedLayer.reorderColumnPosition(fromColumnPositions[i] - i, toColumnPosition, reorderToLeftEdge);
+                }
+            } else if (toColumnPosition < last) {
+                int target = toColumnPosition;
+                for (int from : fromColumnPositions) {
+                    expectedLayer.reorderColumnPosition(from, target++, reorderToLeftEdge);
+                }
+            }
+
+            assertArrayEquals(expectedLayer.getColumnIndexOrderArray(), reorderLayer.getColumnIndexOrderArray());
+            for (int position = 0; position < reorderLayer.getColumnCount(); position++) {
+                assertEquals(position, reorderLayer.getColumnPositionByIndex(reorderLayer.getColumnIndexByPosition(position)));
+            }
+        }
+    }
 }
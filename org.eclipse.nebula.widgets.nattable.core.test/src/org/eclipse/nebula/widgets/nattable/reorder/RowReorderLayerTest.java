@@ -12,12 +12,14 @@
  *******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.reorder;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.reorder.command.ResetRowReorderCommand;
@@ -297,4 +299,36 @@ public void shouldResetReorderingViaCommand() {
         assertEquals(0, this.rowReorderLayer.getRowIndexByPosition(0));
     }
 
+    @Test
+    public void shouldMoveMultipleRowsLikeSingleMoves() {
+        RowReorderLayer reorderLayer = new RowReorderLayer(new DataLayerFixture(2, 100, 100, 20));
+        RowReorderLayer expectedLayer = new RowReorderLayer(new DataLayerFixture(2, 100, 100, 20));
+        Random random = new Random(42);
+
+        for (int run = 0; run < 100; run++) {
+            int[] fromRowPositions = random.ints(1 + random.nextInt(10), 0, 100).distinct().sorted().toArray();
+            int toRowPosition = random.nextInt(100);
+            boolean reorderToTopEdge = random.nextBoolean();
+
+            reorderLayer.reorderMultipleRowPositions(fromRowPositions.clone(), toRowPosition, reorderToTopEdge);
+
+            // move the rows one after the other
+            int last = fromRowPositions[fromRowPositions.length - 1];
+            if (toRowPosition > last) {
+                for (int i = 0; i < fromRowPositions.length; i++) {
+                    expectedLayer.reorderRowPosition(fromRowPositions[i] - i, toRowPosition, reorderToTopEdge);
+                }
+            } else if (toRowPosition < last) {
+                int target = toRowPosition;
+                for (int from : fromRowPositions) {
+                    expectedLayer.reorderRowPosition(from, target++, reorderToTopEdge);
+                }
+            }
+
+            assertArrayEquals(expectedLayer.getRowIndexOrderArray(), reorderLayer.getRowIndexOrderArray());
+            for (int position = 0; position < reorderLayer.getRowCount(); position++) {
+                assertEquals(position, reorderLayer.getRowPositionByIndex(reorderLayer.getRowIndexByPosition(position)));
+            }
+        }
+    }
 }
@@ -19,6 +19,7 @@
 import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.config.DefaultNatTableStyleConfiguration;
 import org.eclipse.nebula.widgets.nattable.dataset.fixture.data.RowDataListFixture;
+import org.eclipse.nebula.widgets.nattable.grid.command.AutoResizeColumnCommandHandler;
 import org.eclipse.nebula.widgets.nattable.grid.command.ClientAreaResizeCommand;
 import org.eclipse.nebula.widgets.nattable.grid.layer.DefaultGridLayer;
 import org.eclipse.nebula.widgets.nattable.grid.layer.GridLayer;
@@ -132,6 +133,37 @@ public void autoResizeOneColumn() throws Exception {
         }
     }
 
+    @Test
+    public void shouldAutoResizeAsynchronouslyWithSamplingStrategy() throws Exception {
+        GridLayer gridLayer = new DummyGridLayerStack();
+        setClientAreaProvider(gridLayer);
+
+        gridLayer.doCommand(new ColumnResizeCommand(gridLayer, 2, 10));
+        assertEquals(10, gridLayer.getColumnWidthByPosition(2));
+
+        AutoResizeSamplingStrategy sampling = new AutoResizeSamplingStrategy();
+        // a cancel of a previous run does not affect the next run
+        sampling.cancel();
+        AutoResizeColumnCommandHandler handler = new AutoResizeColumnCommandHandler(gridLayer);
+        handler.setSamplingStrategy(sampling);
+        gridLayer.registerCommandHandler(handler);
+
+        gridLayer.doCommand(new InitializeAutoResizeColumnsCommand(
+                gridLayer, 2, this.configRegistry, this.gcFactory));
+
+        // the width is applied later in the UI thread
+        assertEquals(10, gridLayer.getColumnWidthByPosition(2));
+
+        Display display = Display.getDefault();
+        long start = System.currentTimeMillis();
+        while (gridLayer.getColumnWidthByPosition(2) == 10 && System.currentTimeMillis() - start < 10000) {
+            if (!display.readAndDispatch()) {
+                Thread.sleep(5);
+            }
+        }
+        assertTrue(gridLayer.getColumnWidthByPosition(2) > 10);
+    }
+
     /**
      * Scenario: Multiple columns are selected but a non selected column is auto
      * resized.
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.resize;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AutoResizeSamplingStrategyTest {
+
+    private final ToIntFunction<Object> lengthEstimator = value -> value.toString().length();
+
+    private AutoResizeSamplingStrategy sampling;
+
+    @Before
+    public void setup() {
+        this.sampling = new AutoResizeSamplingStrategy();
+        this.sampling.setFirstRows(2);
+        this.sampling.setLastRows(2);
+        this.sampling.setPercentileRows(5);
+        this.sampling.setLongestRows(3);
+    }
+
+    @Test
+    public void shouldReturnAllRowsForSmallLayer() {
+        DataLayer layer = new DataLayer(new TextDataProvider(12));
+
+        assertArrayEquals(
+                new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11 },
+                this.sampling.getRowPositions(layer, 0, this.lengthEstimator));
+    }
+
+    @Test
+    public void shouldSampleRows() {
+        TextDataProvider dataProvider = new TextDataProvider(101);
+        dataProvider.values[33] = "the longest text";
+        dataProvider.values[57] = "a longer text";
+        dataProvider.values[58] = "a long text";
+        dataProvider.values[80] = "long text";
+        DataLayer layer = new DataLayer(dataProvider);
+
+        assertArrayEquals(
+                new int[] { 0, 1, 25, 33, 50, 57, 58, 75, 99, 100 },
+                this.sampling.getRowPositions(layer, 0, this.lengthEstimator));
+    }
+
+    @Test
+    public void shouldFindLongestRowsInParallel() {
+        TextDataProvider dataProvider = new TextDataProvider(1_000_000);
+        int[] longest = { 3, 123_457, 555_555, 999_997 };
+        for (int i = 0; i < longest.length; i++) {
+            dataProvider.values[longest[i]] = "longest text " + i;
+        }
+        DataLayer layer = new DataLayer(dataProvider);
+
+        this.sampling.setFirstRows(0);
+        this.sampling.setLastRows(0);
+        this.sampling.setPercentileRows(0);
+        this.sampling.setLongestRows(4);
+        this.sampling.setChunkSize(1000);
+
+        assertArrayEquals(longest, this.sampling.getRowPositions(layer, 0, this.lengthEstimator));
+    }
+
+    @Test
+    public void shouldSampleRowsAsync() throws Exception {
+        TextDataProvider dataProvider = new TextDataProvider(101);
+        dataProvider.values[33] = "the longest text";
+        dataProvider.values[57] = "a longer text";
+        dataProvider.values[58] = "a long text";
+        dataProvider.values[80] = "long text";
+        DataLayer layer = new DataLayer(dataProvider);
+
+        int[][] rowPositions = this.sampling.getRowPositionsAsync(layer, new int[] { 0 }, this.lengthEstimator).get(10, TimeUnit.SECONDS);
+        assertEquals(1, rowPositions.length);
+        assertArrayEquals(
+                new int[] { 0, 1, 25, 33, 50, 57, 58, 75, 99, 100 },
+                rowPositions[0]);
+    }
+
+    @Test
+    public void shouldOnlyAccessLayerInCallingThread() throws Exception {
+        Set<Thread> accessingThreads = ConcurrentHashMap.newKeySet();
+        DataLayer layer = new DataLayer(new TextDataProvider(100_000)) {
+            @Override
+            public Object getDataValueByPosition(int columnPosition, int rowPosition) {
+                accessingThreads.add(Thread.currentThread());
+                return super.getDataValueByPosition(columnPosition, rowPosition);
+            }
+        };
+        this.sampling.setChunkSize(1000);
+
+        assertNotNull(this.sampling.getRowPositions(layer, 0, this.lengthEstimator));
+        assertNotNull(this.sampling.getRowPositionsAsync(layer, new int[] { 0 }, this.lengthEstimator).get(10, TimeUnit.SECONDS));
+
+        assertEquals(Collections.singleton(Thread.currentThread()), accessingThreads);
+    }
+
+    @Test
+    public void shouldReturnNullIfCancelled() throws Exception {
+        DataLayer layer = new DataLayer(new TextDataProvider(1000));
+
+        this.sampling.cancel();
+        assertTrue(this.sampling.isCancelled());
+        assertNull(this.sampling.getRowPositions(layer, 0, this.lengthEstimator));
+        assertNull(this.sampling.getRowPositionsAsync(layer, new int[] { 0 }, this.lengthEstimator).get(10, TimeUnit.SECONDS));
+
+        this.sampling.reset();
+        assertNotNull(this.sampling.getRowPositions(layer, 0, this.lengthEstimator));
+    }
+
+    @Test
+    public void shouldEstimateWidth() {
+        int[] advances = new int[128];
+        Arrays.fill(advances, 7);
+        advances['W'] = 11;
+
+        assertEquals(0, AutoResizeSamplingStrategy.estimateWidth("", advances, 9));
+        assertEquals(18, AutoResizeSamplingStrategy.estimateWidth("Wa", advances, 9));
+        // non ASCII characters use the average width
+        assertEquals(39, AutoResizeSamplingStrategy.estimateWidth("Größe", advances, 9));
+    }
+
+    @Test
+    public void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> this.sampling.setFirstRows(-1));
+        assertThrows(IllegalArgumentException.class, () -> this.sampling.setLastRows(-1));
+        assertThrows(IllegalArgumentException.class, () -> this.sampling.setLongestRows(-1));
+        assertThrows(IllegalArgumentException.class, () -> this.sampling.setPercentileRows(-1));
+        assertThrows(IllegalArgumentException.class, () -> this.sampling.setChunkSize(0));
+    }
+
+    /**
+     * Single column data provider with short texts.
+     */
+    private static class TextDataProvider implements IDataProvider {
+
+        private final String[] values;
+
+        TextDataProvider(int rowCount) {
+            this.values = new String[rowCount];
+            Arrays.fill(this.values, "x");
+        }
+
+        @Override
+        public Object getDataValue(int columnIndex, int rowIndex) {
+            return this.values[rowIndex];
+        }
+
+        @Override
+        public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+            this.values[rowIndex] = (String) newValue;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 1;
+        }
+
+        @Override
+        public int getRowCount() {
+            return this.values.length;
+        }
+    }
+}
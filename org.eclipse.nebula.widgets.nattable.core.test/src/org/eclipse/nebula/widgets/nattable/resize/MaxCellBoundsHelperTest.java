@@ -13,6 +13,7 @@
 package org.eclipse.nebula.widgets.nattable.resize;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
@@ -95,6 +96,34 @@ public void shouldHandleColumnPositionOutsideScope() {
         assertEquals(-1, maxColumnWidths[2]);
     }
 
+    @Test
+    public void shouldCalculatePreferredColumnWidthsWithSampling() {
+        DataLayerFixture dataLayer = new DataLayerFixture(1, 1000, 10, 10);
+        IDataProvider dataProvider = dataLayer.getDataProvider();
+        for (int row = 0; row < dataLayer.getRowCount(); row++) {
+            dataProvider.setDataValue(0, row, "Cat");
+        }
+        // not in the first, last or percentile rows
+        dataProvider.setDataValue(0, 503, "Longest Text");
+
+        AutoResizeSamplingStrategy sampling = new AutoResizeSamplingStrategy();
+        sampling.setFirstRows(10);
+        sampling.setLastRows(10);
+        sampling.setPercentileRows(3);
+        sampling.setLongestRows(1);
+
+        AutoResizeColumnCommandFixture command = new AutoResizeColumnCommandFixture();
+        GCFactory gcFactory = command.getGCFactory();
+        IConfigRegistry registry = command.getConfigRegistry();
+
+        int[] sampledWidths = MaxCellBoundsHelper.getPreferredColumnWidths(registry, gcFactory, dataLayer, new int[] { 0 }, sampling);
+        int[] allWidths = MaxCellBoundsHelper.getPreferredColumnWidths(registry, gcFactory, dataLayer, new int[] { 0 });
+        assertEquals(allWidths[0], sampledWidths[0]);
+
+        sampling.cancel();
+        assertNull(MaxCellBoundsHelper.getPreferredColumnWidths(registry, gcFactory, dataLayer, new int[] { 0 }, sampling));
+    }
+
     @Test
     public void shouldCalculatePreferredRowHeights() {
         DataLayerFixture dataLayer = new DataLayerFixture(3, 2, 10, 10);
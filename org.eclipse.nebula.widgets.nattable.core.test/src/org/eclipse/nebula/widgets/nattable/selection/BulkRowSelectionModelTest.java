@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.dataset.fixture.data.RowDataFixture;
+import org.eclipse.nebula.widgets.nattable.dataset.fixture.data.RowDataListFixture;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BulkRowSelectionModelTest {
+
+    private List<RowDataFixture> list;
+    private DataLayer dataLayer;
+    private SelectionLayer selectionLayer;
+    private BulkRowSelectionModel<RowDataFixture> model;
+
+    @Before
+    public void setup() {
+        this.list = RowDataListFixture.getList(10);
+        ListDataProvider<RowDataFixture> dataProvider = new ListDataProvider<>(
+                this.list,
+                new ReflectiveColumnPropertyAccessor<RowDataFixture>(RowDataListFixture.getPropertyNames()));
+        this.dataLayer = new DataLayer(dataProvider);
+        this.selectionLayer = new SelectionLayer(this.dataLayer);
+        this.model = new BulkRowSelectionModel<>(this.selectionLayer, dataProvider, RowDataFixture::getSecurity_id);
+        this.selectionLayer.setSelectionModel(this.model);
+    }
+
+    @Test
+    public void shouldSelectAllWithoutResolvingRows() {
+        this.selectionLayer.selectAll();
+
+        assertTrue(this.model.isAllSelected());
+        assertFalse(this.model.isEmpty());
+        assertEquals(10, this.model.getSelectedRowCount());
+        assertEquals(new HashSet<>(Arrays.asList(new Range(0, 10))), this.model.getSelectedRowPositions());
+        assertEquals(1, this.model.getSelections().size());
+        assertEquals(new Rectangle(0, 0, this.selectionLayer.getColumnCount(), 10), this.model.getSelections().get(0));
+        assertEquals(10, this.model.getSelectedRowObjects().size());
+        assertTrue(this.model.isRowPositionSelected(9));
+        assertTrue(this.model.isCellPositionSelected(3, 4));
+        assertTrue(this.model.isColumnPositionFullySelected(0, 10));
+    }
+
+    @Test
+    public void shouldDeselectRowsInAllSelectedMode() {
+        this.model.selectAll();
+        this.model.clearSelection(0, 3);
+        this.model.clearSelection(this.list.get(4));
+
+        assertTrue(this.model.isAllSelected());
+        assertEquals(8, this.model.getSelectedRowCount());
+        assertFalse(this.model.isRowPositionSelected(3));
+        assertFalse(this.model.isRowPositionSelected(4));
+        assertTrue(this.model.isRowPositionSelected(5));
+        assertEquals(new HashSet<>(Arrays.asList(new Range(0, 3), new Range(5, 10))), this.model.getSelectedRowPositions());
+        assertArrayEquals(new int[] { 0, 1, 2, 5, 6, 7, 8, 9 }, this.model.getFullySelectedRowPositions(1));
+        assertFalse(this.model.getSelectedRowObjects().contains(this.list.get(3)));
+
+        // select again
+        this.model.addSelection(0, 3);
+        assertEquals(9, this.model.getSelectedRowCount());
+        assertTrue(this.model.isRowPositionSelected(3));
+    }
+
+    @Test
+    public void shouldInvertSelection() {
+        this.model.addSelection(new Rectangle(0, 2, 1, 2));
+        this.model.invertSelection();
+
+        assertTrue(this.model.isAllSelected());
+        assertEquals(8, this.model.getSelectedRowCount());
+        assertFalse(this.model.isRowPositionSelected(2));
+        assertFalse(this.model.isRowPositionSelected(3));
+        assertTrue(this.model.isRowPositionSelected(0));
+
+        this.model.invertSelection();
+
+        assertFalse(this.model.isAllSelected());
+        assertEquals(2, this.model.getSelectedRowCount());
+        assertTrue(this.model.isRowPositionSelected(2));
+        assertTrue(this.model.isRowPositionSelected(3));
+        assertFalse(this.model.isRowPositionSelected(0));
+    }
+
+    @Test
+    public void shouldMergeSelectedRowsToRanges() {
+        this.model.addSelection(new Rectangle(0, 1, 1, 3));
+        this.model.addSelection(0, 5);
+
+        assertFalse(this.model.isAllSelected());
+        assertEquals(4, this.model.getSelectedRowCount());
+        assertEquals(new HashSet<>(Arrays.asList(new Range(1, 4), new Range(5, 6))), this.model.getSelectedRowPositions());
+        assertEquals(2, this.model.getSelections().size());
+    }
+
+    @Test
+    public void shouldClearSelection() {
+        this.model.selectAll();
+        this.model.clearSelection(new Rectangle(0, 0, 1, 10));
+
+        assertFalse(this.model.isAllSelected());
+        assertTrue(this.model.isEmpty());
+        assertEquals(0, this.model.getSelectedRowCount());
+        assertTrue(this.model.getSelectedRowPositions().isEmpty());
+    }
+
+    @Test
+    public void shouldRemoveDeletedDeselectedRows() {
+        this.model.selectAll();
+        this.model.clearSelection(0, 3);
+        assertEquals(9, this.model.getSelectedRowCount());
+
+        this.list.remove(3);
+        this.model.handleLayerEvent(new RowDeleteEvent(this.dataLayer, 3));
+
+        // all remaining rows are selected
+        assertEquals(9, this.model.getSelectedRowCount());
+        assertEquals(new HashSet<>(Arrays.asList(new Range(0, 9))), this.model.getSelectedRowPositions());
+    }
+
+    @Test
+    public void shouldOnlySelectSingleRowIfMultipleSelectionIsNotAllowed() {
+        this.model.setMultipleSelectionAllowed(false);
+        this.model.addSelection(new Rectangle(0, 0, 1, 10));
+
+        assertFalse(this.model.isAllSelected());
+        assertEquals(1, this.model.getSelectedRowCount());
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.Test;
+
+/**
+ * Runs the {@link SelectionModelTest} against the
+ * {@link IndexedSelectionModel} and compares both models on random
+ * selections.
+ */
+public class IndexedSelectionModelTest extends SelectionModelTest {
+
+    @Override
+    protected SelectionModel createSelectionModel(SelectionLayer selectionLayer) {
+        return new IndexedSelectionModel(selectionLayer);
+    }
+
+    @Test
+    public void shouldBehaveLikeSelectionModel() {
+        SelectionLayer selectionLayer = new SelectionLayer(new DataLayerFixture(50, 50, 100, 40));
+        SelectionModel expected = new SelectionModel(selectionLayer);
+        IndexedSelectionModel indexed = new IndexedSelectionModel(selectionLayer);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            Rectangle rectangle = new Rectangle(
+                    random.nextInt(50),
+                    random.nextInt(50),
+                    1 + random.nextInt(10),
+                    1 + random.nextInt(10));
+            if (random.nextInt(4) == 0) {
+                expected.clearSelection(rectangle);
+                indexed.clearSelection(new Rectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height));
+            } else {
+                expected.addSelection(rectangle);
+                indexed.addSelection(new Rectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height));
+            }
+
+            if (i % 20 == 0) {
+                assertSameState(expected, indexed);
+            }
+        }
+        assertSameState(expected, indexed);
+
+        expected.clearSelection();
+        indexed.clearSelection();
+        assertSameState(expected, indexed);
+    }
+
+    @Test
+    public void shouldDetectFullySelectedRowOfOverlappingRectangles() {
+        SelectionLayer selectionLayer = new SelectionLayer(new DataLayerFixture(50, 50, 100, 40));
+        IndexedSelectionModel indexed = new IndexedSelectionModel(selectionLayer);
+        indexed.addSelection(new Rectangle(17, 0, 8, 1));
+        indexed.addSelection(new Rectangle(21, 0, 1, 1));
+        indexed.addSelection(new Rectangle(23, 0, 9, 1));
+
+        // the union of the rectangles is contiguous
+        assertTrue(indexed.isRowPositionFullySelected(0, 15));
+        assertFalse(indexed.isRowPositionFullySelected(0, 16));
+
+        indexed.clearSelection(new Rectangle(25, 0, 1, 1));
+        assertFalse(indexed.isRowPositionFullySelected(0, 5));
+    }
+
+    private void assertSameState(SelectionModel expected, IndexedSelectionModel indexed) {
+        assertArrayEquals(expected.getSelectedColumnPositions(), indexed.getSelectedColumnPositions());
+        assertEquals(expected.getSelectedRowPositions(), indexed.getSelectedRowPositions());
+        assertEquals(expected.getSelectedRowCount(), indexed.getSelectedRowCount());
+
+        for (int column = 0; column < 55; column++) {
+            assertEquals(expected.isColumnPositionSelected(column), indexed.isColumnPositionSelected(column));
+            for (int row = 0; row < 55; row++) {
+                assertEquals("cell " + column + "/" + row,
+                        expected.isCellPositionSelected(column, row),
+                        indexed.isCellPositionSelected(column, row));
+            }
+        }
+        for (int row = 0; row < 55; row++) {
+            assertEquals(expected.isRowPositionSelected(row), indexed.isRowPositionSelected(row));
+        }
+    }
+}
@@ -36,7 +36,11 @@ public class SelectionModelTest {
     public void before() {
         SelectionLayer selectionLayer = new SelectionLayer(
                 new DataLayerFixture(100, 100, 100, 40));
-        this.model = new SelectionModel(selectionLayer);
+        this.model = createSelectionModel(selectionLayer);
+    }
+
+    protected SelectionModel createSelectionModel(SelectionLayer selectionLayer) {
+        return new SelectionModel(selectionLayer);
     }
 
     @Test
@@ -168,4 +168,25 @@ public void getColumns() {
         assertTrue(Arrays.equals(expectedColumns, actualColumns));
     }
 
+    @Test
+    public void Update_Columns_For_Removal_And_Addition() {
+        this.testee.select(this.rowA, this.rowObjectA, 0);
+        this.testee.select(this.rowA, this.rowObjectA, 4);
+        this.testee.select(this.rowB, this.rowObjectB, 7);
+
+        // columns 1, 2 and 5 removed
+        this.testee.updateColumnsForRemoval(new int[] { 1, 2, 5 });
+        assertTrue(Arrays.equals(new int[] { 0, 2, 4 }, this.testee.getColumnPositions()));
+        assertTrue(this.testee.isSelected(this.rowA, 2));
+        assertTrue(this.testee.isSelected(this.rowB, 4));
+
+        // columns added at positions 1 and 4 after the addition
+        this.testee.updateColumnsForAddition(new int[] { 1, 4 });
+        assertTrue(Arrays.equals(new int[] { 0, 3, 6 }, this.testee.getColumnPositions()));
+        assertTrue(this.testee.isSelected(this.rowA, 0));
+        assertTrue(this.testee.isSelected(this.rowA, 3));
+        assertTrue(this.testee.isSelected(this.rowB, 6));
+        assertFalse(this.testee.isSelected(this.rowA, 2));
+    }
+
 }
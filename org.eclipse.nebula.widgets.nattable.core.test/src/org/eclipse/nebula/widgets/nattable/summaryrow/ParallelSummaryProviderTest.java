@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.nebula.widgets.nattable.data.ColumnarDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ColumnarDataProvider.ColumnType;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.edit.event.DataUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ResizeStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.resize.event.ColumnResizeEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelSummaryProviderTest {
+
+    private List<Object[]> rows;
+    private CountingDataProvider dataProvider;
+    private DataLayer dataLayer;
+
+    @Before
+    public void setup() {
+        this.rows = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            // numbers, numbers with gaps, strings
+            this.rows.add(new Object[] { i, (i % 10 == 0) ? null : Double.valueOf(i), "value" + (i % 7) });
+        }
+        this.dataProvider = new CountingDataProvider();
+        this.dataLayer = new DataLayer(this.dataProvider);
+    }
+
+    @Test
+    public void shouldCalculateSummariesInParallel() {
+        ParallelSummationSummaryProvider sum = new ParallelSummationSummaryProvider(this.dataProvider, true);
+        ParallelMinimumSummaryProvider min = new ParallelMinimumSummaryProvider(this.dataProvider, true);
+        ParallelMaximumSummaryProvider max = new ParallelMaximumSummaryProvider(this.dataProvider, true);
+        ParallelAverageSummaryProvider avg = new ParallelAverageSummaryProvider(this.dataProvider, true);
+        ParallelCountSummaryProvider count = new ParallelCountSummaryProvider(this.dataProvider);
+        ParallelDistinctCountSummaryProvider distinct = new ParallelDistinctCountSummaryProvider(this.dataProvider);
+
+        for (AbstractParallelSummaryProvider provider : new AbstractParallelSummaryProvider[] { sum, min, max, avg, count, distinct }) {
+            // split in multiple chunks
+            provider.setChunkSize(7);
+        }
+
+        assertEquals(5050d, sum.summarize(0));
+        assertEquals(new SummationSummaryProvider(this.dataProvider).summarize(0), sum.summarize(0));
+        assertEquals(1d, min.summarize(0));
+        assertEquals(100d, max.summarize(0));
+        assertEquals(50.5d, avg.summarize(0));
+        assertEquals(100L, count.summarize(0));
+        assertEquals(100, distinct.summarize(0));
+
+        // column with null values
+        assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE, sum.summarize(1));
+        assertEquals(90L, count.summarize(1));
+        assertEquals(90, distinct.summarize(1));
+
+        // column with strings
+        assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE, sum.summarize(2));
+        assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE, min.summarize(2));
+        assertEquals(0L, count.summarize(2));
+        assertEquals(7, distinct.summarize(2));
+    }
+
+    @Test
+    public void shouldIgnoreNonNumbersIfNotStrict() {
+        ParallelSummationSummaryProvider sum = new ParallelSummationSummaryProvider(this.dataProvider, false);
+        ParallelAverageSummaryProvider avg = new ParallelAverageSummaryProvider(this.dataProvider, false);
+
+        assertEquals(new SummationSummaryProvider(this.dataProvider, false).summarize(1), sum.summarize(1));
+        assertEquals(4500d / 90, avg.summarize(1));
+        assertEquals(0d, sum.summarize(2));
+        assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE, avg.summarize(2));
+    }
+
+    @Test
+    public void shouldUpdateIncrementally() {
+        ParallelSummationSummaryProvider sum = new ParallelSummationSummaryProvider(this.dataProvider, true);
+        sum.enableIncrementalUpdates(this.dataLayer);
+
+        assertEquals(5050d, sum.summarize(0));
+        assertEquals(100, this.dataProvider.accessCount.get());
+
+        // update a value
+        Object oldValue = this.rows.get(4)[0];
+        this.rows.get(4)[0] = 105;
+        this.dataLayer.fireLayerEvent(new DataUpdateEvent(this.dataLayer, 0, 4, oldValue, 105));
+        assertEquals(5150d, sum.summarize(0));
+
+        // insert a row
+        this.rows.add(2, new Object[] { 50, 50d, "value" });
+        this.dataLayer.fireLayerEvent(new RowInsertEvent(this.dataLayer, 2));
+        assertEquals(5200d, sum.summarize(0));
+
+        // only the inserted value was read
+        assertEquals(101, this.dataProvider.accessCount.get());
+
+        // a delete requires a new calculation
+        this.rows.remove(2);
+        this.dataLayer.fireLayerEvent(new RowDeleteEvent(this.dataLayer, 2));
+        assertEquals(5150d, sum.summarize(0));
+        assertEquals(201, this.dataProvider.accessCount.get());
+
+        // a visual change without values requires a new calculation
+        this.rows.get(0)[0] = 2;
+        this.dataLayer.fireLayerEvent(new CellVisualChangeEvent(this.dataLayer, 0, 0));
+        assertEquals(5151d, sum.summarize(0));
+        assertEquals(301, this.dataProvider.accessCount.get());
+
+        sum.disableIncrementalUpdates(this.dataLayer);
+        assertEquals(5151d, sum.summarize(0));
+        assertEquals(401, this.dataProvider.accessCount.get());
+    }
+
+    @Test
+    public void shouldRecalculateOnStructuralRefresh() {
+        // the list changes are fired by a layer on top of the DataLayer
+        AbstractLayerTransform eventLayer = new AbstractLayerTransform(this.dataLayer) {};
+
+        ParallelSummationSummaryProvider sum = new ParallelSummationSummaryProvider(this.dataProvider, true);
+        sum.enableIncrementalUpdates(eventLayer);
+
+        assertEquals(5050d, sum.summarize(0));
+        assertEquals(100, this.dataProvider.accessCount.get());
+
+        // resizing keeps the aggregates
+        this.dataLayer.fireLayerEvent(new ColumnResizeEvent(this.dataLayer, 0));
+        eventLayer.fireLayerEvent(new ResizeStructuralRefreshEvent(eventLayer));
+        assertEquals(5050d, sum.summarize(0));
+        assertEquals(100, this.dataProvider.accessCount.get());
+
+        // e.g. filtering the list
+        this.rows.remove(99);
+        eventLayer.fireLayerEvent(new RowStructuralRefreshEvent(eventLayer));
+        assertEquals(4950d, sum.summarize(0));
+        assertEquals(199, this.dataProvider.accessCount.get());
+
+        this.rows.remove(98);
+        this.dataLayer.fireLayerEvent(new StructuralRefreshEvent(this.dataLayer));
+        assertEquals(4851d, sum.summarize(0));
+        assertEquals(297, this.dataProvider.accessCount.get());
+    }
+
+    @Test
+    public void shouldRecalculateBoundsOnRemovedBound() {
+        ParallelMaximumSummaryProvider max = new ParallelMaximumSummaryProvider(this.dataProvider, true);
+        ParallelDistinctCountSummaryProvider distinct = new ParallelDistinctCountSummaryProvider(this.dataProvider);
+        max.enableIncrementalUpdates(this.dataLayer);
+        distinct.enableIncrementalUpdates(this.dataLayer);
+
+        assertEquals(100d, max.summarize(0));
+        assertEquals(7, distinct.summarize(2));
+
+        // increase the max
+        this.rows.get(0)[0] = 200;
+        this.dataLayer.fireLayerEvent(new DataUpdateEvent(this.dataLayer, 0, 0, 1, 200));
+        this.rows.get(0)[2] = "other";
+        this.dataLayer.fireLayerEvent(new DataUpdateEvent(this.dataLayer, 2, 0, "value1", "other"));
+        int accessCount = this.dataProvider.accessCount.get();
+        assertEquals(200d, max.summarize(0));
+        assertEquals(8, distinct.summarize(2));
+        assertEquals(accessCount, this.dataProvider.accessCount.get());
+
+        // remove the max
+        this.rows.get(0)[0] = 1;
+        this.dataLayer.fireLayerEvent(new DataUpdateEvent(this.dataLayer, 0, 0, 200, 1));
+        assertEquals(100d, max.summarize(0));
+        assertEquals(accessCount + 100, this.dataProvider.accessCount.get());
+    }
+
+    @Test
+    public void shouldNotKeepStaleAggregateOnUpdateDuringCalculation() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        CountingDataProvider blockingProvider = new CountingDataProvider() {
+            @Override
+            public Object getDataValue(int columnIndex, int rowIndex) {
+                if (columnIndex == 0 && rowIndex == 99 && reading.getCount() > 0) {
+                    // block the calculation after the updated row was read
+                    reading.countDown();
+                    try {
+                        updated.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getDataValue(columnIndex, rowIndex);
+            }
+        };
+        DataLayer blockingLayer = new DataLayer(blockingProvider);
+
+        ParallelSummationSummaryProvider sum = new ParallelSummationSummaryProvider(blockingProvider, false);
+        sum.enableIncrementalUpdates(blockingLayer);
+
+        // keep an aggregate for another column
+        assertEquals(4500d, sum.summarize(1));
+
+        CompletableFuture<Object> calculation = CompletableFuture.supplyAsync(() -> sum.summarize(0));
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        // update a value while the calculation is running
+        Object oldValue = this.rows.get(4)[0];
+        this.rows.get(4)[0] = 105;
+        blockingLayer.fireLayerEvent(new DataUpdateEvent(blockingLayer, 0, 4, oldValue, 105));
+        updated.countDown();
+
+        // the running calculation has read the old value
+        assertEquals(5050d, calculation.get(5, TimeUnit.SECONDS));
+
+        // the stale aggregate is not kept
+        assertEquals(5150d, sum.summarize(0));
+    }
+
+    @Test
+    public void shouldAggregatePrimitiveValues() {
+        ColumnarDataProvider columnarProvider = new ColumnarDataProvider(100, ColumnType.DOUBLE, ColumnType.LONG, ColumnType.STRING);
+        for (int row = 0; row < 100; row++) {
+            columnarProvider.setLong(0, row, row + 1);
+            if ((row + 1) % 10 != 0) {
+                columnarProvider.setDouble(1, row, row + 1);
+            }
+            columnarProvider.setDataValue(2, row, "value" + ((row + 1) % 7));
+        }
+
+        ParallelSummationSummaryProvider sum = new ParallelSummationSummaryProvider(columnarProvider, false);
+        ParallelMinimumSummaryProvider min = new ParallelMinimumSummaryProvider(columnarProvider, true);
+        ParallelCountSummaryProvider count = new ParallelCountSummaryProvider(columnarProvider);
+        ParallelDistinctCountSummaryProvider distinct = new ParallelDistinctCountSummaryProvider(columnarProvider);
+        sum.setChunkSize(7);
+
+        assertEquals(5050d, sum.summarize(0));
+        assertEquals(4500d, sum.summarize(1));
+        assertEquals(4500d, new SummationSummaryProvider(columnarProvider, false).summarize(1));
+        assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE, new SummationSummaryProvider(columnarProvider).summarize(1));
+        assertEquals(1d, min.summarize(0));
+        assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE, min.summarize(1));
+        assertEquals(90L, count.summarize(1));
+        assertEquals(0L, count.summarize(2));
+        assertEquals(7, distinct.summarize(2));
+    }
+
+    private class CountingDataProvider implements IDataProvider {
+
+        final AtomicInteger accessCount = new AtomicInteger();
+
+        @Override
+        public Object getDataValue(int columnIndex, int rowIndex) {
+            this.accessCount.incrementAndGet();
+            return ParallelSummaryProviderTest.this.rows.get(rowIndex)[columnIndex];
+        }
+
+        @Override
+        public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+            ParallelSummaryProviderTest.this.rows.get(rowIndex)[columnIndex] = newValue;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 3;
+        }
+
+        @Override
+        public int getRowCount() {
+            return ParallelSummaryProviderTest.this.rows.size();
+        }
+    }
+}
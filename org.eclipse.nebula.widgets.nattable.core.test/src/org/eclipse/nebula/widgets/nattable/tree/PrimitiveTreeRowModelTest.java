@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.junit.Test;
+
+public class PrimitiveTreeRowModelTest {
+
+    // 0
+    // - 1
+    // - - 2
+    // - - 3
+    // - 4
+    // 5
+    // - 6
+    // - - 7
+    // - - - 8
+    // 9
+    private static final int[] DEPTHS = { 0, 1, 2, 2, 1, 0, 1, 2, 3, 0 };
+
+    @Test
+    public void shouldCalculateSubtreeRanges() {
+        PrimitiveTreeRowModel<Integer> model = new PrimitiveTreeRowModel<>(new DepthTreeData(DEPTHS));
+
+        assertEquals(5, model.getSubtreeEnd(0));
+        assertEquals(4, model.getSubtreeEnd(1));
+        assertEquals(3, model.getSubtreeEnd(2));
+        assertEquals(9, model.getSubtreeEnd(5));
+        assertEquals(10, model.getSubtreeEnd(9));
+
+        assertEquals(Arrays.asList(1, 2, 3, 4), model.getChildIndexes(0));
+        assertEquals(Arrays.asList(1, 4), model.getDirectChildIndexes(0));
+        assertEquals(Arrays.asList(6), model.getDirectChildIndexes(5));
+        assertTrue(model.getChildIndexes(9).isEmpty());
+    }
+
+    @Test
+    public void shouldOnlyReturnRowsThatChangeVisibility() {
+        PrimitiveTreeRowModel<Integer> model = new PrimitiveTreeRowModel<>(new DepthTreeData(DEPTHS));
+
+        assertEquals(Arrays.asList(2, 3), model.collapse(1));
+        assertTrue(model.isCollapsed(1));
+
+        // 2 and 3 are already hidden
+        assertEquals(Arrays.asList(1, 4), model.collapse(0));
+        // collapsing again does not change the visibility
+        assertTrue(model.collapse(0).isEmpty());
+
+        // 1 is still collapsed
+        assertEquals(Arrays.asList(1, 4), model.expand(0));
+        assertEquals(Arrays.asList(2, 3), model.expand(1));
+        assertTrue(model.expand(1).isEmpty());
+        assertFalse(model.isCollapsed(1));
+    }
+
+    @Test
+    public void shouldCollapseAndExpandAll() {
+        PrimitiveTreeRowModel<Integer> model = new PrimitiveTreeRowModel<>(new DepthTreeData(DEPTHS));
+        model.collapse(6);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 6), model.collapseAll());
+        assertTrue(model.isCollapsed(0));
+        assertTrue(model.isCollapsed(1));
+        assertTrue(model.isCollapsed(7));
+        assertFalse(model.isCollapsed(9));
+
+        assertEquals(Arrays.asList(1, 4, 6), model.expandToLevel(1));
+        assertEquals(Arrays.asList(2, 3, 7), model.expandToLevel(2));
+        assertEquals(Arrays.asList(8), model.expandAll());
+        assertTrue(model.expandAll().isEmpty());
+
+        model.collapseAll();
+        assertEquals(Arrays.asList(6, 7), model.expandToLevel(5, 2));
+        assertTrue(model.isCollapsed(0));
+        assertTrue(model.isCollapsed(7));
+    }
+
+    @Test
+    public void shouldKeepVisibilityConsistentOnRandomOperations() {
+        Random random = new Random(42);
+        int[] depths = createRandomDepths(random, 500);
+        DepthTreeData treeData = new DepthTreeData(depths);
+        PrimitiveTreeRowModel<Integer> model = new PrimitiveTreeRowModel<>(treeData);
+
+        // the hidden rows tracked the same way as the TreeLayer does
+        TreeSet<Integer> hidden = new TreeSet<>();
+        for (int op = 0; op < 2000; op++) {
+            int index = random.nextInt(depths.length);
+            switch (random.nextInt(7)) {
+                case 0:
+                    hidden.addAll(model.collapseAll());
+                    break;
+                case 1:
+                    model.expandAll();
+                    hidden.clear();
+                    break;
+                case 2:
+                    hidden.removeAll(model.expandToLevel(random.nextInt(4)));
+                    break;
+                case 3:
+                    if (!isHidden(model, depths, index)) {
+                        hidden.removeAll(model.expandToLevel(index, random.nextInt(5)));
+                    }
+                    break;
+                default:
+                    if (!isHidden(model, depths, index) && model.hasChildren(index)) {
+                        if (model.isCollapsed(index)) {
+                            hidden.removeAll(model.expand(index));
+                        } else {
+                            hidden.addAll(model.collapse(index));
+                        }
+                    }
+            }
+
+            for (int i = 0; i < depths.length; i++) {
+                assertEquals("row " + i + " after operation " + op, isHidden(model, depths, i), hidden.contains(i));
+            }
+        }
+    }
+
+    @Test
+    public void shouldHandleHugeTree() {
+        int[] depths = createRandomDepths(new Random(1), 1_000_000);
+        PrimitiveTreeRowModel<Integer> model = new PrimitiveTreeRowModel<>(new DepthTreeData(depths));
+
+        List<Integer> hidden = model.collapseAll();
+        List<Integer> shown = model.expandAll();
+        assertEquals(hidden, shown);
+
+        int roots = 0;
+        for (int depth : depths) {
+            if (depth == 0) {
+                roots++;
+            }
+        }
+        assertEquals(depths.length - roots, shown.size());
+    }
+
+    @Test
+    public void shouldResetSubtreeRangesOnStructuralChange() {
+        int[] depths = DEPTHS.clone();
+        PrimitiveTreeRowModel<Integer> model = new PrimitiveTreeRowModel<>(new DepthTreeData(depths));
+        DataLayer dataLayer = new DataLayer(new DummyBodyDataProvider(1, depths.length));
+        new TreeLayer(dataLayer, model, null, false);
+
+        assertEquals(5, model.getSubtreeEnd(0));
+        assertEquals(4, model.getSubtreeEnd(1));
+
+        // change the structure without changing the number of elements
+        depths[4] = 2;
+        depths[5] = 1;
+        dataLayer.fireLayerEvent(new RowStructuralRefreshEvent(dataLayer));
+
+        assertEquals(9, model.getSubtreeEnd(0));
+        assertEquals(5, model.getSubtreeEnd(1));
+    }
+
+    /**
+     * Oracle that checks if a row is hidden because of a collapsed ancestor.
+     */
+    private static boolean isHidden(PrimitiveTreeRowModel<Integer> model, int[] depths, int index) {
+        int depth = depths[index];
+        for (int i = index - 1; i >= 0 && depth > 0; i--) {
+            if (depths[i] < depth) {
+                if (model.isCollapsed(i)) {
+                    return true;
+                }
+                depth = depths[i];
+            }
+        }
+        return false;
+    }
+
+    private static int[] createRandomDepths(Random random, int count) {
+        int[] depths = new int[count];
+        for (int i = 1; i < count; i++) {
+            depths[i] = random.nextInt(depths[i - 1] + 2);
+        }
+        return depths;
+    }
+
+    /**
+     * {@link ITreeData} whose elements are the indexes in pre-order, with the
+     * depth of every element given by an array.
+     */
+    private static class DepthTreeData implements ITreeData<Integer> {
+
+        private final int[] depths;
+
+        DepthTreeData(int[] depths) {
+            this.depths = depths;
+        }
+
+        @Override
+        public int getDepthOfData(Integer object) {
+            return getDepthOfData(object.intValue());
+        }
+
+        @Override
+        public int getDepthOfData(int index) {
+            return this.depths[index];
+        }
+
+        @Override
+        public Integer getDataAtIndex(int index) {
+            return isValidIndex(index) ? index : null;
+        }
+
+        @Override
+        public int indexOf(Integer child) {
+            return isValidIndex(child) ? child : -1;
+        }
+
+        @Override
+        public boolean hasChildren(Integer object) {
+            return hasChildren(object.intValue());
+        }
+
+        @Override
+        public boolean hasChildren(int index) {
+            return index + 1 < this.depths.length && this.depths[index + 1] > this.depths[index];
+        }
+
+        @Override
+        public List<Integer> getChildren(Integer object) {
+            return getChildren(object, false);
+        }
+
+        @Override
+        public List<Integer> getChildren(Integer object, boolean fullDepth) {
+            int index = object.intValue();
+            List<Integer> children = new ArrayList<>();
+            for (int i = index + 1; i < this.depths.length && this.depths[i] > this.depths[index]; i++) {
+                if (fullDepth || this.depths[i] == this.depths[index] + 1) {
+                    children.add(i);
+                }
+            }
+            return children.isEmpty() ? Collections.emptyList() : children;
+        }
+
+        @Override
+        public List<Integer> getChildren(int index) {
+            return getChildren(Integer.valueOf(index));
+        }
+
+        @Override
+        public int getElementCount() {
+            return this.depths.length;
+        }
+
+        @Override
+        public boolean isValidIndex(int index) {
+            return index >= 0 && index < this.depths.length;
+        }
+    }
+}
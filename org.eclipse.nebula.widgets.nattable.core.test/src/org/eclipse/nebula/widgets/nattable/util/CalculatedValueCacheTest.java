@@ -14,9 +14,17 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
 import org.junit.After;
 import org.junit.Test;
 
@@ -193,6 +201,93 @@ public void testIllegalState() {
         this.valueCache.getCalculatedValue(0, 0, false, this.calculator);
     }
 
+    @Test
+    public void testCalculateInBackgroundOnlyOncePerKey() throws Exception {
+        this.valueCache = new CalculatedValueCache(new DataLayer(
+                new DummyBodyDataProvider(10, 10)), true, true);
+
+        AtomicInteger counter = new AtomicInteger();
+        ICalculator countingCalculator = () -> {
+            counter.incrementAndGet();
+            return this.calculator.executeCalculation();
+        };
+
+        // simulate several paint operations while the calculation is running
+        for (int i = 0; i < 10; i++) {
+            assertNull(this.valueCache.getCalculatedValue(0, 0, true, countingCalculator));
+        }
+        this.valueCache.getCalculatedValue(1, 0, true, countingCalculator);
+
+        Thread.sleep(250);
+
+        assertEquals(2, counter.get());
+        assertEquals(Integer.valueOf(42), this.valueCache.getCalculatedValue(0, 0, true, countingCalculator));
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testClearCacheDiscardsRunningCalculation() throws Exception {
+        this.valueCache = new CalculatedValueCache(new DataLayer(
+                new DummyBodyDataProvider(10, 10)), true, true);
+
+        AtomicInteger counter = new AtomicInteger();
+        ICalculator countingCalculator = () -> {
+            this.calculator.executeCalculation();
+            return Integer.valueOf(counter.incrementAndGet());
+        };
+
+        assertNull(this.valueCache.getCalculatedValue(0, 0, true, countingCalculator));
+        Thread.sleep(50);
+
+        // the running calculation is superseded, so a new one is started
+        this.valueCache.clearCache();
+        assertNull(this.valueCache.getCalculatedValue(0, 0, true, countingCalculator));
+
+        Thread.sleep(450);
+
+        // the result of the first calculation is discarded
+        assertEquals(Integer.valueOf(2), this.valueCache.getCalculatedValue(0, 0, true, countingCalculator));
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testBatchedUpdateEvents() throws Exception {
+        DataLayer layer = new DataLayer(new DummyBodyDataProvider(10, 10));
+        List<ILayerEvent> events = new ArrayList<>();
+        layer.addLayerListener(event -> {
+            synchronized (events) {
+                events.add(event);
+            }
+        });
+
+        CalculatedValueCache cache = new CalculatedValueCache(layer, true, true);
+        cache.setRefreshInterval(100);
+        this.valueCache = cache;
+
+        ICalculator fastCalculator = () -> Integer.valueOf(42);
+        for (int column = 0; column < 5; column++) {
+            this.valueCache.getCalculatedValue(column, 0, true, fastCalculator);
+        }
+
+        Thread.sleep(300);
+
+        synchronized (events) {
+            assertEquals(1, events.size());
+            assertTrue(events.get(0) instanceof VisualRefreshEvent);
+        }
+
+        // a single changed value results in a cell update
+        this.valueCache.killCache();
+        this.valueCache.getCalculatedValue(0, 0, true, fastCalculator);
+
+        Thread.sleep(300);
+
+        synchronized (events) {
+            assertEquals(2, events.size());
+            assertTrue(events.get(1) instanceof CellVisualChangeEvent);
+        }
+    }
+
     @After
     public void tearDown() {
         this.valueCache.dispose();
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.junit.After;
+import org.junit.Test;
+
+public class CalculationSchedulerTest {
+
+    private CalculationScheduler scheduler;
+
+    @After
+    public void tearDown() {
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldExecuteHigherPriorityFirst() throws Exception {
+        this.scheduler = new CalculationScheduler(1);
+
+        // block the single thread so the following tasks are queued
+        CountDownLatch blocker = new CountDownLatch(1);
+        this.scheduler.execute(() -> {
+            try {
+                blocker.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, ICalculationScheduler.PRIORITY_BACKGROUND);
+
+        List<String> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(4);
+        this.scheduler.execute(() -> {
+            executed.add("background1");
+            finished.countDown();
+        }, ICalculationScheduler.PRIORITY_BACKGROUND);
+        this.scheduler.execute(() -> {
+            executed.add("visible1");
+            finished.countDown();
+        }, ICalculationScheduler.PRIORITY_VISIBLE);
+        this.scheduler.execute(() -> {
+            executed.add("background2");
+            finished.countDown();
+        }, ICalculationScheduler.PRIORITY_BACKGROUND);
+        this.scheduler.execute(() -> {
+            executed.add("visible2");
+            finished.countDown();
+        }, ICalculationScheduler.PRIORITY_VISIBLE);
+
+        assertEquals(4, this.scheduler.getQueueLength());
+
+        blocker.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+        // higher priority first, latest requested first within a priority
+        assertEquals("visible2", executed.get(0));
+        assertEquals("visible1", executed.get(1));
+        assertEquals("background2", executed.get(2));
+        assertEquals("background1", executed.get(3));
+    }
+
+    @Test
+    public void shouldLimitConcurrency() throws Exception {
+        this.scheduler = new CalculationScheduler(2);
+        assertEquals(2, this.scheduler.getMaxConcurrency());
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            this.scheduler.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                finished.countDown();
+            }, ICalculationScheduler.PRIORITY_VISIBLE);
+        }
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void shouldCollectStatistics() throws Exception {
+        this.scheduler = new CalculationScheduler(1);
+
+        CountDownLatch finished = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            this.scheduler.execute(() -> {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finished.countDown();
+            }, ICalculationScheduler.PRIORITY_VISIBLE);
+        }
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+        // the statistics are updated after the task finished
+        long start = System.currentTimeMillis();
+        while (this.scheduler.getCompletedTaskCount() < 3 && System.currentTimeMillis() - start < 5000) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(3, this.scheduler.getCompletedTaskCount());
+        assertTrue(this.scheduler.getAverageExecutionTime() >= 10);
+        // the later tasks had to wait for the earlier ones
+        assertTrue(this.scheduler.getMaxWaitTime() >= 10);
+        assertEquals(0, this.scheduler.getQueueLength());
+
+        this.scheduler.resetStatistics();
+        assertEquals(0, this.scheduler.getCompletedTaskCount());
+        assertEquals(0, this.scheduler.getAverageExecutionTime(), 0);
+    }
+
+    @Test
+    public void shouldShareDefaultScheduler() {
+        CalculatedValueCache cache1 = new CalculatedValueCache(new DataLayer(new DummyBodyDataProvider(10, 10)), true, true);
+        CalculatedValueCache cache2 = new CalculatedValueCache(new DataLayer(new DummyBodyDataProvider(10, 10)), true, false);
+
+        assertSame(CalculationScheduler.getDefault(), cache1.getCalculationScheduler());
+        assertSame(cache1.getCalculationScheduler(), cache2.getCalculationScheduler());
+
+        // dispose of one cache does not affect the shared scheduler
+        cache1.dispose();
+        CountDownLatch executed = new CountDownLatch(1);
+        cache2.getCalculationScheduler().execute(executed::countDown, ICalculationScheduler.PRIORITY_VISIBLE);
+        try {
+            assertTrue(executed.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        cache2.dispose();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowZeroConcurrency() {
+        new CalculationScheduler(0);
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RankSelectBitVectorTest {
+
+    @Test
+    public void shouldRankAndSelect() {
+        RankSelectBitVector vector = new RankSelectBitVector(200, position -> position % 3 == 0);
+
+        assertEquals(200, vector.size());
+        assertEquals(67, vector.cardinality());
+        assertTrue(vector.get(63));
+        assertFalse(vector.get(64));
+        assertFalse(vector.get(-1));
+        assertFalse(vector.get(200));
+
+        assertEquals(0, vector.rank(0));
+        assertEquals(1, vector.rank(1));
+        assertEquals(22, vector.rank(64));
+        assertEquals(67, vector.rank(200));
+
+        assertEquals(0, vector.select(0));
+        assertEquals(66, vector.select(22));
+        assertEquals(198, vector.select(66));
+        assertEquals(-1, vector.select(67));
+        assertEquals(-1, vector.select(-1));
+    }
+
+    @Test
+    public void shouldUpdateIncrementally() {
+        RankSelectBitVector vector = new RankSelectBitVector(130);
+
+        assertTrue(vector.set(129, true));
+        assertFalse(vector.set(129, true));
+        assertTrue(vector.set(5, true));
+
+        assertEquals(2, vector.cardinality());
+        assertEquals(129, vector.select(1));
+        assertEquals(1, vector.rank(129));
+
+        RankSelectBitVector copy = new RankSelectBitVector(vector);
+        assertTrue(copy.set(5, false));
+        assertEquals(129, copy.select(0));
+        // the original is not modified
+        assertEquals(5, vector.select(0));
+    }
+
+    @Test
+    public void shouldMatchBitSet() {
+        Random random = new Random(42);
+        int size = 1000;
+        BitSet expected = new BitSet(size);
+        RankSelectBitVector vector = new RankSelectBitVector(size);
+
+        for (int run = 0; run < 5000; run++) {
+            int position = random.nextInt(size);
+            boolean value = random.nextBoolean();
+            expected.set(position, value);
+            vector.set(position, value);
+
+            int check = random.nextInt(size + 1);
+            assertEquals(expected.get(0, check).cardinality(), vector.rank(check));
+        }
+
+        assertEquals(expected.cardinality(), vector.cardinality());
+        int rank = 0;
+        for (int position = expected.nextSetBit(0); position >= 0; position = expected.nextSetBit(position + 1)) {
+            assertEquals(position, vector.select(rank++));
+        }
+
+        RankSelectBitVector built = new RankSelectBitVector(size, expected::get);
+        for (int i = 0; i < vector.cardinality(); i++) {
+            assertEquals(vector.select(i), built.select(i));
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new RankSelectBitVector(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> new RankSelectBitVector(10).set(10, true));
+    }
+}
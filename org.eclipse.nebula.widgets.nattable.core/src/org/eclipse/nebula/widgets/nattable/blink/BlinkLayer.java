@@ -12,8 +12,7 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.blink;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.Serializable;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -28,7 +27,6 @@
 import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
 import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
-import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
@@ -41,10 +39,16 @@
  * Blinks cells when they are updated. Returns blinking cell styles for the
  * cells which have been updated.
  *
- * Every time its asked for config labels: Checks the UpdateEventsCache for
+ * Every time its asked for config labels: Checks the received updates for
  * changes to the cell If a cell is updated The cell is tracked as 'blinking'
- * and blinking config labels are returned A TimerTask is started which will
- * stop the blinking after the blink period is over
+ * and blinking config labels are returned. The blinking is stopped after the
+ * blink period is over.
+ * <p>
+ * The received updates and the blinking cells are tracked in
+ * {@link BlinkTimerWheel}s keyed by row id and column index. A single timer
+ * task advances the wheels while there are entries, and fires one
+ * {@link BlinkEvent} per tick for all cells whose blinking stopped.
+ * </p>
  *
  * @param <T>
  *            Type of the Bean in the backing {@linkplain IDataProvider}
@@ -52,6 +56,14 @@
 public class BlinkLayer<T> extends AbstractLayerTransform implements
         IUniqueIndexLayer {
 
+    /**
+     * Duration of a tick in milliseconds, which is the granularity for
+     * stopping the blinking.
+     *
+     * @since 2.1
+     */
+    public static final int BLINK_TICK_DURATION = 10;
+
     private final IUniqueIndexLayer dataLayer;
     private final IRowDataProvider<T> rowDataProvider;
     private final IConfigRegistry configRegistry;
@@ -62,18 +74,28 @@
     protected boolean blinkingEnabled = true;
 
     /**
-     * Cache all the update events allowing the layer to track what got updated
+     * Flag to configure whether an update triggers the blinking of the whole
+     * row or only of the updated cell.
+     */
+    private final boolean triggerBlinkOnRowUpdate;
+
+    /**
+     * Track the received update events that are not yet blinking. Outdated
+     * updates are removed after {@link UpdateEventsCache#TIME_TO_LIVE}.
      */
-    private final UpdateEventsCache<T> updateEventsCache;
+    private final BlinkTimerWheel<PropertyUpdateEvent<T>> updateEvents = new BlinkTimerWheel<>(BLINK_TICK_DURATION, 512);
 
     /** Duration of a single blink */
     private int blinkDurationInMilis = 1000;
 
     /** Track the updates which are currently blinking */
-    Map<String, PropertyUpdateEvent<T>> blinkingUpdates = new HashMap<>();
+    private final BlinkTimerWheel<PropertyUpdateEvent<T>> blinkingUpdates = new BlinkTimerWheel<>(BLINK_TICK_DURATION, 512);
+
+    /** The task that advances the wheels while there are entries */
+    private ScheduledFuture<?> tickTask;
 
-    /** Track the blinking tasks which are currently running */
-    Map<String, ScheduledFuture<?>> blinkingTasks = new HashMap<>();
+    /** Lock to start and stop the {@link #tickTask} */
+    private final Object tickLock = new Object();
 
     public BlinkLayer(IUniqueIndexLayer dataLayer,
             IRowDataProvider<T> listDataProvider,
@@ -108,10 +130,7 @@ public BlinkLayer(IUniqueIndexLayer dataLayer,
         this.columnPropertyResolver = columnPropertyResolver;
         this.configRegistry = configRegistry;
         this.scheduler = scheduler;
-        this.updateEventsCache = new UpdateEventsCache<>(rowIdAccessor,
-                triggerBlinkOnRowUpdate ? new RowKeyStrategyImpl()
-                        : new CellKeyStrategyImpl(),
-                scheduler);
+        this.triggerBlinkOnRowUpdate = triggerBlinkOnRowUpdate;
 
         registerCommandHandler(new BlinkTimerEnableCommandHandler(this));
     }
@@ -134,55 +153,43 @@ public LabelStack getConfigLabelsByPosition(int columnPosition,
         ILayerCell cell = this.underlyingLayer.getCellByPosition(columnPosition,
                 rowPosition);
 
-        int columnIndex = getUnderlyingLayer().getColumnIndexByPosition(
-                columnPosition);
-        String columnProperty = this.columnPropertyResolver
-                .getColumnProperty(columnIndex);
+        int columnIndex = this.triggerBlinkOnRowUpdate
+                ? BlinkTimerWheel.ROW
+                : getUnderlyingLayer().getColumnIndexByPosition(columnPosition);
 
         int rowIndex = getUnderlyingLayer().getRowIndexByPosition(rowPosition);
-        String rowId = this.rowIdAccessor.getRowId(
-                this.rowDataProvider.getRowObject(rowIndex)).toString();
-
-        String key = this.updateEventsCache.getKey(columnProperty, rowId);
-
-        LabelStack underlyingLabelStack = getUnderlyingLayer()
-                .getConfigLabelsByPosition(columnPosition, rowPosition);
+        Serializable rowId = this.rowIdAccessor.getRowId(
+                this.rowDataProvider.getRowObject(rowIndex));
 
         // Cell has been updated
-        if (this.updateEventsCache.isUpdated(key)) {
-            PropertyUpdateEvent<T> event = this.updateEventsCache.getEvent(key);
-
-            // Old update in middle of a blink - cancel it
-            ScheduledFuture<?> scheduledFuture = this.blinkingTasks.remove(key);
-            this.blinkingUpdates.remove(key);
-            if (scheduledFuture != null) {
-                scheduledFuture.cancel(true);
-            }
-
+        PropertyUpdateEvent<T> event = this.updateEvents.get(rowId, columnIndex);
+        if (event != null) {
             LabelStack blinkingConfigTypes = resolveConfigTypes(cell,
                     event.getOldValue(), event.getNewValue());
 
-            // start blinking cell
+            // start blinking cell, an old update in the middle of a blink is
+            // replaced
             if (blinkingConfigTypes != null) {
-                Runnable stopBlinkTask = getStopBlinkTask(key, this);
-                this.blinkingUpdates.put(key, event);
-                this.updateEventsCache.remove(key);
-                this.blinkingTasks.put(key, this.scheduler.schedule(stopBlinkTask,
-                        this.blinkDurationInMilis, TimeUnit.MILLISECONDS));
+                this.updateEvents.remove(rowId, columnIndex);
+                this.blinkingUpdates.schedule(rowId, columnIndex, event,
+                        this.blinkDurationInMilis, System.currentTimeMillis());
+                startTicking();
                 return blinkingConfigTypes;
             } else {
-                return underlyingLabelStack;
+                return getUnderlyingLayer().getConfigLabelsByPosition(
+                        columnPosition, rowPosition);
             }
         }
 
-        // Previous blink timer is still running
-        if (this.blinkingUpdates.containsKey(key)) {
-            PropertyUpdateEvent<T> event = this.blinkingUpdates.get(key);
+        // Previous blink is still running
+        event = this.blinkingUpdates.get(rowId, columnIndex);
+        if (event != null) {
             return resolveConfigTypes(cell, event.getOldValue(),
                     event.getNewValue());
         }
 
-        return underlyingLabelStack;
+        return getUnderlyingLayer().getConfigLabelsByPosition(columnPosition,
+                rowPosition);
     }
 
     /**
@@ -227,24 +234,61 @@ public LabelStack resolveConfigTypes(ILayerCell cell, Object oldValue,
     }
 
     /**
-     * Stops the cell from blinking at the end of the blinking period.
+     * Starts the timer task that advances the wheels in case it is not already
+     * running.
      */
-    private Runnable getStopBlinkTask(final String key, final ILayer layer) {
-
-        return () -> Display.getDefault().asyncExec(() -> {
+    private void startTicking() {
+        synchronized (this.tickLock) {
+            if (this.tickTask == null) {
+                this.tickTask = this.scheduler.scheduleAtFixedRate(
+                        this::tick,
+                        BLINK_TICK_DURATION,
+                        BLINK_TICK_DURATION,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
 
-            BlinkLayer.this.blinkingUpdates.remove(key);
-            BlinkLayer.this.blinkingTasks.remove(key);
-            fireLayerEvent(new BlinkEvent(layer));
-        });
+    /**
+     * Removes expired updates and stops the blinking of all cells whose blink
+     * period is over. Fires a single {@link BlinkEvent} for all cells that
+     * stopped blinking in this tick. Stops the timer task if there are no
+     * more entries.
+     */
+    private void tick() {
+        long now = System.currentTimeMillis();
+        this.updateEvents.advance(now);
+        if (this.blinkingUpdates.advance(now) > 0) {
+            Display.getDefault().asyncExec(() -> fireLayerEvent(new BlinkEvent(this)));
+        }
 
+        synchronized (this.tickLock) {
+            if (this.tickTask != null
+                    && this.updateEvents.isEmpty()
+                    && this.blinkingUpdates.isEmpty()) {
+                this.tickTask.cancel(false);
+                this.tickTask = null;
+            }
+        }
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public void handleLayerEvent(ILayerEvent event) {
         if (this.blinkingEnabled && event instanceof PropertyUpdateEvent) {
-            this.updateEventsCache.put((PropertyUpdateEvent<T>) event);
+            PropertyUpdateEvent<T> updateEvent = (PropertyUpdateEvent<T>) event;
+            int columnIndex = this.triggerBlinkOnRowUpdate
+                    ? BlinkTimerWheel.ROW
+                    : this.columnPropertyResolver.getColumnIndex(updateEvent.getPropertyName());
+            if (columnIndex >= 0 || this.triggerBlinkOnRowUpdate) {
+                this.updateEvents.schedule(
+                        this.rowIdAccessor.getRowId(updateEvent.getSourceBean()),
+                        columnIndex,
+                        updateEvent,
+                        UpdateEventsCache.TIME_TO_LIVE,
+                        System.currentTimeMillis());
+                startTicking();
+            }
         }
         super.handleLayerEvent(event);
     }
@@ -0,0 +1,284 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.blink;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.impl.factory.primitive.IntObjectMaps;
+
+/**
+ * Hashed timer wheel that keeps values for a limited time. A value is
+ * identified by a row id and a column index, so no combined key objects need
+ * to be created.
+ * <p>
+ * Instead of scheduling a separate task per value, the expired values are
+ * removed in batches by calling {@link #advance(long)} periodically, typically
+ * once per tick. The timestamps are passed as parameters, which makes the
+ * wheel independent of the clock that is used.
+ * </p>
+ * <p>
+ * All operations are synchronized, so the wheel can be advanced by a
+ * background thread while the values are accessed by the UI thread.
+ * </p>
+ *
+ * @param <V>
+ *            The type of the values stored in the wheel.
+ *
+ * @since 2.1
+ */
+public class BlinkTimerWheel<V> {
+
+    /**
+     * Column index that can be used to store a value for a whole row.
+     */
+    public static final int ROW = -1;
+
+    private final long tickDuration;
+
+    private final int mask;
+
+    /**
+     * Heads of the doubly linked entry lists per wheel slot.
+     */
+    private final Entry<V>[] slots;
+
+    /**
+     * The entries per row id, mapped by column index.
+     */
+    private final Map<Object, MutableIntObjectMap<Entry<V>>> entries = new HashMap<>();
+
+    private int size = 0;
+
+    /**
+     * The last tick that was processed by {@link #advance(long)}.
+     */
+    private long lastTick = Long.MIN_VALUE;
+
+    /**
+     *
+     * @param tickDuration
+     *            The duration of a tick in milliseconds, which is the
+     *            granularity of the expiration.
+     * @param ticksPerWheel
+     *            The number of slots in the wheel. Will be rounded up to the
+     *            next power of two. Delays longer than a wheel revolution are
+     *            supported, but need to be checked on every revolution.
+     */
+    public BlinkTimerWheel(long tickDuration, int ticksPerWheel) {
+        if (tickDuration < 1) {
+            throw new IllegalArgumentException("tickDuration < 1"); //$NON-NLS-1$
+        }
+        if (ticksPerWheel < 1 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel out of range"); //$NON-NLS-1$
+        }
+        int slotCount = Integer.highestOneBit(ticksPerWheel);
+        if (slotCount < ticksPerWheel) {
+            slotCount <<= 1;
+        }
+        this.tickDuration = tickDuration;
+        this.mask = slotCount - 1;
+        @SuppressWarnings("unchecked")
+        Entry<V>[] slotArray = (Entry<V>[]) new Entry<?>[slotCount];
+        this.slots = slotArray;
+    }
+
+    /**
+     * Adds a value that expires after the given delay. An existing value for
+     * the same row id and column index is replaced and its expiration is
+     * discarded.
+     *
+     * @param rowId
+     *            The id of the row.
+     * @param column
+     *            The column index or {@link #ROW}.
+     * @param value
+     *            The value to store.
+     * @param delay
+     *            The delay in milliseconds after which the value expires.
+     * @param now
+     *            The current timestamp in milliseconds.
+     */
+    public synchronized void schedule(Object rowId, int column, V value, long delay, long now) {
+        long nowTick = Math.floorDiv(now, this.tickDuration);
+        if (this.size == 0 || this.lastTick == Long.MIN_VALUE) {
+            // nothing to expire, so we can start at the current tick
+            this.lastTick = Math.max(this.lastTick, nowTick);
+        }
+
+        // round up to never expire too early, and at least expire with the
+        // next processed tick
+        long deadline = Math.floorDiv(now + delay + this.tickDuration - 1, this.tickDuration);
+        deadline = Math.max(deadline, this.lastTick + 1);
+
+        MutableIntObjectMap<Entry<V>> columns = this.entries.computeIfAbsent(rowId, id -> IntObjectMaps.mutable.empty());
+        Entry<V> entry = columns.get(column);
+        if (entry == null) {
+            entry = new Entry<>(rowId, column);
+            columns.put(column, entry);
+            this.size++;
+        } else {
+            unlink(entry);
+        }
+        entry.value = value;
+        entry.deadline = deadline;
+        link(entry);
+    }
+
+    /**
+     *
+     * @param rowId
+     *            The id of the row.
+     * @param column
+     *            The column index or {@link #ROW}.
+     * @return The value stored for the given row id and column index or
+     *         <code>null</code> if there is no value or it was already removed
+     *         by {@link #advance(long)}.
+     */
+    public synchronized V get(Object rowId, int column) {
+        MutableIntObjectMap<Entry<V>> columns = this.entries.get(rowId);
+        if (columns != null) {
+            Entry<V> entry = columns.get(column);
+            if (entry != null) {
+                return entry.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value for the given row id and column index.
+     *
+     * @param rowId
+     *            The id of the row.
+     * @param column
+     *            The column index or {@link #ROW}.
+     * @return The removed value or <code>null</code> if there was no value.
+     */
+    public synchronized V remove(Object rowId, int column) {
+        MutableIntObjectMap<Entry<V>> columns = this.entries.get(rowId);
+        if (columns != null) {
+            Entry<V> entry = columns.remove(column);
+            if (entry != null) {
+                if (columns.isEmpty()) {
+                    this.entries.remove(rowId);
+                }
+                unlink(entry);
+                this.size--;
+                return entry.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes all values whose expiration time is reached at the given
+     * timestamp. Only the slots of the ticks since the last call are
+     * inspected, at most one wheel revolution.
+     *
+     * @param now
+     *            The current timestamp in milliseconds.
+     * @return The number of values that expired.
+     */
+    public synchronized int advance(long now) {
+        long nowTick = Math.floorDiv(now, this.tickDuration);
+        if (this.size == 0 || nowTick <= this.lastTick) {
+            this.lastTick = Math.max(this.lastTick, nowTick);
+            return 0;
+        }
+
+        int expired = 0;
+        long ticks = Math.min(nowTick - this.lastTick, this.slots.length);
+        for (long tick = nowTick - ticks + 1; tick <= nowTick; tick++) {
+            Entry<V> entry = this.slots[(int) (tick & this.mask)];
+            while (entry != null) {
+                Entry<V> next = entry.next;
+                // entries of a later revolution stay in the slot
+                if (entry.deadline <= nowTick) {
+                    remove(entry.rowId, entry.column);
+                    expired++;
+                }
+                entry = next;
+            }
+        }
+        this.lastTick = nowTick;
+        return expired;
+    }
+
+    /**
+     *
+     * @return The number of values in the wheel.
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if there are no values in the wheel.
+     */
+    public synchronized boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes all values.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        for (int i = 0; i < this.slots.length; i++) {
+            this.slots[i] = null;
+        }
+        this.size = 0;
+    }
+
+    private void link(Entry<V> entry) {
+        int slot = (int) (entry.deadline & this.mask);
+        Entry<V> head = this.slots[slot];
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        this.slots[slot] = entry;
+    }
+
+    private void unlink(Entry<V> entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            this.slots[(int) (entry.deadline & this.mask)] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private static class Entry<V> {
+
+        private final Object rowId;
+        private final int column;
+        private V value;
+        private long deadline;
+        private Entry<V> prev;
+        private Entry<V> next;
+
+        Entry(Object rowId, int column) {
+            this.rowId = rowId;
+            this.column = column;
+        }
+    }
+}
@@ -12,22 +12,72 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.config;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
 import org.eclipse.nebula.widgets.nattable.style.DefaultDisplayModeOrdering;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.style.IDisplayModeOrdering;
-
+import org.eclipse.nebula.widgets.nattable.style.IStyle;
+
+/**
+ * Default implementation of {@link IConfigRegistry}.
+ * <p>
+ * The values that are resolved for a label stack and a {@link DisplayMode} via
+ * {@link #getConfigAttribute(ConfigAttribute, DisplayMode, List)} and
+ * {@link #getStyleAttributeValue(ConfigAttribute, ConfigAttribute, DisplayMode, List)}
+ * can be cached via {@link #setResolvedStyleCacheEnabled(boolean)}, so
+ * repeated requests for the same cell configuration, e.g. on painting, do not
+ * need to search through the registry again. The cache is cleared on every
+ * registration change. As registered values like an {@link IStyle} can be
+ * modified in place without the registry being informed, e.g. by CSS styling,
+ * the cache is disabled by default. If it is enabled,
+ * {@link #clearResolvedStyleCache()} needs to be called after a registered
+ * value was modified.
+ * </p>
+ */
 public class ConfigRegistry implements IConfigRegistry {
 
+    /**
+     * The default maximum number of label stacks per {@link DisplayMode} for
+     * which resolved values are cached.
+     *
+     * @since 2.1
+     */
+    public static final int DEFAULT_RESOLVED_STYLE_CACHE_SIZE = 10000;
+
+    /**
+     * Placeholder in the resolved style cache for values that are not
+     * registered.
+     */
+    private static final Object NO_VALUE = new Object();
+
     // Map<configAttributeType, Map<displayMode, Map<configLabel, value>>>
     Map<ConfigAttribute<?>, EnumMap<DisplayMode, Map<String, ?>>> registry = new HashMap<>();
 
+    // Map<displayMode, Map<labelStack, resolvedValues>>
+    private final EnumMap<DisplayMode, Map<List<String>, ResolvedStyle>> resolvedStyles = new EnumMap<>(DisplayMode.class);
+
+    private volatile boolean resolvedStyleCacheEnabled = false;
+    private volatile int resolvedStyleCacheSize = DEFAULT_RESOLVED_STYLE_CACHE_SIZE;
+    private final AtomicInteger resolvedStyleCount = new AtomicInteger();
+    private final LongAdder resolvedStyleHits = new LongAdder();
+    private final LongAdder resolvedStyleMisses = new LongAdder();
+
+    public ConfigRegistry() {
+        for (DisplayMode displayMode : DisplayMode.values()) {
+            this.resolvedStyles.put(displayMode, new ConcurrentHashMap<>());
+        }
+    }
+
     @Override
     public <T> T getConfigAttribute(
             ConfigAttribute<T> configAttribute,
@@ -71,6 +121,104 @@ public <T> T getConfigAttribute(
             DisplayMode targetDisplayMode,
             List<String> configLabels) {
 
+        ResolvedStyle resolvedStyle = getResolvedStyle(targetDisplayMode, configLabels);
+        if (resolvedStyle == null) {
+            return resolveConfigAttribute(configAttribute, targetDisplayMode, configLabels);
+        }
+
+        Object value = resolvedStyle.configValues.get(configAttribute);
+        if (value == null) {
+            this.resolvedStyleMisses.increment();
+            T attributeValue = resolveConfigAttribute(configAttribute, targetDisplayMode, configLabels);
+            resolvedStyle.configValues.put(configAttribute, attributeValue != null ? attributeValue : NO_VALUE);
+            return attributeValue;
+        }
+
+        this.resolvedStyleHits.increment();
+        return (value != NO_VALUE) ? (T) value : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getStyleAttributeValue(
+            ConfigAttribute<IStyle> styleConfigAttribute,
+            ConfigAttribute<T> styleAttribute,
+            DisplayMode targetDisplayMode,
+            List<String> configLabels) {
+
+        ResolvedStyle resolvedStyle = getResolvedStyle(targetDisplayMode, configLabels);
+        if (resolvedStyle == null) {
+            return IConfigRegistry.super.getStyleAttributeValue(styleConfigAttribute, styleAttribute, targetDisplayMode, configLabels);
+        }
+
+        Map<ConfigAttribute<?>, Object> styleValues =
+                resolvedStyle.styleValues.computeIfAbsent(styleConfigAttribute, sca -> new ConcurrentHashMap<>());
+        Object value = styleValues.get(styleAttribute);
+        if (value == null) {
+            this.resolvedStyleMisses.increment();
+            T attributeValue = IConfigRegistry.super.getStyleAttributeValue(styleConfigAttribute, styleAttribute, targetDisplayMode, configLabels);
+            styleValues.put(styleAttribute, attributeValue != null ? attributeValue : NO_VALUE);
+            return attributeValue;
+        }
+
+        this.resolvedStyleHits.increment();
+        return (value != NO_VALUE) ? (T) value : null;
+    }
+
+    /**
+     * Returns the cached values for the given {@link DisplayMode} and label
+     * stack. The given label stack is copied for the cache key, so the cache
+     * is not affected by later modifications of the label stack.
+     *
+     * @param targetDisplayMode
+     *            The {@link DisplayMode} for which values are requested.
+     * @param configLabels
+     *            The config labels for which values are requested.
+     * @return The cached values or <code>null</code> if caching is disabled.
+     */
+    private ResolvedStyle getResolvedStyle(DisplayMode targetDisplayMode, List<String> configLabels) {
+        if (!this.resolvedStyleCacheEnabled || targetDisplayMode == null || configLabels == null) {
+            return null;
+        }
+
+        Map<List<String>, ResolvedStyle> labelStackMap = this.resolvedStyles.get(targetDisplayMode);
+        ResolvedStyle resolvedStyle = labelStackMap.get(configLabels);
+        if (resolvedStyle == null) {
+            if (this.resolvedStyleCount.get() >= this.resolvedStyleCacheSize) {
+                // too many different label stacks, e.g. because of cell
+                // specific labels, start over
+                clearResolvedStyleCache();
+            }
+            resolvedStyle = new ResolvedStyle();
+            ResolvedStyle existing = labelStackMap.putIfAbsent(new ArrayList<>(configLabels), resolvedStyle);
+            if (existing != null) {
+                resolvedStyle = existing;
+            } else {
+                this.resolvedStyleCount.incrementAndGet();
+            }
+        }
+        return resolvedStyle;
+    }
+
+    /**
+     * Searches the registry for the value of the given configuration
+     * attribute.
+     *
+     * @param configAttribute
+     *            The configuration attribute whose value is requested.
+     * @param targetDisplayMode
+     *            The {@link DisplayMode} for which the value is requested.
+     * @param configLabels
+     *            The config labels for which the value is requested.
+     * @return The registered value or <code>null</code> if no value is
+     *         registered.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T resolveConfigAttribute(
+            ConfigAttribute<T> configAttribute,
+            DisplayMode targetDisplayMode,
+            List<String> configLabels) {
+
         T attributeValue = null;
 
         EnumMap<DisplayMode, Map<String, ?>> displayModeConfigAttributeMap = this.registry.get(configAttribute);
@@ -199,6 +347,8 @@ public <T> void registerConfigAttribute(
                 (Map<String, T>) displayModeConfigAttributeMap.computeIfAbsent(targetDisplayMode, dm -> new HashMap<>());
 
         configAttributeMap.put(configLabel, attributeValue);
+
+        clearResolvedStyleCache();
     }
 
     @Override
@@ -259,6 +409,8 @@ public <T> void unregisterConfigAttribute(
                 configAttributeMap.remove(configLabel);
             }
         }
+
+        clearResolvedStyleCache();
     }
 
     // Display mode ordering //////////////////////////////////////////////////
@@ -272,6 +424,102 @@ public IDisplayModeOrdering getDisplayModeOrdering() {
 
     public void setDisplayModeOrdering(IDisplayModeOrdering displayModeOrdering) {
         this.displayModeOrdering = displayModeOrdering;
+        clearResolvedStyleCache();
+    }
+
+    // Resolved style cache ///////////////////////////////////////////////////
+
+    /**
+     * Clears the cache of the values that are resolved per label stack and
+     * {@link DisplayMode}. Needs to be called if a registered value, e.g. an
+     * {@link IStyle}, is modified after it was registered.
+     *
+     * @since 2.1
+     */
+    public void clearResolvedStyleCache() {
+        for (Map<List<String>, ResolvedStyle> labelStackMap : this.resolvedStyles.values()) {
+            labelStackMap.clear();
+        }
+        this.resolvedStyleCount.set(0);
+    }
+
+    /**
+     * Enable or disable the caching of the values that are resolved per label
+     * stack and {@link DisplayMode}. Disabled by default, as registered values
+     * that are modified in place are not detected. If enabled,
+     * {@link #clearResolvedStyleCache()} needs to be called after such a
+     * modification.
+     *
+     * @param enabled
+     *            <code>true</code> to enable the cache, <code>false</code> to
+     *            disable it.
+     *
+     * @since 2.1
+     */
+    public void setResolvedStyleCacheEnabled(boolean enabled) {
+        this.resolvedStyleCacheEnabled = enabled;
+        clearResolvedStyleCache();
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the values that are resolved per label
+     *         stack and {@link DisplayMode} are cached.
+     *
+     * @since 2.1
+     */
+    public boolean isResolvedStyleCacheEnabled() {
+        return this.resolvedStyleCacheEnabled;
+    }
+
+    /**
+     * Configure the maximum number of label stacks for which resolved values
+     * are cached. If the maximum is reached, the cache is cleared.
+     *
+     * @param size
+     *            The maximum number of cached label stacks. Default is
+     *            {@link #DEFAULT_RESOLVED_STYLE_CACHE_SIZE}.
+     *
+     * @since 2.1
+     */
+    public void setResolvedStyleCacheSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size < 1"); //$NON-NLS-1$
+        }
+        this.resolvedStyleCacheSize = size;
+    }
+
+    /**
+     *
+     * @return The number of requests that were answered from the resolved
+     *         style cache.
+     *
+     * @since 2.1
+     */
+    public long getResolvedStyleCacheHitCount() {
+        return this.resolvedStyleHits.sum();
+    }
+
+    /**
+     *
+     * @return The number of requests for which the value needed to be
+     *         resolved from the registry.
+     *
+     * @since 2.1
+     */
+    public long getResolvedStyleCacheMissCount() {
+        return this.resolvedStyleMisses.sum();
+    }
+
+    /**
+     * The values that are resolved for a label stack and a
+     * {@link DisplayMode}.
+     */
+    private static final class ResolvedStyle {
+        // Map<configAttribute, value>
+        final Map<ConfigAttribute<?>, Object> configValues = new ConcurrentHashMap<>();
+        // Map<styleConfigAttribute, Map<styleAttribute, value>>
+        final Map<ConfigAttribute<?>, Map<ConfigAttribute<?>, Object>> styleValues = new ConcurrentHashMap<>();
     }
 
 }
@@ -17,6 +17,7 @@
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.style.IDisplayModeOrdering;
+import org.eclipse.nebula.widgets.nattable.style.IStyle;
 
 /**
  * Holds all the settings, bindings and other configuration for NatTable.
@@ -483,4 +484,58 @@ public <T> void unregisterConfigAttribute(
      */
     public IDisplayModeOrdering getDisplayModeOrdering();
 
+    /**
+     * Returns the value for the given style attribute that is resolved from
+     * the {@link IStyle} objects registered for the given style configuration
+     * attribute. The {@link IStyle} objects are inspected in the order of the
+     * {@link IDisplayModeOrdering} and the given config labels, followed by
+     * the {@link IStyle} registered without a label, until a value is found.
+     *
+     * @param <T>
+     *            The type of the style attribute.
+     * @param styleConfigAttribute
+     *            The configuration attribute for which the {@link IStyle}
+     *            objects are registered, e.g.
+     *            {@link CellConfigAttributes#CELL_STYLE}.
+     * @param styleAttribute
+     *            The style attribute whose value is requested.
+     * @param targetDisplayMode
+     *            The {@link DisplayMode} for which the value is requested.
+     * @param configLabels
+     *            The config labels for which the value is requested.
+     * @return The resolved value for the given style attribute or
+     *         <code>null</code> if no value is found.
+     *
+     * @since 2.1
+     */
+    default <T> T getStyleAttributeValue(
+            ConfigAttribute<IStyle> styleConfigAttribute,
+            ConfigAttribute<T> styleAttribute,
+            DisplayMode targetDisplayMode,
+            List<String> configLabels) {
+
+        for (DisplayMode displayMode : getDisplayModeOrdering().getDisplayModeOrdering(targetDisplayMode)) {
+            for (String configLabel : configLabels) {
+                IStyle style = getSpecificConfigAttribute(styleConfigAttribute, displayMode, configLabel);
+                if (style != null) {
+                    T styleAttributeValue = style.getAttributeValue(styleAttribute);
+                    if (styleAttributeValue != null) {
+                        return styleAttributeValue;
+                    }
+                }
+            }
+
+            // default
+            IStyle style = getSpecificConfigAttribute(styleConfigAttribute, displayMode, null);
+            if (style != null) {
+                T styleAttributeValue = style.getAttributeValue(styleAttribute);
+                if (styleAttributeValue != null) {
+                    return styleAttributeValue;
+                }
+            }
+        }
+
+        return null;
+    }
+
 }
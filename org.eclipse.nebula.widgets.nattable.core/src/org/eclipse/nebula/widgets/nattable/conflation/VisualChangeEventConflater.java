@@ -10,21 +10,80 @@
  * Contributors:
  *     Original authors and others - initial API and implementation
  *     Roman Flueckiger <roman.flueckiger@mac.com> - Bug 454440
+ *     Dirk Fauth <dirk.fauth@googlemail.com> - dirty region based repainting
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.conflation;
 
+import java.util.Collection;
+
 import org.eclipse.nebula.widgets.nattable.NatTable;
+import org.eclipse.nebula.widgets.nattable.edit.event.DataUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.selection.event.ISelectionEvent;
+import org.eclipse.swt.graphics.Rectangle;
 
 /**
  * Gathers all the VisualChangeEvents. When it's run, it refreshes/repaints the
  * table.
+ * <p>
+ * The events are not stored. Instead the changed position rectangles of the
+ * events are accumulated into a single dirty region. On every run a single
+ * targeted redraw of that dirty region is performed. Only if a structural,
+ * data or selection change was reported, or an event does not specify the
+ * changed positions, the whole table is updated. This avoids full repaints and the allocation of event
+ * queues in case of high frequency updates, e.g. on a live data feed.
+ * </p>
+ * <p>
+ * The runs are triggered by the {@link EventConflaterChain}, so its refresh
+ * interval specifies the frame interval. Additionally a maximum frame rate can
+ * be configured via {@link #setMaxFrameRate(int)} to reduce the number of
+ * repaints independently of the chain, in which case the dirty region is
+ * accumulated until the next frame is due.
+ * </p>
  */
 public class VisualChangeEventConflater extends AbstractEventConflater {
 
     private final NatTable natTable;
 
+    /**
+     * Lock object to synchronize the accumulation of the dirty region, as
+     * events can be added from any thread.
+     */
+    private final Object regionLock = new Object();
+
+    /**
+     * The number of events that were added since the last frame.
+     */
+    private int pendingEventCount;
+
+    /**
+     * Flag to indicate that the whole table needs to be updated on the next
+     * frame.
+     */
+    private boolean fullRefresh;
+
+    // the dirty region in positions, end values are exclusive
+    private int dirtyStartColumn = Integer.MAX_VALUE;
+    private int dirtyStartRow = Integer.MAX_VALUE;
+    private int dirtyEndColumn = -1;
+    private int dirtyEndRow = -1;
+
+    /**
+     * The maximum number of frames per second. A value less or equal to 0
+     * means that a frame is painted on every run.
+     */
+    private volatile int maxFrameRate = 0;
+
+    private long lastFrameNanos;
+
+    private long totalEventCount;
+    private long frameCount;
+    private long fullRefreshCount;
+
     public VisualChangeEventConflater(NatTable ownerLayer) {
         this.natTable = ownerLayer;
     }
@@ -32,19 +91,259 @@ public VisualChangeEventConflater(NatTable ownerLayer) {
     @Override
     public void addEvent(ILayerEvent event) {
         if (event instanceof IVisualChangeEvent) {
-            super.addEvent(event);
+            Collection<Rectangle> rectangles = requiresFullRefresh(event)
+                    ? null
+                    : ((IVisualChangeEvent) event).getChangedPositionRectangles();
+
+            synchronized (this.regionLock) {
+                this.pendingEventCount++;
+                this.totalEventCount++;
+
+                if (rectangles == null || rectangles.isEmpty()) {
+                    this.fullRefresh = true;
+                } else if (!this.fullRefresh) {
+                    for (Rectangle rectangle : rectangles) {
+                        addDirtyRectangle(rectangle);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the given event requires an update of the whole table instead
+     * of only repainting its changed positions. This is the case for
+     * structural changes and for data changes, as cells other than the changed
+     * ones can depend on the changed data, e.g. summary rows, formula results
+     * or conditional styling. Selection changes also require a full update,
+     * as selection events only report the newly selected cells but not the
+     * previous selection whose highlighting needs to be removed.
+     *
+     * @param event
+     *            The visual change event to check.
+     * @return <code>true</code> if the whole table needs to be updated,
+     *         <code>false</code> if repainting the changed positions is
+     *         sufficient.
+     * @since 2.1
+     */
+    protected boolean requiresFullRefresh(ILayerEvent event) {
+        return event instanceof IStructuralChangeEvent
+                || event instanceof VisualRefreshEvent
+                || event instanceof DataUpdateEvent
+                || event instanceof RowUpdateEvent
+                || event instanceof ISelectionEvent;
+    }
+
+    /**
+     * Extends the dirty region by the given position rectangle. Needs to be
+     * called while holding the region lock.
+     *
+     * @param rectangle
+     *            The changed position rectangle.
+     */
+    private void addDirtyRectangle(Rectangle rectangle) {
+        int startColumn = Math.max(0, rectangle.x);
+        int startRow = Math.max(0, rectangle.y);
+        int endColumn = (int) Math.min(Integer.MAX_VALUE, (long) rectangle.x + rectangle.width);
+        int endRow = (int) Math.min(Integer.MAX_VALUE, (long) rectangle.y + rectangle.height);
+        if (endColumn <= startColumn || endRow <= startRow) {
+            return;
+        }
+
+        this.dirtyStartColumn = Math.min(this.dirtyStartColumn, startColumn);
+        this.dirtyStartRow = Math.min(this.dirtyStartRow, startRow);
+        this.dirtyEndColumn = Math.max(this.dirtyEndColumn, endColumn);
+        this.dirtyEndRow = Math.max(this.dirtyEndRow, endRow);
+    }
+
+    private void resetDirtyRegion() {
+        this.pendingEventCount = 0;
+        this.fullRefresh = false;
+        this.dirtyStartColumn = Integer.MAX_VALUE;
+        this.dirtyStartRow = Integer.MAX_VALUE;
+        this.dirtyEndColumn = -1;
+        this.dirtyEndRow = -1;
+    }
+
+    @Override
+    public void clearQueue() {
+        synchronized (this.regionLock) {
+            resetDirtyRegion();
+        }
+    }
+
+    /**
+     * @return Number of events that were added since the last frame.
+     */
+    @Override
+    public int getCount() {
+        synchronized (this.regionLock) {
+            return this.pendingEventCount;
         }
     }
 
     @Override
     public Runnable getConflaterTask() {
         return () -> {
-            if (!VisualChangeEventConflater.this.queue.isEmpty()) {
-                clearQueue();
+            boolean full;
+            int startColumn;
+            int startRow;
+            int endColumn;
+            int endRow;
+            synchronized (VisualChangeEventConflater.this.regionLock) {
+                if (VisualChangeEventConflater.this.pendingEventCount == 0) {
+                    return;
+                }
+
+                long now = System.nanoTime();
+                int fps = VisualChangeEventConflater.this.maxFrameRate;
+                if (fps > 0 && VisualChangeEventConflater.this.frameCount > 0
+                        && now - VisualChangeEventConflater.this.lastFrameNanos < 1_000_000_000L / fps) {
+                    // next frame is not due yet, keep accumulating
+                    return;
+                }
+
+                startColumn = VisualChangeEventConflater.this.dirtyStartColumn;
+                startRow = VisualChangeEventConflater.this.dirtyStartRow;
+                endColumn = VisualChangeEventConflater.this.dirtyEndColumn;
+                endRow = VisualChangeEventConflater.this.dirtyEndRow;
+                // events were added but no dirty region could be determined
+                full = VisualChangeEventConflater.this.fullRefresh
+                        || endColumn <= startColumn
+                        || endRow <= startRow;
 
+                resetDirtyRegion();
+                VisualChangeEventConflater.this.lastFrameNanos = now;
+                VisualChangeEventConflater.this.frameCount++;
+                if (full) {
+                    VisualChangeEventConflater.this.fullRefreshCount++;
+                }
+            }
+
+            if (VisualChangeEventConflater.this.natTable.isDisposed()) {
+                return;
+            }
+
+            if (full) {
                 VisualChangeEventConflater.this.natTable.getDisplay().asyncExec(VisualChangeEventConflater.this.natTable::updateResize);
+            } else {
+                VisualChangeEventConflater.this.natTable.getDisplay().asyncExec(
+                        () -> redrawRegion(startColumn, startRow, endColumn, endRow));
             }
         };
     }
 
+    /**
+     * Redraws the pixel area of the given position region. Needs to be called
+     * in the UI thread.
+     *
+     * @param startColumn
+     *            The first column position of the region.
+     * @param startRow
+     *            The first row position of the region.
+     * @param endColumn
+     *            The column position after the last column of the region.
+     * @param endRow
+     *            The row position after the last row of the region.
+     */
+    private void redrawRegion(int startColumn, int startRow, int endColumn, int endRow) {
+        if (this.natTable.isDisposed()) {
+            return;
+        }
+
+        int columnCount = this.natTable.getColumnCount();
+        int rowCount = this.natTable.getRowCount();
+        if (startColumn >= columnCount || startRow >= rowCount) {
+            // the region is not visible anymore
+            return;
+        }
+
+        int lastColumn = Math.min(endColumn, columnCount) - 1;
+        int lastRow = Math.min(endRow, rowCount) - 1;
+
+        int x = this.natTable.getStartXOfColumnPosition(startColumn);
+        int y = this.natTable.getStartYOfRowPosition(startRow);
+        int width = this.natTable.getStartXOfColumnPosition(lastColumn)
+                + this.natTable.getColumnWidthByPosition(lastColumn) - x;
+        int height = this.natTable.getStartYOfRowPosition(lastRow)
+                + this.natTable.getRowHeightByPosition(lastRow) - y;
+
+        if (x >= 0 && y >= 0 && width > 0 && height > 0) {
+            this.natTable.redraw(x, y, width, height, true);
+        }
+    }
+
+    /**
+     *
+     * @return The maximum number of frames per second, a value less or equal
+     *         to 0 means that a frame is painted on every run of the
+     *         {@link EventConflaterChain}.
+     * @since 2.1
+     */
+    public int getMaxFrameRate() {
+        return this.maxFrameRate;
+    }
+
+    /**
+     * Configure the maximum number of frames per second. If frames are
+     * requested more often, the dirty regions are accumulated until the next
+     * frame is due.
+     *
+     * @param maxFrameRate
+     *            The maximum number of frames per second. A value less or equal
+     *            to 0 means that a frame is painted on every run of the
+     *            {@link EventConflaterChain}.
+     * @since 2.1
+     */
+    public void setMaxFrameRate(int maxFrameRate) {
+        this.maxFrameRate = maxFrameRate;
+    }
+
+    /**
+     *
+     * @return The number of visual change events that were added since
+     *         creation.
+     * @since 2.1
+     */
+    public long getTotalEventCount() {
+        synchronized (this.regionLock) {
+            return this.totalEventCount;
+        }
+    }
+
+    /**
+     *
+     * @return The number of frames that were triggered since creation.
+     * @since 2.1
+     */
+    public long getFrameCount() {
+        synchronized (this.regionLock) {
+            return this.frameCount;
+        }
+    }
+
+    /**
+     *
+     * @return The number of frames that needed to update the whole table.
+     * @since 2.1
+     */
+    public long getFullRefreshCount() {
+        synchronized (this.regionLock) {
+            return this.fullRefreshCount;
+        }
+    }
+
+    /**
+     *
+     * @return The number of events that were coalesced into a frame triggered
+     *         by another event, which is the number of repaints that were
+     *         saved.
+     * @since 2.1
+     */
+    public long getCoalescedEventCount() {
+        synchronized (this.regionLock) {
+            return this.totalEventCount - this.pendingEventCount - this.frameCount;
+        }
+    }
+
 }
@@ -0,0 +1,597 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link IDataProvider} that stores the values column by column in primitive
+ * arrays instead of row objects. This reduces the memory consumption and the
+ * garbage collection effort for large tables with mostly numeric values, as no
+ * object is kept per cell.
+ * <p>
+ * The following column types are supported:
+ * </p>
+ * <ul>
+ * <li>{@link ColumnType#DOUBLE} - values are stored in a
+ * <code>double[]</code></li>
+ * <li>{@link ColumnType#LONG} - values are stored in a
+ * <code>long[]</code></li>
+ * <li>{@link ColumnType#STRING} - values are dictionary encoded, so every
+ * distinct String is only stored once and the cells only keep an
+ * <code>int</code> code</li>
+ * </ul>
+ * <p>
+ * {@link #getDataValue(int, int)} creates the boxed value on access. The
+ * typed accessors of {@link IPrimitiveDataProvider} can be used to process
+ * the values without boxing.
+ * </p>
+ * <p>
+ * <b>Note:</b> This data provider is not thread-safe. Concurrent reading is
+ * supported as long as the data is not modified.
+ * </p>
+ *
+ * @since 2.1
+ */
+public class ColumnarDataProvider implements IPrimitiveDataProvider {
+
+    /**
+     * The types of columns supported by the {@link ColumnarDataProvider}.
+     */
+    public enum ColumnType {
+        /**
+         * Numeric column whose values are stored as <code>double</code>.
+         */
+        DOUBLE,
+        /**
+         * Numeric column whose values are stored as <code>long</code>.
+         */
+        LONG,
+        /**
+         * Column whose values are stored as dictionary encoded Strings.
+         */
+        STRING
+    }
+
+    private final Column[] columns;
+
+    private int rowCount;
+
+    /**
+     * Create a {@link ColumnarDataProvider} without rows.
+     *
+     * @param columnTypes
+     *            The types of the columns.
+     */
+    public ColumnarDataProvider(ColumnType... columnTypes) {
+        this(0, columnTypes);
+    }
+
+    /**
+     * Create a {@link ColumnarDataProvider} with the given number of rows
+     * whose values are <code>null</code>.
+     *
+     * @param rowCount
+     *            The initial number of rows.
+     * @param columnTypes
+     *            The types of the columns.
+     */
+    public ColumnarDataProvider(int rowCount, ColumnType... columnTypes) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("rowCount < 0"); //$NON-NLS-1$
+        }
+
+        this.columns = new Column[columnTypes.length];
+        for (int i = 0; i < columnTypes.length; i++) {
+            switch (columnTypes[i]) {
+                case DOUBLE:
+                    this.columns[i] = new DoubleColumn();
+                    break;
+                case LONG:
+                    this.columns[i] = new LongColumn();
+                    break;
+                case STRING:
+                    this.columns[i] = new StringColumn();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported column type " + columnTypes[i]); //$NON-NLS-1$
+            }
+        }
+        addRows(rowCount);
+    }
+
+    /**
+     * Adds rows whose values are <code>null</code> at the end.
+     *
+     * @param count
+     *            The number of rows to add.
+     * @return The row index of the first added row.
+     */
+    public int addRows(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count < 0"); //$NON-NLS-1$
+        }
+
+        int first = this.rowCount;
+        int newRowCount = first + count;
+        for (Column column : this.columns) {
+            column.ensureCapacity(newRowCount);
+            column.clear(first, newRowCount);
+        }
+        this.rowCount = newRowCount;
+        return first;
+    }
+
+    /**
+     * Removes all rows. The String dictionaries are cleared too.
+     */
+    public void clear() {
+        for (Column column : this.columns) {
+            column.reset();
+        }
+        this.rowCount = 0;
+    }
+
+    /**
+     * @param columnIndex
+     *            The column index.
+     * @return The type of the column with the given index.
+     */
+    public ColumnType getColumnType(int columnIndex) {
+        return this.columns[columnIndex].getType();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columns.length;
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns a {@link Double}, {@link Long} or {@link String} dependent on
+     * the {@link ColumnType}.
+     * </p>
+     */
+    @Override
+    public Object getDataValue(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        return this.columns[columnIndex].get(rowIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Numeric columns accept {@link Number} values, String columns accept any
+     * value which is stored via {@link Object#toString()}.
+     * </p>
+     *
+     * @throws IllegalArgumentException
+     *             if a non numeric value is set to a numeric column.
+     */
+    @Override
+    public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+        checkRowIndex(rowIndex);
+        Column column = this.columns[columnIndex];
+        if (newValue == null) {
+            column.setNull(rowIndex);
+        } else {
+            column.set(rowIndex, newValue);
+        }
+    }
+
+    @Override
+    public boolean isNumericColumn(int columnIndex) {
+        return this.columns[columnIndex] instanceof NumericColumn;
+    }
+
+    @Override
+    public boolean isNull(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        return this.columns[columnIndex].isNull(rowIndex);
+    }
+
+    @Override
+    public double getDouble(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        NumericColumn column = getNumericColumn(columnIndex);
+        return column.isNull(rowIndex) ? Double.NaN : column.getDouble(rowIndex);
+    }
+
+    @Override
+    public long getLong(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        NumericColumn column = getNumericColumn(columnIndex);
+        return column.isNull(rowIndex) ? 0 : column.getLong(rowIndex);
+    }
+
+    /**
+     * Sets the value of a numeric cell without boxing.
+     *
+     * @param columnIndex
+     *            The column index of the cell.
+     * @param rowIndex
+     *            The row index of the cell.
+     * @param value
+     *            The value to set. Converted to long for
+     *            {@link ColumnType#LONG} columns.
+     * @throws IllegalArgumentException
+     *             if the column is not a numeric column.
+     */
+    public void setDouble(int columnIndex, int rowIndex, double value) {
+        checkRowIndex(rowIndex);
+        getNumericColumn(columnIndex).setDouble(rowIndex, value);
+    }
+
+    /**
+     * Sets the value of a numeric cell without boxing.
+     *
+     * @param columnIndex
+     *            The column index of the cell.
+     * @param rowIndex
+     *            The row index of the cell.
+     * @param value
+     *            The value to set. Converted to double for
+     *            {@link ColumnType#DOUBLE} columns.
+     * @throws IllegalArgumentException
+     *             if the column is not a numeric column.
+     */
+    public void setLong(int columnIndex, int rowIndex, long value) {
+        checkRowIndex(rowIndex);
+        getNumericColumn(columnIndex).setLong(rowIndex, value);
+    }
+
+    /**
+     * Returns the dictionary code of a cell in a {@link ColumnType#STRING}
+     * column. Cells with equal values have the same code, so the code can be
+     * used for equality checks, e.g. for filtering, without comparing the
+     * Strings.
+     *
+     * @param columnIndex
+     *            The column index of the cell.
+     * @param rowIndex
+     *            The row index of the cell.
+     * @return The dictionary code of the cell value or -1 if the cell does not
+     *         contain a value.
+     * @throws IllegalArgumentException
+     *             if the column is not a String column.
+     * @see #getDictionaryValue(int, int)
+     */
+    public int getDictionaryCode(int columnIndex, int rowIndex) {
+        checkRowIndex(rowIndex);
+        return getStringColumn(columnIndex).codes[rowIndex];
+    }
+
+    /**
+     * Returns the String for a dictionary code of a {@link ColumnType#STRING}
+     * column.
+     *
+     * @param columnIndex
+     *            The column index of the String column.
+     * @param code
+     *            The dictionary code.
+     * @return The String that is encoded by the given code or
+     *         <code>null</code> if the code is -1.
+     * @throws IllegalArgumentException
+     *             if the column is not a String column.
+     * @see #getDictionaryCode(int, int)
+     */
+    public String getDictionaryValue(int columnIndex, int code) {
+        StringColumn column = getStringColumn(columnIndex);
+        return (code < 0) ? null : column.dictionary.get(code);
+    }
+
+    /**
+     * @param columnIndex
+     *            The column index of the String column.
+     * @return The number of distinct Strings in the dictionary of the given
+     *         column. Values that are replaced are not removed from the
+     *         dictionary until {@link #clear()} is called.
+     * @throws IllegalArgumentException
+     *             if the column is not a String column.
+     */
+    public int getDictionarySize(int columnIndex) {
+        return getStringColumn(columnIndex).dictionary.size();
+    }
+
+    @Override
+    public int compare(int columnIndex, int rowIndex1, int rowIndex2) {
+        checkRowIndex(rowIndex1);
+        checkRowIndex(rowIndex2);
+        Column column = this.columns[columnIndex];
+        boolean null1 = column.isNull(rowIndex1);
+        boolean null2 = column.isNull(rowIndex2);
+        if (null1 || null2) {
+            return (null1 == null2) ? 0 : (null1 ? -1 : 1);
+        }
+        return column.compare(rowIndex1, rowIndex2);
+    }
+
+    private void checkRowIndex(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= this.rowCount) {
+            throw new IndexOutOfBoundsException("Row index: " + rowIndex + ", row count: " + this.rowCount); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private NumericColumn getNumericColumn(int columnIndex) {
+        Column column = this.columns[columnIndex];
+        if (!(column instanceof NumericColumn)) {
+            throw new IllegalArgumentException("Column " + columnIndex + " is not a numeric column"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return (NumericColumn) column;
+    }
+
+    private StringColumn getStringColumn(int columnIndex) {
+        Column column = this.columns[columnIndex];
+        if (!(column instanceof StringColumn)) {
+            throw new IllegalArgumentException("Column " + columnIndex + " is not a String column"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return (StringColumn) column;
+    }
+
+    private static int newCapacity(int currentCapacity, int minCapacity) {
+        return Math.max(minCapacity, currentCapacity + (currentCapacity >> 1));
+    }
+
+    /**
+     * The storage of the values of a column.
+     */
+    private abstract static class Column {
+
+        abstract ColumnType getType();
+
+        abstract void ensureCapacity(int capacity);
+
+        /**
+         * Sets the values of the given row range to <code>null</code>.
+         */
+        abstract void clear(int fromRow, int toRow);
+
+        abstract void reset();
+
+        abstract boolean isNull(int row);
+
+        abstract Object get(int row);
+
+        abstract void set(int row, Object value);
+
+        abstract void setNull(int row);
+
+        /**
+         * Compares the non-null values of the given rows.
+         */
+        abstract int compare(int row1, int row2);
+    }
+
+    /**
+     * Base class for numeric columns which track <code>null</code> values in a
+     * {@link BitSet}.
+     */
+    private abstract static class NumericColumn extends Column {
+
+        final BitSet nulls = new BitSet();
+
+        @Override
+        void clear(int fromRow, int toRow) {
+            this.nulls.set(fromRow, toRow);
+        }
+
+        @Override
+        void reset() {
+            this.nulls.clear();
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return this.nulls.get(row);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (!(value instanceof Number)) {
+                throw new IllegalArgumentException("Value of type " + value.getClass().getName() //$NON-NLS-1$
+                        + " can not be set to a " + getType() + " column"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            if (getType() == ColumnType.LONG) {
+                setLong(row, ((Number) value).longValue());
+            } else {
+                setDouble(row, ((Number) value).doubleValue());
+            }
+        }
+
+        @Override
+        void setNull(int row) {
+            this.nulls.set(row);
+        }
+
+        abstract double getDouble(int row);
+
+        abstract long getLong(int row);
+
+        abstract void setDouble(int row, double value);
+
+        abstract void setLong(int row, long value);
+    }
+
+    private static final class DoubleColumn extends NumericColumn {
+
+        private double[] values = new double[0];
+
+        @Override
+        ColumnType getType() {
+            return ColumnType.DOUBLE;
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > this.values.length) {
+                this.values = Arrays.copyOf(this.values, newCapacity(this.values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return isNull(row) ? null : this.values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return (long) this.values[row];
+        }
+
+        @Override
+        void setDouble(int row, double value) {
+            this.values[row] = value;
+            this.nulls.clear(row);
+        }
+
+        @Override
+        void setLong(int row, long value) {
+            setDouble(row, value);
+        }
+
+        @Override
+        int compare(int row1, int row2) {
+            return Double.compare(this.values[row1], this.values[row2]);
+        }
+    }
+
+    private static final class LongColumn extends NumericColumn {
+
+        private long[] values = new long[0];
+
+        @Override
+        ColumnType getType() {
+            return ColumnType.LONG;
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > this.values.length) {
+                this.values = Arrays.copyOf(this.values, newCapacity(this.values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return isNull(row) ? null : this.values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        void setDouble(int row, double value) {
+            setLong(row, (long) value);
+        }
+
+        @Override
+        void setLong(int row, long value) {
+            this.values[row] = value;
+            this.nulls.clear(row);
+        }
+
+        @Override
+        int compare(int row1, int row2) {
+            return Long.compare(this.values[row1], this.values[row2]);
+        }
+    }
+
+    private static final class StringColumn extends Column {
+
+        private int[] codes = new int[0];
+
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> dictionaryCodes = new HashMap<>();
+
+        @Override
+        ColumnType getType() {
+            return ColumnType.STRING;
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > this.codes.length) {
+                this.codes = Arrays.copyOf(this.codes, newCapacity(this.codes.length, capacity));
+            }
+        }
+
+        @Override
+        void clear(int fromRow, int toRow) {
+            Arrays.fill(this.codes, fromRow, toRow, -1);
+        }
+
+        @Override
+        void reset() {
+            this.dictionary.clear();
+            this.dictionaryCodes.clear();
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return this.codes[row] < 0;
+        }
+
+        @Override
+        Object get(int row) {
+            int code = this.codes[row];
+            return (code < 0) ? null : this.dictionary.get(code);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            String string = value.toString();
+            Integer code = this.dictionaryCodes.get(string);
+            if (code == null) {
+                code = this.dictionary.size();
+                this.dictionary.add(string);
+                this.dictionaryCodes.put(string, code);
+            }
+            this.codes[row] = code;
+        }
+
+        @Override
+        void setNull(int row) {
+            this.codes[row] = -1;
+        }
+
+        @Override
+        int compare(int row1, int row2) {
+            int code1 = this.codes[row1];
+            int code2 = this.codes[row2];
+            return (code1 == code2) ? 0 : this.dictionary.get(code1).compareTo(this.dictionary.get(code2));
+        }
+    }
+}
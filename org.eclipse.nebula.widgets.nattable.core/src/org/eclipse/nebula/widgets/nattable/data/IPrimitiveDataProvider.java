@@ -0,0 +1,89 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+/**
+ * Extension of {@link IDataProvider} that gives access to numeric values as
+ * primitives. Components that process many values, like summary providers,
+ * sorting or filtering, can check for this interface to avoid creating a
+ * boxed object for every cell value.
+ *
+ * @see ColumnarDataProvider
+ * @since 2.1
+ */
+public interface IPrimitiveDataProvider extends IDataProvider {
+
+    /**
+     * @param columnIndex
+     *            The column index of the column to check.
+     * @return <code>true</code> if the values of the given column are numbers
+     *         that can be accessed via {@link #getDouble(int, int)} and
+     *         {@link #getLong(int, int)}.
+     */
+    boolean isNumericColumn(int columnIndex);
+
+    /**
+     * @param columnIndex
+     *            The column index of the cell to check.
+     * @param rowIndex
+     *            The row index of the cell to check.
+     * @return <code>true</code> if the cell does not contain a value, which
+     *         means {@link #getDataValue(int, int)} returns <code>null</code>.
+     */
+    boolean isNull(int columnIndex, int rowIndex);
+
+    /**
+     * Returns the value of a numeric cell as double without boxing.
+     *
+     * @param columnIndex
+     *            The column index of the cell.
+     * @param rowIndex
+     *            The row index of the cell.
+     * @return The value of the cell as double or {@link Double#NaN} if the
+     *         cell does not contain a value.
+     * @throws IllegalArgumentException
+     *             if the column is not a numeric column.
+     */
+    double getDouble(int columnIndex, int rowIndex);
+
+    /**
+     * Returns the value of a numeric cell as long without boxing.
+     *
+     * @param columnIndex
+     *            The column index of the cell.
+     * @param rowIndex
+     *            The row index of the cell.
+     * @return The value of the cell as long or 0 if the cell does not contain
+     *         a value.
+     * @throws IllegalArgumentException
+     *             if the column is not a numeric column.
+     */
+    long getLong(int columnIndex, int rowIndex);
+
+    /**
+     * Compares the values of two rows in the given column without creating
+     * objects, e.g. for sorting. <code>null</code> values are treated as
+     * smaller than all other values.
+     *
+     * @param columnIndex
+     *            The column index of the values to compare.
+     * @param rowIndex1
+     *            The row index of the first value.
+     * @param rowIndex2
+     *            The row index of the second value.
+     * @return A negative number, zero or a positive number if the value of the
+     *         first row is less than, equal to, or greater than the value of
+     *         the second row.
+     */
+    int compare(int columnIndex, int rowIndex1, int rowIndex2);
+}
@@ -0,0 +1,417 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link IColumnPropertyAccessor} that accesses the properties of the row
+ * objects via getter and setter methods according to the Java conventions,
+ * like the {@link ReflectiveColumnPropertyAccessor}. Instead of invoking the
+ * methods via reflection on every access, functions are created once per row
+ * object class and property via {@link LambdaMetafactory}, which can be
+ * inlined by the JIT compiler like a direct method call. If a function can
+ * not be created, e.g. because the row object class is not accessible, a
+ * {@link MethodHandle} is used.
+ * <p>
+ * The created functions are stored in concurrent maps, so after the first
+ * access for a row object class the access is lock-free. This way parallel
+ * operations like sorting, filtering or summary calculations do not block each
+ * other.
+ * </p>
+ * <p>
+ * Like the {@link ExtendedReflectiveColumnPropertyAccessor} it supports dot
+ * separated property names to access properties of nested objects, e.g.
+ * <i>address.street</i>. If an object in the path is <code>null</code>, the
+ * value is <code>null</code> and setting a value has no effect.
+ * </p>
+ *
+ * @param <R>
+ *            type of the row object/bean
+ *
+ * @since 2.1
+ */
+public class MethodHandleColumnPropertyAccessor<R> implements IColumnPropertyAccessor<R> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandleColumnPropertyAccessor.class);
+
+    private final List<String> propertyNames;
+
+    private final PropertyPath[] propertyPaths;
+
+    /**
+     * @param propertyNames
+     *            of the members of the row bean, can be dot separated to
+     *            access nested properties
+     */
+    public MethodHandleColumnPropertyAccessor(String... propertyNames) {
+        this(Arrays.asList(propertyNames));
+    }
+
+    /**
+     * @param propertyNames
+     *            of the members of the row bean, can be dot separated to
+     *            access nested properties
+     */
+    public MethodHandleColumnPropertyAccessor(List<String> propertyNames) {
+        this.propertyNames = propertyNames;
+        this.propertyPaths = new PropertyPath[propertyNames.size()];
+        for (int i = 0; i < this.propertyPaths.length; i++) {
+            this.propertyPaths[i] = new PropertyPath(propertyNames.get(i));
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.propertyNames.size();
+    }
+
+    @Override
+    public Object getDataValue(R rowObj, int columnIndex) {
+        return this.propertyPaths[columnIndex].getValue(rowObj);
+    }
+
+    @Override
+    public void setDataValue(R rowObj, int columnIndex, Object newValue) {
+        this.propertyPaths[columnIndex].setValue(rowObj, newValue);
+    }
+
+    @Override
+    public String getColumnProperty(int columnIndex) {
+        return this.propertyNames.get(columnIndex);
+    }
+
+    @Override
+    public int getColumnIndex(String propertyName) {
+        return this.propertyNames.indexOf(propertyName);
+    }
+
+    /**
+     * The path of the properties for a dot separated property name.
+     */
+    private static final class PropertyPath {
+
+        private final Property[] properties;
+
+        PropertyPath(String propertyName) {
+            String[] names = propertyName.split("\\."); //$NON-NLS-1$
+            this.properties = new Property[names.length];
+            for (int i = 0; i < names.length; i++) {
+                this.properties[i] = new Property(names[i]);
+            }
+        }
+
+        Object getValue(Object rowObj) {
+            Object current = rowObj;
+            for (Property property : this.properties) {
+                current = property.getValue(current);
+                if (current == null) {
+                    // null is the correct return value if an object in the
+                    // path is null
+                    break;
+                }
+            }
+            return current;
+        }
+
+        void setValue(Object rowObj, Object value) {
+            Object current = rowObj;
+            int last = this.properties.length - 1;
+            for (int i = 0; i < last; i++) {
+                current = this.properties[i].getValue(current);
+                if (current == null) {
+                    // no object found, stop further processing
+                    return;
+                }
+            }
+            this.properties[last].setValue(current, value);
+        }
+    }
+
+    /**
+     * A single property whose accessors are created per bean class.
+     */
+    private static final class Property {
+
+        private final String name;
+
+        /**
+         * The accessors of the last accessed bean class, to avoid the map
+         * lookup for the common case of a single row object type.
+         */
+        private volatile PropertyAccessors lastAccessors;
+
+        private final Map<Class<?>, PropertyAccessors> accessors = new ConcurrentHashMap<>();
+
+        Property(String name) {
+            this.name = name;
+        }
+
+        private PropertyAccessors getAccessors(Class<?> beanClass) {
+            PropertyAccessors result = this.lastAccessors;
+            if (result == null || result.beanClass != beanClass) {
+                result = this.accessors.computeIfAbsent(beanClass, c -> new PropertyAccessors(c, this.name));
+                this.lastAccessors = result;
+            }
+            return result;
+        }
+
+        Object getValue(Object bean) {
+            PropertyAccessors propertyAccessors = getAccessors(bean.getClass());
+            if (propertyAccessors.readMethod == null) {
+                throw new IllegalStateException(
+                        "Getter method for property " + this.name + " not found in " + bean.getClass().getName()); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+
+            try {
+                return propertyAccessors.get(bean);
+            } catch (RuntimeException e) {
+                LOG.warn("Error on getting data value", e); //$NON-NLS-1$
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void setValue(Object bean, Object value) {
+            PropertyAccessors propertyAccessors = getAccessors(bean.getClass());
+            if (propertyAccessors.writeMethod == null) {
+                throw new IllegalStateException(
+                        "Setter method for property " + this.name + " not found in " + bean.getClass().getName()); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+
+            if (value == null && propertyAccessors.writeMethod.getParameterTypes()[0].isPrimitive()) {
+                LOG.error("Can not set null to primitive property " + this.name); //$NON-NLS-1$
+                return;
+            }
+
+            try {
+                propertyAccessors.set(bean, value);
+            } catch (IllegalArgumentException ex) {
+                LOG.error("Data type being set does not match the data type of the setter method in the backing bean", ex); //$NON-NLS-1$
+            } catch (RuntimeException e) {
+                LOG.error("Error while setting data value", e); //$NON-NLS-1$
+                throw new IllegalStateException("Error while setting data value"); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * The getter and setter functions of a property for a bean class.
+     */
+    private static final class PropertyAccessors {
+
+        final Class<?> beanClass;
+        final Method readMethod;
+        final Method writeMethod;
+
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+
+        /**
+         * The wrapped parameter type of the setter, used to check if a value
+         * can be passed to the created setter function.
+         */
+        private final Class<?> valueType;
+
+        PropertyAccessors(Class<?> beanClass, String propertyName) {
+            this.beanClass = beanClass;
+
+            PropertyDescriptor descriptor = null;
+            try {
+                for (PropertyDescriptor pd : Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+                    if (pd.getName().equals(propertyName)) {
+                        descriptor = pd;
+                        break;
+                    }
+                }
+            } catch (IntrospectionException e) {
+                LOG.warn("Error on introspecting " + beanClass.getName(), e); //$NON-NLS-1$
+            }
+
+            this.readMethod = (descriptor != null) ? descriptor.getReadMethod() : null;
+            this.writeMethod = (descriptor != null) ? descriptor.getWriteMethod() : null;
+
+            // a function can only be created if the types of the method are
+            // visible for the class loader of the created function, which is
+            // not the case e.g. in OSGi if the bean bundle is not imported
+            if (this.readMethod == null) {
+                this.getter = null;
+            } else {
+                this.getter = isVisible(this.readMethod)
+                        ? createGetter(this.readMethod)
+                        : createHandleGetter(this.readMethod);
+            }
+
+            if (this.writeMethod == null) {
+                this.setter = null;
+                this.valueType = null;
+            } else {
+                this.setter = isVisible(this.writeMethod)
+                        ? createSetter(this.writeMethod)
+                        : createHandleSetter(this.writeMethod);
+                this.valueType = wrap(this.writeMethod.getParameterTypes()[0]);
+            }
+        }
+
+        Object get(Object bean) {
+            return this.getter.apply(bean);
+        }
+
+        void set(Object bean, Object value) {
+            if (value == null || this.valueType.isInstance(value)) {
+                this.setter.accept(bean, value);
+            } else {
+                // the value type does not match exactly, e.g. an Integer for a
+                // long property, use reflection which supports widening
+                try {
+                    this.writeMethod.invoke(bean, value);
+                } catch (InvocationTargetException e) {
+                    throw new IllegalStateException(e.getCause());
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the declaring class, the parameter types and the return type
+     * of the given method are visible for the class loader of this class.
+     *
+     * @param method
+     *            The method to check.
+     * @return <code>true</code> if all types of the given method are visible,
+     *         <code>false</code> if not.
+     */
+    private static boolean isVisible(Method method) {
+        if (!isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!isVisible(parameterType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, MethodHandleColumnPropertyAccessor.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createGetter(Method method) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply", //$NON-NLS-1$
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(wrap(method.getReturnType()), method.getDeclaringClass()));
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // e.g. the bean class is not public
+            return createHandleGetter(method);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createSetter(Method method) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "accept", //$NON-NLS-1$
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, method.getDeclaringClass(), wrap(method.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // e.g. the bean class is not public
+            return createHandleSetter(method);
+        }
+    }
+
+    private static Function<Object, Object> createHandleGetter(Method method) {
+        MethodHandle handle = unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+        return bean -> {
+            try {
+                return handle.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static BiConsumer<Object, Object> createHandleSetter(Method method) {
+        MethodHandle handle = unreflect(method).asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (bean, value) -> {
+            try {
+                handle.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            // e.g. the bean class is not public, suppress the access check
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method);
+            } catch (IllegalAccessException | RuntimeException ex) {
+                throw new IllegalStateException("Method " + method + " is not accessible", ex); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
@@ -14,8 +14,10 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommandHandler;
 import org.eclipse.nebula.widgets.nattable.datachange.command.DiscardDataChangesCommandHandler;
@@ -24,6 +26,7 @@
 import org.eclipse.nebula.widgets.nattable.datachange.event.DiscardDataChangesCompletedEvent;
 import org.eclipse.nebula.widgets.nattable.datachange.event.SaveDataChangesCompletedEvent;
 import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.edit.event.DataUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractIndexLayerTransform;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
@@ -63,6 +66,34 @@ public class DataChangeLayer extends AbstractIndexLayerTransform {
      */
     protected final List<DataChange> dataChanges = new ArrayList<>();
 
+    /**
+     * The position in {@link #dataChanges} of the last
+     * {@link PersistenceUpdateDataChange} or {@link TemporaryUpdateDataChange}
+     * per key, used to compact repeated changes of the same cell. Cleared on
+     * structural changes, as they modify the keys and the order of the
+     * tracked changes. Access needs to be synchronized on
+     * {@link #dataChanges}.
+     */
+    private final Map<Object, Integer> updateChangePositions = new HashMap<>();
+
+    /**
+     * Flag to configure whether repeated changes of the same cell should be
+     * compacted.
+     */
+    private boolean compactDataChanges = false;
+
+    /**
+     * Flag to configure whether the {@link DataUpdateEvent}s caused by saving
+     * or discarding should be propagated.
+     */
+    private boolean consolidateDataUpdateEvents = false;
+
+    /**
+     * Flag that is set while saving or discarding with consolidated events, to
+     * avoid propagating a {@link DataUpdateEvent} for every processed change.
+     */
+    private boolean suppressDataUpdateEvents = false;
+
     /**
      * Data provider that returns temporary stored data changes.
      */
@@ -191,7 +222,14 @@ public Object getDataValueByPosition(int columnPosition, int rowPosition) {
 
     @Override
     public void handleLayerEvent(ILayerEvent event) {
+        if (this.suppressDataUpdateEvents && event instanceof DataUpdateEvent) {
+            // on save or discard a single event is fired at the end
+            return;
+        }
         if (event instanceof IStructuralChangeEvent) {
+            synchronized (this.dataChanges) {
+                this.updateChangePositions.clear();
+            }
             IStructuralChangeEvent structuralChangeEvent = (IStructuralChangeEvent) event;
             if (structuralChangeEvent.getColumnDiffs() == null
                     && structuralChangeEvent.getRowDiffs() == null
@@ -263,10 +301,66 @@ public final List<DataChangeHandler> getDataChangeHandler() {
      */
     public void addDataChange(DataChange change) {
         synchronized (this.dataChanges) {
+            if (change instanceof PersistenceUpdateDataChange || change instanceof TemporaryUpdateDataChange) {
+                if (this.compactDataChanges) {
+                    Integer position = this.updateChangePositions.get(change.getKey());
+                    if (position != null
+                            && position < this.dataChanges.size()
+                            && this.dataChanges.get(position).getClass().equals(change.getClass())
+                            && change.getKey().equals(this.dataChanges.get(position).getKey())) {
+                        if (change instanceof TemporaryUpdateDataChange) {
+                            // only the last value needs to be saved
+                            this.dataChanges.set(position, change);
+                        }
+                        // for persistence updates the first change contains
+                        // the value that needs to be restored on discard
+                        return;
+                    }
+                }
+                this.updateChangePositions.put(change.getKey(), this.dataChanges.size());
+            } else {
+                // the order of updates and other changes needs to be kept
+                this.updateChangePositions.clear();
+            }
             this.dataChanges.add(change);
         }
     }
 
+    /**
+     *
+     * @return <code>true</code> if repeated changes of the same cell are
+     *         compacted to a single {@link DataChange}, <code>false</code> if
+     *         every change is tracked.
+     *
+     * @since 2.1
+     */
+    public boolean isCompactDataChanges() {
+        return this.compactDataChanges;
+    }
+
+    /**
+     * Configure whether repeated changes of the same cell should be compacted
+     * to a single {@link DataChange}. For a
+     * {@link PersistenceUpdateDataChange} the first change is kept, as it
+     * contains the value to restore on discard. For a
+     * {@link TemporaryUpdateDataChange} the last change is kept, as it contains
+     * the value to save. Changes are only compacted if no other type of change
+     * was tracked in between. Disabled by default.
+     *
+     * @param compactDataChanges
+     *            <code>true</code> if repeated changes of the same cell should
+     *            be compacted, <code>false</code> if every change should be
+     *            tracked.
+     *
+     * @since 2.1
+     */
+    public void setCompactDataChanges(boolean compactDataChanges) {
+        synchronized (this.dataChanges) {
+            this.compactDataChanges = compactDataChanges;
+            this.updateChangePositions.clear();
+        }
+    }
+
     /**
      *
      * @return The list of {@link DataChange}s that need to be handled on save
@@ -276,10 +370,43 @@ public List<DataChange> getDataChanges() {
         return this.dataChanges;
     }
 
+    /**
+     *
+     * @return <code>true</code> if the {@link DataUpdateEvent}s caused by
+     *         saving or discarding are not propagated, <code>false</code> if
+     *         they are propagated.
+     *
+     * @since 2.1
+     */
+    public boolean isConsolidateDataUpdateEvents() {
+        return this.consolidateDataUpdateEvents;
+    }
+
+    /**
+     * Configure whether the {@link DataUpdateEvent}s caused by saving or
+     * discarding should be propagated to the upper layers. If enabled, only
+     * the final {@link SaveDataChangesCompletedEvent} or
+     * {@link DiscardDataChangesCompletedEvent} is fired, which causes a single
+     * refresh instead of handling an event per changed cell. Disabled by
+     * default.
+     *
+     * @param consolidate
+     *            <code>true</code> if only a single event should be fired on
+     *            save or discard, <code>false</code> if every
+     *            {@link DataUpdateEvent} should be propagated.
+     *
+     * @since 2.1
+     */
+    public void setConsolidateDataUpdateEvents(boolean consolidate) {
+        this.consolidateDataUpdateEvents = consolidate;
+    }
+
     /**
      * Discards the tracked data changes. In case temporary data storage is
      * disabled, the applied changes are undone by restoring the previous values
      * via dedicated {@link UpdateDataCommand}s.
+     *
+     * @see #setConsolidateDataUpdateEvents(boolean)
      */
     public void discardDataChanges() {
         // avoid handling of data change tracking that are caused by restoring
@@ -288,12 +415,17 @@ public void discardDataChanges() {
             handler.disableTracking();
         }
 
-        synchronized (this.dataChanges) {
-            ListIterator<DataChange> listIter = this.dataChanges.listIterator(this.dataChanges.size());
-            while (listIter.hasPrevious()) {
-                DataChange change = listIter.previous();
-                change.discard(this);
+        this.suppressDataUpdateEvents = this.consolidateDataUpdateEvents;
+        try {
+            synchronized (this.dataChanges) {
+                ListIterator<DataChange> listIter = this.dataChanges.listIterator(this.dataChanges.size());
+                while (listIter.hasPrevious()) {
+                    DataChange change = listIter.previous();
+                    change.discard(this);
+                }
             }
+        } finally {
+            this.suppressDataUpdateEvents = false;
         }
 
         // enable tracking again
@@ -316,6 +448,8 @@ public void discardDataChanges() {
      * performs a custom action and afterwards calls this method to ensure a
      * clear state in this layer.
      * </p>
+     *
+     * @see #setConsolidateDataUpdateEvents(boolean)
      */
     public void saveDataChanges() {
         // avoid handling of data change tracking that are caused by saving data
@@ -324,10 +458,15 @@ public void saveDataChanges() {
             handler.disableTracking();
         }
 
-        synchronized (this.dataChanges) {
-            for (DataChange change : this.dataChanges) {
-                change.save(this);
+        this.suppressDataUpdateEvents = this.consolidateDataUpdateEvents;
+        try {
+            synchronized (this.dataChanges) {
+                for (DataChange change : this.dataChanges) {
+                    change.save(this);
+                }
             }
+        } finally {
+            this.suppressDataUpdateEvents = false;
         }
 
         // enable tracking again
@@ -348,6 +487,7 @@ public void clearDataChanges() {
         }
         synchronized (this.dataChanges) {
             this.dataChanges.clear();
+            this.updateChangePositions.clear();
         }
     }
 
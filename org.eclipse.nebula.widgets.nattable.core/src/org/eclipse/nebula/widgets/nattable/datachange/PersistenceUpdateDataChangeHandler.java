@@ -56,8 +56,7 @@ public void handleLayerEvent(DataUpdateEvent event) {
                     UpdateDataChange stored = this.dataChanges.get(key);
                     if (stored == null) {
                         // update the position tracking
-                        this.changedColumns.add(event.getColumnPosition());
-                        this.changedRows.add(event.getRowPosition());
+                        addChangedCell(event.getColumnPosition(), event.getRowPosition());
 
                         // store the change locally
                         this.dataChanges.put(key, new PersistenceUpdateDataChange(key, event.getOldValue(), this.keyHandler));
@@ -48,6 +48,9 @@ public TemporaryUpdateDataChangeHandler(DataChangeLayer layer, CellKeyHandler<?>
 
     @Override
     public boolean tracksDataChange(int columnPosition, int rowPosition) {
+        if (!containsChangedCell(columnPosition, rowPosition)) {
+            return false;
+        }
         Object key = this.keyHandler.getKey(columnPosition, rowPosition);
         return (key != null && this.dataChanges.containsKey(key));
     }
@@ -91,8 +94,7 @@ public boolean doCommand(ILayer targetLayer, UpdateDataCommand command) {
                             rebuildPositionCollections();
                         } else {
                             // update the position tracking
-                            this.changedColumns.add(columnPosition);
-                            this.changedRows.add(rowPosition);
+                            addChangedCell(columnPosition, rowPosition);
 
                             // store the change locally
                             this.dataChanges.put(key, change);
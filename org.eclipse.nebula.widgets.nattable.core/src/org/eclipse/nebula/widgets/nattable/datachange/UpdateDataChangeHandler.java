@@ -22,6 +22,8 @@
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.LongSets;
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.edit.event.DataUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
@@ -45,6 +47,15 @@
      */
     protected final Set<Integer> changedRows = new HashSet<>();
 
+    /**
+     * The dirty cells as combined column and row index, see
+     * {@link #toCellIndex(int, int)}. Used to check the dirty state of a cell
+     * without creating a key via {@link CellKeyHandler}.
+     *
+     * @since 2.1
+     */
+    protected final MutableLongSet changedCells = LongSets.mutable.empty();
+
     /**
      * Flag to configure if the tracked changes in the {@link DataChangeLayer}
      * should be updated on horizontal/column structural changes.
@@ -398,6 +409,7 @@ public void clearDataChanges() {
         super.clearDataChanges();
         this.changedColumns.clear();
         this.changedRows.clear();
+        this.changedCells.clear();
     }
 
     /**
@@ -458,13 +470,15 @@ protected void removeChangesForDeletedRowObjects() {
     }
 
     /**
-     * Rebuilds the {@link #changedColumns} and {@link #changedRows} collections
-     * based on the updated {@link #dataChanges} map.
+     * Rebuilds the {@link #changedColumns}, {@link #changedRows} and
+     * {@link #changedCells} collections based on the updated
+     * {@link #dataChanges} map.
      */
     @SuppressWarnings("unchecked")
     protected void rebuildPositionCollections() {
         this.changedColumns.clear();
         this.changedRows.clear();
+        this.changedCells.clear();
         for (Iterator<Object> it = this.dataChanges.keySet().iterator(); it.hasNext();) {
             Object key = it.next();
             int columnIndex = this.keyHandler.getColumnIndex(key);
@@ -472,10 +486,59 @@ protected void rebuildPositionCollections() {
             if (columnIndex >= 0 && rowIndex >= 0) {
                 this.changedColumns.add(columnIndex);
                 this.changedRows.add(rowIndex);
+                this.changedCells.add(toCellIndex(columnIndex, rowIndex));
             }
         }
     }
 
+    /**
+     * Updates the {@link #changedColumns}, {@link #changedRows} and
+     * {@link #changedCells} collections for a newly tracked cell.
+     *
+     * @param columnPosition
+     *            The column position of the changed cell.
+     * @param rowPosition
+     *            The row position of the changed cell.
+     *
+     * @since 2.1
+     */
+    protected void addChangedCell(int columnPosition, int rowPosition) {
+        this.changedColumns.add(columnPosition);
+        this.changedRows.add(rowPosition);
+        this.changedCells.add(toCellIndex(columnPosition, rowPosition));
+    }
+
+    /**
+     * Checks via {@link #changedCells} if there is a tracked change for the
+     * given cell, without creating a key.
+     *
+     * @param columnPosition
+     *            The column position of the cell to check.
+     * @param rowPosition
+     *            The row position of the cell to check.
+     * @return <code>true</code> if a change for the given cell is tracked.
+     *
+     * @since 2.1
+     */
+    protected boolean containsChangedCell(int columnPosition, int rowPosition) {
+        return this.changedCells.contains(toCellIndex(columnPosition, rowPosition));
+    }
+
+    /**
+     * Combines the given column and row index to a single long value.
+     *
+     * @param columnIndex
+     *            The column index.
+     * @param rowIndex
+     *            The row index.
+     * @return The combined cell index.
+     *
+     * @since 2.1
+     */
+    protected static long toCellIndex(int columnIndex, int rowIndex) {
+        return ((long) columnIndex << 32) | (rowIndex & 0xFFFFFFFFL);
+    }
+
     @Override
     public boolean isColumnDirty(int columnPosition) {
         return this.changedColumns.contains(columnPosition);
@@ -488,6 +551,9 @@ public boolean isRowDirty(int rowPosition) {
 
     @Override
     public boolean isCellDirty(int columnPosition, int rowPosition) {
+        if (!containsChangedCell(columnPosition, rowPosition)) {
+            return false;
+        }
         Object key = this.keyHandler.getKey(columnPosition, rowPosition);
         if (key != null) {
             return this.dataChanges.containsKey(key);
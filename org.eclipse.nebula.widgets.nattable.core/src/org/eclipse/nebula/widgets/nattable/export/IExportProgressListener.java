@@ -0,0 +1,51 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.export;
+
+/**
+ * Listener that is informed about the progress of an export that is performed
+ * in the background by the {@link NatExporter}.
+ *
+ * @see NatExporter#enableBackgroundExport()
+ * @since 2.1
+ */
+public interface IExportProgressListener {
+
+    /**
+     * Called after a chunk of rows was written by the exporter. Called in the
+     * background export thread.
+     *
+     * @param exportedRows
+     *            The number of rows that are written so far.
+     * @param totalRows
+     *            The number of rows of all layers that are exported. Can be
+     *            larger than the number of rows that are written at the end,
+     *            as rows with a height of 0 are not exported.
+     * @param rowsPerSecond
+     *            The average throughput of the export since its start.
+     */
+    void exportProgress(int exportedRows, int totalRows, double rowsPerSecond);
+
+    /**
+     * Called once the export is finished. Called in the UI thread if the
+     * {@link NatExporter} was created with a Shell.
+     *
+     * @param succeeded
+     *            <code>true</code> if the export was written completely.
+     * @param cancelled
+     *            <code>true</code> if the export was cancelled.
+     */
+    default void exportFinished(boolean succeeded, boolean cancelled) {
+        // do nothing by default
+    }
+}
@@ -16,7 +16,17 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.nebula.widgets.nattable.Messages;
 import org.eclipse.nebula.widgets.nattable.NatTable;
@@ -94,6 +104,47 @@ public class NatExporter {
      */
     private boolean runAsynchronously = true;
 
+    /**
+     * The default number of rows that are collected in the UI thread at once
+     * in case of a background export.
+     *
+     * @since 2.1
+     */
+    public static final int DEFAULT_EXPORT_CHUNK_SIZE = 100;
+
+    /**
+     * The default number of collected chunks that can be pending for being
+     * written by the exporter in case of a background export.
+     *
+     * @since 2.1
+     */
+    public static final int DEFAULT_MAX_PENDING_CHUNKS = 10;
+
+    /**
+     * Flag to configure whether an export via {@link ILayerExporter} should be
+     * written in a background thread.
+     */
+    private boolean backgroundExport = false;
+    /**
+     * The number of rows that are collected in the UI thread at once in case
+     * of a background export.
+     */
+    private int exportChunkSize = DEFAULT_EXPORT_CHUNK_SIZE;
+    /**
+     * The number of collected chunks that can be pending for being written
+     * before the collection in the UI thread is suspended.
+     */
+    private int maxPendingChunks = DEFAULT_MAX_PENDING_CHUNKS;
+    /**
+     * The listeners that are informed about the progress of a background
+     * export.
+     */
+    private final List<IExportProgressListener> progressListeners = new CopyOnWriteArrayList<>();
+    /**
+     * The currently running background export.
+     */
+    private volatile BackgroundExport currentExport;
+
     /**
      * Create a new {@link NatExporter}.
      *
@@ -172,6 +223,15 @@ public void exportSingleLayer(
             final ILayer layer,
             final IConfigRegistry configRegistry) {
 
+        if (isBackgroundExport()) {
+            startBackgroundExport(
+                    exporter,
+                    exporter::exportBegin,
+                    Collections.singletonList(new ExportedLayer("", layer, configRegistry, true)), //$NON-NLS-1$
+                    exporter::exportEnd);
+            return;
+        }
+
         exportSingle(exporter, (exp, outputStream) -> {
             try {
                 exp.exportBegin(outputStream);
@@ -329,6 +389,30 @@ public void exportMultipleNatTables(
             final boolean exportOnSameSheet,
             final String sheetName) {
 
+        if (isBackgroundExport()) {
+            List<ExportedLayer> layers = new ArrayList<>();
+            for (Map.Entry<String, NatTable> entry : natTablesMap.entrySet()) {
+                layers.add(new ExportedLayer(entry.getKey(), entry.getValue(), entry.getValue().getConfigRegistry(), !exportOnSameSheet));
+            }
+            startBackgroundExport(
+                    exporter,
+                    outputStream -> {
+                        exporter.exportBegin(outputStream);
+                        exporter.setExportOnSameSheet(exportOnSameSheet);
+                        if (exportOnSameSheet) {
+                            exporter.exportLayerBegin(outputStream, sheetName);
+                        }
+                    },
+                    layers,
+                    outputStream -> {
+                        if (exportOnSameSheet) {
+                            exporter.exportLayerEnd(outputStream, sheetName);
+                        }
+                        exporter.exportEnd(outputStream);
+                    });
+            return;
+        }
+
         Runnable exportRunnable = () -> {
             final OutputStream outputStream = getOutputStream(exporter);
             if (outputStream != null) {
@@ -432,6 +516,10 @@ protected void exportLayer(
      * {@link ILayerExporter#exportBegin(OutputStream)} will be called once at
      * the very beginning, followed by n calls to this method, and finally
      * followed by {@link ILayerExporter#exportEnd(OutputStream)}.
+     * <p>
+     * This method is not called in case of a background export, see
+     * {@link #enableBackgroundExport()}.
+     * </p>
      *
      * @param exporter
      *            The {@link ILayerExporter} that should be used for exporting.
@@ -540,6 +628,39 @@ protected void exportLayer(
             final ILayer layer,
             final IConfigRegistry configRegistry) {
 
+        IClientAreaProvider originalClientAreaProvider = prepareLayer(layer, configRegistry);
+
+        ProgressBar progressBar = null;
+
+        if (this.shell != null) {
+            progressBar = openProgressDialog(layer.getRowCount() - 1);
+        }
+
+        try {
+            exporter.exportTable(this.shell, progressBar, outputStream, layer, configRegistry);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            // These must be fired at the end of the thread execution
+            restoreLayer(layer, originalClientAreaProvider);
+
+            closeProgressDialog(progressBar);
+        }
+    }
+
+    /**
+     * Prepares the given {@link ILayer} for the export, so it returns all cells
+     * and the exported values.
+     *
+     * @param layer
+     *            The {@link ILayer} that should be exported.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} needed for pre-rendering.
+     * @return The {@link IClientAreaProvider} of the layer before the export,
+     *         needed to restore the layer state via
+     *         {@link #restoreLayer(ILayer, IClientAreaProvider)}.
+     */
+    private IClientAreaProvider prepareLayer(ILayer layer, IConfigRegistry configRegistry) {
         if (this.preRender) {
             AutoResizeHelper.autoResize(layer, configRegistry);
         }
@@ -560,40 +681,61 @@ protected void exportLayer(
         // instead of the calculated value
         layer.doCommand(new DisableFormulaEvaluationCommand());
 
-        ProgressBar progressBar = null;
+        return originalClientAreaProvider;
+    }
 
-        if (this.shell != null) {
-            Shell childShell = new Shell(this.shell.getDisplay(), SWT.DIALOG_TRIM | SWT.APPLICATION_MODAL);
-            childShell.setText(Messages.getString("NatExporter.exporting")); //$NON-NLS-1$
+    /**
+     * Restores the state of the given {@link ILayer} that was changed by
+     * {@link #prepareLayer(ILayer, IConfigRegistry)}.
+     *
+     * @param layer
+     *            The {@link ILayer} that was exported.
+     * @param originalClientAreaProvider
+     *            The {@link IClientAreaProvider} of the layer before the
+     *            export.
+     */
+    private void restoreLayer(ILayer layer, IClientAreaProvider originalClientAreaProvider) {
+        layer.setClientAreaProvider(originalClientAreaProvider);
+        layer.doCommand(new TurnViewportOnCommand());
 
-            int endRow = layer.getRowCount() - 1;
+        layer.doCommand(new EnableFormulaEvaluationCommand());
+    }
 
-            progressBar = new ProgressBar(childShell, SWT.SMOOTH);
-            progressBar.setMinimum(0);
-            progressBar.setMaximum(endRow);
-            progressBar.setBounds(0, 0, 400, 25);
-            progressBar.setFocus();
+    /**
+     * Opens a modal dialog that shows the export progress.
+     *
+     * @param maximum
+     *            The maximum value of the {@link ProgressBar}.
+     * @return The {@link ProgressBar} that is shown in the dialog.
+     */
+    private ProgressBar openProgressDialog(int maximum) {
+        Shell childShell = new Shell(this.shell.getDisplay(), SWT.DIALOG_TRIM | SWT.APPLICATION_MODAL);
+        childShell.setText(Messages.getString("NatExporter.exporting")); //$NON-NLS-1$
 
-            childShell.pack();
-            childShell.open();
-        }
+        ProgressBar progressBar = new ProgressBar(childShell, SWT.SMOOTH);
+        progressBar.setMinimum(0);
+        progressBar.setMaximum(maximum);
+        progressBar.setBounds(0, 0, 400, 25);
+        progressBar.setFocus();
 
-        try {
-            exporter.exportTable(this.shell, progressBar, outputStream, layer, configRegistry);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        } finally {
-            // These must be fired at the end of the thread execution
-            layer.setClientAreaProvider(originalClientAreaProvider);
-            layer.doCommand(new TurnViewportOnCommand());
+        childShell.pack();
+        childShell.open();
 
-            layer.doCommand(new EnableFormulaEvaluationCommand());
+        return progressBar;
+    }
 
-            if (progressBar != null) {
-                Shell childShell = progressBar.getShell();
-                progressBar.dispose();
-                childShell.dispose();
-            }
+    /**
+     * Closes the dialog that was opened via {@link #openProgressDialog(int)}.
+     *
+     * @param progressBar
+     *            The {@link ProgressBar} that is shown in the dialog, can be
+     *            <code>null</code>.
+     */
+    private void closeProgressDialog(ProgressBar progressBar) {
+        if (progressBar != null && !progressBar.isDisposed()) {
+            Shell childShell = progressBar.getShell();
+            progressBar.dispose();
+            childShell.dispose();
         }
     }
 
@@ -708,4 +850,630 @@ public void enablePreRendering() {
     public void disablePreRendering() {
         this.preRender = false;
     }
+
+    /**
+     * Enable the background export. If enabled, exports via
+     * {@link ILayerExporter} are split in a producer and a consumer. The
+     * producer collects the cells and the export values in chunks in the UI
+     * thread, while the consumer writes them via the {@link ILayerExporter}
+     * in a background thread. This way the UI stays responsive while the
+     * export is written. The collection is suspended if the configured
+     * number of collected chunks is pending for being written.
+     * <p>
+     * The export can be cancelled via {@link #cancelExport()} or by closing
+     * the progress dialog. The progress and the throughput can be observed
+     * via {@link IExportProgressListener}.
+     * </p>
+     * <p>
+     * <b>Note:</b> The background export is only performed if the export
+     * should be executed asynchronously. The {@link ILayerExporter} is called
+     * in the background thread with copies of the cells. The layer of such a
+     * cell only provides the column widths at the time the layer was
+     * collected. The exporter should only read from the
+     * {@link IConfigRegistry} and the layer of a cell. An export via
+     * {@link ITableExporter} is not affected by this setting.
+     * </p>
+     * <p>
+     * The state of an exported layer is restored in the UI thread after all
+     * of its chunks are written. Error dialogs and the opening of the result
+     * are also performed in the UI thread.
+     * </p>
+     * <p>
+     * If no {@link Shell} is set, there is no UI thread to return to. In that
+     * case the export is completed before the export method returns. The
+     * chunks are collected in the calling thread while the background thread
+     * writes them, the collection is not suspended. Restoring the layers,
+     * handling errors and opening the result is performed in the calling
+     * thread after all chunks are written.
+     * </p>
+     * <p>
+     * <b>Note:</b> The background export does not call the
+     * <i>exportLayer</i> methods, as it collects the rows of a layer in
+     * multiple steps. Subclasses that override those methods to customize the
+     * export should not enable the background export.
+     * </p>
+     *
+     * @since 2.1
+     */
+    public void enableBackgroundExport() {
+        this.backgroundExport = true;
+    }
+
+    /**
+     * Disable the background export, so exports via {@link ILayerExporter} are
+     * completely performed in the UI thread.
+     *
+     * @since 2.1
+     */
+    public void disableBackgroundExport() {
+        this.backgroundExport = false;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the export will be performed in the
+     *         background.
+     * @see #enableBackgroundExport()
+     */
+    private boolean isBackgroundExport() {
+        return this.backgroundExport && this.runAsynchronously;
+    }
+
+    /**
+     *
+     * @param exportChunkSize
+     *            The number of rows that are collected in the UI thread at
+     *            once in case of a background export. Default is
+     *            {@link #DEFAULT_EXPORT_CHUNK_SIZE}.
+     *
+     * @since 2.1
+     */
+    public void setExportChunkSize(int exportChunkSize) {
+        if (exportChunkSize < 1) {
+            throw new IllegalArgumentException("exportChunkSize < 1"); //$NON-NLS-1$
+        }
+        this.exportChunkSize = exportChunkSize;
+    }
+
+    /**
+     *
+     * @return The number of rows that are collected in the UI thread at once
+     *         in case of a background export.
+     *
+     * @since 2.1
+     */
+    public int getExportChunkSize() {
+        return this.exportChunkSize;
+    }
+
+    /**
+     *
+     * @param maxPendingChunks
+     *            The number of collected chunks that can be pending for being
+     *            written before the collection in the UI thread is suspended.
+     *            Default is {@link #DEFAULT_MAX_PENDING_CHUNKS}.
+     *
+     * @since 2.1
+     */
+    public void setMaxPendingChunks(int maxPendingChunks) {
+        if (maxPendingChunks < 1) {
+            throw new IllegalArgumentException("maxPendingChunks < 1"); //$NON-NLS-1$
+        }
+        this.maxPendingChunks = maxPendingChunks;
+    }
+
+    /**
+     *
+     * @return The number of collected chunks that can be pending for being
+     *         written before the collection in the UI thread is suspended.
+     *
+     * @since 2.1
+     */
+    public int getMaxPendingChunks() {
+        return this.maxPendingChunks;
+    }
+
+    /**
+     * Adds a listener that is informed about the progress of a background
+     * export.
+     *
+     * @param listener
+     *            The listener to add.
+     *
+     * @since 2.1
+     */
+    public void addExportProgressListener(IExportProgressListener listener) {
+        this.progressListeners.add(listener);
+    }
+
+    /**
+     * Removes the given listener.
+     *
+     * @param listener
+     *            The listener to remove.
+     *
+     * @since 2.1
+     */
+    public void removeExportProgressListener(IExportProgressListener listener) {
+        this.progressListeners.remove(listener);
+    }
+
+    /**
+     * Cancels the currently running background export. The already written
+     * output is closed but not opened, and the state of the exported layers
+     * is restored.
+     *
+     * @since 2.1
+     */
+    public void cancelExport() {
+        BackgroundExport export = this.currentExport;
+        if (export != null) {
+            export.cancel();
+        }
+    }
+
+    /**
+     *
+     * @return <code>true</code> if a background export is currently running.
+     *
+     * @since 2.1
+     */
+    public boolean isExportRunning() {
+        return this.currentExport != null;
+    }
+
+    /**
+     * Starts a background export.
+     *
+     * @param exporter
+     *            The {@link ILayerExporter} to use for exporting.
+     * @param prologue
+     *            The step that is written before the layers are exported.
+     * @param layers
+     *            The layers to export.
+     * @param epilogue
+     *            The step that is written after all layers are exported.
+     */
+    private void startBackgroundExport(
+            ILayerExporter exporter,
+            ExportStep prologue,
+            List<ExportedLayer> layers,
+            ExportStep epilogue) {
+
+        OutputStream outputStream = getOutputStream(exporter);
+        if (outputStream != null) {
+            BackgroundExport export = new BackgroundExport(exporter, outputStream, prologue, layers, epilogue);
+            this.currentExport = export;
+            export.start();
+        }
+    }
+
+    /**
+     * A step of a background export that is written by the
+     * {@link ILayerExporter} in the background thread.
+     */
+    @FunctionalInterface
+    private interface ExportStep {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * A layer that should be exported in a background export.
+     */
+    private static final class ExportedLayer {
+        final String name;
+        final ILayer layer;
+        final IConfigRegistry configRegistry;
+        final boolean initExportLayer;
+
+        ExportedLayer(String name, ILayer layer, IConfigRegistry configRegistry, boolean initExportLayer) {
+            this.name = name;
+            this.layer = layer;
+            this.configRegistry = configRegistry;
+            this.initExportLayer = initExportLayer;
+        }
+    }
+
+    /**
+     * The steps that were collected at once by the producer of a background
+     * export.
+     */
+    private static final class ExportChunk {
+        final List<ExportStep> steps = new ArrayList<>();
+        final List<Runnable> restores = new ArrayList<>();
+        int rows = 0;
+        boolean last = false;
+        Exception error;
+    }
+
+    /**
+     * A running background export. The producer collects the cells in the UI
+     * thread in chunks and adds them to a queue, the consumer takes the chunks
+     * from the queue and writes them in a background thread. If the number of
+     * pending chunks reaches the configured maximum, the producer is suspended
+     * until the consumer took the next chunk.
+     */
+    private final class BackgroundExport {
+
+        private final ILayerExporter exporter;
+        private final OutputStream outputStream;
+        private final ExportStep prologue;
+        private final List<ExportedLayer> layers;
+        private final ExportStep epilogue;
+
+        private final int chunkSize;
+        private final int maxPending;
+
+        /**
+         * Executes the producer and the UI updates. Uses the Display if a
+         * Shell is set. Without a Shell the tasks are queued and executed in
+         * the calling thread after the consumer finished, and the producer is
+         * only executed on starting the export.
+         */
+        private final Executor uiExecutor;
+        private final Queue<Runnable> uiTasks = new ConcurrentLinkedQueue<>();
+
+        private final BlockingQueue<ExportChunk> chunks = new LinkedBlockingQueue<>();
+        private final AtomicBoolean producerSuspended = new AtomicBoolean(false);
+
+        /**
+         * Flag to stop the producer and the consumer.
+         */
+        private volatile boolean stopped = false;
+        /**
+         * Flag to indicate that the export was cancelled by the user.
+         */
+        private volatile boolean cancelled = false;
+
+        private ProgressBar progressBar;
+        private int totalRows = 0;
+
+        // producer state, only accessed by the producer
+        private int layerIndex = 0;
+        private int rowPosition = -1;
+        private int layerHeight;
+        private SnapshotLayer snapshotLayer;
+        private IClientAreaProvider originalClientAreaProvider;
+
+        BackgroundExport(
+                ILayerExporter exporter,
+                OutputStream outputStream,
+                ExportStep prologue,
+                List<ExportedLayer> layers,
+                ExportStep epilogue) {
+
+            this.exporter = exporter;
+            this.outputStream = outputStream;
+            this.prologue = prologue;
+            this.layers = layers;
+            this.epilogue = epilogue;
+            this.chunkSize = NatExporter.this.exportChunkSize;
+            this.maxPending = NatExporter.this.maxPendingChunks;
+            this.uiExecutor = (NatExporter.this.shell != null)
+                    ? NatExporter.this.shell.getDisplay()::asyncExec
+                    : this.uiTasks::add;
+        }
+
+        void start() {
+            for (ExportedLayer exported : this.layers) {
+                this.totalRows += exported.layer.getRowCount();
+            }
+
+            if (NatExporter.this.shell != null) {
+                this.progressBar = openProgressDialog(this.totalRows);
+                // closing the progress dialog cancels the export
+                this.progressBar.getShell().addListener(SWT.Close, event -> cancel());
+            }
+
+            Thread consumer = new Thread(this::consume, "NatExporter"); //$NON-NLS-1$
+            consumer.setDaemon(true);
+            consumer.start();
+
+            if (NatExporter.this.shell != null) {
+                this.uiExecutor.execute(this::produce);
+            } else {
+                // without a Shell there is no UI thread to return to, so all
+                // chunks are collected in the calling thread to ensure that
+                // the layer is not accessed by the consumer thread
+                boolean last = false;
+                while (!last) {
+                    last = produceChunk();
+                }
+
+                // the layers are restored and the result is handled in the
+                // calling thread after the consumer finished
+                boolean interrupted = false;
+                while (consumer.isAlive()) {
+                    try {
+                        consumer.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        cancel();
+                    }
+                }
+                Runnable task;
+                while ((task = this.uiTasks.poll()) != null) {
+                    task.run();
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            stop();
+        }
+
+        private void stop() {
+            this.stopped = true;
+            // a suspended producer needs to finish the layer processing
+            resumeProducer();
+        }
+
+        /**
+         * Collects the next chunk of rows and schedules the next execution.
+         * Executed in the UI thread.
+         */
+        private void produce() {
+            if (!produceChunk()) {
+                scheduleProducer();
+            }
+        }
+
+        /**
+         * Collects the next chunk of rows and adds it to the queue.
+         *
+         * @return <code>true</code> if the collected chunk is the last one.
+         */
+        private boolean produceChunk() {
+            ExportChunk chunk = new ExportChunk();
+            try {
+                while (!this.stopped
+                        && chunk.rows < this.chunkSize
+                        && this.layerIndex < this.layers.size()) {
+
+                    ExportedLayer exported = this.layers.get(this.layerIndex);
+                    if (this.rowPosition < 0) {
+                        this.originalClientAreaProvider = prepareLayer(exported.layer, exported.configRegistry);
+                        this.layerHeight = exported.layer.getHeight();
+                        this.snapshotLayer = new SnapshotLayer(exported.layer);
+                        this.rowPosition = 0;
+                        if (exported.initExportLayer) {
+                            chunk.steps.add(out -> this.exporter.exportLayerBegin(out, exported.name));
+                        }
+                    } else if (this.rowPosition < exported.layer.getRowCount()) {
+                        if (collectRow(exported, this.rowPosition, chunk)) {
+                            chunk.rows++;
+                        }
+                        this.rowPosition++;
+                    } else {
+                        if (exported.initExportLayer) {
+                            chunk.steps.add(out -> this.exporter.exportLayerEnd(out, exported.name));
+                        }
+                        finishLayer(chunk);
+                    }
+                }
+            } catch (Exception e) {
+                chunk.error = e;
+            }
+
+            chunk.last = this.stopped
+                    || chunk.error != null
+                    || this.layerIndex >= this.layers.size();
+
+            if (chunk.last) {
+                try {
+                    finishLayer(chunk);
+                } catch (Exception e) {
+                    if (chunk.error == null) {
+                        chunk.error = e;
+                    }
+                }
+            }
+
+            this.chunks.add(chunk);
+
+            return chunk.last;
+        }
+
+        /**
+         * Collects the cells of the given row if it is visible.
+         *
+         * @return <code>true</code> if the row was collected,
+         *         <code>false</code> if it is not visible.
+         */
+        private boolean collectRow(ExportedLayer exported, int row, ExportChunk chunk) {
+            ILayer layer = exported.layer;
+            if (layer.getRowHeightByPosition(row) <= 0
+                    || layer.getStartYOfRowPosition(row) >= this.layerHeight) {
+                return false;
+            }
+
+            IConfigRegistry configRegistry = exported.configRegistry;
+            int columnCount = layer.getColumnCount();
+            ILayerCell[] cells = new ILayerCell[columnCount];
+            Object[] values = new Object[columnCount];
+            int count = 0;
+            for (int columnPosition = 0; columnPosition < columnCount; columnPosition++) {
+                ILayerCell cell = layer.getCellByPosition(columnPosition, row);
+                if (cell != null) {
+                    IExportFormatter exportFormatter = configRegistry.getConfigAttribute(
+                            ExportConfigAttributes.EXPORT_FORMATTER,
+                            cell.getDisplayMode(),
+                            cell.getConfigLabels());
+                    values[count] = exportFormatter.formatForExport(cell, configRegistry);
+                    cells[count] = new SnapshotLayerCell(cell, this.snapshotLayer);
+                    count++;
+                }
+            }
+
+            int cellCount = count;
+            chunk.steps.add(out -> {
+                this.exporter.exportRowBegin(out, row);
+                for (int i = 0; i < cellCount; i++) {
+                    this.exporter.exportCell(out, values[i], cells[i], configRegistry);
+                }
+                this.exporter.exportRowEnd(out, row);
+            });
+            return true;
+        }
+
+        /**
+         * Moves to the next layer. The state of the currently processed layer
+         * is restored after the consumer has written the given chunk, which is
+         * the last one containing cells of that layer.
+         *
+         * @param chunk
+         *            The chunk that is currently collected.
+         */
+        private void finishLayer(ExportChunk chunk) {
+            if (this.rowPosition >= 0) {
+                ExportedLayer exported = this.layers.get(this.layerIndex);
+                IClientAreaProvider clientAreaProvider = this.originalClientAreaProvider;
+                chunk.restores.add(() -> restoreLayer(exported.layer, clientAreaProvider));
+                this.rowPosition = -1;
+                this.layerIndex++;
+                this.snapshotLayer = null;
+                this.originalClientAreaProvider = null;
+            }
+        }
+
+        /**
+         * Schedules the next execution of the producer, or suspends it if the
+         * maximum number of chunks is pending.
+         */
+        private void scheduleProducer() {
+            if (this.chunks.size() < this.maxPending) {
+                this.uiExecutor.execute(this::produce);
+            } else {
+                this.producerSuspended.set(true);
+                // the consumer might have taken a chunk in the meantime
+                if (this.chunks.size() < this.maxPending) {
+                    resumeProducer();
+                }
+            }
+        }
+
+        private void resumeProducer() {
+            if (this.producerSuspended.compareAndSet(true, false)) {
+                this.uiExecutor.execute(this::produce);
+            }
+        }
+
+        /**
+         * Writes the collected chunks. Executed in the background thread.
+         */
+        private void consume() {
+            Exception error = null;
+            int exportedRows = 0;
+            long start = System.nanoTime();
+
+            try {
+                this.prologue.write(this.outputStream);
+            } catch (Exception e) {
+                error = e;
+                stop();
+            }
+
+            boolean last = false;
+            while (!last) {
+                ExportChunk chunk;
+                try {
+                    chunk = this.chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (error == null) {
+                        error = e;
+                    }
+                    stop();
+                    break;
+                }
+                resumeProducer();
+
+                last = chunk.last;
+                if (chunk.error != null && error == null) {
+                    error = chunk.error;
+                }
+
+                if (error == null && !this.stopped) {
+                    try {
+                        for (ExportStep step : chunk.steps) {
+                            if (this.stopped) {
+                                break;
+                            }
+                            step.write(this.outputStream);
+                        }
+                        if (chunk.rows > 0) {
+                            exportedRows += chunk.rows;
+                            reportProgress(exportedRows, System.nanoTime() - start);
+                        }
+                    } catch (Exception e) {
+                        error = e;
+                        stop();
+                    }
+                }
+
+                // the chunk is written, so the finished layers can be restored
+                for (Runnable restore : chunk.restores) {
+                    this.uiExecutor.execute(restore);
+                }
+            }
+
+            boolean succeeded = false;
+            if (error == null && !this.stopped) {
+                try {
+                    this.epilogue.write(this.outputStream);
+                    succeeded = true;
+                } catch (Exception e) {
+                    error = e;
+                }
+            }
+
+            try {
+                this.outputStream.close();
+            } catch (IOException e) {
+                LOG.error("Failed to close the output stream", e); //$NON-NLS-1$
+            }
+
+            finish(succeeded, error);
+        }
+
+        private void reportProgress(int exportedRows, long elapsedNanos) {
+            double rowsPerSecond = (elapsedNanos > 0) ? exportedRows * 1_000_000_000d / elapsedNanos : 0;
+            for (IExportProgressListener listener : NatExporter.this.progressListeners) {
+                listener.exportProgress(exportedRows, this.totalRows, rowsPerSecond);
+            }
+
+            if (this.progressBar != null) {
+                this.uiExecutor.execute(() -> {
+                    if (!this.progressBar.isDisposed()) {
+                        this.progressBar.setSelection(exportedRows);
+                    }
+                });
+            }
+        }
+
+        private void finish(boolean succeeded, Exception error) {
+            this.uiExecutor.execute(() -> {
+                closeProgressDialog(this.progressBar);
+
+                if (NatExporter.this.currentExport == this) {
+                    NatExporter.this.currentExport = null;
+                }
+
+                NatExporter.this.exportSucceeded = succeeded;
+                if (error != null) {
+                    handleExportException(error);
+                } else {
+                    openExport(this.exporter);
+                }
+
+                for (IExportProgressListener listener : NatExporter.this.progressListeners) {
+                    listener.exportFinished(succeeded, this.cancelled);
+                }
+            });
+        }
+    }
 }
@@ -0,0 +1,71 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.export;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+
+/**
+ * {@link DataLayer} that contains a copy of the column widths of another layer
+ * at the time it was created. Used by the {@link NatExporter} as the layer of
+ * the {@link SnapshotLayerCell}s that are handed over to the exporter that runs
+ * in a background thread. This way the exporter can check the column widths
+ * and the hidden columns without accessing the exported layer, which could be
+ * modified or restored in the UI thread in the meantime.
+ * <p>
+ * Only the column and row count and the column widths are copied. The data
+ * values are not provided, they are contained in the cells.
+ * </p>
+ *
+ * @since 2.1
+ */
+final class SnapshotLayer extends DataLayer {
+
+    /**
+     *
+     * @param layer
+     *            The layer whose column widths should be copied.
+     */
+    SnapshotLayer(ILayer layer) {
+        super(createDataProvider(layer.getColumnCount(), layer.getRowCount()));
+        for (int columnPosition = 0; columnPosition < layer.getColumnCount(); columnPosition++) {
+            setColumnWidthByPosition(columnPosition, layer.getColumnWidthByPosition(columnPosition), false);
+        }
+    }
+
+    private static IDataProvider createDataProvider(int columnCount, int rowCount) {
+        return new IDataProvider() {
+
+            @Override
+            public Object getDataValue(int columnIndex, int rowIndex) {
+                return null;
+            }
+
+            @Override
+            public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int getColumnCount() {
+                return columnCount;
+            }
+
+            @Override
+            public int getRowCount() {
+                return rowCount;
+            }
+        };
+    }
+}
@@ -0,0 +1,146 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.export;
+
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * {@link ILayerCell} that contains a copy of the state of another cell at the
+ * time it was created. Used by the {@link NatExporter} to hand over cells that
+ * were collected in the UI thread to the exporter that runs in a background
+ * thread, so the exporter does not need to access the layer for the cell
+ * information. The layer of the cell is a {@link SnapshotLayer} that contains
+ * the column widths of the exported layer.
+ *
+ * @since 2.1
+ */
+final class SnapshotLayerCell implements ILayerCell {
+
+    private final ILayer layer;
+    private final int originColumnPosition;
+    private final int originRowPosition;
+    private final int columnPosition;
+    private final int rowPosition;
+    private final int columnIndex;
+    private final int rowIndex;
+    private final int columnSpan;
+    private final int rowSpan;
+    private final DisplayMode displayMode;
+    private final LabelStack configLabels;
+    private final Object dataValue;
+    private final Rectangle bounds;
+
+    /**
+     *
+     * @param cell
+     *            The cell whose current state should be copied.
+     * @param layer
+     *            The {@link SnapshotLayer} of the layer the cell belongs to.
+     */
+    SnapshotLayerCell(ILayerCell cell, SnapshotLayer layer) {
+        this.layer = layer;
+        this.originColumnPosition = cell.getOriginColumnPosition();
+        this.originRowPosition = cell.getOriginRowPosition();
+        this.columnPosition = cell.getColumnPosition();
+        this.rowPosition = cell.getRowPosition();
+        this.columnIndex = cell.getColumnIndex();
+        this.rowIndex = cell.getRowIndex();
+        this.columnSpan = cell.getColumnSpan();
+        this.rowSpan = cell.getRowSpan();
+        this.displayMode = cell.getDisplayMode();
+        this.configLabels = cell.getConfigLabels();
+        this.dataValue = cell.getDataValue();
+        Rectangle cellBounds = cell.getBounds();
+        this.bounds = (cellBounds != null)
+                ? new Rectangle(cellBounds.x, cellBounds.y, cellBounds.width, cellBounds.height)
+                : null;
+    }
+
+    @Override
+    public int getOriginColumnPosition() {
+        return this.originColumnPosition;
+    }
+
+    @Override
+    public int getOriginRowPosition() {
+        return this.originRowPosition;
+    }
+
+    /**
+     * Returns the {@link SnapshotLayer} with the column widths of the layer
+     * the copied cell belongs to at the time the cell was copied.
+     */
+    @Override
+    public ILayer getLayer() {
+        return this.layer;
+    }
+
+    @Override
+    public int getColumnPosition() {
+        return this.columnPosition;
+    }
+
+    @Override
+    public int getRowPosition() {
+        return this.rowPosition;
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return this.columnIndex;
+    }
+
+    @Override
+    public int getRowIndex() {
+        return this.rowIndex;
+    }
+
+    @Override
+    public int getColumnSpan() {
+        return this.columnSpan;
+    }
+
+    @Override
+    public int getRowSpan() {
+        return this.rowSpan;
+    }
+
+    @Override
+    public boolean isSpannedCell() {
+        return this.columnSpan > 1 || this.rowSpan > 1;
+    }
+
+    @Override
+    public DisplayMode getDisplayMode() {
+        return this.displayMode;
+    }
+
+    @Override
+    public LabelStack getConfigLabels() {
+        return this.configLabels;
+    }
+
+    @Override
+    public Object getDataValue() {
+        return this.dataValue;
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return this.bounds;
+    }
+}
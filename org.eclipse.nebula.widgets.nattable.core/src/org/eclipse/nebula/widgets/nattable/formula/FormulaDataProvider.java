@@ -13,9 +13,14 @@
 package org.eclipse.nebula.widgets.nattable.formula;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.nebula.widgets.nattable.command.DisposeCalculatedValueCacheCommandHandler;
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
+import org.eclipse.nebula.widgets.nattable.coordinate.IndexCoordinate;
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
 import org.eclipse.nebula.widgets.nattable.formula.command.DisableFormulaCachingCommand;
 import org.eclipse.nebula.widgets.nattable.formula.command.DisableFormulaCachingCommandHandler;
@@ -25,6 +30,7 @@
 import org.eclipse.nebula.widgets.nattable.formula.function.FunctionException;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.util.CalculatedValueCache;
 
 /**
@@ -32,6 +38,14 @@
  * {@link IDataProvider} and checks if the requested value is a formula (starts
  * with '='). Otherwise the value of the wrapped {@link IDataProvider} is
  * returned.
+ * <p>
+ * If formula result caching is configured, the references of the evaluated
+ * formulas are collected in a {@link FormulaDependencyGraph}. On changing a
+ * value only the cached results of the formulas that directly or indirectly
+ * reference the changed cell are cleared, so the results of all other formulas
+ * do not need to be recalculated. A single {@link VisualRefreshEvent} is fired
+ * if there are dependent formula cells, so the recalculated results are shown.
+ * </p>
  *
  * @see FormulaParser
  *
@@ -50,18 +64,25 @@ public class FormulaDataProvider implements IDataProvider {
     private ILayer cacheLayer;
     private boolean cacheEnabled = false;
 
+    private final FormulaDependencyGraph dependencyGraph = new FormulaDependencyGraph();
+
     /**
+     * Creates a {@link FormulaDataProvider} with a default
+     * {@link FormulaParser} that caches up to
+     * {@link FormulaParser#DEFAULT_FORMULA_CACHE_SIZE} compiled formulas.
      *
      * @param underlyingDataProvider
      *            The {@link IDataProvider} that should be wrapped.
      */
     public FormulaDataProvider(IDataProvider underlyingDataProvider) {
         this(underlyingDataProvider, new FormulaParser(underlyingDataProvider));
+        this.formulaParser.setFormulaCacheSize(FormulaParser.DEFAULT_FORMULA_CACHE_SIZE);
     }
 
     /**
      * This constructor supports the specification of a {@link FormulaParser} to
-     * customize parsing.
+     * customize parsing. The formula compilation settings of the given parser
+     * are not changed.
      *
      * @param underlyingDataProvider
      *            The {@link IDataProvider} that should be wrapped.
@@ -107,7 +128,18 @@ protected Object processFormula(String formula, int columnIndex, int rowIndex) {
             if (this.errorReporter != null) {
                 this.errorReporter.clearFormulaError(columnIndex, rowIndex);
             }
-            return this.formulaParser.parseFunction(formula).getValue();
+            if (this.valueCache == null) {
+                return this.formulaParser.parseFunction(formula).getValue();
+            }
+
+            // collect the references for the dependency tracking
+            IndexCoordinate cell = new IndexCoordinate(columnIndex, rowIndex);
+            Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences = new HashMap<>();
+            try {
+                return this.formulaParser.parseFunction(formula, cell, parsedReferences).getValue();
+            } finally {
+                this.dependencyGraph.addParsedReferences(cell, parsedReferences);
+            }
         } catch (FunctionException e) {
             if (this.errorReporter != null) {
                 this.errorReporter.addFormulaError(columnIndex, rowIndex, e.getLocalizedMessage());
@@ -141,6 +173,8 @@ public void configureCaching(ILayer layer) {
 
         this.cacheLayer = layer;
 
+        this.dependencyGraph.clear();
+
         if (layer != null) {
             this.valueCache = new CalculatedValueCache(this.cacheLayer, true, true);
             this.cacheEnabled = true;
@@ -173,13 +207,27 @@ public Object getNativeDataValue(int columnIndex, int rowIndex) {
 
     @Override
     public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+        this.underlyingDataProvider.setDataValue(columnIndex, rowIndex, newValue);
+
         if (this.valueCache != null) {
-            // if a value is set we clear the cache
-            // since we do not know which cells might reference the specified
-            // cell, we simply clear the whole cache
-            this.valueCache.clearCache();
+            // only clear the cached values of the changed cell and the formulas
+            // that directly or indirectly reference it
+            IndexCoordinate cell = new IndexCoordinate(columnIndex, rowIndex);
+            this.dependencyGraph.removeReferences(cell);
+            this.valueCache.clearCache(columnIndex, rowIndex);
+            List<IndexCoordinate> dependents = this.dependencyGraph.getDependents(cell);
+            for (IndexCoordinate dependent : dependents) {
+                this.valueCache.clearCache(dependent.columnIndex, dependent.rowIndex);
+            }
+
+            // the changed cell itself is updated by the caller, the dependent
+            // formula cells need to be repainted to show the new results. A
+            // single refresh avoids flooding the event bus with one event per
+            // dependent cell on wide dependency fans.
+            if (!dependents.isEmpty()) {
+                this.cacheLayer.fireLayerEvent(new VisualRefreshEvent(this.cacheLayer));
+            }
         }
-        this.underlyingDataProvider.setDataValue(columnIndex, rowIndex, newValue);
     }
 
     @Override
@@ -229,6 +277,34 @@ public void setFormulaCachingEnabled(boolean enabled) {
         this.cacheEnabled = enabled;
     }
 
+    /**
+     * Set the maximum number of compiled formulas that are cached by the
+     * {@link FormulaParser}. Compiled formulas are evaluated without parsing
+     * the formula string again. A value less or equal to 0 disables the
+     * formula compilation.
+     *
+     * @param formulaCacheSize
+     *            The maximum number of compiled formulas that are cached.
+     *
+     * @see FormulaParser#setFormulaCacheSize(int)
+     * @since 2.1
+     */
+    public void setFormulaCacheSize(int formulaCacheSize) {
+        this.formulaParser.setFormulaCacheSize(formulaCacheSize);
+    }
+
+    /**
+     *
+     * @return The maximum number of compiled formulas that are cached by the
+     *         {@link FormulaParser}. A value less or equal to 0 means that
+     *         formula compilation is disabled.
+     *
+     * @since 2.1
+     */
+    public int getFormulaCacheSize() {
+        return this.formulaParser.getFormulaCacheSize();
+    }
+
     /**
      * Register a new function that can be evaluated.
      *
@@ -260,6 +336,17 @@ public FormulaParser getFormulaParser() {
         return this.formulaParser;
     }
 
+    /**
+     *
+     * @return The {@link FormulaDependencyGraph} that contains the references
+     *         of the formulas evaluated with formula result caching.
+     *
+     * @since 2.1
+     */
+    public FormulaDependencyGraph getDependencyGraph() {
+        return this.dependencyGraph;
+    }
+
     /**
      * @return The {@link FormulaErrorReporter} that is used to report formula
      *         errors to the user.
@@ -0,0 +1,220 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.formula;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.IndexCoordinate;
+
+/**
+ * Persistent graph of the references between cells that is built from the
+ * references collected by the {@link FormulaParser} on evaluating formulas. It
+ * is used by the {@link FormulaDataProvider} to determine the formula cells
+ * that need to be recalculated if a cell value changes, so only the cached
+ * results of the transitive dependents need to be cleared instead of the whole
+ * cache.
+ * <p>
+ * The graph stores the references in both directions. The references of a cell
+ * (precedents) are replaced whenever the formula of the cell was evaluated, the
+ * cells that refer to a cell (dependents) are derived from that.
+ * </p>
+ * <p>
+ * All methods are synchronized as formulas are typically evaluated in
+ * background threads while values are changed in the UI thread.
+ * </p>
+ *
+ * @since 2.1
+ */
+public class FormulaDependencyGraph {
+
+    /**
+     * The cells that are referenced by a formula cell.
+     */
+    private final Map<IndexCoordinate, Set<IndexCoordinate>> precedents = new HashMap<>();
+
+    /**
+     * The formula cells that reference a cell.
+     */
+    private final Map<IndexCoordinate, Set<IndexCoordinate>> dependents = new HashMap<>();
+
+    /**
+     * Set the references of the given cell. Existing references of the cell
+     * are replaced.
+     *
+     * @param cell
+     *            The coordinate of the formula cell.
+     * @param references
+     *            The coordinates of the cells that are referenced by the
+     *            formula of the given cell.
+     */
+    public synchronized void setReferences(IndexCoordinate cell, Set<IndexCoordinate> references) {
+        removeReferences(cell);
+        addReferences(cell, references);
+    }
+
+    /**
+     * Adds the given references to the existing references of the given cell.
+     *
+     * @param cell
+     *            The coordinate of the formula cell.
+     * @param references
+     *            The coordinates of the cells that are referenced by the
+     *            formula of the given cell.
+     */
+    public synchronized void addReferences(IndexCoordinate cell, Set<IndexCoordinate> references) {
+        if (references == null || references.isEmpty()) {
+            return;
+        }
+
+        this.precedents.computeIfAbsent(cell, c -> new HashSet<>()).addAll(references);
+        for (IndexCoordinate reference : references) {
+            this.dependents.computeIfAbsent(reference, r -> new HashSet<>()).add(cell);
+        }
+    }
+
+    /**
+     * Adds the references that were collected by the {@link FormulaParser} on
+     * evaluating the formula of the given cell. The references of the given
+     * cell are replaced, the references of the nested formula cells are added
+     * to the existing ones, as their evaluation might have been aborted.
+     *
+     * @param cell
+     *            The coordinate of the evaluated formula cell.
+     * @param parsedReferences
+     *            The references collected by the {@link FormulaParser},
+     *            containing the direct references per evaluated cell.
+     */
+    public synchronized void addParsedReferences(IndexCoordinate cell, Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences) {
+        for (Map.Entry<IndexCoordinate, Set<IndexCoordinate>> entry : parsedReferences.entrySet()) {
+            if (entry.getKey().equals(cell)) {
+                setReferences(cell, entry.getValue());
+            } else {
+                addReferences(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes the references of the given cell, e.g. because its value
+     * changed. The references to the given cell are kept.
+     *
+     * @param cell
+     *            The coordinate of the cell whose references should be
+     *            removed.
+     */
+    public synchronized void removeReferences(IndexCoordinate cell) {
+        Set<IndexCoordinate> references = this.precedents.remove(cell);
+        if (references != null) {
+            for (IndexCoordinate reference : references) {
+                Set<IndexCoordinate> referers = this.dependents.get(reference);
+                if (referers != null) {
+                    referers.remove(cell);
+                    if (referers.isEmpty()) {
+                        this.dependents.remove(reference);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cells that are directly referenced by the formula of the
+     * given cell.
+     *
+     * @param cell
+     *            The coordinate of the formula cell.
+     * @return The coordinates of the cells that are directly referenced by the
+     *         given cell. Never <code>null</code>.
+     */
+    public synchronized Set<IndexCoordinate> getReferences(IndexCoordinate cell) {
+        Set<IndexCoordinate> references = this.precedents.get(cell);
+        return (references != null) ? new HashSet<>(references) : Collections.emptySet();
+    }
+
+    /**
+     * Returns all formula cells that directly or indirectly reference the
+     * given cell in topological order, which means that a cell is contained
+     * in the result before any cell that references it. This is the order in
+     * which the cells need to be recalculated if the value of the given cell
+     * changes.
+     *
+     * @param cell
+     *            The coordinate of the cell whose dependents are requested.
+     * @return The coordinates of all cells that transitively depend on the
+     *         given cell in topological order. Does not contain the given cell
+     *         itself. Never <code>null</code>.
+     */
+    public synchronized List<IndexCoordinate> getDependents(IndexCoordinate cell) {
+        if (!this.dependents.containsKey(cell)) {
+            return Collections.emptyList();
+        }
+
+        // iterative depth first search, the reverse post order is a
+        // topological order
+        List<IndexCoordinate> postOrder = new ArrayList<>();
+        Set<IndexCoordinate> visited = new HashSet<>();
+        Deque<IndexCoordinate> path = new ArrayDeque<>();
+        Deque<Iterator<IndexCoordinate>> iterators = new ArrayDeque<>();
+
+        visited.add(cell);
+        path.push(cell);
+        iterators.push(this.dependents.get(cell).iterator());
+        while (!iterators.isEmpty()) {
+            Iterator<IndexCoordinate> it = iterators.peek();
+            if (it.hasNext()) {
+                IndexCoordinate next = it.next();
+                if (visited.add(next)) {
+                    path.push(next);
+                    Set<IndexCoordinate> referers = this.dependents.get(next);
+                    iterators.push(referers != null
+                            ? referers.iterator()
+                            : Collections.<IndexCoordinate> emptyIterator());
+                }
+            } else {
+                iterators.pop();
+                postOrder.add(path.pop());
+            }
+        }
+
+        // remove the start cell which is the last one in post order
+        postOrder.remove(postOrder.size() - 1);
+        Collections.reverse(postOrder);
+        return postOrder;
+    }
+
+    /**
+     * Removes all references from this graph.
+     */
+    public synchronized void clear() {
+        this.precedents.clear();
+        this.dependents.clear();
+    }
+
+    /**
+     *
+     * @return The number of formula cells whose references are stored in this
+     *         graph.
+     */
+    public synchronized int size() {
+        return this.precedents.size();
+    }
+}
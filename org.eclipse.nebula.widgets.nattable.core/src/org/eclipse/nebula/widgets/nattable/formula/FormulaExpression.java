@@ -0,0 +1,149 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.formula;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.formula.function.AbstractFunction;
+import org.eclipse.nebula.widgets.nattable.formula.function.FunctionValue;
+
+/**
+ * Compiled representation of a formula string that is created once by the
+ * {@link FormulaParser} and evaluated on every calculation. It contains the
+ * result of the string processing, so the evaluation does not need to perform
+ * any regular expression matching or string manipulation.
+ * <p>
+ * The structure reflects the processing steps of
+ * {@link FormulaParser#parseFunction(String)}. The function calls and
+ * parenthesis are evaluated first in the order they were found and stored in
+ * the replacements map of the evaluation, which is then accessed via the
+ * placeholder tokens.
+ * </p>
+ */
+final class FormulaExpression {
+
+    /**
+     * The function calls contained in the formula, in the order of occurrence.
+     */
+    final List<FunctionCall> functions = new ArrayList<>();
+
+    /**
+     * The expressions in parenthesis contained in the formula, in the order of
+     * occurrence.
+     */
+    final List<FormulaExpression> parentheses = new ArrayList<>();
+
+    /**
+     * The tokens of the formula after functions and parenthesis are replaced by
+     * placeholders.
+     */
+    final List<Token> tokens = new ArrayList<>();
+
+    /**
+     * A function call with its parameters.
+     */
+    static final class FunctionCall {
+
+        final Constructor<? extends AbstractFunction> constructor;
+
+        /**
+         * The function calls that are contained in the parameters. They share
+         * the replacements with the parameters.
+         */
+        final List<FunctionCall> nestedFunctions = new ArrayList<>();
+
+        final List<FormulaExpression> parameters = new ArrayList<>();
+
+        FunctionCall(Constructor<? extends AbstractFunction> constructor) {
+            this.constructor = constructor;
+        }
+    }
+
+    /**
+     * The types of tokens a formula consists of.
+     */
+    enum TokenType {
+        /** Operator, the operator character is stored in the operator field. */
+        OPERATOR,
+        /** A single cell reference. */
+        REFERENCE,
+        /** A rectangular range of cell references. */
+        REFERENCE_RANGE,
+        /** A range of complete rows. */
+        ROW_RANGE,
+        /** A range of complete columns. */
+        COLUMN_RANGE,
+        /** A replacement, the index is stored in the fromColumn field. */
+        PLACEHOLDER,
+        /** A decimal value. */
+        NUMBER,
+        /** A string value. */
+        STRING
+    }
+
+    /**
+     * A single token of a formula.
+     */
+    static final class Token {
+
+        final TokenType type;
+        final int fromColumn;
+        final int fromRow;
+        final int toColumn;
+        final int toRow;
+
+        /**
+         * The immutable value for {@link TokenType#NUMBER} and
+         * {@link TokenType#STRING} tokens.
+         */
+        final FunctionValue value;
+
+        /**
+         * The operator character for {@link TokenType#OPERATOR} tokens.
+         */
+        final char operator;
+
+        Token(TokenType type, int fromColumn, int fromRow, int toColumn, int toRow) {
+            this.type = type;
+            this.fromColumn = fromColumn;
+            this.fromRow = fromRow;
+            this.toColumn = toColumn;
+            this.toRow = toRow;
+            this.value = null;
+            this.operator = 0;
+        }
+
+        Token(TokenType type, FunctionValue value) {
+            this.type = type;
+            this.fromColumn = -1;
+            this.fromRow = -1;
+            this.toColumn = -1;
+            this.toRow = -1;
+            this.value = value;
+            this.operator = 0;
+        }
+
+        Token(char operator) {
+            this.type = TokenType.OPERATOR;
+            this.fromColumn = -1;
+            this.fromRow = -1;
+            this.toColumn = -1;
+            this.toRow = -1;
+            this.value = null;
+            this.operator = operator;
+        }
+    }
+}
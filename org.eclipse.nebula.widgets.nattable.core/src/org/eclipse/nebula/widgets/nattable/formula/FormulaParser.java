@@ -12,11 +12,16 @@
  *****************************************************************************/
 package org.eclipse.nebula.widgets.nattable.formula;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -31,6 +36,9 @@
 import org.eclipse.nebula.widgets.nattable.Messages;
 import org.eclipse.nebula.widgets.nattable.coordinate.IndexCoordinate;
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.formula.FormulaExpression.FunctionCall;
+import org.eclipse.nebula.widgets.nattable.formula.FormulaExpression.Token;
+import org.eclipse.nebula.widgets.nattable.formula.FormulaExpression.TokenType;
 import org.eclipse.nebula.widgets.nattable.formula.function.AbstractFunction;
 import org.eclipse.nebula.widgets.nattable.formula.function.AbstractMathSingleValueFunction;
 import org.eclipse.nebula.widgets.nattable.formula.function.AbstractSingleValueFunction;
@@ -51,6 +59,17 @@
 
 /**
  * Parser that is able to parse a formula string and calculate the result.
+ * <p>
+ * Optionally the result of the string processing of a formula can be compiled
+ * once and cached per formula string in a LRU cache. Subsequent calculations of
+ * the same formula then only evaluate the compiled expression against the
+ * {@link IDataProvider}, without regular expression matching or string
+ * manipulation. The formula compilation is disabled by default and can be
+ * enabled by setting a cache size via {@link #setFormulaCacheSize(int)}. The
+ * {@link FormulaDataProvider} enables it for the parser it creates. It is
+ * not used if a subclass overrides one of the <i>process</i> methods, as the
+ * compiled expressions do not call them.
+ * </p>
  *
  * @since 1.4
  */
@@ -107,6 +126,57 @@ public class FormulaParser {
 
     protected IDataProvider dataProvider;
 
+    /**
+     * The suggested maximum number of compiled formulas that are cached if the
+     * formula compilation is enabled.
+     *
+     * @since 2.1
+     */
+    public static final int DEFAULT_FORMULA_CACHE_SIZE = 10000;
+
+    /**
+     * Marker for formula strings that can not be compiled, e.g. because of
+     * syntax errors. Those formulas are processed by the string based parsing
+     * to report the errors.
+     */
+    private static final Object NOT_COMPILABLE = new Object();
+
+    // pre-compiled patterns used for formula compilation
+    private static final Pattern OPERATOR_SPLIT_PATTERN = Pattern.compile(OPERATOR_SPLIT_REGEX);
+    private static final Pattern OPERATOR_PATTERN = Pattern.compile(OPERATOR_REGEX);
+    private static final Pattern RANGE_PATTERN = Pattern.compile(RANGE_REGEX);
+    private static final Pattern REFERENCE_PATTERN = Pattern.compile(REFERENCE_REGEX);
+    private static final Pattern REFERENCE_RANGE_PATTERN = Pattern.compile(REFERENCE_RANGE_REGEX);
+    private static final Pattern ROW_RANGE_PATTERN = Pattern.compile(ROW_RANGE_REGEX);
+    private static final Pattern COLUMN_RANGE_PATTERN = Pattern.compile(COLUMN_RANGE_REGEX);
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile(PLACEHOLDER_REGEX);
+
+    private Pattern localizedDigitPattern;
+
+    private int formulaCacheSize = 0;
+
+    /**
+     * Flag to configure whether the formula compilation can be used. Is
+     * <code>false</code> if a subclass overrides one of the methods that
+     * process the formula string, as the compiled expressions would bypass
+     * them.
+     */
+    private final boolean compilationSupported = !overridesProcessing(getClass());
+
+    /**
+     * LRU cache of the compiled formulas per formula string. Access needs to be
+     * synchronized on the map itself, as a get operation modifies the access
+     * order.
+     */
+    private final Map<String, Object> formulaCache = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > FormulaParser.this.formulaCacheSize;
+        }
+    };
+
     /**
      * Creates and initializes a new {@link FormulaParser}.
      *
@@ -177,6 +247,8 @@ protected void updateFunctionRegex() {
 
         this.functionRegex = builder.toString();
         this.functionPattern = Pattern.compile(this.functionRegex);
+
+        clearFormulaCache();
     }
 
     /**
@@ -189,7 +261,32 @@ protected void updateFunctionRegex() {
      *         of the parsed function string.
      */
     public FunctionValue parseFunction(String function) {
-        return parseFunction(function, new HashMap<>(), new LinkedHashMap<>(), null);
+        return parseFunction(function, new LinkedHashMap<>(), null);
+    }
+
+    /**
+     * Parses the given function string of the cell at the given coordinates to
+     * a {@link FunctionValue} to perform calculation. The references of the
+     * cell and of all referenced formula cells that are evaluated are
+     * collected in the given map, e.g. to build a
+     * {@link FormulaDependencyGraph}.
+     *
+     * @param function
+     *            The function string to parse.
+     * @param cell
+     *            The coordinate of the cell that contains the function string.
+     * @param parsedReferences
+     *            The map in which the direct references per evaluated cell
+     *            should be collected. Also used for cycle detection.
+     * @return The {@link FunctionValue} that represents the calculation result
+     *         of the parsed function string.
+     *
+     * @since 2.1
+     */
+    public FunctionValue parseFunction(String function, IndexCoordinate cell,
+            Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences) {
+        parsedReferences.computeIfAbsent(cell, c -> new HashSet<>());
+        return parseFunction(function, parsedReferences, cell);
     }
 
     /**
@@ -210,6 +307,19 @@ public FunctionValue parseFunction(String function) {
      */
     protected FunctionValue parseFunction(String function,
             Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences, IndexCoordinate referer) {
+        if (this.formulaCacheSize > 0 && this.compilationSupported) {
+            String functionOnly = getFunctionOnly(function);
+            char decimalSeparator = this.decimalFormat.getDecimalFormatSymbols().getDecimalSeparator();
+            if (isPlainNumber(functionOnly, decimalSeparator)) {
+                // shortcut for referenced number values
+                return new BigDecimalFunctionValue(new BigDecimal(functionOnly.replace(decimalSeparator, '.')));
+            }
+
+            FormulaExpression expression = getCompiledExpression(function);
+            if (expression != null) {
+                return evaluate(expression, new HashMap<>(), parsedReferences, referer);
+            }
+        }
         return parseFunction(function, new HashMap<>(), parsedReferences, referer);
     }
 
@@ -732,6 +842,14 @@ protected String convertIndexToColumnString(int index) {
     protected void addDataProviderValue(int column, int row, List<FunctionValue> values,
             Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences, IndexCoordinate referer) {
 
+        // collect the reference also for empty cells, so a later change of
+        // the cell can be tracked via the references. Only referers get an
+        // own entry, so empty and non-formula cells are not added as nodes.
+        IndexCoordinate ref = new IndexCoordinate(column, row);
+        if (referer != null) {
+            parsedReferences.computeIfAbsent(referer, r -> new HashSet<>()).add(ref);
+        }
+
         Object value = getUnderlyingDataValue(column, row);
         if (value != null) {
             String toParse = value.toString();
@@ -740,15 +858,7 @@ protected void addDataProviderValue(int column, int row, List<FunctionValue> val
             }
 
             // avoid circular references
-            IndexCoordinate ref = new IndexCoordinate(column, row);
-            if (!parsedReferences.containsKey(ref)) {
-                parsedReferences.put(ref, new HashSet<>());
-            }
-            if (referer != null) {
-                parsedReferences.get(referer).add(ref);
-            }
-
-            if (detectCycle(parsedReferences)) {
+            if (detectCycle(parsedReferences, referer, ref)) {
                 throw new FunctionException("#REF!", Messages.getString("FormulaParser.error.circular")); //$NON-NLS-1$//$NON-NLS-2$
             }
 
@@ -767,6 +877,9 @@ protected void addDataProviderValue(int column, int row, List<FunctionValue> val
      */
     protected void updateLocalizedDigitRegex() {
         this.localizedDigitRegex = DIGIT_REGEX + "(\\" + this.decimalFormat.getDecimalFormatSymbols().getDecimalSeparator() + DIGIT_REGEX + ")?"; //$NON-NLS-1$ //$NON-NLS-2$
+        this.localizedDigitPattern = Pattern.compile(this.localizedDigitRegex);
+
+        clearFormulaCache();
     }
 
     /**
@@ -923,8 +1036,572 @@ public String updateReferences(String function, int fromColumn, int fromRow, int
         return result.toString();
     }
 
+    // compiled formula code
+
+    /**
+     * Set the maximum number of compiled formulas that are cached. Setting a
+     * value greater than 0 enables the formula compilation, e.g.
+     * {@link #DEFAULT_FORMULA_CACHE_SIZE}. Setting a value less or equal to 0
+     * disables the formula compilation, which means every formula string is
+     * parsed on every calculation. This is the default.
+     * <p>
+     * <b>Note:</b> The compiled expressions do not call the <i>process</i>
+     * methods of this class. If a subclass overrides one of them, the formula
+     * compilation is not used, regardless of the cache size.
+     * </p>
+     *
+     * @param formulaCacheSize
+     *            The maximum number of compiled formulas that are cached.
+     *
+     * @since 2.1
+     */
+    public void setFormulaCacheSize(int formulaCacheSize) {
+        this.formulaCacheSize = formulaCacheSize;
+        clearFormulaCache();
+    }
+
+    /**
+     *
+     * @return The maximum number of compiled formulas that are cached. A value
+     *         less or equal to 0 means that formula compilation is disabled.
+     *
+     * @since 2.1
+     */
+    public int getFormulaCacheSize() {
+        return this.formulaCacheSize;
+    }
+
+    /**
+     * Removes all compiled formulas from the cache. Needs to be called if the
+     * parsing rules are changed by a subclass, as the compiled formulas are
+     * based on the parsing rules that were active on compilation. It is
+     * called automatically on registering functions or changing the decimal
+     * format.
+     *
+     * @since 2.1
+     */
+    public void clearFormulaCache() {
+        synchronized (this.formulaCache) {
+            this.formulaCache.clear();
+        }
+    }
+
+    /**
+     * Checks if the given class overrides one of the methods that process the
+     * formula string.
+     *
+     * @param parserClass
+     *            The {@link FormulaParser} class to check.
+     * @return <code>true</code> if the given class or one of its superclasses
+     *         below {@link FormulaParser} overrides one of the <i>process</i>
+     *         methods, <code>false</code> if not.
+     */
+    private static boolean overridesProcessing(Class<?> parserClass) {
+        for (Class<?> c = parserClass; c != FormulaParser.class; c = c.getSuperclass()) {
+            try {
+                for (Method method : c.getDeclaredMethods()) {
+                    String name = method.getName();
+                    if (!Modifier.isStatic(method.getModifiers())
+                            && !Modifier.isPrivate(method.getModifiers())
+                            && ("processFunctions".equals(name) //$NON-NLS-1$
+                                    || "processParenthesis".equals(name) //$NON-NLS-1$
+                                    || "processPower".equals(name) //$NON-NLS-1$
+                                    || "processMultiplicationAndDivision".equals(name))) { //$NON-NLS-1$
+                        return true;
+                    }
+                }
+            } catch (SecurityException e) {
+                // the methods can not be inspected, so do not compile
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the compiled expression for the given formula string. Compiles
+     * the formula string if it is not cached yet.
+     *
+     * @param function
+     *            The formula string.
+     * @return The compiled expression or <code>null</code> if the formula
+     *         string can not be compiled.
+     */
+    private FormulaExpression getCompiledExpression(String function) {
+        Object compiled;
+        synchronized (this.formulaCache) {
+            compiled = this.formulaCache.get(function);
+        }
+
+        if (compiled == null) {
+            try {
+                compiled = compile(function, new int[1]);
+            } catch (RuntimeException e) {
+                // the string based parsing reports the error
+                compiled = NOT_COMPILABLE;
+            }
+            synchronized (this.formulaCache) {
+                this.formulaCache.put(function, compiled);
+            }
+        }
+
+        return (compiled instanceof FormulaExpression) ? (FormulaExpression) compiled : null;
+    }
+
+    /**
+     * Compiles the given formula string. Mirrors the string processing of
+     * {@link #parseFunction(String, Map, Map, IndexCoordinate)}.
+     *
+     * @param function
+     *            The formula string to compile.
+     * @param slots
+     *            The number of replacements that are registered in the scope
+     *            of the formula string. Updated by the compilation.
+     * @return The compiled expression.
+     */
+    private FormulaExpression compile(String function, int[] slots) {
+        function = getFunctionOnly(function);
+
+        FormulaExpression expression = new FormulaExpression();
+        String processedFunction = compileFunctions(function, expression.functions, slots);
+        processedFunction = compileParenthesis(processedFunction, expression.parentheses, slots);
+        compileTokens(processedFunction, expression.tokens);
+        return expression;
+    }
+
+    /**
+     * Compiles the parts of a function that represent a function by name.
+     * Mirrors
+     * {@link #processFunctions(String, Map, Map, IndexCoordinate)}.
+     *
+     * @param function
+     *            The function string.
+     * @param calls
+     *            The list to which the compiled function calls are added.
+     * @param slots
+     *            The number of replacements that are registered in the scope.
+     * @return The modified string that contains placeholders for functions.
+     */
+    private String compileFunctions(String function, List<FunctionCall> calls, int[] slots) {
+        StringBuilder result = new StringBuilder();
+
+        int startIndex = 0;
+        Matcher functionMatcher = this.functionPattern.matcher(function);
+        while (functionMatcher.find(startIndex)) {
+
+            String functionName = null;
+            String parameterString = null;
+
+            int openParanthesisCount = 0;
+            for (int i = functionMatcher.start(); i < function.length(); i++) {
+                char c = function.charAt(i);
+                if (c == '(') {
+                    openParanthesisCount++;
+                    if (i > 0 && openParanthesisCount == 1) {
+                        result.append(function.substring(startIndex, functionMatcher.start()));
+
+                        functionName = function.substring(functionMatcher.start(), i);
+                        startIndex = i;
+                    }
+                } else if (c == ')') {
+                    openParanthesisCount--;
+                    if (openParanthesisCount < 0) {
+                        throw new IllegalArgumentException(Messages.getString("FormulaParser.error.functionParameterNotOpened")); //$NON-NLS-1$
+                    }
+
+                    if (openParanthesisCount == 0) {
+                        parameterString = function.substring(startIndex + 1, i);
+                        startIndex = i + 1;
+                        break;
+                    }
+                }
+            }
+
+            if (openParanthesisCount != 0) {
+                throw new IllegalArgumentException(Messages.getString("FormulaParser.error.functionParameterNotClosed")); //$NON-NLS-1$
+            }
+
+            Class<? extends AbstractFunction> functionClass = this.functionMapping.get(functionName);
+
+            if (functionClass == null) {
+                throw new IllegalArgumentException("No function '" + functionName + "' registered"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+
+            Constructor<? extends AbstractFunction> constructor = null;
+            try {
+                constructor = functionClass.getDeclaredConstructor();
+            } catch (NoSuchMethodException | SecurityException e) {
+                throw new IllegalArgumentException(Messages.getString("FormulaParser.error.instantiation", e.getLocalizedMessage()), e); //$NON-NLS-1$
+            }
+
+            // the parameters share the replacements
+            FunctionCall call = new FunctionCall(constructor);
+            int[] nestedSlots = new int[1];
+            parameterString = compileFunctions(parameterString, call.nestedFunctions, nestedSlots);
+            for (String param : parameterString.split(";")) { //$NON-NLS-1$
+                call.parameters.add(compile(param, nestedSlots));
+            }
+
+            calls.add(call);
+            result.append("{").append(slots[0]++).append("}"); //$NON-NLS-1$//$NON-NLS-2$
+        }
+
+        if (startIndex < function.length()) {
+            result.append(function.substring(startIndex, function.length()));
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Compiles the parts of a function that are combined in parenthesis.
+     * Mirrors
+     * {@link #processParenthesis(String, Map, Map, IndexCoordinate)}.
+     *
+     * @param function
+     *            The function string.
+     * @param parentheses
+     *            The list to which the compiled parenthesis expressions are
+     *            added.
+     * @param slots
+     *            The number of replacements that are registered in the scope.
+     * @return The modified string that contains placeholders for parenthesis.
+     */
+    private String compileParenthesis(String function, List<FormulaExpression> parentheses, int[] slots) {
+        StringBuilder result = new StringBuilder();
+
+        int openParanthesisCount = 0;
+        int startIndex = 0;
+        for (int i = 0; i < function.length(); i++) {
+            char c = function.charAt(i);
+            if (c == '(') {
+                openParanthesisCount++;
+                if (i > 0 && openParanthesisCount == 1) {
+                    result.append(function.substring(startIndex, i));
+                    startIndex = i;
+                }
+            } else if (c == ')') {
+                openParanthesisCount--;
+                if (openParanthesisCount < 0) {
+                    throw new IllegalArgumentException(Messages.getString("FormulaParser.error.parenthesisNotOpened")); //$NON-NLS-1$
+                }
+
+                if (openParanthesisCount == 0) {
+                    // parenthesis are parsed with their own replacements
+                    parentheses.add(compile(function.substring(startIndex + 1, i), new int[1]));
+                    result.append("{").append(slots[0]++).append("}"); //$NON-NLS-1$//$NON-NLS-2$
+                    startIndex = i + 1;
+                }
+            }
+        }
+
+        if (startIndex < function.length()) {
+            result.append(function.substring(startIndex, function.length()));
+        }
+
+        if (openParanthesisCount != 0) {
+            throw new IllegalArgumentException(Messages.getString("FormulaParser.error.parenthesisNotClosed")); //$NON-NLS-1$
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Splits the given processed function string into tokens.
+     *
+     * @param processedFunction
+     *            The function string with placeholders for functions and
+     *            parenthesis.
+     * @param tokens
+     *            The list to which the tokens are added.
+     */
+    private void compileTokens(String processedFunction, List<Token> tokens) {
+        String[] operandsAndOperators = OPERATOR_SPLIT_PATTERN.split(processedFunction);
+        for (int i = 0; i < operandsAndOperators.length; i++) {
+            String part = operandsAndOperators[i].trim();
+            if (OPERATOR_PATTERN.matcher(part).matches()) {
+                tokens.add(new Token(part.charAt(0)));
+            } else if (RANGE_PATTERN.matcher(part).matches()) {
+                int colon = part.indexOf(':');
+                String[] parts = new String[] { part.substring(0, colon), part.substring(colon + 1) };
+                if (REFERENCE_RANGE_PATTERN.matcher(part).matches()) {
+                    int[] from = evaluateReference(parts[0]);
+                    int[] to = evaluateReference(parts[1]);
+                    tokens.add(new Token(TokenType.REFERENCE_RANGE,
+                            Math.min(from[0], to[0]),
+                            Math.min(from[1], to[1]),
+                            Math.max(from[0], to[0]),
+                            Math.max(from[1], to[1])));
+                } else if (ROW_RANGE_PATTERN.matcher(part).matches()) {
+                    int from = Integer.valueOf(parts[0]) - 1;
+                    int to = Integer.valueOf(parts[1]) - 1;
+                    tokens.add(new Token(TokenType.ROW_RANGE, -1, Math.min(from, to), -1, Math.max(from, to)));
+                } else if (COLUMN_RANGE_PATTERN.matcher(part).matches()) {
+                    int from = getColumnIndex(parts[0]);
+                    int to = getColumnIndex(parts[1]);
+                    tokens.add(new Token(TokenType.COLUMN_RANGE, Math.min(from, to), -1, Math.max(from, to), -1));
+                }
+            } else if (REFERENCE_PATTERN.matcher(part).matches()) {
+                int[] coords = evaluateReference(part);
+                tokens.add(new Token(TokenType.REFERENCE, coords[0], coords[1], coords[0], coords[1]));
+            } else if (PLACEHOLDER_PATTERN.matcher(part).matches()) {
+                String number = part.substring(1, part.length() - 1);
+                try {
+                    tokens.add(new Token(TokenType.PLACEHOLDER, Integer.valueOf(number), -1, -1, -1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(Messages.getString("FormulaParser.error.replacement"), e); //$NON-NLS-1$
+                }
+            } else if (this.localizedDigitPattern.matcher(part).matches()) {
+                tokens.add(new Token(TokenType.NUMBER, new BigDecimalFunctionValue(convertToBigDecimal(part))));
+            } else if (part.length() > 0) {
+                tokens.add(new Token(TokenType.STRING, new StringFunctionValue(part)));
+            }
+        }
+    }
+
+    /**
+     * Evaluates the given compiled expression. Creates the same
+     * {@link FunctionValue} structure as
+     * {@link #parseFunction(String, Map, Map, IndexCoordinate)} for the
+     * formula string the expression was compiled from.
+     *
+     * @param expression
+     *            The compiled expression to evaluate.
+     * @param replacements
+     *            The map of replacements of the scope of the expression.
+     * @param parsedReferences
+     *            The references that where parsed already together with their
+     *            references if any. Needed for cycle detection.
+     * @param referer
+     *            The coordinate of the cell that refers to the value to add.
+     *            Needed for cycle detection.
+     * @return The {@link FunctionValue} that represents the calculation result
+     *         of the expression.
+     */
+    private FunctionValue evaluate(FormulaExpression expression, Map<Integer, FunctionValue> replacements,
+            Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences, IndexCoordinate referer) {
+
+        for (FunctionCall call : expression.functions) {
+            replacements.put(replacements.size(), evaluate(call, parsedReferences, referer));
+        }
+
+        for (FormulaExpression parenthesis : expression.parentheses) {
+            FunctionValue parenthesisFunction = evaluate(parenthesis, new HashMap<>(), parsedReferences, referer);
+            replacements.put(replacements.size(), parenthesisFunction);
+        }
+
+        List<FunctionValue> values = new ArrayList<>(expression.tokens.size());
+        for (Token token : expression.tokens) {
+            switch (token.type) {
+                case OPERATOR:
+                    switch (token.operator) {
+                        case '-':
+                            values.add(new NegateFunction());
+                            break;
+                        case '+':
+                            values.add(new SumFunction());
+                            break;
+                        case '*':
+                            values.add(new ProductFunction());
+                            break;
+                        case '/':
+                            values.add(new QuotientFunction());
+                            break;
+                        case '^':
+                            values.add(new PowerFunction());
+                            break;
+                        default:
+                            break;
+                    }
+                    break;
+                case REFERENCE_RANGE:
+                    MultipleValueFunctionValue multi = new MultipleValueFunctionValue();
+                    for (int row = token.fromRow; row <= token.toRow; row++) {
+                        for (int column = token.fromColumn; column <= token.toColumn; column++) {
+                            addDataProviderValue(column, row, multi.getValue(), parsedReferences, referer);
+                        }
+                    }
+                    values.add(multi);
+                    break;
+                case ROW_RANGE:
+                    MultipleValueFunctionValue rowMulti = new MultipleValueFunctionValue();
+                    for (int row = token.fromRow; row <= token.toRow; row++) {
+                        for (int column = 0; column < getUnderlyingColumnCount(); column++) {
+                            addDataProviderValue(column, row, rowMulti.getValue(), parsedReferences, referer);
+                        }
+                    }
+                    values.add(rowMulti);
+                    break;
+                case COLUMN_RANGE:
+                    MultipleValueFunctionValue columnMulti = new MultipleValueFunctionValue();
+                    for (int column = token.fromColumn; column <= token.toColumn; column++) {
+                        for (int row = 0; row < getUnderlyingRowCount(); row++) {
+                            addDataProviderValue(column, row, columnMulti.getValue(), parsedReferences, referer);
+                        }
+                    }
+                    values.add(columnMulti);
+                    break;
+                case REFERENCE:
+                    addDataProviderValue(token.fromColumn, token.fromRow, values, parsedReferences, referer);
+                    break;
+                case PLACEHOLDER:
+                    values.add(replacements.get(token.fromColumn));
+                    break;
+                case NUMBER:
+                    // check if last is big decimal and throw exception in that
+                    // case
+                    if (!values.isEmpty() && values.get(values.size() - 1) instanceof BigDecimalFunctionValue) {
+                        throw new IllegalArgumentException(Messages.getString("FormulaParser.error.missingOperator")); //$NON-NLS-1$
+                    }
+                    values.add(token.value);
+                    break;
+                case STRING:
+                    values.add(token.value);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        int parts = 0;
+        do {
+            parts = values.size();
+            values = processPower(values);
+        } while (parts != values.size());
+
+        do {
+            parts = values.size();
+            values = processMultiplicationAndDivision(values);
+        } while (parts != values.size());
+
+        return combineFunctions(values);
+    }
+
+    /**
+     * Evaluates a compiled function call.
+     *
+     * @param call
+     *            The compiled function call.
+     * @param parsedReferences
+     *            The references that where parsed already together with their
+     *            references if any. Needed for cycle detection.
+     * @param referer
+     *            The coordinate of the cell that refers to the value to add.
+     *            Needed for cycle detection.
+     * @return The function with its parameters.
+     */
+    private AbstractFunction evaluate(FunctionCall call,
+            Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences, IndexCoordinate referer) {
+
+        AbstractFunction fv = null;
+        try {
+            fv = call.constructor.newInstance();
+        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+            throw new IllegalArgumentException(Messages.getString("FormulaParser.error.instantiation", e.getLocalizedMessage()), e); //$NON-NLS-1$
+        }
+
+        Map<Integer, FunctionValue> nestedReplacements = new HashMap<>();
+        for (FunctionCall nested : call.nestedFunctions) {
+            nestedReplacements.put(nestedReplacements.size(), evaluate(nested, parsedReferences, referer));
+        }
+
+        for (FormulaExpression parameter : call.parameters) {
+            fv.addFunctionValue(evaluate(parameter, nestedReplacements, parsedReferences, referer));
+        }
+
+        return fv;
+    }
+
+    /**
+     * Checks if the given string is a plain decimal value, which is the same
+     * check as matching the localized digit regular expression, without using
+     * a regular expression.
+     *
+     * @param value
+     *            The string to check.
+     * @param decimalSeparator
+     *            The localized decimal separator.
+     * @return <code>true</code> if the given string only consists of digits
+     *         with an optional decimal separator between digits.
+     */
+    private static boolean isPlainNumber(String value, char decimalSeparator) {
+        int length = value.length();
+        if (length == 0) {
+            return false;
+        }
+
+        int separatorIndex = -1;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == decimalSeparator && separatorIndex < 0 && i > 0) {
+                separatorIndex = i;
+            } else if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return separatorIndex != length - 1;
+    }
+
     // cycle detection code
 
+    /**
+     * Checks if adding the reference from the given referer to the given
+     * reference introduced a cycle. As a cycle is reported on the first
+     * reference that closes it, the parsed references are free of cycles
+     * before the reference was added. Therefore only the references reachable
+     * from the added reference need to be checked.
+     *
+     * @param parsedReferences
+     *            The references that where parsed already together with their
+     *            references, including the added reference.
+     * @param referer
+     *            The coordinate of the cell that refers to the given reference.
+     *            Can be <code>null</code> for the top level formula.
+     * @param reference
+     *            The coordinate of the referenced cell.
+     * @return <code>true</code> if the referer is reachable from the
+     *         reference, which means there is a cycle.
+     *
+     * @since 2.1
+     */
+    protected boolean detectCycle(Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences,
+            IndexCoordinate referer, IndexCoordinate reference) {
+        if (referer == null) {
+            return false;
+        }
+
+        Set<IndexCoordinate> visited = new HashSet<>();
+        Deque<IndexCoordinate> toVisit = new ArrayDeque<>();
+        toVisit.push(reference);
+        while (!toVisit.isEmpty()) {
+            IndexCoordinate current = toVisit.pop();
+            if (current.equals(referer)) {
+                return true;
+            }
+            if (visited.add(current)) {
+                Set<IndexCoordinate> references = parsedReferences.get(current);
+                if (references != null) {
+                    toVisit.addAll(references);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the given references for cycles by performing a depth first
+     * search starting at every reference.
+     *
+     * @param parsedReferences
+     *            The references that where parsed already together with their
+     *            references.
+     * @return <code>true</code> if a cycle was detected.
+     * @deprecated Use
+     *             {@link #detectCycle(Map, IndexCoordinate, IndexCoordinate)}
+     *             which only checks the references reachable from the added
+     *             reference.
+     */
+    @Deprecated
     protected boolean detectCycle(Map<IndexCoordinate, Set<IndexCoordinate>> parsedReferences) {
         Set<IndexCoordinate> initPath = new HashSet<>();
         for (Map.Entry<IndexCoordinate, Set<IndexCoordinate>> entry : parsedReferences.entrySet()) {
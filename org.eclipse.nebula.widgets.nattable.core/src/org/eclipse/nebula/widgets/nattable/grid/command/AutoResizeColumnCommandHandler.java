@@ -12,16 +12,24 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.grid.command;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.ToIntFunction;
+
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommandHandler;
 import org.eclipse.nebula.widgets.nattable.grid.layer.GridLayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOffCommand;
 import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOnCommand;
+import org.eclipse.nebula.widgets.nattable.resize.AutoResizeSamplingStrategy;
 import org.eclipse.nebula.widgets.nattable.resize.MaxCellBoundsHelper;
 import org.eclipse.nebula.widgets.nattable.resize.command.AutoResizeColumnsCommand;
 import org.eclipse.nebula.widgets.nattable.resize.command.InitializeAutoResizeColumnsCommand;
 import org.eclipse.nebula.widgets.nattable.resize.command.MultiColumnResizeCommand;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.widgets.Display;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This command is triggered by the {@link InitializeAutoResizeColumnsCommand}.
@@ -30,9 +38,16 @@
  * <p>
  * This handler assumes that the target layer is the NatTable itself on calling
  * doCommand()
+ * <p>
+ * If an {@link AutoResizeSamplingStrategy} is used and the command is executed
+ * in the UI thread, the rows to measure are selected asynchronously and the
+ * resulting widths are applied later via {@link Display#asyncExec(Runnable)}.
+ * This way the UI is not blocked and the calculation can be cancelled.
  */
 public class AutoResizeColumnCommandHandler implements ILayerCommandHandler<AutoResizeColumnsCommand> {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AutoResizeColumnCommandHandler.class);
+
     /**
      * The layer on which the command should be fired. Usually this will be the
      * GridLayer
@@ -44,6 +59,11 @@ public class AutoResizeColumnCommandHandler implements ILayerCommandHandler<Auto
      * layer stack.
      */
     protected final ILayer positionLayer;
+    /**
+     * The strategy to select the rows that are measured if the command does
+     * not specify one. <code>null</code> to measure all rows.
+     */
+    private AutoResizeSamplingStrategy samplingStrategy;
 
     /**
      *
@@ -78,33 +98,168 @@ public Class<AutoResizeColumnsCommand> getCommandClass() {
 
     @Override
     public boolean doCommand(ILayer targetLayer, AutoResizeColumnsCommand command) {
+        AutoResizeSamplingStrategy sampling =
+                command.getSamplingStrategy() != null ? command.getSamplingStrategy() : this.samplingStrategy;
+        if (sampling != null) {
+            // a previous cancel only affects the previous run
+            sampling.reset();
+            Display display = Display.getCurrent();
+            if (display != null) {
+                resizeAsync(targetLayer, command, sampling, display);
+                return true;
+            }
+        }
+
         // Need to resize selected columns even if they are outside the viewport
         // As this command is triggered by the InitialAutoResizeCommand we know
         // that the targetLayer is the
         // NatTable itself
         targetLayer.doCommand(new TurnViewportOffCommand());
 
-        int[] columnPositions = command.getColumnPositionsArray();
-        int[] gridColumnPositions =
-                command.doPositionTransformation() ? convertFromPositionToCommandLayer(columnPositions) : columnPositions;
+        int[] gridColumnPositions = getGridColumnPositions(command);
 
         int[] gridColumnWidths = MaxCellBoundsHelper.getPreferredColumnWidths(
                 command.getConfigRegistry(),
                 command.getGCFactory(),
                 this.commandLayer,
-                gridColumnPositions);
+                gridColumnPositions,
+                sampling);
 
         // only perform further actions if the widths could be calculated
-        // could fail and return null for example if the GCFactory fails
+        // could fail and return null for example if the GCFactory fails or
+        // the calculation was cancelled
         if (gridColumnWidths != null && gridColumnWidths.length > 0) {
             this.commandLayer.doCommand(
                     new MultiColumnResizeCommand(this.commandLayer, gridColumnPositions, gridColumnWidths, true));
-            targetLayer.doCommand(new TurnViewportOnCommand());
         }
+        targetLayer.doCommand(new TurnViewportOnCommand());
 
         return true;
     }
 
+    /**
+     * Selects the rows to measure via the given
+     * {@link AutoResizeSamplingStrategy} without blocking the UI thread. The
+     * data values are collected in the UI thread, the search for the rows
+     * with the longest texts is performed in the background and the sampled
+     * rows are measured and resized in the UI thread afterwards.
+     *
+     * @param targetLayer
+     *            The layer on which the command was executed, typically the
+     *            NatTable itself.
+     * @param command
+     *            The command to handle.
+     * @param sampling
+     *            The {@link AutoResizeSamplingStrategy} to select the rows to
+     *            measure.
+     * @param display
+     *            The {@link Display} of the UI thread.
+     */
+    private void resizeAsync(ILayer targetLayer, AutoResizeColumnsCommand command, AutoResizeSamplingStrategy sampling, Display display) {
+        GC gc = command.getGCFactory().createGC();
+        if (gc == null) {
+            return;
+        }
+        ToIntFunction<Object> widthEstimator;
+        try {
+            widthEstimator = AutoResizeSamplingStrategy.createWidthEstimator(gc);
+        } finally {
+            gc.dispose();
+        }
+
+        targetLayer.doCommand(new TurnViewportOffCommand());
+        CompletableFuture<int[][]> rowPositions;
+        try {
+            rowPositions = sampling.getRowPositionsAsync(this.commandLayer, getGridColumnPositions(command), widthEstimator);
+        } finally {
+            targetLayer.doCommand(new TurnViewportOnCommand());
+        }
+
+        rowPositions.whenComplete((result, error) -> {
+            if (error != null) {
+                LOG.error("Failed to sample the rows for the column auto resize", error); //$NON-NLS-1$
+            } else if (result != null && !display.isDisposed()) {
+                display.asyncExec(() -> {
+                    if (!sampling.isCancelled()) {
+                        applyColumnWidths(targetLayer, command, result);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Measures the given rows and resizes the columns of the given command.
+     *
+     * @param targetLayer
+     *            The layer on which the command was executed, typically the
+     *            NatTable itself.
+     * @param command
+     *            The command to handle.
+     * @param rowPositions
+     *            The row positions to measure per column.
+     */
+    private void applyColumnWidths(ILayer targetLayer, AutoResizeColumnsCommand command, int[][] rowPositions) {
+        targetLayer.doCommand(new TurnViewportOffCommand());
+        try {
+            int[] gridColumnPositions = getGridColumnPositions(command);
+            int[] gridColumnWidths = MaxCellBoundsHelper.getPreferredColumnWidths(
+                    command.getConfigRegistry(),
+                    command.getGCFactory(),
+                    this.commandLayer,
+                    gridColumnPositions,
+                    rowPositions);
+
+            if (gridColumnWidths.length > 0) {
+                this.commandLayer.doCommand(
+                        new MultiColumnResizeCommand(this.commandLayer, gridColumnPositions, gridColumnWidths, true));
+            }
+        } finally {
+            targetLayer.doCommand(new TurnViewportOnCommand());
+        }
+    }
+
+    /**
+     * Needs to be called while the viewport is turned off, so the column
+     * positions outside the viewport can be converted.
+     *
+     * @param command
+     *            The command to handle.
+     * @return The column positions of the command in the command layer.
+     */
+    private int[] getGridColumnPositions(AutoResizeColumnsCommand command) {
+        int[] columnPositions = command.getColumnPositionsArray();
+        return command.doPositionTransformation() ? convertFromPositionToCommandLayer(columnPositions) : columnPositions;
+    }
+
+    /**
+     *
+     * @return The {@link AutoResizeSamplingStrategy} that is used to select the
+     *         rows to measure if the command does not specify one, or
+     *         <code>null</code> if all rows are measured.
+     *
+     * @since 2.1
+     */
+    public AutoResizeSamplingStrategy getSamplingStrategy() {
+        return this.samplingStrategy;
+    }
+
+    /**
+     * Configure the {@link AutoResizeSamplingStrategy} that is used to select
+     * the rows to measure if the command does not specify one. Useful for
+     * tables with a huge number of rows, where measuring every row blocks the
+     * UI for a long time.
+     *
+     * @param samplingStrategy
+     *            The {@link AutoResizeSamplingStrategy} to use or
+     *            <code>null</code> to measure all rows.
+     *
+     * @since 2.1
+     */
+    public void setSamplingStrategy(AutoResizeSamplingStrategy samplingStrategy) {
+        this.samplingStrategy = samplingStrategy;
+    }
+
     /**
      * Translates the column positions the layer stack upwards as the resulting
      * {@link MultiColumnResizeCommand} will be fired on the command layer which
@@ -12,20 +12,22 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.group.performance;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
 import org.eclipse.collections.api.set.primitive.IntSet;
 import org.eclipse.collections.api.set.primitive.MutableIntSet;
 import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.factory.primitive.IntObjectMaps;
 import org.eclipse.collections.impl.factory.primitive.IntSets;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.persistence.IPersistable;
@@ -62,7 +64,35 @@ public class GroupModel implements IPersistable {
     /**
      * Collection of groups managed by this GroupModel.
      */
-    private final List<Group> groups = new LinkedList<>();
+    private final List<Group> groups = new ArrayList<>();
+
+    /**
+     * Lookup index for the visible position ranges of the groups managed by
+     * this GroupModel. Created lazily on the first position lookup, repaired in
+     * place on changes of a visible start position or visible span that keep
+     * the order of the ranges, and discarded otherwise.
+     */
+    private GroupIndex groupIndex;
+
+    /**
+     * Mapping of member indexes to the group that contains them. Updated
+     * incrementally on every member change of a registered {@link Group}.
+     */
+    private final MutableIntObjectMap<Group> memberIndexToGroup = IntObjectMaps.mutable.empty();
+
+    /**
+     * Mapping of static indexes to the group that contains them. Updated
+     * incrementally on every static index change of a registered
+     * {@link Group}.
+     */
+    private final MutableIntObjectMap<Group> staticIndexToGroup = IntObjectMaps.mutable.empty();
+
+    /**
+     * Flag to indicate that at least one index was added to more than one
+     * group. In that case the removal of an index from a group needs to search
+     * for another group that contains the index.
+     */
+    private boolean sharedIndexes = false;
 
     /**
      *
@@ -88,6 +118,122 @@ void setIndexPositionConverter(IndexPositionConverter converter) {
         updateVisibleStartPositions();
     }
 
+    /**
+     * Discards the position lookup index so it is rebuilt on the next lookup.
+     * Needs to be called on every change of the {@link Group} collection.
+     */
+    void invalidateIndex() {
+        this.groupIndex = null;
+    }
+
+    /**
+     * Updates the position lookup index after the visible start position or
+     * the visible span of the given {@link Group} changed. The index is
+     * repaired in place if the changed range does not collide with the ranges
+     * of its neighbours, otherwise it is discarded and rebuilt on the next
+     * lookup.
+     *
+     * @param group
+     *            The {@link Group} whose visible range changed.
+     */
+    private void updateIndex(Group group) {
+        GroupIndex index = this.groupIndex;
+        if (index != null && group.registered && !index.update(group)) {
+            this.groupIndex = null;
+        }
+    }
+
+    /**
+     * Adds the member and static indexes of the given {@link Group} to the
+     * index lookups.
+     *
+     * @param group
+     *            The {@link Group} that was added to this {@link GroupModel}.
+     */
+    private void registerIndexes(Group group) {
+        group.registered = true;
+        group.members.forEach(member -> mapIndex(this.memberIndexToGroup, member, group));
+        group.staticIndexes.forEach(index -> mapIndex(this.staticIndexToGroup, index, group));
+    }
+
+    /**
+     * Removes the member and static indexes of the given {@link Group} from
+     * the index lookups.
+     *
+     * @param group
+     *            The {@link Group} that was removed from this
+     *            {@link GroupModel}.
+     */
+    private void unregisterIndexes(Group group) {
+        group.registered = false;
+        group.members.forEach(member -> unmapIndex(this.memberIndexToGroup, member, group, true));
+        group.staticIndexes.forEach(index -> unmapIndex(this.staticIndexToGroup, index, group, false));
+    }
+
+    /**
+     * Maps the given index to the given {@link Group}. If the index is already
+     * mapped to another group, the group that comes first in the group
+     * collection wins.
+     *
+     * @param map
+     *            The index lookup to update.
+     * @param index
+     *            The index to map.
+     * @param group
+     *            The {@link Group} that contains the index.
+     */
+    private void mapIndex(MutableIntObjectMap<Group> map, int index, Group group) {
+        Group mapped = map.getIfAbsentPut(index, group);
+        if (mapped != group) {
+            this.sharedIndexes = true;
+            if (this.groups.indexOf(group) < this.groups.indexOf(mapped)) {
+                map.put(index, group);
+            }
+        }
+    }
+
+    /**
+     * Removes the mapping of the given index to the given {@link Group}. If
+     * indexes are shared between groups, the index is mapped to the next group
+     * that contains it.
+     *
+     * @param map
+     *            The index lookup to update.
+     * @param index
+     *            The index to unmap.
+     * @param group
+     *            The {@link Group} that does not contain the index anymore.
+     * @param member
+     *            <code>true</code> if the member indexes are updated,
+     *            <code>false</code> if the static indexes are updated.
+     */
+    private void unmapIndex(MutableIntObjectMap<Group> map, int index, Group group, boolean member) {
+        if (map.get(index) == group) {
+            map.remove(index);
+            if (this.sharedIndexes) {
+                for (Group g : this.groups) {
+                    if (g != group && (member ? g.members : g.staticIndexes).contains(index)) {
+                        map.put(index, g);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * @return The lookup index for the current group states.
+     */
+    private GroupIndex getGroupIndex() {
+        GroupIndex index = this.groupIndex;
+        if (index == null) {
+            index = new GroupIndex(this.groups);
+            this.groupIndex = index;
+        }
+        return index;
+    }
+
     /**
      * Converts the given position to the corresponding index in case the
      * {@link #indexPositionConverter} is set. Otherwise simply returns the
@@ -224,7 +370,7 @@ public void loadState(String prefix, Properties properties) {
                 int visibleSpan = Integer.parseInt(state);
 
                 Group group = new Group(groupName, startIndex, originalSpan);
-                this.groups.add(group);
+                addGroup(group);
 
                 group.visibleStartIndex = visibleStartIndex;
                 group.visibleStartPosition = visibleStartPosition;
@@ -265,10 +411,11 @@ public void loadState(String prefix, Properties properties) {
                     StringTokenizer staticTokenizer = new StringTokenizer(statics, ","); //$NON-NLS-1$
                     while (staticTokenizer.hasMoreTokens()) {
                         int index = Integer.parseInt(staticTokenizer.nextToken());
-                        group.staticIndexes.add(index);
+                        group.addStaticIndexes(index);
                     }
                 }
             }
+            invalidateIndex();
         }
     }
 
@@ -309,7 +456,7 @@ public void addPositionsToGroup(Group group, int... positions) {
                     int index = getIndexByPosition(pos);
 
                     // add index to group members
-                    group.members.add(index);
+                    group.addMembers(index);
 
                     group.setStartIndex(index);
                     group.setVisibleStartIndex(index);
@@ -329,7 +476,7 @@ public void addPositionsToGroup(Group group, int... positions) {
                     group.setVisibleSpan(group.getVisibleSpan() + 1);
 
                     // add index to group members
-                    group.members.add(getIndexByPosition(nextPos));
+                    group.addMembers(getIndexByPosition(nextPos));
                 } else {
                     // there is a gap so we break and do not update
                     break;
@@ -369,12 +516,12 @@ public void removePositionsFromGroup(Group group, int... positions) {
                         // the start index was removed, we need to update the
                         // start index
                         group.setStartIndex(getIndexByPosition(pos + 1));
-                        group.members.remove(index);
-                        group.staticIndexes.remove(index);
+                        group.removeMembers(index);
+                        group.removeStaticIndexes(index);
                     } else {
                         int memberIndex = getIndexByPosition(group.getVisibleStartPosition() + group.getVisibleSpan() - 1);
-                        group.members.remove(memberIndex);
-                        group.staticIndexes.remove(memberIndex);
+                        group.removeMembers(memberIndex);
+                        group.removeStaticIndexes(memberIndex);
                     }
 
                     group.setOriginalSpan(group.getOriginalSpan() - 1);
@@ -431,12 +578,12 @@ public Collection<Group> removePositionsFromGroup(int... positions) {
                     // the start index was removed, we need to update the
                     // start index
                     group.setStartIndex(getIndexByPosition(pos + 1));
-                    group.members.remove(index);
-                    group.staticIndexes.remove(index);
+                    group.removeMembers(index);
+                    group.removeStaticIndexes(index);
                 } else {
                     int memberIndex = getIndexByPosition(group.getVisibleStartPosition() + group.getVisibleSpan() - 1);
-                    group.members.remove(memberIndex);
-                    group.staticIndexes.remove(memberIndex);
+                    group.removeMembers(memberIndex);
+                    group.removeStaticIndexes(memberIndex);
                 }
 
                 group.setOriginalSpan(group.getOriginalSpan() - 1);
@@ -520,7 +667,7 @@ public void addStaticIndexesToGroup(Group group, int... indexes) {
                 .toArray();
 
         if (staticIndexes.length > 0) {
-            group.staticIndexes.addAll(staticIndexes);
+            group.addStaticIndexes(staticIndexes);
         }
     }
 
@@ -553,6 +700,13 @@ public Group getGroupByName(String groupName) {
      *         <code>null</code> if the position is not part of a group.
      */
     public Group getGroupByPosition(int position) {
+        GroupIndex index = getGroupIndex();
+        if (!index.overlapping) {
+            return index.getGroupByPosition(position);
+        }
+
+        // overlapping groups can not be searched via the sorted ranges, so
+        // fall back to the iteration to return the first matching group
         for (Group group : this.groups) {
             // first check the visible start position of the group
             if (position == group.getVisibleStartPosition()
@@ -565,11 +719,6 @@ public Group getGroupByPosition(int position) {
 
     /**
      * Checks if there is a group that has the given index as static index.
-     * <p>
-     * <b>Note:</b> This method iterates over all groups and checks if the
-     * static index collection contains the given index. Could have a bad
-     * performance in case of huge groups.
-     * </p>
      *
      * @param staticIndex
      *            The index to check.
@@ -578,21 +727,11 @@ public Group getGroupByPosition(int position) {
      *         group.
      */
     public Group getGroupByStaticIndex(int staticIndex) {
-        for (Group group : this.groups) {
-            if (group.staticIndexes.contains(staticIndex)) {
-                return group;
-            }
-        }
-        return null;
+        return this.staticIndexToGroup.get(staticIndex);
     }
 
     /**
      * Searches for a group that has a given member index.
-     * <p>
-     * <b>Note:</b> This method iterates over all groups and checks if the
-     * member collection contains the given index. Could have a bad performance
-     * in case of huge groups.
-     * </p>
      *
      * @param memberIndex
      *            The index to check.
@@ -600,12 +739,7 @@ public Group getGroupByStaticIndex(int staticIndex) {
      *         the index is not a member in any group.
      */
     public Group findGroupByMemberIndex(int memberIndex) {
-        for (Group group : this.groups) {
-            if (group.hasMember(memberIndex)) {
-                return group;
-            }
-        }
-        return null;
+        return this.memberIndexToGroup.get(memberIndex);
     }
 
     /**
@@ -647,6 +781,8 @@ public void addGroup(String groupName, int startIndex, int span) {
      */
     public void addGroup(Group group) {
         this.groups.add(group);
+        registerIndexes(group);
+        invalidateIndex();
     }
 
     /**
@@ -686,14 +822,24 @@ public Group removeGroup(int position) {
      *            The group to remove.
      */
     public void removeGroup(Group group) {
-        this.groups.remove(group);
+        if (this.groups.remove(group)) {
+            unregisterIndexes(group);
+            invalidateIndex();
+        }
     }
 
     /**
      * Removes all groups from this {@link GroupModel}.
      */
     public void clear() {
+        for (Group group : this.groups) {
+            group.registered = false;
+        }
         this.groups.clear();
+        this.memberIndexToGroup.clear();
+        this.staticIndexToGroup.clear();
+        this.sharedIndexes = false;
+        invalidateIndex();
     }
 
     /**
@@ -954,6 +1100,19 @@ public class Group {
          */
         private final MutableIntSet members = IntSets.mutable.empty();
 
+        /**
+         * Flag to indicate that this group is registered in the
+         * {@link GroupModel}, in which case changes to the members, the static
+         * indexes and the visible range need to be reflected in the lookups.
+         */
+        private boolean registered = false;
+
+        /**
+         * The slot of this group in the sorted visible position ranges of the
+         * current {@link GroupIndex}, or -1 if the group is hidden.
+         */
+        private int indexSlot = -1;
+
         /**
          *
          * @param groupName
@@ -1133,6 +1292,7 @@ void updateVisibleStartPosition() {
                 this.visibleStartIndex = this.startIndex;
             }
             this.visibleStartPosition = getPositionByIndex(this.visibleStartIndex);
+            updateIndex(this);
 
             if (this.visibleStartPosition == -1) {
                 // if a multi hide command was triggered for non-contiguous
@@ -1170,6 +1330,7 @@ void consistencyCheck(boolean updateStartIndex) {
             }
             setVisibleStartIndex(smallestIndex);
             this.visibleStartPosition = smallestPosition;
+            updateIndex(this);
         }
 
         /**
@@ -1190,7 +1351,11 @@ int[] getMembers() {
          *            local group members.
          */
         void addMembers(int... memberIndexes) {
-            this.members.addAll(memberIndexes);
+            for (int index : memberIndexes) {
+                if (this.members.add(index) && this.registered) {
+                    mapIndex(GroupModel.this.memberIndexToGroup, index, this);
+                }
+            }
         }
 
         /**
@@ -1202,7 +1367,11 @@ void addMembers(int... memberIndexes) {
          *            the local group members.
          */
         void removeMembers(int... memberIndexes) {
-            this.members.removeAll(memberIndexes);
+            for (int index : memberIndexes) {
+                if (this.members.remove(index) && this.registered) {
+                    unmapIndex(GroupModel.this.memberIndexToGroup, index, this, true);
+                }
+            }
         }
 
         /**
@@ -1253,6 +1422,7 @@ public int getVisibleSpan() {
         public void setVisibleSpan(int visibleSpan) {
             if (visibleSpan <= this.originalSpan) {
                 this.visibleSpan = visibleSpan;
+                updateIndex(this);
             }
         }
 
@@ -1275,7 +1445,11 @@ public boolean isEmpty() {
          *            The static indexes to add.
          */
         public void addStaticIndexes(int... indexes) {
-            this.staticIndexes.addAll(indexes);
+            for (int index : indexes) {
+                if (this.staticIndexes.add(index) && this.registered) {
+                    mapIndex(GroupModel.this.staticIndexToGroup, index, this);
+                }
+            }
         }
 
         /**
@@ -1285,7 +1459,11 @@ public void addStaticIndexes(int... indexes) {
          *            The static indexes to remove.
          */
         public void removeStaticIndexes(int... indexes) {
-            this.staticIndexes.removeAll(indexes);
+            for (int index : indexes) {
+                if (this.staticIndexes.remove(index) && this.registered) {
+                    unmapIndex(GroupModel.this.staticIndexToGroup, index, this, false);
+                }
+            }
         }
 
         /**
@@ -1402,6 +1580,143 @@ public String toString() {
         }
     }
 
+    /**
+     * Lookup structure for the visible position ranges of the groups in a
+     * {@link GroupModel}. Contains the ranges of the visible groups sorted by
+     * start position for a binary search. Hidden groups, which have a visible
+     * start position of -1, are kept separately so they do not collide with
+     * the visible ranges.
+     */
+    private static class GroupIndex {
+
+        /**
+         * The visible groups sorted by their visible start position.
+         */
+        private final Group[] sortedGroups;
+
+        /**
+         * The visible start positions of the sorted groups.
+         */
+        private final int[] starts;
+
+        /**
+         * The exclusive visible end positions of the sorted groups.
+         */
+        private final int[] ends;
+
+        /**
+         * The hidden groups in the order of the group collection.
+         */
+        private final Group[] hiddenGroups;
+
+        /**
+         * Flag to indicate that the visible position ranges of at least two
+         * groups overlap, in which case the binary search can not be used.
+         */
+        private final boolean overlapping;
+
+        GroupIndex(List<Group> groups) {
+            List<Group> visible = new ArrayList<>(groups.size());
+            List<Group> hidden = new ArrayList<>();
+            for (Group group : groups) {
+                if (group.visibleStartPosition < 0) {
+                    group.indexSlot = -1;
+                    hidden.add(group);
+                } else {
+                    visible.add(group);
+                }
+            }
+            this.hiddenGroups = hidden.toArray(new Group[hidden.size()]);
+
+            this.sortedGroups = visible.toArray(new Group[visible.size()]);
+            Arrays.sort(this.sortedGroups, (g1, g2) -> Integer.compare(g1.visibleStartPosition, g2.visibleStartPosition));
+
+            this.starts = new int[this.sortedGroups.length];
+            this.ends = new int[this.sortedGroups.length];
+            boolean overlap = false;
+            for (int i = 0; i < this.sortedGroups.length; i++) {
+                Group group = this.sortedGroups[i];
+                group.indexSlot = i;
+                this.starts[i] = group.visibleStartPosition;
+                // the visible start position is always part of the group, even
+                // if the visible span is 0
+                this.ends[i] = group.visibleStartPosition + Math.max(group.visibleSpan, 1);
+                if (i > 0 && this.starts[i] < this.ends[i - 1]) {
+                    overlap = true;
+                }
+            }
+            this.overlapping = overlap;
+        }
+
+        /**
+         * Repairs the visible position range of the given group in place.
+         *
+         * @param group
+         *            The group whose visible start position or visible span
+         *            changed.
+         * @return <code>true</code> if the index is still valid,
+         *         <code>false</code> if it needs to be rebuilt because the
+         *         group changed between hidden and visible, or because its
+         *         new range collides with the range of a neighbour.
+         */
+        boolean update(Group group) {
+            int slot = group.indexSlot;
+            int start = group.visibleStartPosition;
+            if (slot < 0) {
+                return start < 0;
+            }
+            if (this.overlapping || start < 0) {
+                return false;
+            }
+
+            int end = start + Math.max(group.visibleSpan, 1);
+            if ((slot > 0 && start < this.ends[slot - 1])
+                    || (slot < this.starts.length - 1 && end > this.starts[slot + 1])) {
+                return false;
+            }
+            this.starts[slot] = start;
+            this.ends[slot] = end;
+            return true;
+        }
+
+        /**
+         * Performs a binary search for the group whose visible position range
+         * contains the given position. Only valid if the ranges do not
+         * overlap.
+         *
+         * @param position
+         *            The position to check.
+         * @return The Group to which the given position belongs to or
+         *         <code>null</code> if the position is not part of a group.
+         */
+        Group getGroupByPosition(int position) {
+            if (position < 0) {
+                for (Group group : this.hiddenGroups) {
+                    if (position == group.visibleStartPosition) {
+                        return group;
+                    }
+                }
+                return null;
+            }
+
+            int low = 0;
+            int high = this.starts.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (this.starts[mid] <= position) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            // high is the last range that starts at or before position
+            if (high >= 0 && position < this.ends[high]) {
+                return this.sortedGroups[high];
+            }
+            return null;
+        }
+    }
+
     /**
      * Interface to support layer based position-index conversion.
      */
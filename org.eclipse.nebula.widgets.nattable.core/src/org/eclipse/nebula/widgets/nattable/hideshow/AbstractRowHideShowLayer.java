@@ -17,7 +17,6 @@
 import java.util.Collection;
 import java.util.HashSet;
 
-import org.eclipse.collections.api.map.primitive.IntIntMap;
 import org.eclipse.collections.api.map.primitive.MutableIntIntMap;
 import org.eclipse.collections.impl.factory.primitive.IntIntMaps;
 import org.eclipse.nebula.widgets.nattable.coordinate.PositionUtil;
@@ -32,15 +31,18 @@
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.reorder.event.RowReorderEvent;
+import org.eclipse.nebula.widgets.nattable.util.RankSelectBitVector;
 
 /**
  * Abstract implementation for row hide/show operations.
  */
 public abstract class AbstractRowHideShowLayer extends AbstractLayerTransform implements IUniqueIndexLayer {
 
-    private MutableIntIntMap cachedVisibleRowIndexPositionMapping;
-    private MutableIntIntMap cachedVisibleRowPositionIndexMapping;
-    private MutableIntIntMap cachedHiddenRowIndexPositionMapping;
+    /**
+     * The visibility of the rows per underlying row position. Replaced on
+     * modification so it can be read without locking.
+     */
+    private volatile RankSelectBitVector cachedVisibleRows;
     private MutableIntIntMap startYCache = IntIntMaps.mutable.empty();
 
     /**
@@ -131,7 +133,7 @@ public int getRowCount() {
         if (!hasHiddenRows()) {
             return super.getRowCount();
         }
-        return getCachedVisibleRowIndexPositionMapping().size();
+        return getCachedVisibleRows().cardinality();
     }
 
     @Override
@@ -144,7 +146,8 @@ public int getRowIndexByPosition(int rowPosition) {
             return super.getRowIndexByPosition(rowPosition);
         }
 
-        return getCachedVisibleRowPositionIndexMapping().getIfAbsent(rowPosition, -1);
+        int underlyingPosition = getCachedVisibleRows().select(rowPosition);
+        return getUnderlyingLayer().getRowIndexByPosition(underlyingPosition);
     }
 
     @Override
@@ -153,7 +156,9 @@ public int getRowPositionByIndex(int rowIndex) {
             return getUnderlyingLayer().getRowPositionByIndex(rowIndex);
         }
 
-        return getCachedVisibleRowIndexPositionMapping().getIfAbsent(rowIndex, -1);
+        RankSelectBitVector visibleRows = getCachedVisibleRows();
+        int underlyingPosition = getUnderlyingLayer().getRowPositionByIndex(rowIndex);
+        return visibleRows.get(underlyingPosition) ? visibleRows.rank(underlyingPosition) : -1;
     }
 
     /**
@@ -208,13 +213,12 @@ public int underlyingToLocalRowPosition(ILayer sourceUnderlyingLayer, int underl
             return underlyingRowPosition;
         }
 
-        int rowIndex = getUnderlyingLayer().getRowIndexByPosition(underlyingRowPosition);
-        int rowPosition = getRowPositionByIndex(rowIndex);
-        if (rowPosition >= 0) {
-            return rowPosition;
-        } else {
-            return getCachedHiddenRowIndexPositionMapping().getIfAbsent(rowIndex, -1);
+        // a hidden row is mapped to the position of the next visible row
+        RankSelectBitVector visibleRows = getCachedVisibleRows();
+        if (underlyingRowPosition < 0 || underlyingRowPosition >= visibleRows.size()) {
+            return -1;
         }
+        return visibleRows.rank(underlyingRowPosition);
     }
 
     @Override
@@ -412,59 +416,69 @@ public ILayerCell getCellByPosition(int columnPosition, int rowPosition) {
      * Invalidate the cache to ensure that information is rebuild.
      */
     protected synchronized void invalidateCache() {
-        this.cachedVisibleRowIndexPositionMapping = null;
-        this.cachedVisibleRowPositionIndexMapping = null;
-        this.cachedHiddenRowIndexPositionMapping = null;
+        this.cachedVisibleRows = null;
         this.startYCache = IntIntMaps.mutable.empty();
     }
 
-    private synchronized IntIntMap getCachedVisibleRowIndexPositionMapping() {
-        if (this.cachedVisibleRowIndexPositionMapping == null) {
-            cacheVisibleRowIndexes();
+    /**
+     * Update the cache for the given row indexes whose hidden state has
+     * changed. In contrast to {@link #invalidateCache()} only the given rows
+     * are updated instead of rebuilding the cache for all rows, which should
+     * be used on hide/show operations if the underlying structure is
+     * unchanged.
+     *
+     * @param rowIndexes
+     *            The row indexes whose hidden state has changed.
+     *
+     * @since 2.1
+     */
+    protected synchronized void updateCache(int... rowIndexes) {
+        this.startYCache = IntIntMaps.mutable.empty();
+
+        RankSelectBitVector visibleRows = this.cachedVisibleRows;
+        if (visibleRows == null) {
+            // the cache is build lazily on next access
+            return;
+        }
+        if (!hasHiddenRows()) {
+            this.cachedVisibleRows = null;
+            return;
         }
-        return this.cachedVisibleRowIndexPositionMapping;
-    }
 
-    private synchronized IntIntMap getCachedVisibleRowPositionIndexMapping() {
-        if (this.cachedVisibleRowPositionIndexMapping == null) {
-            cacheVisibleRowIndexes();
+        IUniqueIndexLayer underlyingLayer = getUnderlyingLayer();
+        RankSelectBitVector modified = new RankSelectBitVector(visibleRows);
+        for (int rowIndex : rowIndexes) {
+            int underlyingPosition = underlyingLayer.getRowPositionByIndex(rowIndex);
+            if (underlyingPosition >= 0 && underlyingPosition < modified.size()) {
+                modified.set(underlyingPosition, !isRowIndexHidden(rowIndex));
+            }
         }
-        return this.cachedVisibleRowPositionIndexMapping;
+        this.cachedVisibleRows = modified;
     }
 
-    private synchronized IntIntMap getCachedHiddenRowIndexPositionMapping() {
-        if (this.cachedHiddenRowIndexPositionMapping == null) {
-            cacheVisibleRowIndexes();
+    private RankSelectBitVector getCachedVisibleRows() {
+        RankSelectBitVector visibleRows = this.cachedVisibleRows;
+        if (visibleRows == null) {
+            synchronized (this) {
+                if (this.cachedVisibleRows == null) {
+                    cacheVisibleRowIndexes();
+                }
+                visibleRows = this.cachedVisibleRows;
+            }
         }
-        return this.cachedHiddenRowIndexPositionMapping;
+        return visibleRows;
     }
 
     /**
      * Build up the row caches.
      */
     protected synchronized void cacheVisibleRowIndexes() {
-
-        this.cachedVisibleRowIndexPositionMapping = IntIntMaps.mutable.empty();
-        this.cachedVisibleRowPositionIndexMapping = IntIntMaps.mutable.empty();
-        this.cachedHiddenRowIndexPositionMapping = IntIntMaps.mutable.empty();
         this.startYCache = IntIntMaps.mutable.empty();
 
-        // only build up a cache if it is necessary
-        if (hasHiddenRows()) {
-            ILayer underlyingLayer = getUnderlyingLayer();
-            int rowPosition = 0;
-            for (int parentRowPosition = 0; parentRowPosition < underlyingLayer.getRowCount(); parentRowPosition++) {
-                int rowIndex = underlyingLayer.getRowIndexByPosition(parentRowPosition);
-
-                if (!isRowIndexHidden(rowIndex)) {
-                    this.cachedVisibleRowIndexPositionMapping.put(rowIndex, rowPosition);
-                    this.cachedVisibleRowPositionIndexMapping.put(rowPosition, rowIndex);
-                    rowPosition++;
-                } else {
-                    this.cachedHiddenRowIndexPositionMapping.put(rowIndex, rowPosition);
-                }
-            }
-        }
+        ILayer underlyingLayer = getUnderlyingLayer();
+        this.cachedVisibleRows = new RankSelectBitVector(
+                underlyingLayer.getRowCount(),
+                position -> !isRowIndexHidden(underlyingLayer.getRowIndexByPosition(position)));
     }
 
 }
@@ -160,7 +160,7 @@ public void hideRowPositions(int... rowPositions) {
                 .sorted()
                 .toArray();
         this.hiddenRowIndexes.addAll(rowIndexes);
-        invalidateCache();
+        updateCache(rowIndexes);
         fireLayerEvent(new HideRowPositionsEvent(this, rowPositions, rowIndexes));
     }
 
@@ -176,7 +176,7 @@ public void hideRowIndexes(int... rowIndexes) {
                 .sorted()
                 .toArray();
         this.hiddenRowIndexes.addAll(rowIndexes);
-        invalidateCache();
+        updateCache(rowIndexes);
         fireLayerEvent(new HideRowPositionsEvent(this, rowPositions, rowIndexes));
     }
 
@@ -193,7 +193,7 @@ public void showRowIndexes(int... rowIndexes) {
         toProcess.retainAll(this.hiddenRowIndexes);
 
         this.hiddenRowIndexes.removeAll(toProcess);
-        invalidateCache();
+        updateCache(toProcess.toArray());
         int[] positions = getRowPositionsByIndexes(toProcess.toArray());
         fireLayerEvent(new ShowRowPositionsEvent(this, positions));
     }
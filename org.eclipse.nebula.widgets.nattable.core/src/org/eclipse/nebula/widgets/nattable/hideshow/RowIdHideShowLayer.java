@@ -216,12 +216,14 @@ public boolean hasHiddenRows() {
     @Override
     public void hideRowPositions(int... rowPositions) {
         Map<Serializable, T> toHide = new HashMap<>();
-        for (int rowPosition : rowPositions) {
-            T rowObject = getRowObjectByPosition(rowPosition);
+        int[] rowIndexes = new int[rowPositions.length];
+        for (int i = 0; i < rowPositions.length; i++) {
+            rowIndexes[i] = getRowIndexByPosition(rowPositions[i]);
+            T rowObject = getRowObjectByIndex(rowIndexes[i]);
             toHide.put(this.rowIdAccessor.getRowId(rowObject), rowObject);
         }
         this.hiddenRows.putAll(toHide);
-        invalidateCache();
+        updateCache(rowIndexes);
         fireLayerEvent(new HideRowPositionsEvent(this, rowPositions));
     }
 
@@ -238,7 +240,7 @@ public void hideRowIndexes(int... rowIndexes) {
             T rowObject = getRowObjectByIndex(rowIndex);
             this.hiddenRows.put(this.rowIdAccessor.getRowId(rowObject), rowObject);
         }
-        invalidateCache();
+        updateCache(rowIndexes);
         fireLayerEvent(new HideRowPositionsEvent(this, rowPositions.toArray()));
     }
 
@@ -253,7 +255,7 @@ public void showRowIndexes(int... rowIndexes) {
             T rowObject = getRowObjectByIndex(rowIndex);
             this.hiddenRows.remove(this.rowIdAccessor.getRowId(rowObject));
         }
-        invalidateCache();
+        updateCache(rowIndexes);
         fireLayerEvent(new ShowRowPositionsEvent(this, getRowPositionsByIndexes(rowIndexes)));
     }
 
@@ -313,11 +315,6 @@ public Collection<String> getProvidedLabels() {
         return result;
     }
 
-    private T getRowObjectByPosition(int rowPosition) {
-        int rowIndex = getRowIndexByPosition(rowPosition);
-        return getRowObjectByIndex(rowIndex);
-    }
-
     private T getRowObjectByIndex(int rowIndex) {
         if (rowIndex >= 0) {
             try {
@@ -0,0 +1,206 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+import java.util.Arrays;
+
+/**
+ * Prefix sum index used by {@link SizeConfig} to calculate aggregated sizes and
+ * to find the position at a pixel in logarithmic time.
+ * <p>
+ * Only positions that do not use the default size are stored in the index,
+ * sorted ascending by position. For every stored position a segment is stored
+ * in a Fenwick tree (binary indexed tree). A segment consists of the default
+ * sized positions between the previous stored position and the stored
+ * position, plus the stored position itself. The prefix sum of the segments up
+ * to a stored position is therefore the end pixel of that position.
+ * </p>
+ * <p>
+ * As the number of positions with a custom size is typically small compared
+ * to the number of positions, the memory consumption only depends on the
+ * number of customized positions, and not on the number of rows or columns.
+ * </p>
+ */
+final class PositionSizeIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * The sorted positions that have a size different to the default size.
+     */
+    private int[] positions = EMPTY;
+
+    /**
+     * The sizes of the positions at the same index in {@link #positions}.
+     */
+    private int[] sizes = EMPTY;
+
+    /**
+     * The Fenwick tree, 1-based, that contains the segment sizes.
+     */
+    private int[] tree = new int[1];
+
+    /**
+     * The number of stored positions.
+     */
+    private int count;
+
+    /**
+     * The size of all positions that are not stored in this index.
+     */
+    private int defaultSize;
+
+    /**
+     * Rebuilds the index for the given sizes in linear time.
+     *
+     * @param sortedPositions
+     *            The positions that have a size different to the default size,
+     *            sorted ascending.
+     * @param positionSizes
+     *            The sizes of the given positions.
+     * @param defaultSize
+     *            The size of all other positions.
+     */
+    void build(int[] sortedPositions, int[] positionSizes, int defaultSize) {
+        this.positions = sortedPositions;
+        this.sizes = positionSizes;
+        this.count = sortedPositions.length;
+        this.defaultSize = defaultSize;
+
+        this.tree = new int[this.count + 1];
+        int previous = -1;
+        for (int i = 0; i < this.count; i++) {
+            this.tree[i + 1] = getSegmentSize(sortedPositions[i], previous, positionSizes[i]);
+            previous = sortedPositions[i];
+        }
+        for (int i = 1; i <= this.count; i++) {
+            int parent = i + (i & -i);
+            if (parent <= this.count) {
+                this.tree[parent] += this.tree[i];
+            }
+        }
+    }
+
+    private int getSegmentSize(int position, int previousPosition, int size) {
+        return (position - previousPosition - 1) * this.defaultSize + size;
+    }
+
+    /**
+     * Updates the size of an already indexed position in logarithmic time.
+     *
+     * @param position
+     *            The position whose size changed.
+     * @param size
+     *            The new size of the position.
+     * @return <code>true</code> if the position is contained in the index and
+     *         the size was updated, <code>false</code> if the position is not
+     *         contained and the index needs to be rebuilt.
+     */
+    boolean updateSize(int position, int size) {
+        int entry = Arrays.binarySearch(this.positions, 0, this.count, position);
+        if (entry < 0) {
+            return false;
+        }
+
+        int diff = size - this.sizes[entry];
+        this.sizes[entry] = size;
+        for (int i = entry + 1; i <= this.count; i += (i & -i)) {
+            this.tree[i] += diff;
+        }
+        return true;
+    }
+
+    /**
+     * @param entryCount
+     *            The number of entries from the beginning to sum up.
+     * @return The sum of the segment sizes of the first entries, which is the
+     *         end pixel of the entry at <code>entryCount - 1</code>.
+     */
+    private int prefixSum(int entryCount) {
+        int sum = 0;
+        for (int i = entryCount; i > 0; i -= (i & -i)) {
+            sum += this.tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @param position
+     *            The position for which the start pixel is requested.
+     * @return The aggregated size of all positions before the given position.
+     */
+    int getAggregateSize(int position) {
+        int entryCount = lowerBound(position);
+        int lastPosition = (entryCount > 0) ? this.positions[entryCount - 1] : -1;
+        return prefixSum(entryCount) + (position - lastPosition - 1) * this.defaultSize;
+    }
+
+    /**
+     * @param pixel
+     *            The pixel for which the position is requested.
+     * @return The position that contains the given pixel or -1 if the pixel is
+     *         negative or no position contains the pixel. There is no check for
+     *         an upper bound, so the result can be greater than the number of
+     *         positions the caller handles.
+     */
+    int getPositionByPixel(int pixel) {
+        if (pixel < 0) {
+            return -1;
+        }
+
+        // Fenwick descent to find the number of entries whose end pixel is
+        // less or equal to the given pixel
+        int entryCount = 0;
+        int remaining = pixel;
+        for (int step = Integer.highestOneBit(Math.max(this.count, 1)); step > 0; step >>= 1) {
+            int next = entryCount + step;
+            if (next <= this.count && this.tree[next] <= remaining) {
+                entryCount = next;
+                remaining -= this.tree[next];
+            }
+        }
+
+        int lastPosition = (entryCount > 0) ? this.positions[entryCount - 1] : -1;
+        if (entryCount < this.count) {
+            int gap = this.positions[entryCount] - lastPosition - 1;
+            if (this.defaultSize > 0 && remaining < gap * this.defaultSize) {
+                return lastPosition + 1 + remaining / this.defaultSize;
+            }
+            return this.positions[entryCount];
+        } else if (this.defaultSize > 0) {
+            return lastPosition + 1 + remaining / this.defaultSize;
+        }
+        return -1;
+    }
+
+    /**
+     * @param position
+     *            The position to search.
+     * @return The number of stored positions that are smaller than the given
+     *         position.
+     */
+    private int lowerBound(int position) {
+        int low = 0;
+        int high = this.count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.positions[mid] < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
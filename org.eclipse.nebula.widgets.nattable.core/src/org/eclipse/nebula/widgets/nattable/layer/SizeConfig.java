@@ -119,13 +119,23 @@ public class SizeConfig implements IPersistable {
     protected final MutableIntIntMap realSizeMap = IntIntMaps.mutable.empty();
     /**
      * Map that contains the cached aggregated sizes.
+     *
+     * @deprecated Not used anymore, the aggregated sizes are calculated via a
+     *             prefix sum index that is updated on resize.
      */
+    @Deprecated
     protected final MutableIntIntMap aggregatedSizeCacheMap = IntIntMaps.mutable.empty();
     /**
-     * Flag that indicates if the aggregated size cache is valid or if it needs
-     * to get recalculated.
+     * Flag that indicates if the aggregated size index is valid or if it needs
+     * to get rebuilt.
+     */
+    protected boolean isAggregatedSizeCacheValid = false;
+    /**
+     * Prefix sum index over the positions that do not have the default size.
+     * Used to calculate the aggregated size and the position at a pixel in
+     * logarithmic time.
      */
-    protected boolean isAggregatedSizeCacheValid = true;
+    private final PositionSizeIndex sizeIndex = new PositionSizeIndex();
     /**
      * The {@link IDpiConverter} that is used for scaling DPI conversion.
      */
@@ -269,7 +279,6 @@ public void loadState(String prefix, Properties properties) {
         this.percentageSizeMap.clear();
         this.percentageSizingMap.clear();
         this.resizablesMap.clear();
-        this.aggregatedSizeCacheMap.clear();
         this.minSizeMap.clear();
 
         this.resizableByDefault = true;
@@ -403,6 +412,15 @@ private int getDefaultSize(int position) {
 
     // Size
 
+    /**
+     * Returns the aggregated size of all positions before the given position,
+     * which is the start pixel of the given position.
+     *
+     * @param position
+     *            The position for which the aggregated size is requested.
+     * @return The aggregated size of all positions before the given position
+     *         or -1 if the given position is negative.
+     */
     public int getAggregateSize(int position) {
         if (position < 0) {
             return -1;
@@ -414,20 +432,52 @@ public int getAggregateSize(int position) {
             // value needs to be considered
             return position * upScale(this.defaultSize);
         } else {
-            // See if the cache is valid, if not clear it.
-            if (!this.isAggregatedSizeCacheValid) {
-                this.aggregatedSizeCacheMap.clear();
-                this.isAggregatedSizeCacheValid = true;
-            }
+            return getSizeIndex().getAggregateSize(position);
+        }
+    }
 
-            if (!this.aggregatedSizeCacheMap.containsKey(position)) {
-                int aggregatedSize = calculateAggregatedSize(position);
-                this.aggregatedSizeCacheMap.put(position, aggregatedSize);
-            }
-            return this.aggregatedSizeCacheMap.get(position);
+    /**
+     * Returns the position that contains the given pixel. This is the inverse
+     * operation to {@link #getAggregateSize(int)} and is calculated in
+     * logarithmic time dependent on the number of positions that do not use the
+     * default size.
+     * <p>
+     * <b>Note:</b> As the {@link SizeConfig} does not know the number of
+     * positions, there is no check for an upper bound. The caller needs to
+     * ensure that the given pixel is less than the aggregated size of all
+     * positions.
+     * </p>
+     *
+     * @param pixel
+     *            The pixel for which the position is requested.
+     * @return The position that contains the given pixel or -1 if the given
+     *         pixel is negative or no position contains the pixel.
+     *
+     * @since 2.1
+     */
+    public int getPositionByPixel(int pixel) {
+        if (pixel < 0) {
+            return -1;
+        } else if (isAllPositionsSameSize() && !isPercentageSizing()) {
+            int size = upScale(this.defaultSize);
+            return (size > 0) ? pixel / size : -1;
+        } else {
+            return getSizeIndex().getPositionByPixel(pixel);
         }
     }
 
+    /**
+     * @return The {@link PositionSizeIndex} that is rebuilt in case it was
+     *         invalidated.
+     */
+    private PositionSizeIndex getSizeIndex() {
+        if (!this.isAggregatedSizeCacheValid) {
+            buildSizeIndex();
+            this.isAggregatedSizeCacheValid = true;
+        }
+        return this.sizeIndex;
+    }
+
     public int getSize(int position) {
         int size = -1;
         if (isPercentageSizing()) {
@@ -658,7 +708,14 @@ public void setSize(int position, int size) {
             }
 
             calculatePercentages(this.availableSpace, this.realSizeMap.size());
-            this.isAggregatedSizeCacheValid = false;
+
+            if (this.isAggregatedSizeCacheValid && !isPercentageSizing()) {
+                // only the size of one position changed, so the index can be
+                // updated in place if the position already had a custom size
+                this.isAggregatedSizeCacheValid = this.sizeIndex.updateSize(position, upScale(size));
+            } else {
+                this.isAggregatedSizeCacheValid = false;
+            }
         }
     }
 
@@ -817,6 +874,7 @@ public void setPercentage(int position, double percentage) {
             this.percentageSizingMap.put(position, true);
             this.percentageSizeMap.put(position, percentage);
             this.realSizeMap.put(position, calculatePercentageValue(percentage, this.availableSpace));
+            this.isAggregatedSizeCacheValid = false;
             calculatePercentages(this.availableSpace, this.realSizeMap.size());
         }
     }
@@ -1304,39 +1362,31 @@ protected int[] correctPercentageValues(double sum, int positionCount) {
         return new int[0];
     }
 
-    private int calculateAggregatedSize(int position) {
-        int resizeAggregate = 0;
-        int resizedColumns = 0;
-
+    /**
+     * Builds the {@link PositionSizeIndex} out of the positions that have a
+     * size configured that differs from the global default size.
+     */
+    private void buildSizeIndex() {
         boolean pSizing = isPercentageSizing();
         MutableIntIntMap mapToUse = pSizing ? this.realSizeMap : this.sizeMap;
 
-        for (int resizedPosition : mapToUse.keySet().toSortedArray()) {
-            if (resizedPosition < position) {
-                resizedColumns++;
-                int size = mapToUse.get(resizedPosition);
-                resizeAggregate += pSizing ? size : upScale(size);
-            } else {
-                break;
-            }
-        }
+        MutableIntIntMap customSizes = IntIntMaps.mutable.withInitialCapacity(mapToUse.size() + this.defaultSizeMap.size());
+        mapToUse.forEachKeyValue((position, size) -> customSizes.put(position, pSizing ? size : upScale(size)));
 
         // also take into account the default size configuration per position
-        for (int defaultPosition : this.defaultSizeMap.keySet().toSortedArray()) {
-            if (defaultPosition < position) {
-                if (!mapToUse.containsKey(defaultPosition)) {
-                    resizedColumns++;
-                    int size = this.defaultSizeMap.get(defaultPosition);
-                    resizeAggregate += upScale(size);
-                }
-            } else {
-                break;
+        this.defaultSizeMap.forEachKeyValue((position, size) -> {
+            if (!mapToUse.containsKey(position)) {
+                customSizes.put(position, upScale(size));
             }
+        });
+
+        int[] positions = customSizes.keySet().toSortedArray();
+        int[] sizes = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            sizes[i] = customSizes.get(positions[i]);
         }
 
-        int result = (position - resizedColumns) * upScale(this.defaultSize);
-        result += resizeAggregate;
-        return result;
+        this.sizeIndex.build(positions, sizes, upScale(this.defaultSize));
     }
 
     private int correctExtend(int extend, MutableIntList fixedPercentagePositions) {
@@ -1445,8 +1495,8 @@ public void reset() {
         this.percentageSizeMap.clear();
         this.percentageSizingMap.clear();
         this.realSizeMap.clear();
-        this.aggregatedSizeCacheMap.clear();
         this.minSizeMap.clear();
+        this.isAggregatedSizeCacheValid = false;
     }
 
     /**
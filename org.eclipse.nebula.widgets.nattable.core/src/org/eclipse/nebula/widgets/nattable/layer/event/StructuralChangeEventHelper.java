@@ -14,6 +14,8 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
 
 import org.eclipse.collections.api.collection.primitive.MutableIntCollection;
 import org.eclipse.collections.api.list.primitive.MutableIntList;
@@ -106,6 +108,10 @@ public static void handleRowDelete(
      * is hidden in the given layer, deleting row at index 1 will cause the row
      * at index 3 to be moved at index 2. Without transforming the index
      * regarding the delete event, the wrong row would be hidden.
+     * <p>
+     * All diffs are applied in a single pass over the cached indexes by
+     * searching the sorted deleted ranges.
+     * </p>
      *
      * @param rowDiffs
      *            The collection of {@link StructuralDiff}s to handle
@@ -127,44 +133,7 @@ public static void handleRowDelete(
             Collection<StructuralDiff> rowDiffs, ILayer underlyingLayer,
             MutableIntCollection cachedRowIndexes, boolean handleNotFound) {
 
-        // the number of all deleted rows that don't have a corresponding index
-        // anymore (last row cases)
-        int numberOfNoIndex = 0;
-        MutableIntList toRemove = IntLists.mutable.empty();
-        for (StructuralDiff rowDiff : rowDiffs) {
-            if (rowDiff.getDiffType() != null
-                    && rowDiff.getDiffType().equals(DiffTypeEnum.DELETE)) {
-                Range beforePositionRange = rowDiff.getBeforePositionRange();
-                for (int i = beforePositionRange.start; i < beforePositionRange.end; i++) {
-                    int index = i;// underlyingLayer.getRowIndexByPosition(i);
-                    if (index >= 0) {
-                        toRemove.add(index);
-                    } else {
-                        numberOfNoIndex++;
-                    }
-                }
-            }
-        }
-        final int noIndexCount = numberOfNoIndex;
-
-        // remove the row indexes that are deleted
-        cachedRowIndexes.removeAll(toRemove);
-
-        // modify row indexes regarding the deleted rows
-        MutableIntList modifiedRows = IntLists.mutable.empty();
-        cachedRowIndexes.forEach(row -> {
-            // check number of removed indexes that are lower than the current
-            // one
-            int deletedBefore = handleNotFound ? noIndexCount : 0;
-            deletedBefore += toRemove.count(removed -> removed < row);
-
-            int modRow = row - deletedBefore;
-            if (modRow >= 0) {
-                modifiedRows.add(modRow);
-            }
-        });
-        cachedRowIndexes.clear();
-        cachedRowIndexes.addAll(modifiedRows);
+        applyDelete(rowDiffs, cachedRowIndexes, handleNotFound);
     }
 
     /**
@@ -174,6 +143,10 @@ public static void handleRowDelete(
      * adding a row at index 1 will cause the row at index 3 to be moved to
      * index 4. Without transforming the index regarding the add event, the
      * wrong row would be hidden.
+     * <p>
+     * All diffs are applied in a single pass over the cached indexes. The
+     * cached indexes are shifted by the number of inserted rows of a diff.
+     * </p>
      *
      * @param rowDiffs
      *            The collection of {@link StructuralDiff}s to handle
@@ -197,28 +170,7 @@ public static void handleRowInsert(
             Collection<StructuralDiff> rowDiffs, ILayer underlyingLayer,
             Collection<Integer> cachedRowIndexes, boolean addToCache) {
 
-        for (StructuralDiff rowDiff : rowDiffs) {
-            if (rowDiff.getDiffType() != null
-                    && rowDiff.getDiffType().equals(DiffTypeEnum.ADD)) {
-                Range beforePositionRange = rowDiff.getBeforePositionRange();
-                ArrayList<Integer> modifiedRows = new ArrayList<>();
-                int beforeIndex = underlyingLayer.getRowIndexByPosition(beforePositionRange.start);
-                for (Integer row : cachedRowIndexes) {
-                    if (row >= beforeIndex) {
-                        modifiedRows.add(row + 1);
-                    } else {
-                        modifiedRows.add(row);
-                    }
-                }
-
-                if (addToCache) {
-                    modifiedRows.add(beforeIndex, beforePositionRange.start);
-                }
-
-                cachedRowIndexes.clear();
-                cachedRowIndexes.addAll(modifiedRows);
-            }
-        }
+        applyInsert(rowDiffs, underlyingLayer::getRowIndexByPosition, cachedRowIndexes, addToCache);
     }
 
     /**
@@ -228,6 +180,10 @@ public static void handleRowInsert(
      * adding a row at index 1 will cause the row at index 3 to be moved to
      * index 4. Without transforming the index regarding the add event, the
      * wrong row would be hidden.
+     * <p>
+     * All diffs are applied in a single pass over the cached indexes. The
+     * cached indexes are shifted by the number of inserted rows of a diff.
+     * </p>
      *
      * @param rowDiffs
      *            The collection of {@link StructuralDiff}s to handle
@@ -252,28 +208,7 @@ public static void handleRowInsert(
             Collection<StructuralDiff> rowDiffs, ILayer underlyingLayer,
             MutableIntCollection cachedRowIndexes, boolean addToCache) {
 
-        for (StructuralDiff rowDiff : rowDiffs) {
-            if (rowDiff.getDiffType() != null
-                    && rowDiff.getDiffType().equals(DiffTypeEnum.ADD)) {
-                Range beforePositionRange = rowDiff.getBeforePositionRange();
-                MutableIntList modifiedRows = IntLists.mutable.empty();
-                int beforeIndex = underlyingLayer.getRowIndexByPosition(beforePositionRange.start);
-                cachedRowIndexes.forEach(row -> {
-                    if (row >= beforeIndex) {
-                        modifiedRows.add(row + 1);
-                    } else {
-                        modifiedRows.add(row);
-                    }
-                });
-
-                if (addToCache) {
-                    modifiedRows.addAtIndex(beforeIndex, beforePositionRange.start);
-                }
-
-                cachedRowIndexes.clear();
-                cachedRowIndexes.addAll(modifiedRows);
-            }
-        }
+        applyInsert(rowDiffs, underlyingLayer::getRowIndexByPosition, cachedRowIndexes, addToCache);
     }
 
     /**
@@ -350,6 +285,10 @@ public static void handleColumnDelete(
      * index 3 is hidden in the given layer, deleting column at index 1 will
      * cause the column at index 3 to be moved at index 2. Without transforming
      * the index regarding the delete event, the wrong column would be hidden.
+     * <p>
+     * All diffs are applied in a single pass over the cached indexes by
+     * searching the sorted deleted ranges.
+     * </p>
      *
      * @param columnDiffs
      *            The collection of {@link StructuralDiff}s to handle
@@ -370,44 +309,7 @@ public static void handleColumnDelete(
             Collection<StructuralDiff> columnDiffs, ILayer underlyingLayer,
             MutableIntCollection cachedColumnIndexes, boolean handleNotFound) {
 
-        // the number of all deleted columns that don't have a corresponding
-        // index anymore (last column cases)
-        int numberOfNoIndex = 0;
-        MutableIntList toRemove = IntLists.mutable.empty();
-        for (StructuralDiff columnDiff : columnDiffs) {
-            if (columnDiff.getDiffType() != null
-                    && columnDiff.getDiffType().equals(DiffTypeEnum.DELETE)) {
-                Range beforePositionRange = columnDiff.getBeforePositionRange();
-                for (int i = beforePositionRange.start; i < beforePositionRange.end; i++) {
-                    int index = i;// underlyingLayer.getColumnIndexByPosition(i);
-                    if (index >= 0) {
-                        toRemove.add(index);
-                    } else {
-                        numberOfNoIndex++;
-                    }
-                }
-            }
-        }
-        final int noIndexCount = numberOfNoIndex;
-
-        // remove the column indexes that are deleted
-        cachedColumnIndexes.removeAll(toRemove);
-
-        // modify column indexes regarding the deleted columns
-        MutableIntList modifiedColumns = IntLists.mutable.empty();
-        cachedColumnIndexes.forEach(column -> {
-            // check number of removed indexes that are lower than the current
-            // one
-            int deletedBefore = handleNotFound ? noIndexCount : 0;
-            deletedBefore += toRemove.count(removed -> removed < column);
-
-            int modColumn = column - deletedBefore;
-            if (modColumn >= 0) {
-                modifiedColumns.add(modColumn);
-            }
-        });
-        cachedColumnIndexes.clear();
-        cachedColumnIndexes.addAll(modifiedColumns);
+        applyDelete(columnDiffs, cachedColumnIndexes, handleNotFound);
     }
 
     /**
@@ -417,6 +319,10 @@ public static void handleColumnDelete(
      * given layer, adding a column at index 1 will cause the column at index 3
      * to be moved to index 4. Without transforming the index regarding the add
      * event, the wrong column would be hidden.
+     * <p>
+     * All diffs are applied in a single pass over the cached indexes. The
+     * cached indexes are shifted by the number of inserted columns of a diff.
+     * </p>
      *
      * @param columnDiffs
      *            The collection of {@link StructuralDiff}s to handle
@@ -440,28 +346,7 @@ public static void handleColumnInsert(
             Collection<StructuralDiff> columnDiffs, ILayer underlyingLayer,
             Collection<Integer> cachedColumnIndexes, boolean addToCache) {
 
-        for (StructuralDiff columnDiff : columnDiffs) {
-            if (columnDiff.getDiffType() != null
-                    && columnDiff.getDiffType().equals(DiffTypeEnum.ADD)) {
-                Range beforePositionRange = columnDiff.getBeforePositionRange();
-                ArrayList<Integer> modifiedColumns = new ArrayList<>();
-                int beforeIndex = underlyingLayer.getColumnIndexByPosition(beforePositionRange.start);
-                for (Integer column : cachedColumnIndexes) {
-                    if (column >= beforeIndex) {
-                        modifiedColumns.add(column + 1);
-                    } else {
-                        modifiedColumns.add(column);
-                    }
-                }
-
-                if (addToCache) {
-                    modifiedColumns.add(beforeIndex, beforePositionRange.start);
-                }
-
-                cachedColumnIndexes.clear();
-                cachedColumnIndexes.addAll(modifiedColumns);
-            }
-        }
+        applyInsert(columnDiffs, underlyingLayer::getColumnIndexByPosition, cachedColumnIndexes, addToCache);
     }
 
     /**
@@ -471,6 +356,10 @@ public static void handleColumnInsert(
      * given layer, adding a column at index 1 will cause the column at index 3
      * to be moved to index 4. Without transforming the index regarding the add
      * event, the wrong column would be hidden.
+     * <p>
+     * All diffs are applied in a single pass over the cached indexes. The
+     * cached indexes are shifted by the number of inserted columns of a diff.
+     * </p>
      *
      * @param columnDiffs
      *            The collection of {@link StructuralDiff}s to handle
@@ -495,28 +384,227 @@ public static void handleColumnInsert(
             Collection<StructuralDiff> columnDiffs, ILayer underlyingLayer,
             MutableIntCollection cachedColumnIndexes, boolean addToCache) {
 
-        for (StructuralDiff columnDiff : columnDiffs) {
-            if (columnDiff.getDiffType() != null
-                    && columnDiff.getDiffType().equals(DiffTypeEnum.ADD)) {
-                Range beforePositionRange = columnDiff.getBeforePositionRange();
-                MutableIntList modifiedColumns = IntLists.mutable.empty();
-                int beforeIndex = underlyingLayer.getColumnIndexByPosition(beforePositionRange.start);
-                cachedColumnIndexes.forEach(column -> {
-                    if (column >= beforeIndex) {
-                        modifiedColumns.add(column + 1);
-                    } else {
-                        modifiedColumns.add(column);
-                    }
-                });
+        applyInsert(columnDiffs, underlyingLayer::getColumnIndexByPosition, cachedColumnIndexes, addToCache);
+    }
+
+    /**
+     * Applies all DELETE diffs of the given collection to the given cached
+     * indexes. The deleted ranges are sorted and merged, so the number of
+     * deleted indexes before a cached index can be determined via binary
+     * search instead of comparing every cached index with every deleted index.
+     *
+     * @param diffs
+     *            The collection of {@link StructuralDiff}s to handle.
+     * @param cachedIndexes
+     *            The collection of indexes that needs transformation.
+     * @param handleNotFound
+     *            flag to tell whether the not found indexes should be taken
+     *            into account or not.
+     */
+    private static void applyDelete(
+            Collection<StructuralDiff> diffs,
+            MutableIntCollection cachedIndexes, boolean handleNotFound) {
 
-                if (addToCache) {
-                    modifiedColumns.addAtIndex(beforeIndex, beforePositionRange.start);
+        // the number of all deleted indexes that don't have a corresponding
+        // index anymore (last row/column cases)
+        int numberOfNoIndex = 0;
+        List<Range> deleted = new ArrayList<>();
+        for (StructuralDiff diff : diffs) {
+            if (diff.getDiffType() != null
+                    && diff.getDiffType().equals(DiffTypeEnum.DELETE)) {
+                Range beforePositionRange = diff.getBeforePositionRange();
+                int start = Math.max(beforePositionRange.start, 0);
+                if (beforePositionRange.start < 0) {
+                    numberOfNoIndex += Math.min(beforePositionRange.end, 0) - beforePositionRange.start;
+                }
+                if (beforePositionRange.end > start) {
+                    deleted.add(new Range(start, beforePositionRange.end));
                 }
+            }
+        }
 
-                cachedColumnIndexes.clear();
-                cachedColumnIndexes.addAll(modifiedColumns);
+        final int noIndexCount = handleNotFound ? numberOfNoIndex : 0;
+        if (deleted.isEmpty() && noIndexCount == 0) {
+            return;
+        }
+
+        // merge the sorted ranges and sum up the number of deleted indexes
+        deleted.sort((r1, r2) -> Integer.compare(r1.start, r2.start));
+        int[] starts = new int[deleted.size()];
+        int[] ends = new int[deleted.size()];
+        int[] deletedUntil = new int[deleted.size()];
+        int count = 0;
+        for (Range range : deleted) {
+            if (count > 0 && range.start <= ends[count - 1]) {
+                if (range.end > ends[count - 1]) {
+                    deletedUntil[count - 1] += range.end - ends[count - 1];
+                    ends[count - 1] = range.end;
+                }
+            } else {
+                starts[count] = range.start;
+                ends[count] = range.end;
+                deletedUntil[count] = (count > 0 ? deletedUntil[count - 1] : 0) + range.end - range.start;
+                count++;
+            }
+        }
+        final int rangeCount = count;
+
+        MutableIntList modified = IntLists.mutable.withInitialCapacity(cachedIndexes.size());
+        cachedIndexes.forEach(index -> {
+            int range = floor(starts, rangeCount, index);
+            if (range >= 0 && index < ends[range]) {
+                // the index itself was deleted
+                return;
+            }
+
+            int modIndex = index - noIndexCount - (range >= 0 ? deletedUntil[range] : 0);
+            if (modIndex >= 0) {
+                modified.add(modIndex);
+            }
+        });
+        cachedIndexes.clear();
+        cachedIndexes.addAll(modified);
+    }
+
+    /**
+     * Applies all ADD diffs of the given collection to the given boxed cached
+     * indexes by applying them to a primitive copy that keeps the iteration
+     * order.
+     *
+     * @param diffs
+     *            The collection of {@link StructuralDiff}s to handle.
+     * @param positionToIndex
+     *            Function to convert a position of the underlying layer to an
+     *            index.
+     * @param cachedIndexes
+     *            The collection of indexes that needs transformation.
+     * @param addToCache
+     *            Flag to configure if the added values should be added to the
+     *            cache or not.
+     */
+    private static void applyInsert(
+            Collection<StructuralDiff> diffs, IntUnaryOperator positionToIndex,
+            Collection<Integer> cachedIndexes, boolean addToCache) {
+
+        MutableIntList indexes = IntLists.mutable.withInitialCapacity(cachedIndexes.size());
+        for (Integer index : cachedIndexes) {
+            indexes.add(index);
+        }
+        applyInsert(diffs, positionToIndex, indexes, addToCache);
+
+        cachedIndexes.clear();
+        indexes.forEach(cachedIndexes::add);
+    }
+
+    /**
+     * Applies all ADD diffs of the given collection to the given cached
+     * indexes. The insert points are sorted, so the shift of a cached index
+     * can be determined via binary search and the added indexes can be merged
+     * into the cache in one pass.
+     *
+     * @param diffs
+     *            The collection of {@link StructuralDiff}s to handle.
+     * @param positionToIndex
+     *            Function to convert a position of the underlying layer to an
+     *            index.
+     * @param cachedIndexes
+     *            The collection of indexes that needs transformation.
+     * @param addToCache
+     *            Flag to configure if the added values should be added to the
+     *            cache or not.
+     */
+    private static void applyInsert(
+            Collection<StructuralDiff> diffs, IntUnaryOperator positionToIndex,
+            MutableIntCollection cachedIndexes, boolean addToCache) {
+
+        List<int[]> inserts = new ArrayList<>();
+        for (StructuralDiff diff : diffs) {
+            if (diff.getDiffType() != null
+                    && diff.getDiffType().equals(DiffTypeEnum.ADD)) {
+                Range beforePositionRange = diff.getBeforePositionRange();
+                Range afterPositionRange = diff.getAfterPositionRange();
+                inserts.add(new int[] {
+                        positionToIndex.applyAsInt(beforePositionRange.start),
+                        Math.max(afterPositionRange.end - afterPositionRange.start, 1),
+                        beforePositionRange.start });
+            }
+        }
+
+        if (inserts.isEmpty()) {
+            return;
+        }
+
+        // the insert indexes are indexes after the insert, so the threshold
+        // for a cached index is reduced by the number of indexes inserted
+        // before
+        inserts.sort((i1, i2) -> Integer.compare(i1[0], i2[0]));
+        int[] thresholds = new int[inserts.size()];
+        int[] insertedUntil = new int[inserts.size()];
+        int inserted = 0;
+        for (int i = 0; i < inserts.size(); i++) {
+            int[] insert = inserts.get(i);
+            thresholds[i] = insert[0] - inserted;
+            if (i > 0 && thresholds[i] < thresholds[i - 1]) {
+                thresholds[i] = thresholds[i - 1];
+            }
+            inserted += insert[1];
+            insertedUntil[i] = inserted;
+        }
+
+        MutableIntList modified = IntLists.mutable.withInitialCapacity(cachedIndexes.size() + (addToCache ? inserted : 0));
+        cachedIndexes.forEach(index -> {
+            int insert = floor(thresholds, thresholds.length, index);
+            modified.add(insert >= 0 ? index + insertedUntil[insert] : index);
+        });
+
+        if (addToCache) {
+            // merge the added values at their insert index
+            MutableIntList merged = IntLists.mutable.withInitialCapacity(modified.size() + inserted);
+            int next = 0;
+            for (int[] insert : inserts) {
+                while (next < modified.size() && merged.size() < insert[0]) {
+                    merged.add(modified.get(next++));
+                }
+                for (int i = 0; i < insert[1]; i++) {
+                    merged.add(insert[2] + i);
+                }
+            }
+            while (next < modified.size()) {
+                merged.add(modified.get(next++));
+            }
+            modified.clear();
+            modified.addAll(merged);
+        }
+
+        cachedIndexes.clear();
+        cachedIndexes.addAll(modified);
+    }
+
+    /**
+     * Searches the last value in the given sorted array that is less than or
+     * equal to the given value.
+     *
+     * @param sorted
+     *            The sorted values to search.
+     * @param length
+     *            The number of values in the array to search.
+     * @param value
+     *            The value to search for.
+     * @return The position of the last value that is less than or equal to
+     *         the given value, or -1 if all values are greater.
+     */
+    private static int floor(int[] sorted, int length, int value) {
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
             }
         }
+        return high;
     }
 
     /**
@@ -0,0 +1,467 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.cell;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * Cache for the widths of texts that are measured via
+ * {@link GC#textExtent(String)}. The widths are cached per font and DPI in a
+ * bounded LRU cache, so the width measured with one font is never reused for
+ * another font.
+ * <p>
+ * Optionally the width of texts that only contain printable ASCII characters
+ * is calculated by summing up cached glyph advances. This fast path is
+ * disabled by default and needs to be enabled via
+ * {@link #setFastPathEnabled(boolean)}. It is only used for a font if a
+ * calibration text measured via {@link GC#textExtent(String)} has exactly the
+ * width of its summed glyph advances, which is not the case for fonts that use
+ * kerning, ligatures or fractional glyph widths. As a single text can not prove
+ * that all texts match, the summed widths of the first
+ * {@link #VERIFICATION_SAMPLES} texts and of every
+ * {@link #VERIFICATION_INTERVAL}th text afterwards are compared with the
+ * measured width. On the first mismatch the fast path is disabled permanently
+ * for the font.
+ * </p>
+ * <p>
+ * The statistics can be used to tune the maximum number of cached entries.
+ * </p>
+ *
+ * @since 2.1
+ */
+public class TextExtentCache {
+
+    /**
+     * The default maximum number of cached text widths per font.
+     */
+    public static final int DEFAULT_MAX_ENTRIES_PER_FONT = 5000;
+
+    /**
+     * The maximum number of fonts for which metrics are cached.
+     */
+    static final int MAX_FONTS = 64;
+
+    /**
+     * Text that is used to check if the summed glyph advances of a font match
+     * the measured text extent. Contains pairs that are typically kerned or
+     * rendered as ligatures.
+     */
+    static final String CALIBRATION_TEXT = "AVA To Wa Yo LT fi ffl 0123456789 .,;:!? abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ"; //$NON-NLS-1$
+
+    /**
+     * The number of texts per font whose summed glyph advances are always
+     * verified via {@link GC#textExtent(String)}.
+     */
+    public static final int VERIFICATION_SAMPLES = 100;
+
+    /**
+     * The interval in which texts are verified via
+     * {@link GC#textExtent(String)} after the {@link #VERIFICATION_SAMPLES}
+     * were verified.
+     */
+    public static final int VERIFICATION_INTERVAL = 64;
+
+    private int maxEntriesPerFont;
+
+    private boolean fastPathEnabled = false;
+
+    /**
+     * Fast lookup of the metrics per {@link Font} instance.
+     */
+    private final Map<Font, FontTextMetrics> metricsByFont = new WeakHashMap<>();
+
+    /**
+     * The metrics per font description and DPI, so different {@link Font}
+     * instances for the same font share the cached widths.
+     */
+    private final Map<FontKey, FontTextMetrics> metricsByKey = new LinkedHashMap<FontKey, FontTextMetrics>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FontKey, FontTextMetrics> eldest) {
+            return size() > MAX_FONTS;
+        }
+    };
+
+    private long hitCount;
+    private long missCount;
+    private long fastPathCount;
+    private long evictionCount;
+
+    /**
+     * Creates a {@link TextExtentCache} with
+     * {@link #DEFAULT_MAX_ENTRIES_PER_FONT}.
+     */
+    public TextExtentCache() {
+        this(DEFAULT_MAX_ENTRIES_PER_FONT);
+    }
+
+    /**
+     *
+     * @param maxEntriesPerFont
+     *            The maximum number of cached text widths per font.
+     */
+    public TextExtentCache(int maxEntriesPerFont) {
+        setMaxEntriesPerFont(maxEntriesPerFont);
+    }
+
+    /**
+     * Returns the width of the given text rendered with the current font of
+     * the given {@link GC}.
+     *
+     * @param gc
+     *            The {@link GC} used to measure the text.
+     * @param text
+     *            The text whose width is requested.
+     * @return The width of the given text.
+     */
+    public synchronized int getTextWidth(GC gc, String text) {
+        Font font = gc.getFont();
+        if (font == null) {
+            this.missCount++;
+            return gc.textExtent(text).x;
+        }
+
+        FontTextMetrics metrics = this.metricsByFont.get(font);
+        if (metrics == null) {
+            FontData[] datas = font.getFontData();
+            Point dpi = gc.getDevice().getDPI();
+            FontKey key = new FontKey(
+                    datas.length > 0 ? datas[0] : null,
+                    dpi.x,
+                    dpi.y);
+            metrics = this.metricsByKey.computeIfAbsent(key, k -> new FontTextMetrics());
+            this.metricsByFont.put(font, metrics);
+        }
+
+        return getTextWidth(
+                metrics,
+                text,
+                t -> gc.textExtent(t).x,
+                c -> gc.getAdvanceWidth((char) c));
+    }
+
+    /**
+     * Returns the width of the given text out of the given metrics, calculating
+     * it via the given functions if necessary.
+     *
+     * @param metrics
+     *            The metrics of the font.
+     * @param text
+     *            The text whose width is requested.
+     * @param extent
+     *            Function to measure the width of a text.
+     * @param advance
+     *            Function to measure the advance width of a character.
+     * @return The width of the given text.
+     */
+    synchronized int getTextWidth(FontTextMetrics metrics, String text, ToIntFunction<String> extent, IntUnaryOperator advance) {
+        if (this.fastPathEnabled && metrics.fastPath == null) {
+            metrics.fastPath = sumAdvances(metrics, CALIBRATION_TEXT, advance) == extent.applyAsInt(CALIBRATION_TEXT);
+        }
+
+        if (this.fastPathEnabled && metrics.fastPath) {
+            int width = sumAdvances(metrics, text, advance);
+            if (width >= 0) {
+                int verified = metrics.fastPathTexts++;
+                if (verified < VERIFICATION_SAMPLES || verified % VERIFICATION_INTERVAL == 0) {
+                    int measured = extent.applyAsInt(text);
+                    if (measured != width) {
+                        // the summed advances are not reliable for this font
+                        metrics.fastPath = Boolean.FALSE;
+                        return cacheMeasuredWidth(metrics, text, measured);
+                    }
+                }
+                this.fastPathCount++;
+                return width;
+            }
+        }
+
+        Integer width = metrics.widths.get(text);
+        if (width != null) {
+            this.hitCount++;
+            return width;
+        }
+
+        return cacheMeasuredWidth(metrics, text, extent.applyAsInt(text));
+    }
+
+    /**
+     * Adds the measured width of the given text to the given metrics.
+     *
+     * @param metrics
+     *            The metrics of the font.
+     * @param text
+     *            The measured text.
+     * @param measured
+     *            The width measured via {@link GC#textExtent(String)}.
+     * @return The measured width.
+     */
+    private int cacheMeasuredWidth(FontTextMetrics metrics, String text, int measured) {
+        this.missCount++;
+        metrics.widths.put(text, measured);
+        evict(metrics);
+        return measured;
+    }
+
+    /**
+     * Sums the advance widths of the characters in the given text.
+     *
+     * @param metrics
+     *            The metrics that contain the cached advance widths.
+     * @param text
+     *            The text to measure.
+     * @param advance
+     *            Function to measure the advance width of a character.
+     * @return The sum of the advance widths or -1 if the text contains a
+     *         character that is not printable ASCII.
+     */
+    private int sumAdvances(FontTextMetrics metrics, String text, IntUnaryOperator advance) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < ' ' || c > '~') {
+                return -1;
+            }
+            int glyph = metrics.advances[c];
+            if (glyph < 0) {
+                glyph = advance.applyAsInt(c);
+                metrics.advances[c] = glyph;
+            }
+            width += glyph;
+        }
+        return width;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the width of printable ASCII texts is
+     *         calculated by summing up glyph advances for fonts that passed
+     *         the verification.
+     */
+    public synchronized boolean isFastPathEnabled() {
+        return this.fastPathEnabled;
+    }
+
+    /**
+     * Enable or disable the calculation of the width of printable ASCII texts
+     * by summing up glyph advances. Disabled by default, as the summed
+     * advances can differ from the rendered width, e.g. because of kerning or
+     * fractional glyph widths. The fast path is verified per font against
+     * {@link GC#textExtent(String)} and disabled for a font on the first
+     * mismatch.
+     *
+     * @param enabled
+     *            <code>true</code> to enable the fast path, <code>false</code>
+     *            to always measure via {@link GC#textExtent(String)}.
+     */
+    public synchronized void setFastPathEnabled(boolean enabled) {
+        this.fastPathEnabled = enabled;
+    }
+
+    /**
+     *
+     * @return The maximum number of cached text widths per font.
+     */
+    public synchronized int getMaxEntriesPerFont() {
+        return this.maxEntriesPerFont;
+    }
+
+    /**
+     * Configure the maximum number of cached text widths per font. If more
+     * texts are measured, the least recently used widths are removed.
+     *
+     * @param maxEntriesPerFont
+     *            The maximum number of cached text widths per font.
+     */
+    public synchronized void setMaxEntriesPerFont(int maxEntriesPerFont) {
+        if (maxEntriesPerFont < 1) {
+            throw new IllegalArgumentException("maxEntriesPerFont < 1"); //$NON-NLS-1$
+        }
+        this.maxEntriesPerFont = maxEntriesPerFont;
+        for (FontTextMetrics metrics : this.metricsByFont.values()) {
+            evict(metrics);
+        }
+        for (FontTextMetrics metrics : this.metricsByKey.values()) {
+            evict(metrics);
+        }
+    }
+
+    /**
+     * Removes the least recently used widths of the given metrics that exceed
+     * the maximum number of entries.
+     *
+     * @param metrics
+     *            The metrics to check.
+     */
+    private void evict(FontTextMetrics metrics) {
+        while (metrics.widths.size() > this.maxEntriesPerFont) {
+            metrics.widths.remove(metrics.widths.keySet().iterator().next());
+            this.evictionCount++;
+        }
+    }
+
+    /**
+     *
+     * @return The number of widths that were returned from the cache.
+     */
+    public synchronized long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     *
+     * @return The number of widths that needed to be measured via
+     *         {@link GC#textExtent(String)}.
+     */
+    public synchronized long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     *
+     * @return The number of widths that were calculated by summing up the
+     *         cached glyph advances.
+     */
+    public synchronized long getFastPathCount() {
+        return this.fastPathCount;
+    }
+
+    /**
+     *
+     * @return The number of widths that were removed from the cache because
+     *         the maximum number of entries was reached.
+     */
+    public synchronized long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     *
+     * @return The number of currently cached text widths over all fonts.
+     */
+    public synchronized int size() {
+        return this.metricsByKey.values().stream().mapToInt(m -> m.widths.size()).sum();
+    }
+
+    /**
+     * Resets the hit, miss, fast path and eviction counters.
+     */
+    public synchronized void resetStatistics() {
+        this.hitCount = 0;
+        this.missCount = 0;
+        this.fastPathCount = 0;
+        this.evictionCount = 0;
+    }
+
+    /**
+     * Removes all cached metrics.
+     */
+    public synchronized void clear() {
+        this.metricsByFont.clear();
+        this.metricsByKey.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TextExtentCache [size=" + size() //$NON-NLS-1$
+                + ", hits=" + this.hitCount //$NON-NLS-1$
+                + ", misses=" + this.missCount //$NON-NLS-1$
+                + ", fastPath=" + this.fastPathCount //$NON-NLS-1$
+                + ", evictions=" + this.evictionCount + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * The cached text widths and glyph advances of a font.
+     */
+    static class FontTextMetrics {
+
+        /**
+         * The text widths in access order to support LRU eviction.
+         */
+        final LinkedHashMap<String, Integer> widths = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * The advance widths of the ASCII characters, -1 if not yet measured.
+         */
+        final int[] advances = new int[128];
+
+        /**
+         * Whether the fast path of summing up glyph advances can be used for
+         * the font. <code>null</code> if not yet calibrated.
+         */
+        Boolean fastPath;
+
+        /**
+         * The number of texts whose width was calculated via the fast path.
+         * Used to decide which texts are verified.
+         */
+        int fastPathTexts;
+
+        FontTextMetrics() {
+            Arrays.fill(this.advances, -1);
+        }
+    }
+
+    /**
+     * Key to identify a font independent of the {@link Font} instance.
+     */
+    private static final class FontKey {
+
+        private final String name;
+        private final int height;
+        private final int style;
+        private final int dpiX;
+        private final int dpiY;
+
+        FontKey(FontData data, int dpiX, int dpiY) {
+            this.name = data != null ? data.getName() : null;
+            this.height = data != null ? data.getHeight() : 0;
+            this.style = data != null ? data.getStyle() : 0;
+            this.dpiX = dpiX;
+            this.dpiY = dpiY;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.name, this.height, this.style, this.dpiX, this.dpiY);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FontKey)) {
+                return false;
+            }
+            FontKey other = (FontKey) obj;
+            return Objects.equals(this.name, other.name)
+                    && this.height == other.height
+                    && this.style == other.style
+                    && this.dpiX == other.dpiX
+                    && this.dpiY == other.dpiY;
+        }
+    }
+}
@@ -297,8 +297,16 @@ public int getStartXOfColumnPosition(int targetColumnPosition) {
         }
 
         int aggregateWidth = 0;
-        for (int columnPosition = 0; columnPosition < targetColumnPosition; columnPosition++) {
-            aggregateWidth += this.underlying.getColumnWidthByPosition(localToUnderlyingColumnPosition(columnPosition));
+        int previousStartX = targetColumnPosition > 0 ? this.startXCache.getIfAbsent(targetColumnPosition - 1, -1) : -1;
+        if (previousStartX != -1) {
+            // positions are typically requested in ascending order on
+            // rendering, so only add the width of the previous column
+            aggregateWidth = previousStartX
+                    + this.underlying.getColumnWidthByPosition(localToUnderlyingColumnPosition(targetColumnPosition - 1));
+        } else {
+            for (int columnPosition = 0; columnPosition < targetColumnPosition; columnPosition++) {
+                aggregateWidth += this.underlying.getColumnWidthByPosition(localToUnderlyingColumnPosition(columnPosition));
+            }
         }
 
         this.startXCache.put(targetColumnPosition, aggregateWidth);
@@ -366,8 +374,10 @@ private void moveColumn(int fromColumnPosition, int toColumnPosition, boolean re
         this.columnIndexOrder.addAtIndex(toColumnPosition, fromColumnIndex);
         this.columnIndexOrder.removeAtIndex(fromColumnPosition + (fromColumnPosition > toColumnPosition ? 1 : 0));
 
-        // update index-position mapping
-        refreshIndexPositionMapping();
+        // update index-position mapping for the moved range
+        refreshIndexPositionMapping(
+                Math.min(fromColumnPosition, toColumnPosition),
+                Math.min(Math.max(fromColumnPosition, toColumnPosition) + 1, this.columnIndexOrder.size()));
 
         invalidateCache();
     }
@@ -495,7 +505,9 @@ public void reorderMultipleColumnPositions(int[] fromColumnPositions, int toColu
         // Moving from left to right
         final int fromColumnPositionsCount = fromColumnPositions.length;
 
-        if (toColumnPosition > fromColumnPositions[fromColumnPositionsCount - 1]) {
+        if (canMoveColumnsInBulk(fromColumnPositions, toColumnPosition, reorderToLeftEdge)) {
+            moveColumns(fromColumnPositions, reorderToLeftEdge ? toColumnPosition : toColumnPosition + 1);
+        } else if (toColumnPosition > fromColumnPositions[fromColumnPositionsCount - 1]) {
             int firstColumnPosition = fromColumnPositions[0];
 
             int moved = 0;
@@ -566,6 +578,98 @@ public void reorderMultipleColumnIndexes(int[] fromColumnIndexes, int toColumnPo
         reorderMultipleColumnPositions(fromColumnPositions, toColumnPosition, reorderToLeftEdge);
     }
 
+    /**
+     * Checks if the given column positions can be moved in one step via
+     * {@link #moveColumns(int[], int)}. This is the case if all column
+     * positions are on the same side of the position to move to, which
+     * results in the same ordering as moving the columns one after the other.
+     *
+     * @param fromColumnPositions
+     *            The sorted column positions to move.
+     * @param toColumnPosition
+     *            The position to move the columns to.
+     * @param reorderToLeftEdge
+     *            <code>true</code> if the columns should be moved to the left
+     *            edge of the column to move to.
+     * @return <code>true</code> if the columns can be moved in one step.
+     */
+    private boolean canMoveColumnsInBulk(int[] fromColumnPositions, int toColumnPosition, boolean reorderToLeftEdge) {
+        int last = fromColumnPositions.length - 1;
+        if (fromColumnPositions[0] < 0
+                || fromColumnPositions[last] >= this.columnIndexOrder.size()
+                || (reorderToLeftEdge ? toColumnPosition : toColumnPosition + 1) > this.columnIndexOrder.size()) {
+            return false;
+        }
+        for (int i = 1; i <= last; i++) {
+            if (fromColumnPositions[i] == fromColumnPositions[i - 1]) {
+                return false;
+            }
+        }
+        return toColumnPosition > fromColumnPositions[last] || toColumnPosition < fromColumnPositions[0];
+    }
+
+    /**
+     * Moves the columns at the given positions as one block in front of the
+     * column at the given insert position. Only the range between the moved
+     * columns and the insert position is updated, instead of moving the
+     * columns one after the other and refreshing the whole index-position
+     * mapping after each move.
+     *
+     * @param fromColumnPositions
+     *            The sorted column positions to move.
+     * @param insertPosition
+     *            The position of the column in front of which the columns
+     *            should be inserted, based on the ordering before the move.
+     */
+    private void moveColumns(int[] fromColumnPositions, int insertPosition) {
+        int start = Math.min(fromColumnPositions[0], insertPosition);
+        int end = Math.max(fromColumnPositions[fromColumnPositions.length - 1] + 1, insertPosition);
+
+        int[] moved = new int[fromColumnPositions.length];
+        int[] remaining = new int[end - start - moved.length];
+        int movedCount = 0;
+        int remainingCount = 0;
+        int insertAt = 0;
+        for (int position = start; position < end; position++) {
+            if (movedCount < moved.length && fromColumnPositions[movedCount] == position) {
+                moved[movedCount++] = this.columnIndexOrder.get(position);
+            } else {
+                if (position < insertPosition) {
+                    insertAt++;
+                }
+                remaining[remainingCount++] = this.columnIndexOrder.get(position);
+            }
+        }
+
+        int position = start;
+        for (int i = 0; i < insertAt; i++) {
+            this.columnIndexOrder.set(position++, remaining[i]);
+        }
+        for (int index : moved) {
+            this.columnIndexOrder.set(position++, index);
+        }
+        for (int i = insertAt; i < remaining.length; i++) {
+            this.columnIndexOrder.set(position++, remaining[i]);
+        }
+
+        refreshIndexPositionMapping(start, end);
+        invalidateCache();
+    }
+
+    /**
+     * Updates the index-position mapping for the given range of positions.
+     *
+     * @param start
+     *            The first position to update.
+     * @param end
+     *            The position after the last position to update.
+     */
+    private void refreshIndexPositionMapping(int start, int end) {
+        for (int position = start; position < end; position++) {
+            this.indexPositionMapping.put(this.columnIndexOrder.get(position), position);
+        }
+    }
+
     /**
      * Clear the internal cache.
      *
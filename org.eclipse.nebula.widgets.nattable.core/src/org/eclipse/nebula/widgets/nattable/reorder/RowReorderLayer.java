@@ -250,8 +250,16 @@ public int getStartYOfRowPosition(int targetRowPosition) {
         }
 
         int aggregateWidth = 0;
-        for (int rowPosition = 0; rowPosition < targetRowPosition; rowPosition++) {
-            aggregateWidth += this.underlying.getRowHeightByPosition(localToUnderlyingRowPosition(rowPosition));
+        int previousStartY = targetRowPosition > 0 ? this.startYCache.getIfAbsent(targetRowPosition - 1, -1) : -1;
+        if (previousStartY != -1) {
+            // positions are typically requested in ascending order on
+            // rendering, so only add the height of the previous row
+            aggregateWidth = previousStartY
+                    + this.underlying.getRowHeightByPosition(localToUnderlyingRowPosition(targetRowPosition - 1));
+        } else {
+            for (int rowPosition = 0; rowPosition < targetRowPosition; rowPosition++) {
+                aggregateWidth += this.underlying.getRowHeightByPosition(localToUnderlyingRowPosition(rowPosition));
+            }
         }
 
         this.startYCache.put(targetRowPosition, aggregateWidth);
@@ -366,8 +374,10 @@ private void moveRow(int fromRowPosition, int toRowPosition, boolean reorderToTo
         this.rowIndexOrder.addAtIndex(toRowPosition, fromRowIndex);
         this.rowIndexOrder.removeAtIndex(fromRowPosition + (fromRowPosition > toRowPosition ? 1 : 0));
 
-        // update index-position mapping
-        refreshIndexPositionMapping();
+        // update index-position mapping for the moved range
+        refreshIndexPositionMapping(
+                Math.min(fromRowPosition, toRowPosition),
+                Math.min(Math.max(fromRowPosition, toRowPosition) + 1, this.rowIndexOrder.size()));
 
         invalidateCache();
     }
@@ -494,7 +504,9 @@ public void reorderMultipleRowPositions(int[] fromRowPositions, int toRowPositio
 
         final int fromRowPositionsCount = fromRowPositions.length;
 
-        if (toRowPosition > fromRowPositions[fromRowPositionsCount - 1]) {
+        if (canMoveRowsInBulk(fromRowPositions, toRowPosition, reorderToTopEdge)) {
+            moveRows(fromRowPositions, reorderToTopEdge ? toRowPosition : toRowPosition + 1);
+        } else if (toRowPosition > fromRowPositions[fromRowPositionsCount - 1]) {
             // Moving from top to bottom
             int firstRowPosition = fromRowPositions[0];
 
@@ -564,6 +576,98 @@ public void reorderMultipleRowIndexes(int[] fromRowIndexes, int toRowPosition, b
         reorderMultipleRowPositions(fromRowPositions, toRowPosition, reorderToTopEdge);
     }
 
+    /**
+     * Checks if the given row positions can be moved in one step via
+     * {@link #moveRows(int[], int)}. This is the case if all row positions
+     * are on the same side of the position to move to, which results in the
+     * same ordering as moving the rows one after the other.
+     *
+     * @param fromRowPositions
+     *            The sorted row positions to move.
+     * @param toRowPosition
+     *            The position to move the rows to.
+     * @param reorderToTopEdge
+     *            <code>true</code> if the rows should be moved to the top
+     *            edge of the row to move to.
+     * @return <code>true</code> if the rows can be moved in one step.
+     */
+    private boolean canMoveRowsInBulk(int[] fromRowPositions, int toRowPosition, boolean reorderToTopEdge) {
+        int last = fromRowPositions.length - 1;
+        if (fromRowPositions[0] < 0
+                || fromRowPositions[last] >= this.rowIndexOrder.size()
+                || (reorderToTopEdge ? toRowPosition : toRowPosition + 1) > this.rowIndexOrder.size()) {
+            return false;
+        }
+        for (int i = 1; i <= last; i++) {
+            if (fromRowPositions[i] == fromRowPositions[i - 1]) {
+                return false;
+            }
+        }
+        return toRowPosition > fromRowPositions[last] || toRowPosition < fromRowPositions[0];
+    }
+
+    /**
+     * Moves the rows at the given positions as one block in front of the
+     * row at the given insert position. Only the range between the moved
+     * rows and the insert position is updated, instead of moving the rows
+     * one after the other and refreshing the whole index-position mapping
+     * after each move.
+     *
+     * @param fromRowPositions
+     *            The sorted row positions to move.
+     * @param insertPosition
+     *            The position of the row in front of which the rows should be
+     *            inserted, based on the ordering before the move.
+     */
+    private void moveRows(int[] fromRowPositions, int insertPosition) {
+        int start = Math.min(fromRowPositions[0], insertPosition);
+        int end = Math.max(fromRowPositions[fromRowPositions.length - 1] + 1, insertPosition);
+
+        int[] moved = new int[fromRowPositions.length];
+        int[] remaining = new int[end - start - moved.length];
+        int movedCount = 0;
+        int remainingCount = 0;
+        int insertAt = 0;
+        for (int position = start; position < end; position++) {
+            if (movedCount < moved.length && fromRowPositions[movedCount] == position) {
+                moved[movedCount++] = this.rowIndexOrder.get(position);
+            } else {
+                if (position < insertPosition) {
+                    insertAt++;
+                }
+                remaining[remainingCount++] = this.rowIndexOrder.get(position);
+            }
+        }
+
+        int position = start;
+        for (int i = 0; i < insertAt; i++) {
+            this.rowIndexOrder.set(position++, remaining[i]);
+        }
+        for (int index : moved) {
+            this.rowIndexOrder.set(position++, index);
+        }
+        for (int i = insertAt; i < remaining.length; i++) {
+            this.rowIndexOrder.set(position++, remaining[i]);
+        }
+
+        refreshIndexPositionMapping(start, end);
+        invalidateCache();
+    }
+
+    /**
+     * Updates the index-position mapping for the given range of positions.
+     *
+     * @param start
+     *            The first position to update.
+     * @param end
+     *            The position after the last position to update.
+     */
+    private void refreshIndexPositionMapping(int start, int end) {
+        for (int position = start; position < end; position++) {
+            this.indexPositionMapping.put(this.rowIndexOrder.get(position), position);
+        }
+    }
+
     /**
      * Clear the caching of the starting Y positions
      *
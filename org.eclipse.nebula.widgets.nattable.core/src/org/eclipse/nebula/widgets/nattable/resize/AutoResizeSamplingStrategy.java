@@ -0,0 +1,496 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.resize;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToIntFunction;
+
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.factory.primitive.IntSets;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
+import org.eclipse.swt.graphics.GC;
+
+/**
+ * Strategy to auto resize columns of huge tables by only measuring a sample of
+ * the rows with the {@link ICellPainter}. The sample consists of
+ * <ul>
+ * <li>the first rows, which typically contain the column header</li>
+ * <li>the last rows</li>
+ * <li>rows at evenly distributed percentiles of the row positions</li>
+ * <li>the rows whose data values have the longest estimated text width</li>
+ * </ul>
+ * <p>
+ * To find the rows with the longest texts, the data values of all rows are
+ * inspected in chunks that are processed in parallel in a {@link ForkJoinPool}.
+ * The data values are collected upfront in the calling thread, so the parallel
+ * tasks never access the layer, which is not thread safe. The text width is
+ * estimated via glyph advances that are collected once upfront on the UI
+ * thread, as a {@link GC} can not be used by other threads.
+ * As the estimation does not consider display conversion and configured fonts,
+ * it is only used to select the rows, the preferred width is still calculated
+ * by the painters of the selected rows.
+ * </p>
+ * <p>
+ * Via {@link #getRowPositionsAsync(ILayer, int[], ToIntFunction)} the
+ * inspection is performed without blocking the calling thread. A running
+ * calculation can be cancelled from any thread via {@link #cancel()}. In that
+ * case no column width is calculated.
+ * </p>
+ *
+ * @see MaxCellBoundsHelper#getPreferredColumnWidths(org.eclipse.nebula.widgets.nattable.config.IConfigRegistry,
+ *      org.eclipse.nebula.widgets.nattable.util.GCFactory, ILayer, int[],
+ *      AutoResizeSamplingStrategy)
+ * @since 2.1
+ */
+public class AutoResizeSamplingStrategy {
+
+    /**
+     * The default number of rows that are inspected in one task.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 10000;
+
+    /**
+     * The default number of rows that are sampled by each criteria.
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 100;
+
+    private final ForkJoinPool pool;
+
+    private int firstRows = DEFAULT_SAMPLE_SIZE;
+    private int lastRows = DEFAULT_SAMPLE_SIZE;
+    private int longestRows = DEFAULT_SAMPLE_SIZE;
+    private int percentileRows = DEFAULT_SAMPLE_SIZE;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private volatile boolean cancelled = false;
+
+    /**
+     * Create a new strategy that uses the common {@link ForkJoinPool}.
+     */
+    public AutoResizeSamplingStrategy() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new strategy that uses the given {@link ForkJoinPool}.
+     *
+     * @param pool
+     *            The {@link ForkJoinPool} that should be used to inspect the
+     *            rows in parallel.
+     */
+    public AutoResizeSamplingStrategy(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the row positions that should be measured to calculate the
+     * preferred width of the given column. If the layer does not contain more
+     * rows than the sample size, all rows are returned. Blocks the calling
+     * thread until the rows with the longest texts are found.
+     *
+     * @param layer
+     *            The layer to which the column position matches.
+     * @param columnPosition
+     *            The column position whose rows should be sampled.
+     * @param widthEstimator
+     *            Function to estimate the width of a data value. Will be
+     *            called concurrently from multiple threads.
+     * @return The sorted row positions to measure or <code>null</code> if the
+     *         strategy was cancelled.
+     */
+    public int[] getRowPositions(ILayer layer, int columnPosition, ToIntFunction<Object> widthEstimator) {
+        if (this.cancelled) {
+            return null;
+        }
+        return getRowPositions(layer.getRowCount(), getDataValues(layer, columnPosition), widthEstimator);
+    }
+
+    /**
+     * Returns the row positions that should be measured to calculate the
+     * preferred widths of the given columns without blocking the calling
+     * thread. The data values that need to be inspected are collected in the
+     * calling thread, which therefore needs to be the UI thread. The rows
+     * with the longest texts are then searched in the {@link ForkJoinPool} of
+     * this strategy.
+     *
+     * @param layer
+     *            The layer to which the column positions match.
+     * @param columnPositions
+     *            The column positions whose rows should be sampled.
+     * @param widthEstimator
+     *            Function to estimate the width of a data value. Will be
+     *            called concurrently from multiple threads.
+     * @return {@link CompletableFuture} that is completed with the sorted row
+     *         positions to measure per column, or with <code>null</code> if
+     *         the strategy was cancelled.
+     */
+    public CompletableFuture<int[][]> getRowPositionsAsync(ILayer layer, int[] columnPositions, ToIntFunction<Object> widthEstimator) {
+        if (this.cancelled) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int rowCount = layer.getRowCount();
+        Object[][] dataValues = new Object[columnPositions.length][];
+        for (int i = 0; i < columnPositions.length; i++) {
+            dataValues[i] = getDataValues(layer, columnPositions[i]);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            int[][] rowPositions = new int[columnPositions.length][];
+            for (int i = 0; i < columnPositions.length; i++) {
+                rowPositions[i] = getRowPositions(rowCount, dataValues[i], widthEstimator);
+                if (rowPositions[i] == null) {
+                    return null;
+                }
+                // release the inspected values early
+                dataValues[i] = null;
+            }
+            return rowPositions;
+        }, this.pool);
+    }
+
+    /**
+     * Collects the data values of the given column that need to be inspected
+     * to find the rows with the longest texts.
+     *
+     * @param layer
+     *            The layer to which the column position matches.
+     * @param columnPosition
+     *            The column position whose data values should be collected.
+     * @return The data values of all rows or <code>null</code> if no rows need
+     *         to be inspected.
+     */
+    private Object[] getDataValues(ILayer layer, int columnPosition) {
+        int rowCount = layer.getRowCount();
+        if (this.longestRows == 0 || rowCount <= getSampleSize()) {
+            return null;
+        }
+        Object[] dataValues = new Object[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            dataValues[row] = layer.getDataValueByPosition(columnPosition, row);
+        }
+        return dataValues;
+    }
+
+    private long getSampleSize() {
+        return (long) this.firstRows + this.lastRows + this.longestRows + this.percentileRows;
+    }
+
+    private int[] getRowPositions(int rowCount, Object[] dataValues, ToIntFunction<Object> widthEstimator) {
+        if (rowCount <= getSampleSize()) {
+            int[] rows = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                rows[i] = i;
+            }
+            return rows;
+        }
+
+        MutableIntSet rows = IntSets.mutable.empty();
+        for (int row = 0; row < this.firstRows; row++) {
+            rows.add(row);
+        }
+        for (int row = rowCount - this.lastRows; row < rowCount; row++) {
+            rows.add(row);
+        }
+        if (this.percentileRows == 1) {
+            rows.add(rowCount / 2);
+        } else {
+            for (int i = 0; i < this.percentileRows; i++) {
+                rows.add((int) ((long) (rowCount - 1) * i / (this.percentileRows - 1)));
+            }
+        }
+
+        if (dataValues != null) {
+            LongestRowsTask task = new LongestRowsTask(dataValues, widthEstimator, 0, rowCount);
+            LongestRows longest = (rowCount <= this.chunkSize) ? task.compute() : this.pool.invoke(task);
+            for (int i = 0; i < longest.size; i++) {
+                rows.add(longest.rows[i]);
+            }
+        }
+
+        return this.cancelled ? null : rows.toSortedArray();
+    }
+
+    /**
+     * Creates a function that estimates the width of the text representation
+     * of a data value. The glyph advances of the printable ASCII characters are
+     * collected from the given {@link GC}, so the returned function can be
+     * used by other threads without accessing the {@link GC}.
+     *
+     * @param gc
+     *            The {@link GC} with the font that should be used for the
+     *            estimation.
+     * @return Function to estimate the width of a data value.
+     */
+    public static ToIntFunction<Object> createWidthEstimator(GC gc) {
+        int[] advances = new int[128];
+        for (char c = ' '; c <= '~'; c++) {
+            advances[c] = gc.getAdvanceWidth(c);
+        }
+        int averageWidth = (int) Math.ceil(gc.getFontMetrics().getAverageCharacterWidth());
+        return value -> (value != null) ? estimateWidth(value.toString(), advances, averageWidth) : 0;
+    }
+
+    /**
+     * Estimates the width of the given text by summing up the given glyph
+     * advances.
+     *
+     * @param text
+     *            The text whose width should be estimated.
+     * @param advances
+     *            The glyph advances of the ASCII characters.
+     * @param averageWidth
+     *            The width that is used for characters that are not printable
+     *            ASCII.
+     * @return The estimated width of the given text.
+     */
+    static int estimateWidth(String text, int[] advances, int averageWidth) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            width += (c >= ' ' && c <= '~') ? advances[c] : averageWidth;
+        }
+        return width;
+    }
+
+    /**
+     * Cancels the sampling. All running and further calls to
+     * {@link #getRowPositions(ILayer, int, ToIntFunction)} and
+     * {@link #getRowPositionsAsync(ILayer, int[], ToIntFunction)} return
+     * <code>null</code> until {@link #reset()} is called. The
+     * {@link org.eclipse.nebula.widgets.nattable.grid.command.AutoResizeColumnCommandHandler}
+     * resets the strategy at the start of every auto resize.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * @return <code>true</code> if the sampling was cancelled.
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Resets the cancelled state, so the strategy can be used again.
+     */
+    public void reset() {
+        this.cancelled = false;
+    }
+
+    /**
+     * @return The number of rows at the beginning that are always measured.
+     */
+    public int getFirstRows() {
+        return this.firstRows;
+    }
+
+    /**
+     * @param firstRows
+     *            The number of rows at the beginning that are always measured,
+     *            e.g. to include the column header.
+     */
+    public void setFirstRows(int firstRows) {
+        checkNotNegative(firstRows, "firstRows < 0"); //$NON-NLS-1$
+        this.firstRows = firstRows;
+    }
+
+    /**
+     * @return The number of rows at the end that are always measured.
+     */
+    public int getLastRows() {
+        return this.lastRows;
+    }
+
+    /**
+     * @param lastRows
+     *            The number of rows at the end that are always measured, e.g.
+     *            to include a summary row.
+     */
+    public void setLastRows(int lastRows) {
+        checkNotNegative(lastRows, "lastRows < 0"); //$NON-NLS-1$
+        this.lastRows = lastRows;
+    }
+
+    /**
+     * @return The number of rows with the longest estimated text width that
+     *         are measured.
+     */
+    public int getLongestRows() {
+        return this.longestRows;
+    }
+
+    /**
+     * @param longestRows
+     *            The number of rows with the longest estimated text width that
+     *            are measured. Setting 0 avoids the inspection of all rows.
+     */
+    public void setLongestRows(int longestRows) {
+        checkNotNegative(longestRows, "longestRows < 0"); //$NON-NLS-1$
+        this.longestRows = longestRows;
+    }
+
+    /**
+     * @return The number of rows at evenly distributed percentiles of the row
+     *         positions that are measured.
+     */
+    public int getPercentileRows() {
+        return this.percentileRows;
+    }
+
+    /**
+     * @param percentileRows
+     *            The number of rows at evenly distributed percentiles of the
+     *            row positions that are measured, e.g. 101 to measure the rows
+     *            at every percentile including the first and the last row.
+     */
+    public void setPercentileRows(int percentileRows) {
+        checkNotNegative(percentileRows, "percentileRows < 0"); //$NON-NLS-1$
+        this.percentileRows = percentileRows;
+    }
+
+    /**
+     * @return The number of rows that are inspected in one task.
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * Configure the number of rows that are inspected in one task. Columns
+     * with less rows are inspected in the calling thread.
+     *
+     * @param chunkSize
+     *            The number of rows that are inspected in one task. Needs to be
+     *            greater than 0.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize < 1"); //$NON-NLS-1$
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    private static void checkNotNegative(int value, String message) {
+        if (value < 0) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * The rows with the longest estimated widths, kept in a min-heap so the
+     * shortest of them can be replaced.
+     */
+    private static class LongestRows {
+
+        private final int[] rows;
+        private final int[] widths;
+        private int size = 0;
+
+        LongestRows(int capacity) {
+            this.rows = new int[capacity];
+            this.widths = new int[capacity];
+        }
+
+        void add(int row, int width) {
+            if (this.size < this.rows.length) {
+                int i = this.size++;
+                // sift up
+                while (i > 0) {
+                    int parent = (i - 1) / 2;
+                    if (this.widths[parent] <= width) {
+                        break;
+                    }
+                    this.rows[i] = this.rows[parent];
+                    this.widths[i] = this.widths[parent];
+                    i = parent;
+                }
+                this.rows[i] = row;
+                this.widths[i] = width;
+            } else if (width > this.widths[0]) {
+                // replace the shortest and sift down
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= this.size) {
+                        break;
+                    }
+                    if (child + 1 < this.size && this.widths[child + 1] < this.widths[child]) {
+                        child++;
+                    }
+                    if (this.widths[child] >= width) {
+                        break;
+                    }
+                    this.rows[i] = this.rows[child];
+                    this.widths[i] = this.widths[child];
+                    i = child;
+                }
+                this.rows[i] = row;
+                this.widths[i] = width;
+            }
+        }
+
+        void merge(LongestRows other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.rows[i], other.widths[i]);
+            }
+        }
+    }
+
+    /**
+     * {@link RecursiveTask} that collects the rows with the longest estimated
+     * widths of a range of rows by splitting the range until it is smaller
+     * than the chunk size.
+     */
+    private class LongestRowsTask extends RecursiveTask<LongestRows> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] dataValues;
+        private final ToIntFunction<Object> widthEstimator;
+        private final int fromRow;
+        private final int toRow;
+
+        LongestRowsTask(Object[] dataValues, ToIntFunction<Object> widthEstimator, int fromRow, int toRow) {
+            this.dataValues = dataValues;
+            this.widthEstimator = widthEstimator;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected LongestRows compute() {
+            int length = this.toRow - this.fromRow;
+            if (length > AutoResizeSamplingStrategy.this.chunkSize) {
+                int middle = this.fromRow + length / 2;
+                LongestRowsTask first = new LongestRowsTask(this.dataValues, this.widthEstimator, this.fromRow, middle);
+                LongestRowsTask second = new LongestRowsTask(this.dataValues, this.widthEstimator, middle, this.toRow);
+                first.fork();
+                LongestRows result = second.compute();
+                LongestRows firstResult = first.join();
+                firstResult.merge(result);
+                return firstResult;
+            }
+
+            LongestRows longest = new LongestRows(AutoResizeSamplingStrategy.this.longestRows);
+            for (int row = this.fromRow; row < this.toRow && !AutoResizeSamplingStrategy.this.cancelled; row++) {
+                longest.add(row, this.widthEstimator.applyAsInt(this.dataValues[row]));
+            }
+            return longest;
+        }
+    }
+}
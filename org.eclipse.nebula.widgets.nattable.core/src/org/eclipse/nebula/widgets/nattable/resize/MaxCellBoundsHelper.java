@@ -12,6 +12,8 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.resize;
 
+import java.util.function.ToIntFunction;
+
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.grid.command.AutoResizeColumnCommandHandler;
 import org.eclipse.nebula.widgets.nattable.grid.command.AutoResizeRowCommandHandler;
@@ -72,6 +74,106 @@ public static int[] getPreferredColumnWidths(
         }
     }
 
+    /**
+     * Calculates the preferred column widths of the given columns based on the
+     * given {@link IConfigRegistry} by only measuring the rows that are
+     * selected by the given {@link AutoResizeSamplingStrategy}. This avoids
+     * calling the cell painters for every row of huge tables.
+     *
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to get the required configuration
+     *            values.
+     * @param gcFactory
+     *            The {@link GCFactory} for creating a temporary {@link GC}
+     *            needed for UI related calculations without blocking the UI
+     *            thread.
+     * @param layer
+     *            The layer to which the column positions match.
+     * @param columnPositions
+     *            The column positions for which the preferred width should be
+     *            calculated.
+     * @param samplingStrategy
+     *            The {@link AutoResizeSamplingStrategy} that selects the rows
+     *            to measure. If <code>null</code> all rows are measured.
+     * @return The preferred column widths of the given columns or
+     *         <code>null</code> if the calculation was cancelled via the
+     *         {@link AutoResizeSamplingStrategy}.
+     *
+     * @since 2.1
+     */
+    public static int[] getPreferredColumnWidths(
+            IConfigRegistry configRegistry, GCFactory gcFactory, ILayer layer, int[] columnPositions, AutoResizeSamplingStrategy samplingStrategy) {
+
+        if (samplingStrategy == null) {
+            return getPreferredColumnWidths(configRegistry, gcFactory, layer, columnPositions);
+        }
+
+        GC gc = gcFactory.createGC();
+        if (gc != null) {
+            try {
+                ToIntFunction<Object> widthEstimator = AutoResizeSamplingStrategy.createWidthEstimator(gc);
+                int[] columnWidths = new int[columnPositions.length];
+                for (int i = 0; i < columnPositions.length; i++) {
+                    int[] rowPositions = samplingStrategy.getRowPositions(layer, columnPositions[i], widthEstimator);
+                    if (rowPositions == null) {
+                        return null;
+                    }
+                    columnWidths[i] = getPreferredColumnWidth(layer, columnPositions[i], rowPositions, configRegistry, gc);
+                }
+                return columnWidths;
+            } finally {
+                gc.dispose();
+            }
+        } else {
+            return new int[0];
+        }
+    }
+
+    /**
+     * Calculates the preferred column widths of the given columns based on the
+     * given {@link IConfigRegistry} by only measuring the given rows per
+     * column, e.g. the rows that were selected asynchronously via
+     * {@link AutoResizeSamplingStrategy#getRowPositionsAsync(ILayer, int[], ToIntFunction)}.
+     * Row positions that do not exist anymore are skipped.
+     *
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to get the required configuration
+     *            values.
+     * @param gcFactory
+     *            The {@link GCFactory} for creating a temporary {@link GC}
+     *            needed for UI related calculations without blocking the UI
+     *            thread.
+     * @param layer
+     *            The layer to which the column and row positions match.
+     * @param columnPositions
+     *            The column positions for which the preferred width should be
+     *            calculated.
+     * @param rowPositions
+     *            The row positions to measure per column position.
+     * @return The preferred column widths of the given columns or an empty
+     *         array if an error occurred on processing.
+     *
+     * @since 2.1
+     */
+    public static int[] getPreferredColumnWidths(
+            IConfigRegistry configRegistry, GCFactory gcFactory, ILayer layer, int[] columnPositions, int[][] rowPositions) {
+
+        GC gc = gcFactory.createGC();
+        if (gc != null) {
+            try {
+                int[] columnWidths = new int[columnPositions.length];
+                for (int i = 0; i < columnPositions.length; i++) {
+                    columnWidths[i] = getPreferredColumnWidth(layer, columnPositions[i], rowPositions[i], configRegistry, gc);
+                }
+                return columnWidths;
+            } finally {
+                gc.dispose();
+            }
+        } else {
+            return new int[0];
+        }
+    }
+
     /**
      * Calculates the minimum width (in pixels) required to display the complete
      * contents of the cells in a column. Takes into account the font settings
@@ -93,40 +195,93 @@ public static int[] getPreferredColumnWidths(
     private static int getPreferredColumnWidth(ILayer layer, int columnPosition, IConfigRegistry configRegistry, GC gc) {
 
         int maxWidth = -1;
-        ICellPainter painter;
-        ILayerCell cell;
 
         for (int rowPosition = 0; rowPosition < layer.getRowCount(); rowPosition++) {
-            cell = layer.getCellByPosition(columnPosition, rowPosition);
-            if (cell != null) {
-                boolean atEndOfCellSpan = (cell.getOriginColumnPosition() + cell.getColumnSpan() - 1) == columnPosition;
-                if (atEndOfCellSpan) {
-                    painter = layer.getCellPainter(cell.getColumnPosition(), cell.getRowPosition(), cell, configRegistry);
-                    if (painter != null) {
-                        int preferredWidth = painter.getPreferredWidth(cell, gc, configRegistry);
+            int preferredWidth = getPreferredCellWidth(layer, columnPosition, rowPosition, configRegistry, gc);
+            maxWidth = (preferredWidth > maxWidth) ? preferredWidth : maxWidth;
+        }
 
-                        // Adjust width
-                        Rectangle bounds = cell.getBounds();
-                        bounds.width = preferredWidth;
-                        Rectangle adjustedCellBounds = cell
-                                .getLayer()
-                                .getLayerPainter()
-                                .adjustCellBounds(columnPosition, rowPosition, bounds);
-                        preferredWidth += preferredWidth - adjustedCellBounds.width;
+        return maxWidth;
+    }
 
-                        if (cell.getColumnSpan() > 1) {
-                            int columnStartX = layer.getStartXOfColumnPosition(columnPosition);
-                            int cellStartX = layer.getStartXOfColumnPosition(cell.getOriginColumnPosition());
-                            preferredWidth = Math.max(0, preferredWidth - (columnStartX - cellStartX));
-                        }
+    /**
+     * Calculates the minimum width (in pixels) required to display the
+     * contents of the given rows in a column.
+     *
+     * @param layer
+     *            The layer to which the positions match.
+     * @param columnPosition
+     *            The column position whose preferred width should be
+     *            calculated.
+     * @param rowPositions
+     *            The row positions to measure. Positions that are not valid in
+     *            the given layer are skipped.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to get the required configuration
+     *            values.
+     * @param gc
+     *            The {@link GC} needed for UI related calculations.
+     * @return The preferred column width of the given column or -1 if there are
+     *         no cells for the specified positions.
+     */
+    private static int getPreferredColumnWidth(ILayer layer, int columnPosition, int[] rowPositions, IConfigRegistry configRegistry, GC gc) {
+        int maxWidth = -1;
+        int rowCount = layer.getRowCount();
+        for (int rowPosition : rowPositions) {
+            if (rowPosition < rowCount) {
+                maxWidth = Math.max(maxWidth, getPreferredCellWidth(layer, columnPosition, rowPosition, configRegistry, gc));
+            }
+        }
+        return maxWidth;
+    }
+
+    /**
+     * Calculates the minimum width (in pixels) required to display the
+     * contents of a single cell in the given column.
+     *
+     * @param layer
+     *            The layer to which the positions match.
+     * @param columnPosition
+     *            The column position of the cell.
+     * @param rowPosition
+     *            The row position of the cell.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to get the required configuration
+     *            values.
+     * @param gc
+     *            The {@link GC} needed for UI related calculations.
+     * @return The preferred width of the cell or -1 if there is no cell or the
+     *         column position is not the end of a spanned cell.
+     */
+    private static int getPreferredCellWidth(ILayer layer, int columnPosition, int rowPosition, IConfigRegistry configRegistry, GC gc) {
+        ILayerCell cell = layer.getCellByPosition(columnPosition, rowPosition);
+        if (cell != null) {
+            boolean atEndOfCellSpan = (cell.getOriginColumnPosition() + cell.getColumnSpan() - 1) == columnPosition;
+            if (atEndOfCellSpan) {
+                ICellPainter painter = layer.getCellPainter(cell.getColumnPosition(), cell.getRowPosition(), cell, configRegistry);
+                if (painter != null) {
+                    int preferredWidth = painter.getPreferredWidth(cell, gc, configRegistry);
+
+                    // Adjust width
+                    Rectangle bounds = cell.getBounds();
+                    bounds.width = preferredWidth;
+                    Rectangle adjustedCellBounds = cell
+                            .getLayer()
+                            .getLayerPainter()
+                            .adjustCellBounds(columnPosition, rowPosition, bounds);
+                    preferredWidth += preferredWidth - adjustedCellBounds.width;
 
-                        maxWidth = (preferredWidth > maxWidth) ? preferredWidth : maxWidth;
+                    if (cell.getColumnSpan() > 1) {
+                        int columnStartX = layer.getStartXOfColumnPosition(columnPosition);
+                        int cellStartX = layer.getStartXOfColumnPosition(cell.getOriginColumnPosition());
+                        preferredWidth = Math.max(0, preferredWidth - (columnStartX - cellStartX));
                     }
+
+                    return preferredWidth;
                 }
             }
         }
-
-        return maxWidth;
+        return -1;
     }
 
     /**
@@ -18,6 +18,7 @@
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.grid.command.AutoResizeColumnCommandHandler;
 import org.eclipse.nebula.widgets.nattable.grid.command.InitializeAutoResizeColumnsCommandHandler;
+import org.eclipse.nebula.widgets.nattable.resize.AutoResizeSamplingStrategy;
 import org.eclipse.nebula.widgets.nattable.util.GCFactory;
 
 /**
@@ -37,6 +38,7 @@ public class AutoResizeColumnsCommand extends AbstractMultiColumnCommand {
     private final IConfigRegistry configRegistry;
     private final GCFactory gcFactory;
     private final boolean transformPositions;
+    private AutoResizeSamplingStrategy samplingStrategy;
 
     /**
      * Create a {@link AutoResizeColumnsCommand} from the given
@@ -106,6 +108,7 @@ protected AutoResizeColumnsCommand(AutoResizeColumnsCommand command) {
         this.configRegistry = command.configRegistry;
         this.gcFactory = command.gcFactory;
         this.transformPositions = command.transformPositions;
+        this.samplingStrategy = command.samplingStrategy;
     }
 
     @Override
@@ -151,4 +154,30 @@ public IConfigRegistry getConfigRegistry() {
     public boolean doPositionTransformation() {
         return this.transformPositions;
     }
+
+    /**
+     *
+     * @return The {@link AutoResizeSamplingStrategy} that should be used to
+     *         select the rows to measure, or <code>null</code> if the strategy
+     *         of the command handler should be used.
+     *
+     * @since 2.1
+     */
+    public AutoResizeSamplingStrategy getSamplingStrategy() {
+        return this.samplingStrategy;
+    }
+
+    /**
+     * Configure the {@link AutoResizeSamplingStrategy} that should be used to
+     * select the rows to measure. Overrides the strategy configured on the
+     * command handler.
+     *
+     * @param samplingStrategy
+     *            The {@link AutoResizeSamplingStrategy} to use.
+     *
+     * @since 2.1
+     */
+    public void setSamplingStrategy(AutoResizeSamplingStrategy samplingStrategy) {
+        this.samplingStrategy = samplingStrategy;
+    }
 }
@@ -0,0 +1,446 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * {@link RowSelectionModel} that is optimized for large data sets. In
+ * addition to the explicit selection of rows, it supports a mode in which all
+ * rows are selected, and only the deselected rows are tracked. This way
+ * selecting all rows and inverting the selection are performed in constant
+ * time, without resolving and storing the row objects of all rows.
+ * <p>
+ * The selection is still tied to the row ids, so it is kept on sorting and
+ * filtering. Row positions are only resolved on request, e.g. for the rows in
+ * the visible area on painting. Collections of selected positions are
+ * returned as merged ranges, so {@link #getSelections()} and
+ * {@link #getSelectedRowPositions()} return one element per block of
+ * contiguous selected rows instead of one element per row.
+ * </p>
+ * <p>
+ * The all selected mode is entered by selecting a range that covers all rows,
+ * e.g. via {@link SelectionLayer#selectAll()}, or by calling
+ * {@link #selectAll()}. In this mode all rows of the
+ * {@link IRowDataProvider} are selected, including rows that are added
+ * later.
+ * </p>
+ *
+ * @param <R>
+ *            The type of the row objects.
+ *
+ * @since 2.1
+ */
+public class BulkRowSelectionModel<R> extends RowSelectionModel<R> {
+
+    /**
+     * Flag to indicate that all rows are selected except the rows in
+     * {@link #deselectedRows}.
+     */
+    private boolean allSelected = false;
+
+    /**
+     * The rows that are not selected in the all selected mode.
+     */
+    private Map<Serializable, R> deselectedRows = new HashMap<>();
+
+    public BulkRowSelectionModel(SelectionLayer selectionLayer,
+            IRowDataProvider<R> rowDataProvider, IRowIdAccessor<R> rowIdAccessor) {
+        super(selectionLayer, rowDataProvider, rowIdAccessor);
+    }
+
+    public BulkRowSelectionModel(SelectionLayer selectionLayer,
+            IRowDataProvider<R> rowDataProvider,
+            IRowIdAccessor<R> rowIdAccessor, boolean multipleSelectionAllowed) {
+        super(selectionLayer, rowDataProvider, rowIdAccessor, multipleSelectionAllowed);
+    }
+
+    /**
+     * Selects all rows without resolving the row objects. Has no effect if
+     * multiple selection is not allowed.
+     */
+    public void selectAll() {
+        if (!isMultipleSelectionAllowed()) {
+            return;
+        }
+
+        this.selectionsLock.writeLock().lock();
+        try {
+            this.allSelected = true;
+            this.selectedRows.clear();
+            this.deselectedRows.clear();
+        } finally {
+            this.selectionsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inverts the selection, so all selected rows are deselected and all
+     * other rows are selected. Has no effect if multiple selection is not
+     * allowed.
+     */
+    public void invertSelection() {
+        if (!isMultipleSelectionAllowed()) {
+            return;
+        }
+
+        this.selectionsLock.writeLock().lock();
+        try {
+            // the selected rows of one mode are the deselected rows of the
+            // other mode
+            Map<Serializable, R> temp = this.selectedRows;
+            this.selectedRows = this.deselectedRows;
+            this.deselectedRows = temp;
+            this.allSelected = !this.allSelected;
+        } finally {
+            this.selectionsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if all rows are selected except the rows that
+     *         were deselected explicitly.
+     */
+    public boolean isAllSelected() {
+        this.selectionsLock.readLock().lock();
+        try {
+            return this.allSelected;
+        } finally {
+            this.selectionsLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addSelection(int columnPosition, int rowPosition) {
+        this.selectionsLock.writeLock().lock();
+        try {
+            if (this.allSelected) {
+                if (isMultipleSelectionAllowed()) {
+                    this.deselectedRows.remove(getRowIdByPosition(rowPosition));
+                    return;
+                }
+                this.allSelected = false;
+                this.deselectedRows.clear();
+            }
+            super.addSelection(columnPosition, rowPosition);
+        } finally {
+            this.selectionsLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addSelection(Rectangle range) {
+        this.selectionsLock.writeLock().lock();
+        try {
+            if (isMultipleSelectionAllowed() && coversAllRows(range)) {
+                selectAll();
+                this.lastSelectedRange = range;
+                this.lastSelectedRowIds = null;
+                return;
+            }
+
+            if (this.allSelected) {
+                if (isMultipleSelectionAllowed()) {
+                    int maxY = Math.min(range.y + range.height, this.selectionLayer.getRowCount());
+                    for (int rowPosition = range.y; rowPosition < maxY; rowPosition++) {
+                        this.deselectedRows.remove(getRowIdByPosition(rowPosition));
+                    }
+                    this.lastSelectedRange = range;
+                    this.lastSelectedRowIds = null;
+                    return;
+                }
+                this.allSelected = false;
+                this.deselectedRows.clear();
+            }
+            super.addSelection(range);
+        } finally {
+            this.selectionsLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearSelection() {
+        this.selectionsLock.writeLock().lock();
+        try {
+            this.allSelected = false;
+            this.deselectedRows.clear();
+            super.clearSelection();
+        } finally {
+            this.selectionsLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearSelection(int columnPosition, int rowPosition) {
+        this.selectionsLock.writeLock().lock();
+        try {
+            if (this.allSelected) {
+                deselect(getRowObjectByPosition(rowPosition));
+            } else {
+                super.clearSelection(columnPosition, rowPosition);
+            }
+        } finally {
+            this.selectionsLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearSelection(Rectangle removedSelection) {
+        this.selectionsLock.writeLock().lock();
+        try {
+            if (coversAllRows(removedSelection)) {
+                clearSelection();
+            } else {
+                super.clearSelection(removedSelection);
+            }
+        } finally {
+            this.selectionsLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearSelection(R rowObject) {
+        this.selectionsLock.writeLock().lock();
+        try {
+            if (this.allSelected) {
+                deselect(rowObject);
+            } else {
+                super.clearSelection(rowObject);
+            }
+        } finally {
+            this.selectionsLock.writeLock().unlock();
+        }
+    }
+
+    private void deselect(R rowObject) {
+        if (rowObject != null) {
+            this.deselectedRows.put(this.rowIdAccessor.getRowId(rowObject), rowObject);
+        }
+    }
+
+    private boolean coversAllRows(Rectangle range) {
+        int rowCount = this.selectionLayer.getRowCount();
+        return rowCount > 0
+                && range.y <= 0
+                && range.y + range.height >= rowCount
+                && rowCount == this.rowDataProvider.getRowCount();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        this.selectionsLock.readLock().lock();
+        try {
+            if (this.allSelected) {
+                return getSelectedRowCount() == 0;
+            }
+            return super.isEmpty();
+        } finally {
+            this.selectionsLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Rectangle> getSelections() {
+        Set<Range> ranges = getSelectedRowPositions();
+        List<Rectangle> selectionRectangles = new ArrayList<>(ranges.size());
+        int width = this.selectionLayer.getColumnCount();
+        for (Range range : ranges) {
+            selectionRectangles.add(new Rectangle(0, range.start, width, range.end - range.start));
+        }
+        return selectionRectangles;
+    }
+
+    // Column features
+
+    @Override
+    public boolean isColumnPositionSelected(int columnPosition) {
+        return !isEmpty();
+    }
+
+    @Override
+    public boolean isColumnPositionFullySelected(int columnPosition, int fullySelectedColumnRowCount) {
+        int selectedRowCount = getSelectedRowCount();
+        return selectedRowCount > 0 && selectedRowCount == fullySelectedColumnRowCount;
+    }
+
+    // Row features
+
+    @Override
+    public List<R> getSelectedRowObjects() {
+        this.selectionsLock.readLock().lock();
+        try {
+            if (!this.allSelected) {
+                return super.getSelectedRowObjects();
+            }
+
+            int rowCount = this.rowDataProvider.getRowCount();
+            List<R> rowObjects = new ArrayList<>(rowCount - this.deselectedRows.size());
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                R rowObject = this.rowDataProvider.getRowObject(rowIndex);
+                if (this.deselectedRows.isEmpty()
+                        || !this.deselectedRows.containsKey(this.rowIdAccessor.getRowId(rowObject))) {
+                    rowObjects.add(rowObject);
+                }
+            }
+            return rowObjects;
+        } finally {
+            this.selectionsLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getSelectedRowCount() {
+        this.selectionsLock.readLock().lock();
+        try {
+            if (this.allSelected) {
+                return Math.max(0, this.rowDataProvider.getRowCount() - this.deselectedRows.size());
+            }
+            return super.getSelectedRowCount();
+        } finally {
+            this.selectionsLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Range> getSelectedRowPositions() {
+        this.selectionsLock.readLock().lock();
+        try {
+            if (this.allSelected) {
+                // the ranges between the deselected rows
+                int[] deselected = getSortedRowPositions(this.deselectedRows);
+                Set<Range> ranges = new HashSet<>();
+                int start = 0;
+                for (int position : deselected) {
+                    if (position > start) {
+                        ranges.add(new Range(start, position));
+                    }
+                    start = position + 1;
+                }
+                int rowCount = this.selectionLayer.getRowCount();
+                if (start < rowCount) {
+                    ranges.add(new Range(start, rowCount));
+                }
+                return ranges;
+            }
+
+            int[] selected = getSortedRowPositions(this.selectedRows);
+            Set<Range> ranges = new HashSet<>();
+            int i = 0;
+            while (i < selected.length) {
+                int start = selected[i];
+                int end = start + 1;
+                while (++i < selected.length && selected[i] <= end) {
+                    end = selected[i] + 1;
+                }
+                ranges.add(new Range(start, end));
+            }
+            return ranges;
+        } finally {
+            this.selectionsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resolves the row positions of the given rows.
+     *
+     * @return The sorted row positions of the given rows that are visible in
+     *         the {@link SelectionLayer}.
+     */
+    private int[] getSortedRowPositions(Map<Serializable, R> rows) {
+        int[] positions = new int[rows.size()];
+        int count = 0;
+        for (R rowObject : rows.values()) {
+            int rowIndex = this.rowDataProvider.indexOfRowObject(rowObject);
+            if (rowIndex >= 0) {
+                int rowPosition = this.selectionLayer.getRowPositionByIndex(rowIndex);
+                if (rowPosition >= 0) {
+                    positions[count++] = rowPosition;
+                }
+            }
+        }
+        positions = Arrays.copyOf(positions, count);
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    @Override
+    public boolean isRowPositionSelected(int rowPosition) {
+        this.selectionsLock.readLock().lock();
+        try {
+            if (this.allSelected) {
+                Serializable rowId = getRowIdByPosition(rowPosition);
+                return rowId != null && !this.deselectedRows.containsKey(rowId);
+            }
+            return super.isRowPositionSelected(rowPosition);
+        } finally {
+            this.selectionsLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int[] getFullySelectedRowPositions(int rowWidth) {
+        Set<Range> ranges = getSelectedRowPositions();
+        int count = 0;
+        for (Range range : ranges) {
+            count += range.size();
+        }
+
+        int[] positions = new int[count];
+        int i = 0;
+        for (Range range : ranges) {
+            for (int position = range.start; position < range.end; position++) {
+                positions[i++] = position;
+            }
+        }
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    @Override
+    public void handleLayerEvent(IStructuralChangeEvent event) {
+        if (!isAllSelected()) {
+            super.handleLayerEvent(event);
+            return;
+        }
+
+        if (event.isVerticalStructureChanged()) {
+            // remove the deselected rows that do not exist anymore, all other
+            // rows are still selected, so there is no selection change
+            this.selectionsLock.writeLock().lock();
+            try {
+                Iterator<R> it = this.deselectedRows.values().iterator();
+                while (it.hasNext()) {
+                    if (this.rowDataProvider.indexOfRowObject(it.next()) == -1) {
+                        it.remove();
+                    }
+                }
+            } finally {
+                this.selectionsLock.writeLock().unlock();
+            }
+        }
+    }
+}
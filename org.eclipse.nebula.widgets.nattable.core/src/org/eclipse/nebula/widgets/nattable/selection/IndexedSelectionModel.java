@@ -0,0 +1,456 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * {@link SelectionModel} that answers the selection queries via an index
+ * instead of iterating over all selection rectangles. This keeps painting fast
+ * in case of many selection rectangles, e.g. after selecting thousands of
+ * ranges via CTRL + click.
+ * <p>
+ * The index is created lazily on the first query after a modification and
+ * contains:
+ * </p>
+ * <ul>
+ * <li>the merged row and column ranges covered by the selection, to answer
+ * {@link #isRowPositionSelected(int)},
+ * {@link #isColumnPositionSelected(int)} and the selected positions via
+ * binary search</li>
+ * <li>interval trees of the selection rectangles per axis, to answer
+ * {@link #isCellPositionSelected(int, int)} and the fully selected checks in
+ * <i>O(log n + k)</i></li>
+ * </ul>
+ * <p>
+ * The selection rectangles are managed like in the {@link SelectionModel}.
+ * <b>Note:</b> Modifications need to be performed via the methods of the
+ * selection model. Modifying the list returned by {@link #getSelections()}
+ * directly is not tracked by the index.
+ * </p>
+ *
+ * @since 2.1
+ */
+public class IndexedSelectionModel extends SelectionModel {
+
+    private final AtomicInteger modificationCount = new AtomicInteger();
+
+    private volatile SelectionIndex index;
+
+    public IndexedSelectionModel(SelectionLayer selectionLayer) {
+        super(selectionLayer);
+    }
+
+    public IndexedSelectionModel(SelectionLayer selectionLayer, boolean multipleSelectionAllowed) {
+        super(selectionLayer, multipleSelectionAllowed);
+    }
+
+    @Override
+    public void addSelection(int columnPosition, int rowPosition) {
+        super.addSelection(columnPosition, rowPosition);
+        this.modificationCount.incrementAndGet();
+    }
+
+    @Override
+    public void addSelection(Rectangle range) {
+        super.addSelection(range);
+        this.modificationCount.incrementAndGet();
+    }
+
+    @Override
+    public void clearSelection() {
+        super.clearSelection();
+        this.modificationCount.incrementAndGet();
+    }
+
+    @Override
+    public void clearSelection(int columnPosition, int rowPosition) {
+        super.clearSelection(columnPosition, rowPosition);
+        this.modificationCount.incrementAndGet();
+    }
+
+    @Override
+    public void clearSelection(Rectangle removedSelection) {
+        super.clearSelection(removedSelection);
+        this.modificationCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the index for the current selection, creates it if the
+     * selection was modified since the last creation.
+     */
+    private SelectionIndex getIndex() {
+        int modification = this.modificationCount.get();
+        SelectionIndex current = this.index;
+        if (current == null || current.modification != modification) {
+            ReadWriteLock lock = getSelectionsLock();
+            lock.readLock().lock();
+            try {
+                current = new SelectionIndex(getSelections(), modification);
+            } finally {
+                lock.readLock().unlock();
+            }
+            this.index = current;
+        }
+        return current;
+    }
+
+    // Cell features
+
+    @Override
+    public boolean isCellPositionSelected(int columnPosition, int rowPosition) {
+        ILayerCell cell = this.selectionLayer.getCellByPosition(columnPosition, rowPosition);
+        if (cell == null) {
+            return false;
+        }
+
+        int row = cell.getOriginRowPosition();
+        int column = cell.getOriginColumnPosition();
+        return getIndex().rowTree.intersects(
+                row, row + cell.getRowSpan(),
+                column, column + cell.getColumnSpan());
+    }
+
+    // Column features
+
+    @Override
+    public int[] getSelectedColumnPositions() {
+        return getIndex().columnRanges.toArray(this.selectionLayer.getColumnCount());
+    }
+
+    @Override
+    protected Set<Range> internalGetSelectedColumnPositions() {
+        return getIndex().columnRanges.toRanges(this.selectionLayer.getColumnCount());
+    }
+
+    @Override
+    public boolean isColumnPositionSelected(int columnPosition) {
+        return columnPosition < this.selectionLayer.getColumnCount()
+                && getIndex().columnRanges.contains(columnPosition);
+    }
+
+    @Override
+    public boolean isColumnPositionFullySelected(int columnPosition, int columnHeight) {
+        return getIndex().columnTree.isCovered(columnPosition, columnHeight);
+    }
+
+    // Row features
+
+    @Override
+    public int getSelectedRowCount() {
+        return getIndex().rowRanges.count(this.selectionLayer.getRowCount());
+    }
+
+    @Override
+    public Set<Range> getSelectedRowPositions() {
+        return getIndex().rowRanges.toRanges(this.selectionLayer.getRowCount());
+    }
+
+    @Override
+    public boolean isRowPositionSelected(int rowPosition) {
+        return rowPosition < this.selectionLayer.getRowCount()
+                && getIndex().rowRanges.contains(rowPosition);
+    }
+
+    @Override
+    public boolean isRowPositionFullySelected(int rowPosition, int rowWidth) {
+        return getIndex().rowTree.isCovered(rowPosition, rowWidth);
+    }
+
+    /**
+     * Packs an interval into a long that sorts by start and then by end.
+     */
+    private static long pack(int start, int end) {
+        return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    private static int unpackStart(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    private static int unpackEnd(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Immutable index of the selection rectangles at the time of creation.
+     */
+    private static final class SelectionIndex {
+
+        final int modification;
+
+        final RangeSet rowRanges;
+        final RangeSet columnRanges;
+
+        /**
+         * Interval tree of the rectangles by rows.
+         */
+        final IntervalTree rowTree;
+
+        /**
+         * Interval tree of the rectangles by columns.
+         */
+        final IntervalTree columnTree;
+
+        SelectionIndex(List<Rectangle> selections, int modification) {
+            this.modification = modification;
+
+            int size = selections.size();
+            int[] x = new int[size];
+            int[] xEnd = new int[size];
+            int[] y = new int[size];
+            int[] yEnd = new int[size];
+            long[] rows = new long[size];
+            long[] columns = new long[size];
+            int i = 0;
+            for (Rectangle r : selections) {
+                x[i] = r.x;
+                xEnd[i] = r.x + r.width;
+                y[i] = r.y;
+                yEnd[i] = r.y + r.height;
+                rows[i] = pack(y[i], yEnd[i]);
+                columns[i] = pack(x[i], xEnd[i]);
+                i++;
+            }
+
+            this.rowRanges = RangeSet.merge(rows, size);
+            this.columnRanges = RangeSet.merge(columns, size);
+            this.rowTree = new IntervalTree(y, yEnd, x, xEnd);
+            this.columnTree = new IntervalTree(x, xEnd, y, yEnd);
+        }
+    }
+
+    /**
+     * Sorted set of disjoint, non adjacent ranges stored in primitive arrays.
+     */
+    private static final class RangeSet {
+
+        private final int[] starts;
+        private final int[] ends;
+
+        private RangeSet(int[] starts, int[] ends) {
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        /**
+         * Creates a {@link RangeSet} by merging overlapping and adjacent
+         * intervals.
+         *
+         * @param intervals
+         *            The packed intervals, will be sorted.
+         * @param count
+         *            The number of intervals in the array.
+         */
+        static RangeSet merge(long[] intervals, int count) {
+            Arrays.sort(intervals, 0, count);
+            int[] starts = new int[count];
+            int[] ends = new int[count];
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                int start = unpackStart(intervals[i]);
+                int end = unpackEnd(intervals[i]);
+                if (start >= end) {
+                    continue;
+                }
+                if (size > 0 && start <= ends[size - 1]) {
+                    ends[size - 1] = Math.max(ends[size - 1], end);
+                } else {
+                    starts[size] = start;
+                    ends[size] = end;
+                    size++;
+                }
+            }
+            return new RangeSet(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+        }
+
+        boolean contains(int position) {
+            int i = Arrays.binarySearch(this.starts, position);
+            if (i < 0) {
+                // the range that starts before the position
+                i = -i - 2;
+            }
+            return i >= 0 && position < this.ends[i];
+        }
+
+        int count(int limit) {
+            int count = 0;
+            for (int i = 0; i < this.starts.length && this.starts[i] < limit; i++) {
+                count += Math.min(this.ends[i], limit) - this.starts[i];
+            }
+            return count;
+        }
+
+        int[] toArray(int limit) {
+            int[] result = new int[count(limit)];
+            int index = 0;
+            for (int i = 0; i < this.starts.length && this.starts[i] < limit; i++) {
+                int end = Math.min(this.ends[i], limit);
+                for (int position = this.starts[i]; position < end; position++) {
+                    result[index++] = position;
+                }
+            }
+            return result;
+        }
+
+        Set<Range> toRanges(int limit) {
+            Set<Range> result = new HashSet<>();
+            for (int i = 0; i < this.starts.length && this.starts[i] < limit; i++) {
+                result.add(new Range(this.starts[i], Math.min(this.ends[i], limit)));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Static interval tree over the intervals of one axis of the selection
+     * rectangles. The intervals are sorted by start and the array is used as
+     * implicit balanced binary search tree, where the middle element of a
+     * range is the root of the subtree. Every node stores the maximum end of
+     * its subtree to skip subtrees that can not contain matches.
+     */
+    private static final class IntervalTree {
+
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] otherStarts;
+        private final int[] otherEnds;
+        private final int[] maxEnds;
+
+        IntervalTree(int[] starts, int[] ends, int[] otherStarts, int[] otherEnds) {
+            int size = starts.length;
+
+            // sort by start via packed start and original index
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = pack(starts[i], i);
+            }
+            Arrays.sort(order);
+
+            this.starts = new int[size];
+            this.ends = new int[size];
+            this.otherStarts = new int[size];
+            this.otherEnds = new int[size];
+            this.maxEnds = new int[size];
+            for (int i = 0; i < size; i++) {
+                int original = unpackEnd(order[i]);
+                this.starts[i] = starts[original];
+                this.ends[i] = ends[original];
+                this.otherStarts[i] = otherStarts[original];
+                this.otherEnds[i] = otherEnds[original];
+            }
+            buildMaxEnds(0, size);
+        }
+
+        private int buildMaxEnds(int from, int to) {
+            if (from >= to) {
+                return Integer.MIN_VALUE;
+            }
+            int mid = (from + to) >>> 1;
+            int max = Math.max(this.ends[mid], Math.max(buildMaxEnds(from, mid), buildMaxEnds(mid + 1, to)));
+            this.maxEnds[mid] = max;
+            return max;
+        }
+
+        /**
+         * Checks if any interval intersects the given area.
+         */
+        boolean intersects(int from, int to, int otherFrom, int otherTo) {
+            return intersects(0, this.starts.length, from, to, otherFrom, otherTo);
+        }
+
+        private boolean intersects(int lo, int hi, int from, int to, int otherFrom, int otherTo) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (this.maxEnds[mid] <= from) {
+                    // no interval in this subtree reaches the area
+                    return false;
+                }
+                if (intersects(lo, mid, from, to, otherFrom, otherTo)) {
+                    return true;
+                }
+                if (this.starts[mid] >= to) {
+                    // the node and the right subtree start after the area
+                    return false;
+                }
+                if (this.ends[mid] > from
+                        && this.otherStarts[mid] < otherTo
+                        && this.otherEnds[mid] > otherFrom) {
+                    return true;
+                }
+                // continue with the right subtree
+                lo = mid + 1;
+            }
+            return false;
+        }
+
+        /**
+         * Checks if the intervals that contain the given position cover a
+         * contiguous range on the other axis whose length is at least the
+         * given length.
+         */
+        boolean isCovered(int position, int length) {
+            long[] found = new long[8];
+            int count = collect(0, this.starts.length, position, found, 0);
+            if (count < 0) {
+                // array was too small
+                found = new long[this.starts.length];
+                count = collect(0, this.starts.length, position, found, 0);
+            }
+            if (count == 0) {
+                return false;
+            }
+
+            RangeSet covered = RangeSet.merge(found, count);
+            return covered.starts.length == 1
+                    && covered.ends[0] - covered.starts[0] >= length;
+        }
+
+        /**
+         * Collects the packed other axis intervals of all intervals that
+         * contain the given position.
+         *
+         * @return The new number of collected intervals or -1 if the given
+         *         array is too small.
+         */
+        private int collect(int lo, int hi, int position, long[] found, int count) {
+            while (lo < hi && count >= 0) {
+                int mid = (lo + hi) >>> 1;
+                if (this.maxEnds[mid] <= position) {
+                    return count;
+                }
+                count = collect(lo, mid, position, found, count);
+                if (count < 0 || this.starts[mid] > position) {
+                    return count;
+                }
+                if (this.ends[mid] > position) {
+                    if (count == found.length) {
+                        return -1;
+                    }
+                    found[count++] = pack(this.otherStarts[mid], this.otherEnds[mid]);
+                }
+                lo = mid + 1;
+            }
+            return count;
+        }
+    }
+}
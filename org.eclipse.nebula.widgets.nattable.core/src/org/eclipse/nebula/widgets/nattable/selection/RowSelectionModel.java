@@ -376,7 +376,15 @@ public boolean isRowPositionFullySelected(int rowPosition, int rowWidth) {
         return isRowPositionSelected(rowPosition);
     }
 
-    private Serializable getRowIdByPosition(int rowPosition) {
+    /**
+     *
+     * @param rowPosition
+     *            The row position of the row whose id is requested.
+     * @return The id of the row object at the given row position or
+     *         <code>null</code> if there is no row object at that position.
+     * @since 2.1
+     */
+    protected Serializable getRowIdByPosition(int rowPosition) {
         R rowObject = getRowObjectByPosition(rowPosition);
         if (rowObject != null) {
             return this.rowIdAccessor.getRowId(rowObject);
@@ -384,7 +392,15 @@ private Serializable getRowIdByPosition(int rowPosition) {
         return null;
     }
 
-    private R getRowObjectByPosition(int rowPosition) {
+    /**
+     *
+     * @param rowPosition
+     *            The row position of the requested row object.
+     * @return The row object at the given row position or <code>null</code>
+     *         if there is no row object at that position.
+     * @since 2.1
+     */
+    protected R getRowObjectByPosition(int rowPosition) {
         this.selectionsLock.readLock().lock();
 
         try {
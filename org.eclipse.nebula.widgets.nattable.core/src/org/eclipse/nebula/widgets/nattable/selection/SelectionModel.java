@@ -226,6 +226,15 @@ public List<Rectangle> getSelections() {
         return this.selections;
     }
 
+    /**
+     * @return The lock that guards the access to the selection rectangles
+     *         returned by {@link #getSelections()}.
+     * @since 2.1
+     */
+    protected ReadWriteLock getSelectionsLock() {
+        return this.selectionsLock;
+    }
+
     // Cell features
 
     @Override
@@ -18,13 +18,14 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
 import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
@@ -708,7 +709,8 @@ public void handleLayerEvent(IStructuralChangeEvent event) {
                 // first handle deletion, then handle insert
                 // this is to avoid mixed operations that might lead to
                 // confusing indexes
-                List<Integer> removed = new ArrayList<>();
+                MutableIntList removed = IntLists.mutable.empty();
+                MutableIntList added = IntLists.mutable.empty();
                 for (StructuralDiff columnDiff : diffs) {
                     if (columnDiff.getDiffType() != null
                             && columnDiff.getDiffType().equals(DiffTypeEnum.DELETE)) {
@@ -722,29 +724,22 @@ public void handleLayerEvent(IStructuralChangeEvent event) {
                             }
                             removed.add(i);
                         }
-                    }
-                }
-                // now update still visible column selections
-                Collections.sort(removed);
-                int mod = 0;
-                for (int i : removed) {
-                    // ask for further column selections that need to be
-                    // modified
-                    this.selections.updateColumnsForRemoval(i - mod);
-                    mod++;
-                }
-
-                for (StructuralDiff columnDiff : diffs) {
-                    if (columnDiff.getDiffType() != null
+                    } else if (columnDiff.getDiffType() != null
                             && columnDiff.getDiffType().equals(DiffTypeEnum.ADD)) {
                         Range afterPositionRange = columnDiff.getAfterPositionRange();
                         for (int i = afterPositionRange.start; i < afterPositionRange.end; i++) {
-                            // ask for column selections that need to be
-                            // modified
-                            this.selections.updateColumnsForAddition(i);
+                            added.add(i);
                         }
                     }
                 }
+
+                // now update still visible column selections in one pass
+                if (!removed.isEmpty()) {
+                    this.selections.updateColumnsForRemoval(removed.toSortedArray());
+                }
+                if (!added.isEmpty()) {
+                    this.selections.updateColumnsForAddition(added.toSortedArray());
+                }
             }
         }
 
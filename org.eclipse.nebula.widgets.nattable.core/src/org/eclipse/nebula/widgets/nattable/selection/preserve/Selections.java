@@ -21,6 +21,7 @@
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.function.IntUnaryOperator;
 
 import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
 import org.eclipse.collections.api.set.primitive.MutableIntSet;
@@ -136,58 +137,86 @@ void deselectColumn(int columnPosition) {
         }
     }
 
-    void updateColumnsForRemoval(int columnPosition) {
-        // find maximum selected column
-        int maxColumn = this.selectedColumns.keySet().maxIfEmpty(0);
-
-        for (int i = columnPosition + 1; i <= maxColumn; i++) {
-            Column column = this.selectedColumns.get(i);
-            if (column != null) {
-                this.selectedColumns.put(i - 1, new Column(i - 1, column.getItems()));
-                this.selectedColumns.remove(i);
-
-                // also update the row references
-                for (Row<T> row : this.selectedRows.values()) {
-                    HashSet<Integer> toRemove = new HashSet<>();
-                    HashSet<Integer> toAdd = new HashSet<>();
-                    for (Integer col : row.getItems()) {
-                        if (col <= i) {
-                            toRemove.add(i);
-                            toAdd.add(i - 1);
-                        }
-                    }
-                    row.getItems().removeAll(toRemove);
-                    row.getItems().addAll(toAdd);
-                }
+    /**
+     * Updates the column positions of the selections after columns were
+     * removed. All removed columns are handled in one pass over the selected
+     * columns and rows.
+     *
+     * @param removedColumns
+     *            The sorted positions of the removed columns.
+     */
+    void updateColumnsForRemoval(int[] removedColumns) {
+        updateColumns(column -> column - countLower(removedColumns, column));
+    }
+
+    /**
+     * Updates the column positions of the selections after columns were added.
+     * All added columns are handled in one pass over the selected columns and
+     * rows.
+     *
+     * @param addedColumns
+     *            The sorted positions of the added columns after the addition.
+     */
+    void updateColumnsForAddition(int[] addedColumns) {
+        // a column is shifted by every added column whose position is lower
+        // or equal to the already shifted column position
+        int[] thresholds = new int[addedColumns.length];
+        for (int i = 0; i < addedColumns.length; i++) {
+            thresholds[i] = addedColumns[i] - i;
+        }
+        updateColumns(column -> column + countLower(thresholds, column + 1));
+    }
+
+    /**
+     * Moves all selected columns and the column references of the selected
+     * rows according to the given mapping.
+     *
+     * @param mapping
+     *            The mapping from the old to the new column position.
+     */
+    private void updateColumns(IntUnaryOperator mapping) {
+        MutableIntObjectMap<Column> columns = IntObjectMaps.mutable.empty();
+        // process the columns in ascending order so a column that is moved
+        // to the position of another column replaces it
+        for (int position : this.selectedColumns.keySet().toSortedArray()) {
+            int newPosition = mapping.applyAsInt(position);
+            columns.put(newPosition, new Column(newPosition, this.selectedColumns.get(position).getItems()));
+        }
+        this.selectedColumns = columns;
+
+        for (Row<T> row : this.selectedRows.values()) {
+            Collection<Integer> items = row.getItems();
+            ArrayList<Integer> modified = new ArrayList<>(items.size());
+            for (Integer column : items) {
+                modified.add(mapping.applyAsInt(column));
             }
+            items.clear();
+            items.addAll(modified);
         }
     }
 
-    void updateColumnsForAddition(int columnPosition) {
-        // find maximum selected column
-        int maxColumn = this.selectedColumns.keySet().maxIfEmpty(0);
-
-        for (int i = maxColumn; i >= columnPosition; i--) {
-            Column column = this.selectedColumns.get(i);
-            if (column != null) {
-                this.selectedColumns.put(i + 1, new Column(i + 1, column.getItems()));
-                this.selectedColumns.remove(i);
-
-                // also update the row references
-                for (Row<T> row : this.selectedRows.values()) {
-                    HashSet<Integer> toRemove = new HashSet<>();
-                    HashSet<Integer> toAdd = new HashSet<>();
-                    for (Integer col : row.getItems()) {
-                        if (col >= i) {
-                            toRemove.add(i);
-                            toAdd.add(i + 1);
-                        }
-                    }
-                    row.getItems().removeAll(toRemove);
-                    row.getItems().addAll(toAdd);
-                }
+    /**
+     * Counts the values in the given sorted array that are lower than the
+     * given value.
+     *
+     * @param sorted
+     *            The sorted values.
+     * @param value
+     *            The value to compare.
+     * @return The number of values that are lower than the given value.
+     */
+    private static int countLower(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
+        return low;
     }
 
     /**
@@ -76,36 +76,10 @@ public StyleProxy(
 
     @Override
     public <T> T getAttributeValue(ConfigAttribute<T> styleAttribute) {
-        T styleAttributeValue = null;
-        IDisplayModeOrdering displayModeOrdering = this.configRegistry.getDisplayModeOrdering();
-
-        for (DisplayMode displayMode : displayModeOrdering.getDisplayModeOrdering(this.targetDisplayMode)) {
-            for (String configLabel : this.configLabels) {
-                IStyle cellStyle = this.configRegistry.getSpecificConfigAttribute(
-                        this.styleConfigAttribute,
-                        displayMode,
-                        configLabel);
-                if (cellStyle != null) {
-                    styleAttributeValue = cellStyle.getAttributeValue(styleAttribute);
-                    if (styleAttributeValue != null) {
-                        return styleAttributeValue;
-                    }
-                }
-            }
-
-            // default
-            IStyle cellStyle = this.configRegistry.getSpecificConfigAttribute(
-                    this.styleConfigAttribute,
-                    displayMode,
-                    null);
-            if (cellStyle != null) {
-                styleAttributeValue = cellStyle.getAttributeValue(styleAttribute);
-                if (styleAttributeValue != null) {
-                    return styleAttributeValue;
-                }
-            }
-        }
-
-        return null;
+        return this.configRegistry.getStyleAttributeValue(
+                this.styleConfigAttribute,
+                styleAttribute,
+                this.targetDisplayMode,
+                this.configLabels);
     }
 }
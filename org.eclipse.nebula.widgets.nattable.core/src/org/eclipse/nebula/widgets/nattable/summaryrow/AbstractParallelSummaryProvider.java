@@ -0,0 +1,487 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IPrimitiveDataProvider;
+import org.eclipse.nebula.widgets.nattable.edit.event.DataUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ResizeStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralRefreshEvent;
+
+/**
+ * Base class for {@link ISummaryProvider} implementations that calculate the
+ * summary of a column on large data sets. The row range is split into chunks
+ * that are aggregated in parallel in a {@link ForkJoinPool}. The numeric values
+ * are accumulated into primitives in a {@link SummaryAggregate}, which is then
+ * transformed into the summary value by the concrete implementation.
+ * <p>
+ * Via {@link #enableIncrementalUpdates(ILayer)} the provider can be registered
+ * as {@link ILayerListener} on the {@link DataLayer} that wraps the
+ * {@link IDataProvider}. In that case the aggregates are kept and updated from
+ * the events instead of iterating over all rows again:
+ * </p>
+ * <ul>
+ * <li>{@link DataUpdateEvent} - the old value is replaced by the new value</li>
+ * <li>{@link RowInsertEvent} - the values of the inserted rows are added</li>
+ * </ul>
+ * <p>
+ * All other events that indicate a data change cause a new calculation on the
+ * next request, as they do not carry the previous values. For example a
+ * {@link CellVisualChangeEvent} causes a new calculation of the affected
+ * column, a row delete or a structural refresh without details, e.g. after
+ * filtering or sorting, causes a new calculation of all columns. Resize events
+ * keep the aggregates.
+ * </p>
+ * <p>
+ * If the {@link IDataProvider} is an {@link IPrimitiveDataProvider}, the
+ * values of numeric columns are aggregated without boxing.
+ * </p>
+ * <p>
+ * <b>Note:</b> The {@link IDataProvider} is accessed from multiple threads
+ * concurrently. This is fine for list based data providers as long as the list
+ * is not modified while the summary is calculated.
+ * </p>
+ *
+ * @see SummaryAggregate
+ * @since 2.1
+ */
+public abstract class AbstractParallelSummaryProvider implements ISummaryProvider, ILayerListener {
+
+    /**
+     * The default number of rows that are aggregated in one task.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 10000;
+
+    private final IDataProvider dataProvider;
+    private final boolean strict;
+    private final ForkJoinPool pool;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Flag to configure whether the aggregates should be kept and updated
+     * incrementally.
+     */
+    private volatile boolean incremental = false;
+
+    /**
+     * The aggregates per column index that are kept in incremental mode.
+     * Access needs to be synchronized on the map.
+     */
+    private final Map<Integer, SummaryAggregate> aggregates = new HashMap<>();
+
+    /**
+     * Counter that is increased on every change that invalidates the
+     * aggregates, so the results of calculations that were started before are
+     * not stored. Access needs to be synchronized on the aggregates map.
+     */
+    private long modificationCount = 0;
+
+    /**
+     * Create a new provider that uses the common {@link ForkJoinPool}.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            summary.
+     * @param strict
+     *            If strict is set to <code>true</code> and one or more of the
+     *            values in the column is not of type Number, then
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} will be
+     *            returned. If strict is set to <code>false</code>, the non
+     *            Number values are ignored.
+     */
+    public AbstractParallelSummaryProvider(IDataProvider dataProvider, boolean strict) {
+        this(dataProvider, strict, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new provider that uses the given {@link ForkJoinPool}.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            summary.
+     * @param strict
+     *            If strict is set to <code>true</code> and one or more of the
+     *            values in the column is not of type Number, then
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} will be
+     *            returned. If strict is set to <code>false</code>, the non
+     *            Number values are ignored.
+     * @param pool
+     *            The {@link ForkJoinPool} that should be used for the parallel
+     *            calculation.
+     */
+    public AbstractParallelSummaryProvider(IDataProvider dataProvider, boolean strict, ForkJoinPool pool) {
+        this.dataProvider = dataProvider;
+        this.strict = strict;
+        this.pool = pool;
+    }
+
+    @Override
+    public Object summarize(int columnIndex) {
+        SummaryAggregate aggregate = null;
+        long modification = 0;
+        if (this.incremental) {
+            synchronized (this.aggregates) {
+                aggregate = this.aggregates.get(columnIndex);
+                if (aggregate != null && isValid(aggregate)) {
+                    return getSummary(aggregate);
+                }
+                modification = this.modificationCount;
+            }
+        }
+
+        aggregate = calculateAggregate(columnIndex);
+
+        if (this.incremental) {
+            synchronized (this.aggregates) {
+                if (modification == this.modificationCount) {
+                    this.aggregates.put(columnIndex, aggregate);
+                }
+                return getSummary(aggregate);
+            }
+        }
+
+        return getSummary(aggregate);
+    }
+
+    /**
+     * Calculates the {@link SummaryAggregate} for the given column by
+     * iterating over all rows.
+     *
+     * @param columnIndex
+     *            The column index of the column to aggregate.
+     * @return The {@link SummaryAggregate} of the given column.
+     */
+    protected SummaryAggregate calculateAggregate(int columnIndex) {
+        int rowCount = this.dataProvider.getRowCount();
+        AggregateTask task = new AggregateTask(columnIndex, 0, rowCount);
+        if (rowCount <= this.chunkSize) {
+            // no need to involve other threads
+            return task.compute();
+        }
+        return this.pool.invoke(task);
+    }
+
+    /**
+     * Checks if the given kept aggregate can be used to calculate the summary.
+     *
+     * @param aggregate
+     *            The kept aggregate.
+     * @return <code>true</code> if the aggregate is up to date.
+     */
+    private boolean isValid(SummaryAggregate aggregate) {
+        return aggregate.getRowCount() == this.dataProvider.getRowCount()
+                && isAggregateValid(aggregate);
+    }
+
+    /**
+     * Transforms the given {@link SummaryAggregate} to the summary value.
+     * Implementations should respect the strict mode via {@link #isStrict()}.
+     *
+     * @param aggregate
+     *            The {@link SummaryAggregate} of the column to summarize.
+     * @return The summary value.
+     */
+    protected abstract Object getSummary(SummaryAggregate aggregate);
+
+    /**
+     * Checks if the given incrementally updated {@link SummaryAggregate}
+     * still contains the information needed to calculate the summary, e.g. the
+     * minimum is unknown after the minimum value was removed. If not, a new
+     * calculation is performed.
+     *
+     * @param aggregate
+     *            The incrementally updated {@link SummaryAggregate}.
+     * @return <code>true</code> if the summary can be calculated from the
+     *         given {@link SummaryAggregate}. Default is <code>true</code>.
+     */
+    protected boolean isAggregateValid(SummaryAggregate aggregate) {
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if the summary needs the distinct values, so
+     *         the {@link SummaryAggregate} needs to collect them. Default is
+     *         <code>false</code>.
+     */
+    protected boolean requiresDistinctValues() {
+        return false;
+    }
+
+    /**
+     * Enables the incremental mode by registering this provider as
+     * {@link ILayerListener} on the given layer. The given layer needs to be
+     * the {@link DataLayer} that wraps the {@link IDataProvider} of this
+     * provider, or a layer directly on top of it that does not transform
+     * positions, so positions in the events are equal to the indexes.
+     * <p>
+     * <b>Note:</b> Events are only propagated upwards. If list changes are
+     * fired by a layer on top of the {@link DataLayer}, e.g. the
+     * GlazedListsEventLayer, that layer needs to be passed here. Otherwise the
+     * list changes are not seen and the summaries get stale.
+     * </p>
+     *
+     * @param dataLayer
+     *            The {@link DataLayer} that wraps the {@link IDataProvider} of
+     *            this provider, or the event layer on top of it.
+     */
+    public void enableIncrementalUpdates(ILayer dataLayer) {
+        this.incremental = true;
+        dataLayer.addLayerListener(this);
+    }
+
+    /**
+     * Disables the incremental mode and removes this provider as
+     * {@link ILayerListener} from the given layer.
+     *
+     * @param dataLayer
+     *            The layer on which incremental updates were enabled before.
+     */
+    public void disableIncrementalUpdates(ILayer dataLayer) {
+        dataLayer.removeLayerListener(this);
+        this.incremental = false;
+        clearAggregates();
+    }
+
+    /**
+     * @return <code>true</code> if the aggregates are kept and updated
+     *         incrementally.
+     */
+    public boolean isIncremental() {
+        return this.incremental;
+    }
+
+    /**
+     * Removes all kept aggregates, so the summary values are calculated again
+     * on the next request.
+     */
+    public void clearAggregates() {
+        synchronized (this.aggregates) {
+            this.aggregates.clear();
+            this.modificationCount++;
+        }
+    }
+
+    @Override
+    public void handleLayerEvent(ILayerEvent event) {
+        if (!this.incremental || !(event instanceof IVisualChangeEvent)) {
+            return;
+        }
+
+        synchronized (this.aggregates) {
+            if (this.aggregates.isEmpty()) {
+                this.modificationCount++;
+                return;
+            }
+
+            if (event instanceof DataUpdateEvent) {
+                DataUpdateEvent updateEvent = (DataUpdateEvent) event;
+                SummaryAggregate aggregate = this.aggregates.get(updateEvent.getColumnPosition());
+                if (aggregate != null) {
+                    aggregate.update(updateEvent.getOldValue(), updateEvent.getNewValue());
+                } else {
+                    // a running calculation for the column might have read
+                    // the old value already
+                    this.modificationCount++;
+                }
+            } else if (event instanceof CellVisualChangeEvent) {
+                // the old value is unknown
+                this.aggregates.remove(((CellVisualChangeEvent) event).getColumnPosition());
+                this.modificationCount++;
+            } else if (event instanceof RowInsertEvent) {
+                for (Map.Entry<Integer, SummaryAggregate> entry : this.aggregates.entrySet()) {
+                    for (Range range : ((RowInsertEvent) event).getRowPositionRanges()) {
+                        for (int row = range.start; row < range.end; row++) {
+                            entry.getValue().add(this.dataProvider.getDataValue(entry.getKey(), row));
+                        }
+                    }
+                }
+                // running calculations for other columns might have missed
+                // the inserted rows
+                this.modificationCount++;
+            } else if (event instanceof IStructuralChangeEvent
+                    && isDataUnchanged((IStructuralChangeEvent) event)) {
+                return;
+            } else {
+                this.aggregates.clear();
+                this.modificationCount++;
+            }
+        }
+    }
+
+    /**
+     * Checks if the given {@link IStructuralChangeEvent} only changes the
+     * layout, e.g. a resize, so the kept aggregates are still valid. Events
+     * without diffs like a {@link StructuralRefreshEvent} or a
+     * {@link RowStructuralRefreshEvent} are fired on filter, sort or list
+     * changes without details and therefore are treated as data changes.
+     *
+     * @param event
+     *            The {@link IStructuralChangeEvent} to check.
+     * @return <code>true</code> if the event does not change the data.
+     */
+    private static boolean isDataUnchanged(IStructuralChangeEvent event) {
+        if (event instanceof ResizeStructuralRefreshEvent) {
+            return true;
+        }
+
+        Collection<StructuralDiff> rowDiffs = event.getRowDiffs();
+        Collection<StructuralDiff> columnDiffs = event.getColumnDiffs();
+        if (rowDiffs == null && columnDiffs == null) {
+            return false;
+        }
+        return containsOnlyChanges(rowDiffs) && containsOnlyChanges(columnDiffs);
+    }
+
+    /**
+     * @param diffs
+     *            The diffs of a structural change, can be <code>null</code>.
+     * @return <code>true</code> if the given diffs do not add or delete
+     *         positions.
+     */
+    private static boolean containsOnlyChanges(Collection<StructuralDiff> diffs) {
+        if (diffs != null) {
+            for (StructuralDiff diff : diffs) {
+                if (diff.getDiffType() != DiffTypeEnum.CHANGE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The {@link IDataProvider} that is used to calculate the summary.
+     */
+    protected IDataProvider getDataProvider() {
+        return this.dataProvider;
+    }
+
+    /**
+     * @return <code>true</code> if
+     *         {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} should be returned
+     *         if the column contains non Number values.
+     */
+    public boolean isStrict() {
+        return this.strict;
+    }
+
+    /**
+     * Checks if the given {@link SummaryAggregate} contains non Number values
+     * while this provider is configured to be strict.
+     *
+     * @param aggregate
+     *            The {@link SummaryAggregate} to check.
+     * @return <code>true</code> if
+     *         {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} should be returned.
+     */
+    protected boolean isStrictViolated(SummaryAggregate aggregate) {
+        return this.strict && aggregate.getNonNumericCount() > 0;
+    }
+
+    /**
+     * @return The number of rows that are aggregated in one task.
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * Configure the number of rows that are aggregated in one task. Columns
+     * with less rows are aggregated in the calling thread.
+     *
+     * @param chunkSize
+     *            The number of rows that are aggregated in one task. Needs to
+     *            be greater than 0.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize < 1"); //$NON-NLS-1$
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * {@link RecursiveTask} that aggregates a range of rows of a column by
+     * splitting the range until it is smaller than the chunk size.
+     */
+    private class AggregateTask extends RecursiveTask<SummaryAggregate> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int columnIndex;
+        private final int fromRow;
+        private final int toRow;
+
+        AggregateTask(int columnIndex, int fromRow, int toRow) {
+            this.columnIndex = columnIndex;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected SummaryAggregate compute() {
+            int length = this.toRow - this.fromRow;
+            if (length > AbstractParallelSummaryProvider.this.chunkSize) {
+                int middle = this.fromRow + length / 2;
+                AggregateTask first = new AggregateTask(this.columnIndex, this.fromRow, middle);
+                AggregateTask second = new AggregateTask(this.columnIndex, middle, this.toRow);
+                first.fork();
+                SummaryAggregate result = second.compute();
+                SummaryAggregate firstResult = first.join();
+                firstResult.merge(result);
+                return firstResult;
+            }
+
+            boolean distinct = requiresDistinctValues();
+            SummaryAggregate aggregate = new SummaryAggregate(distinct);
+            IDataProvider provider = AbstractParallelSummaryProvider.this.dataProvider;
+            if (!distinct
+                    && provider instanceof IPrimitiveDataProvider
+                    && ((IPrimitiveDataProvider) provider).isNumericColumn(this.columnIndex)) {
+                // aggregate the primitive values without boxing
+                IPrimitiveDataProvider primitiveProvider = (IPrimitiveDataProvider) provider;
+                for (int row = this.fromRow; row < this.toRow; row++) {
+                    if (primitiveProvider.isNull(this.columnIndex, row)) {
+                        aggregate.add(null);
+                    } else {
+                        aggregate.addNumber(primitiveProvider.getDouble(this.columnIndex, row));
+                    }
+                }
+            } else {
+                for (int row = this.fromRow; row < this.toRow; row++) {
+                    aggregate.add(provider.getDataValue(this.columnIndex, row));
+                }
+            }
+            return aggregate;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+
+/**
+ * {@link ISummaryProvider} that counts the values in a column that are of type
+ * Number in parallel and returns the count as Long value.
+ *
+ * @see AbstractParallelSummaryProvider
+ * @since 2.1
+ */
+public class ParallelCountSummaryProvider extends AbstractParallelSummaryProvider {
+
+    /**
+     * Create a new {@link ParallelCountSummaryProvider} that uses the common
+     * {@link ForkJoinPool}.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            count.
+     */
+    public ParallelCountSummaryProvider(IDataProvider dataProvider) {
+        super(dataProvider, false);
+    }
+
+    /**
+     * Create a new {@link ParallelCountSummaryProvider} that uses the given
+     * {@link ForkJoinPool}.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            count.
+     * @param pool
+     *            The {@link ForkJoinPool} that should be used for the parallel
+     *            calculation.
+     */
+    public ParallelCountSummaryProvider(IDataProvider dataProvider, ForkJoinPool pool) {
+        super(dataProvider, false, pool);
+    }
+
+    /**
+     * @return The number of Number values in the column as Long.
+     */
+    @Override
+    protected Object getSummary(SummaryAggregate aggregate) {
+        return aggregate.getCount();
+    }
+}
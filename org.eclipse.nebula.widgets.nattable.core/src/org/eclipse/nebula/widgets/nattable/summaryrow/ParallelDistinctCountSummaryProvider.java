@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+
+/**
+ * {@link ISummaryProvider} that counts the distinct non <code>null</code>
+ * values of any type in a column in parallel and returns the count as Integer
+ * value. Values are compared via equals and hashCode.
+ *
+ * @see AbstractParallelSummaryProvider
+ * @since 2.1
+ */
+public class ParallelDistinctCountSummaryProvider extends AbstractParallelSummaryProvider {
+
+    /**
+     * Create a new {@link ParallelDistinctCountSummaryProvider} that uses the common
+     * {@link ForkJoinPool}.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            distinct count.
+     */
+    public ParallelDistinctCountSummaryProvider(IDataProvider dataProvider) {
+        super(dataProvider, false);
+    }
+
+    /**
+     * Create a new {@link ParallelDistinctCountSummaryProvider} that uses the given
+     * {@link ForkJoinPool}.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            distinct count.
+     * @param pool
+     *            The {@link ForkJoinPool} that should be used for the parallel
+     *            calculation.
+     */
+    public ParallelDistinctCountSummaryProvider(IDataProvider dataProvider, ForkJoinPool pool) {
+        super(dataProvider, false, pool);
+    }
+
+    /**
+     * @return The number of distinct non <code>null</code> values in the column
+     *         as Integer.
+     */
+    @Override
+    protected Object getSummary(SummaryAggregate aggregate) {
+        return aggregate.getDistinctCount();
+    }
+
+    @Override
+    protected boolean requiresDistinctValues() {
+        return true;
+    }
+}
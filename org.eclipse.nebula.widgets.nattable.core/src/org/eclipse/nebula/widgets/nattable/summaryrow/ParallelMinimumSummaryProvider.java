@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+
+/**
+ * {@link ISummaryProvider} that calculates the minimum of all values in a
+ * column that are of type Number in parallel and returns it as Double value.
+ *
+ * @see AbstractParallelSummaryProvider
+ * @since 2.1
+ */
+public class ParallelMinimumSummaryProvider extends AbstractParallelSummaryProvider {
+
+    /**
+     * Create a new {@link ParallelMinimumSummaryProvider} that uses the common
+     * {@link ForkJoinPool}.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            minimum.
+     * @param strict
+     *            If strict is set to <code>true</code> and one or more of the
+     *            values in the column is not of type Number, then
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} will be
+     *            returned. If strict is set to <code>false</code>, the non
+     *            Number values are ignored.
+     */
+    public ParallelMinimumSummaryProvider(IDataProvider dataProvider, boolean strict) {
+        super(dataProvider, strict);
+    }
+
+    /**
+     * Create a new {@link ParallelMinimumSummaryProvider} that uses the given
+     * {@link ForkJoinPool}.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            minimum.
+     * @param strict
+     *            If strict is set to <code>true</code> and one or more of the
+     *            values in the column is not of type Number, then
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} will be
+     *            returned. If strict is set to <code>false</code>, the non
+     *            Number values are ignored.
+     * @param pool
+     *            The {@link ForkJoinPool} that should be used for the parallel
+     *            calculation.
+     */
+    public ParallelMinimumSummaryProvider(IDataProvider dataProvider, boolean strict, ForkJoinPool pool) {
+        super(dataProvider, strict, pool);
+    }
+
+    /**
+     * @return The minimum of all Number values in the column as Double or
+     *         {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} if the column
+     *         contains no Number values, or contains non Number values and this
+     *         provider is configured to be strict.
+     */
+    @Override
+    protected Object getSummary(SummaryAggregate aggregate) {
+        if (isStrictViolated(aggregate) || aggregate.getCount() == 0) {
+            return DEFAULT_SUMMARY_VALUE;
+        }
+        return aggregate.getMin();
+    }
+
+    @Override
+    protected boolean isAggregateValid(SummaryAggregate aggregate) {
+        return aggregate.isMinValid();
+    }
+}
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregate of the values of a column that is calculated by an
+ * {@link AbstractParallelSummaryProvider}. The numeric values are accumulated
+ * in primitive fields, so calculating the sum, minimum, maximum, average and
+ * count does not create intermediate objects.
+ * <p>
+ * An aggregate supports adding and removing values to be updated
+ * incrementally. The minimum and maximum can not be restored if the current
+ * minimum or maximum value is removed. In that case they are marked as invalid
+ * and a full calculation is needed to determine them.
+ * </p>
+ *
+ * @since 2.1
+ */
+public final class SummaryAggregate {
+
+    private final boolean collectDistinctValues;
+
+    private int rowCount;
+    private long count;
+    private long nonNumericCount;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private boolean minValid = true;
+    private boolean maxValid = true;
+
+    private Map<Object, int[]> distinctValues;
+
+    /**
+     *
+     * @param collectDistinctValues
+     *            <code>true</code> if the distinct values should be collected,
+     *            which is necessary to calculate the distinct count.
+     */
+    SummaryAggregate(boolean collectDistinctValues) {
+        this.collectDistinctValues = collectDistinctValues;
+        if (collectDistinctValues) {
+            this.distinctValues = new HashMap<>();
+        }
+    }
+
+    /**
+     * Adds the given value of an additional row to this aggregate.
+     *
+     * @param value
+     *            The value to add, can be <code>null</code>.
+     */
+    void add(Object value) {
+        if (value instanceof Number) {
+            addNumber(((Number) value).doubleValue());
+        } else {
+            this.rowCount++;
+            this.nonNumericCount++;
+        }
+
+        if (this.collectDistinctValues && value != null) {
+            int[] occurrences = this.distinctValues.get(value);
+            if (occurrences == null) {
+                this.distinctValues.put(value, new int[] { 1 });
+            } else {
+                occurrences[0]++;
+            }
+        }
+    }
+
+    /**
+     * Adds the given numeric value of an additional row to this aggregate
+     * without boxing. Does not collect the value as distinct value, so it
+     * should only be used if {@link #add(Object)} does not need to collect
+     * distinct values.
+     *
+     * @param value
+     *            The numeric value to add.
+     */
+    void addNumber(double value) {
+        this.rowCount++;
+        this.count++;
+        this.sum += value;
+        if (value < this.min) {
+            this.min = value;
+        }
+        if (value > this.max) {
+            this.max = value;
+        }
+    }
+
+    /**
+     * Removes the given value of a removed row from this aggregate.
+     *
+     * @param value
+     *            The value to remove, can be <code>null</code>.
+     */
+    void remove(Object value) {
+        this.rowCount--;
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            this.count--;
+            this.sum -= d;
+            // the previous bound is unknown if the bound is removed
+            if (d <= this.min) {
+                this.minValid = false;
+            }
+            if (d >= this.max) {
+                this.maxValid = false;
+            }
+        } else {
+            this.nonNumericCount--;
+        }
+
+        if (this.collectDistinctValues && value != null) {
+            int[] occurrences = this.distinctValues.get(value);
+            if (occurrences != null && --occurrences[0] <= 0) {
+                this.distinctValues.remove(value);
+            }
+        }
+    }
+
+    /**
+     * Replaces the given old value with the given new value, e.g. because a
+     * cell value was updated.
+     *
+     * @param oldValue
+     *            The previous value, can be <code>null</code>.
+     * @param newValue
+     *            The new value, can be <code>null</code>.
+     */
+    void update(Object oldValue, Object newValue) {
+        remove(oldValue);
+        add(newValue);
+    }
+
+    /**
+     * Merges the values of the given aggregate into this aggregate. Used to
+     * combine the results of the parallel calculation.
+     *
+     * @param other
+     *            The aggregate to merge.
+     */
+    void merge(SummaryAggregate other) {
+        this.rowCount += other.rowCount;
+        this.count += other.count;
+        this.nonNumericCount += other.nonNumericCount;
+        this.sum += other.sum;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+        this.minValid &= other.minValid;
+        this.maxValid &= other.maxValid;
+
+        if (this.collectDistinctValues) {
+            for (Map.Entry<Object, int[]> entry : other.distinctValues.entrySet()) {
+                int[] occurrences = this.distinctValues.get(entry.getKey());
+                if (occurrences == null) {
+                    this.distinctValues.put(entry.getKey(), entry.getValue());
+                } else {
+                    occurrences[0] += entry.getValue()[0];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of rows whose values are aggregated.
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return The number of values that are of type {@link Number}.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return The number of values that are not of type {@link Number},
+     *         including <code>null</code> values.
+     */
+    public long getNonNumericCount() {
+        return this.nonNumericCount;
+    }
+
+    /**
+     * @return The sum of all values that are of type {@link Number}.
+     */
+    public double getSum() {
+        return this.sum;
+    }
+
+    /**
+     * @return The smallest value of type {@link Number} or
+     *         {@link Double#POSITIVE_INFINITY} if there is no such value. Only
+     *         valid if {@link #isMinValid()} returns <code>true</code>.
+     */
+    public double getMin() {
+        return this.min;
+    }
+
+    /**
+     * @return The largest value of type {@link Number} or
+     *         {@link Double#NEGATIVE_INFINITY} if there is no such value. Only
+     *         valid if {@link #isMaxValid()} returns <code>true</code>.
+     */
+    public double getMax() {
+        return this.max;
+    }
+
+    /**
+     * @return <code>false</code> if the minimum value was removed and therefore
+     *         the minimum is not known anymore.
+     */
+    public boolean isMinValid() {
+        return this.minValid;
+    }
+
+    /**
+     * @return <code>false</code> if the maximum value was removed and therefore
+     *         the maximum is not known anymore.
+     */
+    public boolean isMaxValid() {
+        return this.maxValid;
+    }
+
+    /**
+     * @return The number of distinct non <code>null</code> values, or -1 if
+     *         the distinct values are not collected.
+     */
+    public int getDistinctCount() {
+        return this.collectDistinctValues ? this.distinctValues.size() : -1;
+    }
+}
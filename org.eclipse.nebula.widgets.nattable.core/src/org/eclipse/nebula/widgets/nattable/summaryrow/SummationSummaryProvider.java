@@ -13,6 +13,7 @@
 package org.eclipse.nebula.widgets.nattable.summaryrow;
 
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IPrimitiveDataProvider;
 
 /**
  * Implementation of ISummaryProvider that summarizes all values in a column if
@@ -83,6 +84,20 @@ public Object summarize(int columnIndex) {
         int rowCount = this.dataProvider.getRowCount();
         double summaryValue = 0;
 
+        if (this.dataProvider instanceof IPrimitiveDataProvider
+                && ((IPrimitiveDataProvider) this.dataProvider).isNumericColumn(columnIndex)) {
+            // sum up the primitive values without boxing
+            IPrimitiveDataProvider primitiveProvider = (IPrimitiveDataProvider) this.dataProvider;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                if (!primitiveProvider.isNull(columnIndex, rowIndex)) {
+                    summaryValue += primitiveProvider.getDouble(columnIndex, rowIndex);
+                } else if (this.strict) {
+                    return DEFAULT_SUMMARY_VALUE;
+                }
+            }
+            return summaryValue;
+        }
+
         for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
             Object dataValue = this.dataProvider.getDataValue(columnIndex, rowIndex);
 
@@ -0,0 +1,380 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.tree;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.factory.primitive.IntSets;
+
+/**
+ * Implementation of {@link ITreeRowModel} that is used to perform
+ * expand/collapse operations using the approach of hiding and showing rows,
+ * optimized for trees with a huge number of nodes.
+ * <p>
+ * In contrast to the {@link TreeRowModel} this implementation requires that the
+ * elements of the {@link ITreeData} are ordered in depth-first pre-order, i.e.
+ * every node is directly followed by all of its descendants. This way the
+ * descendants of a node are identified by a contiguous index range that is
+ * calculated lazily out of the depth of the nodes, without searching child
+ * elements via {@link ITreeData#indexOf(Object)}. The collapsed state is stored
+ * in a primitive collection.
+ * </p>
+ * <p>
+ * The expand and collapse operations only return the indexes of the rows that
+ * actually change their visibility. Rows inside a collapsed sub-tree are
+ * skipped, so the effort of an operation is proportional to the number of rows
+ * that become visible or invisible, and not to the size of the affected
+ * sub-tree.
+ * </p>
+ * <p>
+ * The calculated descendant ranges are discarded by the {@link TreeLayer} on
+ * every structural change of the rows, e.g. on list changes or sorting. If the
+ * model is used without a {@link TreeLayer}, {@link #resetSubtreeRanges()}
+ * needs to be called if the structure of the tree changes without changing
+ * the number of elements.
+ * </p>
+ *
+ * @param <T>
+ *            The type of the elements in the tree
+ *
+ * @since 2.1
+ */
+public class PrimitiveTreeRowModel<T> extends AbstractTreeRowModel<T> {
+
+    /**
+     * The indexes of the collapsed tree nodes.
+     */
+    protected final MutableIntSet collapsedIndexes = IntSets.mutable.empty();
+
+    /**
+     * The exclusive end index of the sub-tree for every node. A value of 0
+     * means that the end index is not calculated yet, as a sub-tree always
+     * ends after the index of its root node.
+     */
+    private int[] subtreeEnds = new int[0];
+
+    public PrimitiveTreeRowModel(ITreeData<T> treeData) {
+        super(treeData);
+    }
+
+    /**
+     * Discards the calculated descendant ranges. Called by the
+     * {@link TreeLayer} on every structural change of the rows. Needs to be
+     * called manually if the model is used without a {@link TreeLayer} and
+     * the structure of the underlying {@link ITreeData} changed without
+     * changing the number of elements, e.g. after sorting.
+     */
+    public void resetSubtreeRanges() {
+        this.subtreeEnds = new int[0];
+    }
+
+    /**
+     * Returns the exclusive end index of the sub-tree that has the node at the
+     * given index as root. All indexes between the given index and the
+     * returned index are descendants of the given node.
+     *
+     * @param index
+     *            The index of the node whose sub-tree end is requested.
+     * @return The exclusive end index of the sub-tree of the given node.
+     */
+    public int getSubtreeEnd(int index) {
+        int count = getTreeData().getElementCount();
+        if (this.subtreeEnds.length != count) {
+            this.subtreeEnds = new int[count];
+        }
+        if (index < 0 || index >= count) {
+            return index + 1;
+        }
+        if (this.subtreeEnds[index] == 0) {
+            calculateSubtreeEnd(index, count);
+        }
+        return this.subtreeEnds[index];
+    }
+
+    /**
+     * Calculates the sub-tree end of the given node and all of its descendants
+     * that need to be inspected for that. Uses an explicit stack instead of
+     * recursion to support deep trees. Already calculated sub-tree ends are
+     * used to skip the inspection of the corresponding sub-trees.
+     *
+     * @param index
+     *            The index of the node whose sub-tree end should be
+     *            calculated.
+     * @param count
+     *            The number of elements in the tree.
+     */
+    private void calculateSubtreeEnd(int index, int count) {
+        int[] ends = this.subtreeEnds;
+        MutableIntList nodes = IntLists.mutable.with(index);
+        MutableIntList depths = IntLists.mutable.with(depth(index));
+        int cursor = index + 1;
+        while (!nodes.isEmpty()) {
+            int last = nodes.size() - 1;
+            if (cursor < count && depth(cursor) > depths.get(last)) {
+                if (ends[cursor] != 0) {
+                    cursor = ends[cursor];
+                } else {
+                    nodes.add(cursor);
+                    depths.add(depth(cursor));
+                    cursor++;
+                }
+            } else {
+                ends[nodes.removeAtIndex(last)] = cursor;
+                depths.removeAtIndex(last);
+            }
+        }
+    }
+
+    @Override
+    public boolean isCollapsed(int index) {
+        return this.collapsedIndexes.contains(index);
+    }
+
+    @Override
+    public List<Integer> collapse(int index) {
+        MutableIntList hidden = IntLists.mutable.empty();
+        internalCollapse(index, hidden);
+        notifyListeners();
+        return new IndexList(hidden);
+    }
+
+    /**
+     * Performs the collapse operation without notifying the listeners while
+     * processing.
+     *
+     * @param index
+     *            The index of the node in the collection that should be
+     *            collapsed.
+     * @param hidden
+     *            The list to which the indexes of the rows are added that
+     *            become invisible by performing the collapse operation.
+     */
+    protected void internalCollapse(int index, MutableIntList hidden) {
+        if (this.collapsedIndexes.add(index)) {
+            collectVisibleDescendants(index, hidden);
+        }
+    }
+
+    @Override
+    public List<Integer> collapseAll() {
+        int count = getTreeData().getElementCount();
+        MutableIntList hidden = IntLists.mutable.empty();
+
+        // rows before hiddenEnd are hidden by a collapsed node, rows before
+        // subtreeEnd are part of a sub-tree and therefore hidden after the
+        // operation
+        int hiddenEnd = 0;
+        int subtreeEnd = 0;
+        for (int i = 0; i < count; i++) {
+            boolean wasVisible = i >= hiddenEnd;
+            if (i < subtreeEnd) {
+                if (wasVisible) {
+                    hidden.add(i);
+                }
+            } else {
+                subtreeEnd = getSubtreeEnd(i);
+            }
+
+            if (wasVisible && isCollapsed(i)) {
+                hiddenEnd = getSubtreeEnd(i);
+            }
+            if (hasChildren(i)) {
+                this.collapsedIndexes.add(i);
+            }
+        }
+
+        notifyListeners();
+        return new IndexList(hidden);
+    }
+
+    @Override
+    public List<Integer> expand(int index) {
+        List<Integer> children = expandNodes(new int[] { index });
+        notifyListeners();
+        return children;
+    }
+
+    @Override
+    public List<Integer> expandAll() {
+        int[] collapsed = this.collapsedIndexes.toSortedArray();
+        this.collapsedIndexes.clear();
+
+        MutableIntList shown = IntLists.mutable.empty();
+        int coveredEnd = 0;
+        for (int index : collapsed) {
+            if (index >= coveredEnd) {
+                // all descendants of the outermost collapsed nodes become
+                // visible
+                coveredEnd = getSubtreeEnd(index);
+                for (int i = index + 1; i < coveredEnd; i++) {
+                    shown.add(i);
+                }
+            }
+        }
+
+        notifyListeners();
+        return new IndexList(shown);
+    }
+
+    @Override
+    public List<Integer> expandToLevel(int level) {
+        int[] toExpand = this.collapsedIndexes
+                .select(index -> depth(index) <= (level - 1))
+                .toSortedArray();
+        List<Integer> children = expandNodes(toExpand);
+        notifyListeners();
+        return children;
+    }
+
+    @Override
+    public List<Integer> expandToLevel(int parentIndex, int level) {
+        List<Integer> children = Collections.emptyList();
+        if (depth(parentIndex) <= (level - 1)) {
+            int end = getSubtreeEnd(parentIndex);
+            int[] toExpand = this.collapsedIndexes
+                    .select(index -> index >= parentIndex
+                            && index < end
+                            && depth(index) <= (level - 1))
+                    .toSortedArray();
+            children = expandNodes(toExpand);
+        }
+        notifyListeners();
+        return children;
+    }
+
+    /**
+     * Expands the given nodes without notifying the listeners.
+     *
+     * @param sortedIndexes
+     *            The indexes of the nodes to expand in ascending order.
+     * @return The indexes of the rows that become visible by performing the
+     *         expand operation, in ascending order.
+     */
+    protected List<Integer> expandNodes(int[] sortedIndexes) {
+        MutableIntList expanded = IntLists.mutable.empty();
+        for (int index : sortedIndexes) {
+            if (this.collapsedIndexes.remove(index)) {
+                expanded.add(index);
+            }
+        }
+
+        MutableIntList shown = IntLists.mutable.empty();
+        int coveredEnd = 0;
+        for (int i = 0; i < expanded.size(); i++) {
+            int index = expanded.get(i);
+            // nodes inside the sub-tree of a previously expanded node are
+            // already handled by the previous collect
+            if (index >= coveredEnd) {
+                collectVisibleDescendants(index, shown);
+                coveredEnd = getSubtreeEnd(index);
+            }
+        }
+        return new IndexList(shown);
+    }
+
+    /**
+     * Collects the descendants of the given node that are not hidden by a
+     * collapsed node inside the sub-tree. Skips the sub-trees of collapsed
+     * nodes, so the effort is proportional to the number of collected rows.
+     *
+     * @param index
+     *            The index of the node whose visible descendants should be
+     *            collected.
+     * @param result
+     *            The list to which the collected indexes are added in
+     *            ascending order.
+     */
+    protected void collectVisibleDescendants(int index, MutableIntList result) {
+        int end = getSubtreeEnd(index);
+        int i = index + 1;
+        while (i < end) {
+            result.add(i);
+            i = isCollapsed(i) ? getSubtreeEnd(i) : i + 1;
+        }
+    }
+
+    @Override
+    public List<Integer> getChildIndexes(int parentIndex) {
+        return new IndexRangeList(parentIndex + 1, getSubtreeEnd(parentIndex));
+    }
+
+    @Override
+    public List<Integer> getDirectChildIndexes(int parentIndex) {
+        MutableIntList children = IntLists.mutable.empty();
+        int end = getSubtreeEnd(parentIndex);
+        int i = parentIndex + 1;
+        while (i < end) {
+            children.add(i);
+            i = getSubtreeEnd(i);
+        }
+        return new IndexList(children);
+    }
+
+    /**
+     * Read-only {@link List} view on a primitive {@link IntList}. The values
+     * are only boxed on access.
+     */
+    private static class IndexList extends AbstractList<Integer> implements RandomAccess {
+
+        private final IntList indexes;
+
+        IndexList(IntList indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return this.indexes.get(index);
+        }
+
+        @Override
+        public int size() {
+            return this.indexes.size();
+        }
+    }
+
+    /**
+     * Read-only {@link List} view on a contiguous range of indexes. The values
+     * are only boxed on access.
+     */
+    private static class IndexRangeList extends AbstractList<Integer> implements RandomAccess {
+
+        private final int start;
+        private final int end;
+
+        IndexRangeList(int start, int end) {
+            this.start = start;
+            this.end = Math.max(start, end);
+        }
+
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return this.start + index;
+        }
+
+        @Override
+        public int size() {
+            return this.end - this.start;
+        }
+    }
+}
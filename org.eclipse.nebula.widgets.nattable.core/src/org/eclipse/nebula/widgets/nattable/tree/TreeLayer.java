@@ -30,6 +30,8 @@
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.painter.cell.BackgroundPainter;
 import org.eclipse.nebula.widgets.nattable.painter.cell.CellPainterWrapper;
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
@@ -187,6 +189,18 @@ public TreeLayer(
         registerCommandHandler(new TreeExpandToLevelCommandHandler(this));
     }
 
+    @Override
+    public void handleLayerEvent(ILayerEvent event) {
+        // the calculated sub-tree ranges are based on the structure of the
+        // tree data, which might be changed with every change of the rows
+        if (this.treeRowModel instanceof PrimitiveTreeRowModel
+                && event instanceof IStructuralChangeEvent
+                && ((IStructuralChangeEvent) event).isVerticalStructureChanged()) {
+            ((PrimitiveTreeRowModel<?>) this.treeRowModel).resetSubtreeRanges();
+        }
+        super.handleLayerEvent(event);
+    }
+
     @Override
     public LabelStack getConfigLabelsByPosition(int columnPosition, int rowPosition) {
         LabelStack configLabels = super.getConfigLabelsByPosition(columnPosition, rowPosition);
@@ -11,18 +11,24 @@
  *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
  *    Roman Flueckiger <roman.flueckiger@mac.com - switched to concurrent hash maps to prevent a concurrency issue
  *    Dirk Fauth <dirk.fauth@googlemail.com> - Bug 459246
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - in-flight de-duplication and event batching
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - shared calculation scheduler
  *******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.util;
 
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
 
+import org.eclipse.nebula.widgets.nattable.conflation.EventConflaterChain;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This class is intended as a value cache that is able to perform calculations
@@ -34,9 +40,35 @@
  * {@link ICalculatedValueCacheKey} as the key for the value cache. Usually the
  * internal default implementations for column or row position, or the
  * column-row coordinates should fit most of the use cases.
+ * <p>
+ * There is at most one background calculation per key in progress. Requesting
+ * a value for a key whose calculation is still running will not trigger
+ * another calculation. Clearing the cache cancels calculations that are not
+ * started yet and discards the results of calculations that are still running,
+ * as they are based on stale data.
+ * <p>
+ * The update events for finished background calculations are batched. Instead
+ * of firing a {@link CellVisualChangeEvent} for every calculated value, a
+ * single event is fired per refresh interval. If more than one value changed
+ * within that interval, a {@link VisualRefreshEvent} is fired.
+ * <p>
+ * The background calculations are executed by an
+ * {@link ICalculationScheduler}. By default all CalculatedValueCache instances
+ * share the scheduler returned by {@link CalculationScheduler#getDefault()}, so
+ * the number of calculation threads is limited for the whole application.
  */
 public class CalculatedValueCache implements ICalculatedValueCache {
 
+    private static final Logger LOG = LoggerFactory.getLogger(CalculatedValueCache.class);
+
+    /**
+     * The default interval in milliseconds in which update events for finished
+     * background calculations are fired.
+     *
+     * @since 2.1
+     */
+    public static final long DEFAULT_REFRESH_INTERVAL = EventConflaterChain.DEFAULT_REFRESH_INTERVAL;
+
     /**
      * The ILayer this value cache is connected to. Needed to perform cell
      * update events when background calculation processes are finished.
@@ -44,10 +76,17 @@ public class CalculatedValueCache implements ICalculatedValueCache {
     private ILayer layer;
 
     /**
-     * ExecutorService that is used to create background threads to process
-     * calculations.
+     * The {@link ICalculationScheduler} that is used to execute the
+     * calculations in background threads and to fire the batched update
+     * events.
+     */
+    private ICalculationScheduler calculationScheduler;
+
+    /**
+     * The priority that is used for background calculations triggered by this
+     * cache.
      */
-    private ExecutorService executor;
+    private int calculationPriority = ICalculationScheduler.PRIORITY_VISIBLE;
 
     /**
      * Cache that contains the calculated values. Introduced for performance
@@ -97,6 +136,60 @@ public class CalculatedValueCache implements ICalculatedValueCache {
      */
     private final boolean smoothUpdates;
 
+    /**
+     * The background calculations that are currently pending or running per
+     * cache key. Used to ensure that there is only one calculation per key
+     * in progress.
+     */
+    private final Map<ICalculatedValueCacheKey, CalculationTask> pendingCalculations = new ConcurrentHashMap<>();
+
+    /**
+     * Counter that is increased every time the cache is cleared. Used to
+     * identify results of calculations that were started before the cache was
+     * cleared and are therefore outdated.
+     */
+    private volatile int cacheGeneration = 0;
+
+    /**
+     * Lock object to synchronize clearing the cache with adding results of
+     * background calculations, so outdated results are not added after the
+     * cache was cleared.
+     */
+    private final Object cacheLock = new Object();
+
+    /**
+     * The interval in milliseconds in which update events for finished
+     * background calculations are fired.
+     */
+    private long refreshInterval = DEFAULT_REFRESH_INTERVAL;
+
+    /**
+     * Lock object to synchronize the collection of changed cells for the
+     * batched update event.
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * The number of cells whose value changed since the last update event.
+     */
+    private int changedCellCount = 0;
+
+    /**
+     * The column position of the first changed cell since the last update
+     * event.
+     */
+    private int changedColumnPosition;
+
+    /**
+     * The row position of the first changed cell since the last update event.
+     */
+    private int changedRowPosition;
+
+    /**
+     * The scheduled task that fires the next batched update event.
+     */
+    private ScheduledFuture<?> refreshFuture;
+
     /**
      * Creates a new CalculatedValueCache for the specified layer that performs
      * smooth updates of the calculated values.
@@ -150,15 +243,7 @@ public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRow
      */
     public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRowAsKey, boolean smoothUpdates) {
         this.layer = layer;
-        this.executor = new ThreadPoolExecutor(
-                Runtime.getRuntime().availableProcessors() + 1,
-                Runtime.getRuntime().availableProcessors() + 1,
-                5000,
-                TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<>());
-
-        ((ThreadPoolExecutor) this.executor).allowCoreThreadTimeOut(true);
-
+        this.calculationScheduler = CalculationScheduler.getDefault();
         this.useColumnAsKey = useColumnAsKey;
         this.useRowAsKey = useRowAsKey;
         this.smoothUpdates = smoothUpdates;
@@ -168,21 +253,34 @@ public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRow
     public Object getCalculatedValue(final int columnPosition, final int rowPosition,
             boolean calculateInBackground, final ICalculator calculator) {
 
-        ICalculatedValueCacheKey key = null;
+        return getCalculatedValue(columnPosition, rowPosition, createKey(columnPosition, rowPosition),
+                calculateInBackground, calculator);
+    }
+
+    /**
+     * Creates the {@link ICalculatedValueCacheKey} for the given coordinates
+     * dependent on the key configuration of this cache.
+     *
+     * @param columnPosition
+     *            The column position of the cell.
+     * @param rowPosition
+     *            The row position of the cell.
+     * @return The {@link ICalculatedValueCacheKey} for the given coordinates.
+     * @throws IllegalStateException
+     *             if this cache is configured to not use column or row
+     *             position as key.
+     */
+    private ICalculatedValueCacheKey createKey(int columnPosition, int rowPosition) {
         if (this.useColumnAsKey && this.useRowAsKey) {
-            key = new CoordinateValueCacheKey(columnPosition, rowPosition);
+            return new CoordinateValueCacheKey(columnPosition, rowPosition);
         } else if (this.useColumnAsKey && !this.useRowAsKey) {
-            key = new PositionValueCacheKey(columnPosition);
+            return new PositionValueCacheKey(columnPosition);
         } else if (!this.useColumnAsKey && this.useRowAsKey) {
-            key = new PositionValueCacheKey(rowPosition);
-        } else {
-            throw new IllegalStateException(
-                    "CalculatedValueCacheKey is configured to not use column or row position. " //$NON-NLS-1$
-                            + "Use getCalculatedValue() with ICalculatedValueCacheKey parameter instead."); //$NON-NLS-1$
+            return new PositionValueCacheKey(rowPosition);
         }
-
-        return getCalculatedValue(columnPosition, rowPosition, key,
-                calculateInBackground, calculator);
+        throw new IllegalStateException(
+                "CalculatedValueCacheKey is configured to not use column or row position. " //$NON-NLS-1$
+                        + "Use getCalculatedValue() with ICalculatedValueCacheKey parameter instead."); //$NON-NLS-1$
     }
 
     @Override
@@ -208,18 +306,15 @@ public Object getCalculatedValue(final int columnPosition, final int rowPosition
                     result = null;
                 }
 
-                this.executor.execute(() -> {
-                    Object summaryValue = calculator.executeCalculation();
-                    addToCache(key, summaryValue);
-
-                    // only fire an update event if the new calculated value
-                    // is different to the value in the cache copy
-                    if (!cacheValuesEqual(summaryValue, cacheCopyValue)
-                            && CalculatedValueCache.this.layer != null) {
-                        CalculatedValueCache.this.layer.fireLayerEvent(new CellVisualChangeEvent(
-                                CalculatedValueCache.this.layer, columnPosition, rowPosition));
+                // only start a new calculation if there is no calculation for
+                // the key in progress
+                if (!this.pendingCalculations.containsKey(key)) {
+                    CalculationTask task = new CalculationTask(
+                            key, columnPosition, rowPosition, calculator, cacheCopyValue, this.cacheGeneration);
+                    if (this.pendingCalculations.putIfAbsent(key, task) == null) {
+                        this.calculationScheduler.execute(task, this.calculationPriority);
                     }
-                });
+                }
             }
         } else {
             // Execute the calculation in the same thread to make printing and
@@ -235,13 +330,220 @@ public Object getCalculatedValue(final int columnPosition, final int rowPosition
 
     @Override
     public void clearCache() {
-        this.cache.clear();
+        synchronized (this.cacheLock) {
+            cancelPendingCalculations(false);
+            this.cache.clear();
+        }
+    }
+
+    /**
+     * Clears the cached value for the given coordinates, so it gets
+     * recalculated on the next access. A calculation for these coordinates
+     * that is currently in progress is cancelled. In contrast to
+     * {@link #clearCache()} the cached values of all other cells are kept.
+     * If smooth updates are enabled, the previous calculated value is
+     * returned until the recalculation is finished.
+     *
+     * @param columnPosition
+     *            The column position of the cell whose cached value should be
+     *            cleared.
+     * @param rowPosition
+     *            The row position of the cell whose cached value should be
+     *            cleared.
+     * @throws IllegalStateException
+     *             if this cache is configured to not use column or row
+     *             position as key.
+     *
+     * @since 2.1
+     */
+    public void clearCache(int columnPosition, int rowPosition) {
+        clearCache(createKey(columnPosition, rowPosition));
+    }
+
+    /**
+     * Clears the cached value for the given key, so it gets recalculated on
+     * the next access. A calculation for the key that is currently in progress
+     * is cancelled. In contrast to {@link #clearCache()} the cached values of
+     * all other keys are kept.
+     *
+     * @param key
+     *            The key whose cached value should be cleared.
+     *
+     * @since 2.1
+     */
+    public void clearCache(ICalculatedValueCacheKey key) {
+        synchronized (this.cacheLock) {
+            CalculationTask task = this.pendingCalculations.remove(key);
+            if (task != null) {
+                task.outdated = true;
+                task.cancel(false);
+            }
+            this.cache.remove(key);
+        }
     }
 
     @Override
     public void killCache() {
-        this.cache.clear();
-        this.cacheCopy.clear();
+        synchronized (this.cacheLock) {
+            cancelPendingCalculations(false);
+            this.cache.clear();
+            this.cacheCopy.clear();
+        }
+    }
+
+    /**
+     * Cancels all background calculations that are not started yet and marks
+     * the results of currently running calculations as outdated, so they are
+     * not added to the cache.
+     *
+     * @param interrupt
+     *            <code>true</code> if the threads of running calculations
+     *            should be interrupted.
+     */
+    private void cancelPendingCalculations(boolean interrupt) {
+        synchronized (this.cacheLock) {
+            this.cacheGeneration++;
+        }
+        for (CalculationTask task : this.pendingCalculations.values()) {
+            task.cancel(interrupt);
+        }
+        this.pendingCalculations.clear();
+    }
+
+    /**
+     * Remember that the value of the given cell changed and schedule the
+     * batched update event if necessary.
+     *
+     * @param columnPosition
+     *            The column position of the cell whose value changed.
+     * @param rowPosition
+     *            The row position of the cell whose value changed.
+     */
+    private void cellValueChanged(int columnPosition, int rowPosition) {
+        if (this.refreshInterval <= 0) {
+            ILayer l = this.layer;
+            if (l != null) {
+                l.fireLayerEvent(new CellVisualChangeEvent(l, columnPosition, rowPosition));
+            }
+            return;
+        }
+
+        synchronized (this.refreshLock) {
+            if (this.changedCellCount == 0) {
+                this.changedColumnPosition = columnPosition;
+                this.changedRowPosition = rowPosition;
+                this.refreshFuture = this.calculationScheduler.schedule(
+                        this::fireRefreshEvent, this.refreshInterval);
+            }
+            this.changedCellCount++;
+        }
+    }
+
+    /**
+     * Fires a single update event for all cells whose values changed since the
+     * last update event.
+     */
+    private void fireRefreshEvent() {
+        int count;
+        int columnPosition;
+        int rowPosition;
+        synchronized (this.refreshLock) {
+            count = this.changedCellCount;
+            columnPosition = this.changedColumnPosition;
+            rowPosition = this.changedRowPosition;
+            this.changedCellCount = 0;
+            this.refreshFuture = null;
+        }
+
+        ILayer l = this.layer;
+        if (count > 0 && l != null) {
+            if (count == 1) {
+                l.fireLayerEvent(new CellVisualChangeEvent(l, columnPosition, rowPosition));
+            } else {
+                l.fireLayerEvent(new VisualRefreshEvent(l));
+            }
+        }
+    }
+
+    /**
+     *
+     * @return The interval in milliseconds in which update events for finished
+     *         background calculations are fired.
+     *
+     * @since 2.1
+     */
+    public long getRefreshInterval() {
+        return this.refreshInterval;
+    }
+
+    /**
+     * Configure the interval in milliseconds in which update events for
+     * finished background calculations are fired. Setting a value less or
+     * equal to 0 disables the batching, so an update event is fired for every
+     * finished background calculation.
+     *
+     * @param refreshInterval
+     *            The interval in milliseconds in which update events for
+     *            finished background calculations are fired.
+     *
+     * @since 2.1
+     */
+    public void setRefreshInterval(long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     *
+     * @return The {@link ICalculationScheduler} that is used to execute the
+     *         background calculations.
+     *
+     * @since 2.1
+     */
+    public ICalculationScheduler getCalculationScheduler() {
+        return this.calculationScheduler;
+    }
+
+    /**
+     * Set the {@link ICalculationScheduler} that should be used to execute the
+     * background calculations of this cache. Calculations that are already
+     * submitted to the previous scheduler are not affected.
+     *
+     * @param calculationScheduler
+     *            The {@link ICalculationScheduler} to use. Can not be
+     *            <code>null</code>.
+     *
+     * @since 2.1
+     */
+    public void setCalculationScheduler(ICalculationScheduler calculationScheduler) {
+        if (calculationScheduler == null) {
+            throw new IllegalArgumentException("calculationScheduler can not be null"); //$NON-NLS-1$
+        }
+        this.calculationScheduler = calculationScheduler;
+    }
+
+    /**
+     *
+     * @return The priority that is used for background calculations triggered
+     *         by this cache.
+     *
+     * @since 2.1
+     */
+    public int getCalculationPriority() {
+        return this.calculationPriority;
+    }
+
+    /**
+     * Set the priority that is used for background calculations triggered by
+     * this cache. By default {@link ICalculationScheduler#PRIORITY_VISIBLE} is
+     * used, as calculations are typically requested on rendering.
+     *
+     * @param calculationPriority
+     *            The priority that is used for background calculations.
+     *
+     * @since 2.1
+     */
+    public void setCalculationPriority(int calculationPriority) {
+        this.calculationPriority = calculationPriority;
     }
 
     /**
@@ -265,7 +567,16 @@ protected void addToCache(ICalculatedValueCacheKey key, Object value) {
 
     @Override
     public void dispose() {
-        this.executor.shutdownNow();
+        // the scheduler is shared, so instead of shutting it down, the own
+        // running calculations are interrupted
+        cancelPendingCalculations(true);
+        synchronized (this.refreshLock) {
+            if (this.refreshFuture != null) {
+                this.refreshFuture.cancel(false);
+                this.refreshFuture = null;
+            }
+            this.changedCellCount = 0;
+        }
     }
 
     /**
@@ -288,6 +599,78 @@ public void setLayer(ILayer layer) {
         this.layer = layer;
     }
 
+    /**
+     * Background calculation for a single cache key. On completion the task
+     * removes itself from the pending calculations, adds the result to the
+     * cache if it is not outdated and triggers the update event.
+     */
+    class CalculationTask extends FutureTask<Object> {
+
+        private final ICalculatedValueCacheKey key;
+        private final int columnPosition;
+        private final int rowPosition;
+        private final Object cacheCopyValue;
+        private final int generation;
+
+        /**
+         * Flag that is set if the cached value for the key of this task was
+         * cleared while calculating. Only accessed while holding the cache
+         * lock.
+         */
+        private boolean outdated = false;
+
+        CalculationTask(ICalculatedValueCacheKey key, int columnPosition, int rowPosition,
+                ICalculator calculator, Object cacheCopyValue, int generation) {
+            super(calculator::executeCalculation);
+            this.key = key;
+            this.columnPosition = columnPosition;
+            this.rowPosition = rowPosition;
+            this.cacheCopyValue = cacheCopyValue;
+            this.generation = generation;
+        }
+
+        @Override
+        protected void done() {
+            Object value = null;
+            boolean calculated = false;
+            if (!isCancelled()) {
+                try {
+                    value = get();
+                    calculated = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (CancellationException e) {
+                    // cancelled concurrently
+                } catch (ExecutionException e) {
+                    LOG.error("Error on calculating value in background", e.getCause()); //$NON-NLS-1$
+                }
+            }
+
+            synchronized (CalculatedValueCache.this.cacheLock) {
+                // remove while holding the lock, so clearing the cached value
+                // for the key either marks this task as outdated or happens
+                // after the result was added
+                CalculatedValueCache.this.pendingCalculations.remove(this.key, this);
+
+                if (!calculated) {
+                    return;
+                }
+                if (this.outdated || this.generation != CalculatedValueCache.this.cacheGeneration) {
+                    // the cache was cleared while calculating, so the result
+                    // is based on stale data
+                    return;
+                }
+                addToCache(this.key, value);
+            }
+
+            // only fire an update event if the new calculated value
+            // is different to the value in the cache copy
+            if (!cacheValuesEqual(value, this.cacheCopyValue)) {
+                cellValueChanged(this.columnPosition, this.rowPosition);
+            }
+        }
+    }
+
     /**
      * ICalculatedValueCacheKey that uses either the column or row position as
      * key.
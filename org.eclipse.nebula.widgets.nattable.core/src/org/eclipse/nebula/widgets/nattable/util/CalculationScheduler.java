@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default implementation of {@link ICalculationScheduler} that executes the
+ * calculations in a bounded thread pool with a priority queue.
+ * <p>
+ * By default all {@link CalculatedValueCache} instances share the instance
+ * returned by {@link #getDefault()}, so the number of threads used for
+ * background calculations is limited for the whole application, regardless of
+ * how many NatTable instances with summary rows, groupBy summaries or formulas
+ * are created. The default instance can be exchanged via
+ * {@link #setDefault(ICalculationScheduler)}, and a specific instance can be
+ * set per {@link CalculatedValueCache} via
+ * {@link CalculatedValueCache#setCalculationScheduler(ICalculationScheduler)}.
+ * <p>
+ * The threads are daemon threads that are terminated if they are idle for 5
+ * seconds. Statistics about the queue length and the task latency can be
+ * retrieved to tune the configuration.
+ *
+ * @since 2.1
+ */
+public class CalculationScheduler implements ICalculationScheduler {
+
+    private static final long KEEP_ALIVE_MILLIS = 5000;
+
+    private static ICalculationScheduler defaultScheduler;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledThreadPoolExecutor delayedExecutor;
+
+    /**
+     * Sequence number to execute tasks with the same priority in reverse
+     * submission order.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final LongAdder completedTasks = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalExecutionNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Creates a {@link CalculationScheduler} that uses one thread more than
+     * processors are available.
+     */
+    public CalculationScheduler() {
+        this(Runtime.getRuntime().availableProcessors() + 1);
+    }
+
+    /**
+     * Creates a {@link CalculationScheduler} that uses at most the given number
+     * of threads for calculations.
+     *
+     * @param maxConcurrency
+     *            The maximum number of calculations that are executed in
+     *            parallel.
+     * @throws IllegalArgumentException
+     *             if maxConcurrency is less than 1.
+     */
+    public CalculationScheduler(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency < 1"); //$NON-NLS-1$
+        }
+
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrency,
+                maxConcurrency,
+                KEEP_ALIVE_MILLIS,
+                TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                new DaemonThreadFactory("CalculationScheduler")); //$NON-NLS-1$
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.delayedExecutor = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("CalculationScheduler-delayed")); //$NON-NLS-1$
+        this.delayedExecutor.setKeepAliveTime(KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS);
+        this.delayedExecutor.allowCoreThreadTimeOut(true);
+        this.delayedExecutor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Returns the {@link ICalculationScheduler} that is used by all
+     * {@link CalculatedValueCache} instances that have no specific scheduler
+     * configured. If no default was set, a {@link CalculationScheduler} with
+     * the default concurrency is created lazily.
+     *
+     * @return The shared default {@link ICalculationScheduler}.
+     */
+    public static synchronized ICalculationScheduler getDefault() {
+        if (defaultScheduler == null) {
+            defaultScheduler = new CalculationScheduler();
+        }
+        return defaultScheduler;
+    }
+
+    /**
+     * Set the {@link ICalculationScheduler} that should be used by all
+     * {@link CalculatedValueCache} instances that are created afterwards and
+     * have no specific scheduler configured. The previous default scheduler is
+     * not shut down, as it could still be used by existing caches.
+     *
+     * @param scheduler
+     *            The {@link ICalculationScheduler} to use as default. Passing
+     *            <code>null</code> resets to the lazily created default.
+     */
+    public static synchronized void setDefault(ICalculationScheduler scheduler) {
+        defaultScheduler = scheduler;
+    }
+
+    @Override
+    public void execute(Runnable task, int priority) {
+        this.executor.execute(new PrioritizedTask(task, priority, this.sequence.incrementAndGet()));
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return this.delayedExecutor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The maximum number of calculations that are executed in
+     *         parallel.
+     */
+    public int getMaxConcurrency() {
+        return this.executor.getMaximumPoolSize();
+    }
+
+    /**
+     * @return The number of tasks that are waiting for execution.
+     */
+    public int getQueueLength() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * @return The number of tasks that are currently executed.
+     */
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    /**
+     * @return The number of tasks that were executed since creation or the
+     *         last call to {@link #resetStatistics()}.
+     */
+    public long getCompletedTaskCount() {
+        return this.completedTasks.sum();
+    }
+
+    /**
+     * @return The average time in milliseconds a task waited in the queue
+     *         before it was executed.
+     */
+    public double getAverageWaitTime() {
+        long count = this.completedTasks.sum();
+        return (count > 0) ? (this.totalWaitNanos.sum() / (double) count) / 1_000_000 : 0;
+    }
+
+    /**
+     * @return The maximum time in milliseconds a task waited in the queue
+     *         before it was executed.
+     */
+    public double getMaxWaitTime() {
+        return this.maxWaitNanos.get() / 1_000_000d;
+    }
+
+    /**
+     * @return The average execution time of a task in milliseconds.
+     */
+    public double getAverageExecutionTime() {
+        long count = this.completedTasks.sum();
+        return (count > 0) ? (this.totalExecutionNanos.sum() / (double) count) / 1_000_000 : 0;
+    }
+
+    /**
+     * Resets the collected task statistics.
+     */
+    public void resetStatistics() {
+        this.completedTasks.reset();
+        this.totalWaitNanos.reset();
+        this.totalExecutionNanos.reset();
+        this.maxWaitNanos.set(0);
+    }
+
+    /**
+     * Shuts down the threads of this scheduler. Tasks that are not started yet
+     * will not be executed anymore.
+     * <p>
+     * <b>Note:</b> Do not call this method on a scheduler that is still used by
+     * {@link CalculatedValueCache} instances.
+     * </p>
+     */
+    public void shutdownNow() {
+        this.executor.shutdownNow();
+        this.delayedExecutor.shutdownNow();
+    }
+
+    /**
+     * Wrapper for calculation tasks that is ordered by priority and submission
+     * sequence and collects the execution statistics.
+     */
+    private class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+
+        private final Runnable task;
+        private final int priority;
+        private final long sequenceNumber;
+        private final long submitTime = System.nanoTime();
+
+        PrioritizedTask(Runnable task, int priority, long sequenceNumber) {
+            this.task = task;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public void run() {
+            if (this.task instanceof Future && ((Future<?>) this.task).isCancelled()) {
+                // cancelled tasks are skipped and not counted
+                return;
+            }
+
+            long start = System.nanoTime();
+            long wait = start - this.submitTime;
+            try {
+                this.task.run();
+            } finally {
+                CalculationScheduler.this.totalExecutionNanos.add(System.nanoTime() - start);
+                CalculationScheduler.this.totalWaitNanos.add(wait);
+                CalculationScheduler.this.maxWaitNanos.accumulateAndGet(wait, Math::max);
+                CalculationScheduler.this.completedTasks.increment();
+            }
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            if (this.priority != other.priority) {
+                return Integer.compare(other.priority, this.priority);
+            }
+            // latest submitted task first
+            return Long.compare(other.sequenceNumber, this.sequenceNumber);
+        }
+    }
+
+    /**
+     * {@link ThreadFactory} that creates named daemon threads, so the
+     * calculation threads do not block the shutdown of the application.
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final String threadNamePrefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        DaemonThreadFactory(String threadNamePrefix) {
+            this.threadNamePrefix = threadNamePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, this.threadNamePrefix + "-" + this.counter.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Interface for the component that executes the background calculations of
+ * {@link CalculatedValueCache} instances. Typically one instance is shared by
+ * all {@link CalculatedValueCache} instances of an application to limit the
+ * number of threads that are used for calculations.
+ *
+ * @see CalculationScheduler
+ * @since 2.1
+ */
+public interface ICalculationScheduler {
+
+    /**
+     * Priority for calculations that are requested for cells that are
+     * currently rendered.
+     */
+    int PRIORITY_VISIBLE = 10;
+
+    /**
+     * Priority for calculations that are not related to rendering, e.g.
+     * pre-calculations of values that are not visible yet.
+     */
+    int PRIORITY_BACKGROUND = 0;
+
+    /**
+     * Executes the given calculation task in a background thread. Tasks with a
+     * higher priority are executed before tasks with a lower priority. Tasks
+     * with the same priority are executed in reverse order of submission, as
+     * the latest requested calculations are most likely related to the cells
+     * that are currently visible.
+     *
+     * @param task
+     *            The calculation task to execute.
+     * @param priority
+     *            The priority of the task.
+     */
+    void execute(Runnable task, int priority);
+
+    /**
+     * Executes the given task once after the given delay. Used to fire
+     * batched update events after calculations are finished.
+     *
+     * @param task
+     *            The task to execute.
+     * @param delayMillis
+     *            The delay in milliseconds.
+     * @return The {@link ScheduledFuture} to be able to cancel the execution.
+     */
+    ScheduledFuture<?> schedule(Runnable task, long delayMillis);
+
+}
@@ -0,0 +1,218 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.function.IntPredicate;
+
+/**
+ * A fixed size bit vector that supports rank and select operations in
+ * O(log n). The bits are stored in words of 64 bits, and the number of set
+ * bits per word is tracked in a Fenwick tree, so a single bit can be changed
+ * in O(log n) without rebuilding the whole structure.
+ * <p>
+ * Used to map between the positions of all elements and the positions of the
+ * set elements, e.g. the visible rows of a hide/show layer.
+ * </p>
+ * <p>
+ * This class is not thread safe. For lock free reads a modified copy created
+ * via {@link #RankSelectBitVector(RankSelectBitVector)} can be published.
+ * </p>
+ *
+ * @since 2.1
+ */
+public class RankSelectBitVector {
+
+    private final int size;
+
+    private final long[] words;
+
+    /**
+     * Fenwick tree over the number of set bits per word, 1-based.
+     */
+    private final int[] tree;
+
+    private int cardinality;
+
+    /**
+     * Creates a {@link RankSelectBitVector} with all bits cleared.
+     *
+     * @param size
+     *            The number of bits.
+     */
+    public RankSelectBitVector(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size < 0"); //$NON-NLS-1$
+        }
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+        this.tree = new int[this.words.length + 1];
+    }
+
+    /**
+     * Creates a {@link RankSelectBitVector} whose bits are set if the given
+     * predicate matches the position of the bit. Builds the structure in
+     * linear time.
+     *
+     * @param size
+     *            The number of bits.
+     * @param predicate
+     *            The predicate that is called for every position to determine
+     *            whether the bit is set.
+     */
+    public RankSelectBitVector(int size, IntPredicate predicate) {
+        this(size);
+        for (int position = 0; position < size; position++) {
+            if (predicate.test(position)) {
+                this.words[position >>> 6] |= 1L << position;
+            }
+        }
+
+        for (int i = 1; i < this.tree.length; i++) {
+            this.tree[i] += Long.bitCount(this.words[i - 1]);
+            this.cardinality += Long.bitCount(this.words[i - 1]);
+            int parent = i + (i & -i);
+            if (parent < this.tree.length) {
+                this.tree[parent] += this.tree[i];
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of the given {@link RankSelectBitVector}.
+     *
+     * @param other
+     *            The {@link RankSelectBitVector} to copy.
+     */
+    public RankSelectBitVector(RankSelectBitVector other) {
+        this.size = other.size;
+        this.words = other.words.clone();
+        this.tree = other.tree.clone();
+        this.cardinality = other.cardinality;
+    }
+
+    /**
+     *
+     * @return The number of bits.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     *
+     * @return The number of set bits.
+     */
+    public int cardinality() {
+        return this.cardinality;
+    }
+
+    /**
+     *
+     * @param position
+     *            The position of the bit.
+     * @return <code>true</code> if the bit at the given position is set,
+     *         <code>false</code> if it is not set or the position is out of
+     *         range.
+     */
+    public boolean get(int position) {
+        if (position < 0 || position >= this.size) {
+            return false;
+        }
+        return (this.words[position >>> 6] & (1L << position)) != 0;
+    }
+
+    /**
+     * Sets or clears the bit at the given position.
+     *
+     * @param position
+     *            The position of the bit.
+     * @param value
+     *            <code>true</code> to set the bit, <code>false</code> to clear
+     *            it.
+     * @return <code>true</code> if the bit was changed, <code>false</code> if
+     *         it already had the given value.
+     */
+    public boolean set(int position, boolean value) {
+        if (position < 0 || position >= this.size) {
+            throw new IndexOutOfBoundsException("position: " + position + ", size: " + this.size); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (get(position) == value) {
+            return false;
+        }
+
+        this.words[position >>> 6] ^= 1L << position;
+        int delta = value ? 1 : -1;
+        for (int i = (position >>> 6) + 1; i < this.tree.length; i += i & -i) {
+            this.tree[i] += delta;
+        }
+        this.cardinality += delta;
+        return true;
+    }
+
+    /**
+     * Returns the number of set bits before the given position.
+     *
+     * @param position
+     *            The position up to which the set bits should be counted
+     *            (exclusive).
+     * @return The number of set bits in the range [0, position).
+     */
+    public int rank(int position) {
+        if (position <= 0) {
+            return 0;
+        }
+        if (position >= this.size) {
+            return this.cardinality;
+        }
+
+        int word = position >>> 6;
+        int count = 0;
+        for (int i = word; i > 0; i -= i & -i) {
+            count += this.tree[i];
+        }
+        return count + Long.bitCount(this.words[word] & ((1L << position) - 1));
+    }
+
+    /**
+     * Returns the position of the set bit with the given rank, which is the
+     * inverse operation of {@link #rank(int)} for set bits.
+     *
+     * @param rank
+     *            The number of set bits before the requested bit.
+     * @return The position of the set bit with the given rank, or -1 if there
+     *         are not enough set bits.
+     */
+    public int select(int rank) {
+        if (rank < 0 || rank >= this.cardinality) {
+            return -1;
+        }
+
+        // descend the Fenwick tree to find the word that contains the bit
+        int word = 0;
+        int remaining = rank;
+        for (int step = Integer.highestOneBit(this.tree.length - 1); step > 0; step >>>= 1) {
+            int next = word + step;
+            if (next < this.tree.length && this.tree[next] <= remaining) {
+                word = next;
+                remaining -= this.tree[next];
+            }
+        }
+
+        long bits = this.words[word];
+        for (int i = 0; i < remaining; i++) {
+            // clear the lowest set bit
+            bits &= bits - 1;
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+}
@@ -409,6 +409,11 @@ public static <T> void applyNatTableStyle(
         style.setAttributeValue(
                 styleConfig,
                 value);
+
+        // the modified style might already be resolved and cached
+        if (configRegistry instanceof ConfigRegistry) {
+            ((ConfigRegistry) configRegistry).clearResolvedStyleCache();
+        }
     }
 
     /**
@@ -73,6 +73,13 @@ public abstract class PoiExcelExporter implements ILayerExporter {
 
     private Map<ExcelCellStyleAttributes, CellStyle> xlCellStyles;
 
+    /**
+     * The last created {@link CellStyle} per data format. Used as fallback if
+     * the maximum number of cell styles supported by the workbook is reached.
+     */
+    private Map<String, CellStyle> xlFallbackCellStyles;
+    private boolean styleLimitReached = false;
+
     protected Workbook xlWorkbook;
     protected int sheetNumber;
     protected Sheet xlSheet;
@@ -110,6 +117,8 @@ public OutputStream getOutputStream(Shell shell) {
     @Override
     public void exportBegin(OutputStream outputStream) throws IOException {
         this.xlCellStyles = new HashMap<>();
+        this.xlFallbackCellStyles = new HashMap<>();
+        this.styleLimitReached = false;
         this.xlWorkbook = createWorkbook();
         // the hidden column positions are determined by inspection so
         // it needs to be cleared at the beginning
@@ -121,6 +130,7 @@ public void exportEnd(OutputStream outputStream) throws IOException {
         this.xlWorkbook.write(outputStream);
 
         this.xlCellStyles = null;
+        this.xlFallbackCellStyles = null;
         this.xlWorkbook = null;
         this.sheetNumber = 0;
         this.xlSheet = null;
@@ -339,6 +349,20 @@ private CellStyle getExcelCellStyle(
         CellStyle xlCellStyle = this.xlCellStyles.get(
                 new ExcelCellStyleAttributes(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical, wrap, border));
 
+        if (xlCellStyle == null
+                && this.xlWorkbook.getNumCellStyles() >= this.xlWorkbook.getSpreadsheetVersion().getMaxCellStyles()) {
+            // creating more cell styles would fail, so reuse an existing one
+            // that at least applies the data format
+            if (!this.styleLimitReached) {
+                this.styleLimitReached = true;
+                LOG.warn("Maximum number of cell styles reached, styles of further cells are not exported"); //$NON-NLS-1$
+            }
+            xlCellStyle = (dataFormat != null) ? this.xlFallbackCellStyles.get(dataFormat) : null;
+            if (xlCellStyle == null) {
+                xlCellStyle = this.xlWorkbook.getCellStyleAt(0);
+            }
+        }
+
         if (xlCellStyle == null) {
             xlCellStyle = this.xlWorkbook.createCellStyle();
 
@@ -397,6 +421,9 @@ private CellStyle getExcelCellStyle(
 
             this.xlCellStyles.put(
                     new ExcelCellStyleAttributes(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical, wrap, border), xlCellStyle);
+            if (dataFormat != null) {
+                this.xlFallbackCellStyles.put(dataFormat, xlCellStyle);
+            }
         }
         return xlCellStyle;
     }
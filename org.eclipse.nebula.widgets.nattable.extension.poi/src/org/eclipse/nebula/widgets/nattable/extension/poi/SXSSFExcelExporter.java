@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Dirk Fauth and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Dirk Fauth <dirk.fauth@googlemail.com> - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.poi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.IntConsumer;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.eclipse.nebula.widgets.nattable.export.FileOutputStreamProvider;
+import org.eclipse.nebula.widgets.nattable.export.IOutputStreamProvider;
+import org.eclipse.swt.graphics.Color;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Excel exporter that creates an Office Open XML workbook (*.xlsx) via the
+ * streaming API of Apache POI. Only a window of the last exported rows is kept
+ * in memory, all other rows are flushed to a temporary file. This way large
+ * tables with millions of rows can be exported with a constant memory
+ * footprint.
+ * <p>
+ * Because of the streaming, rows that are already flushed can not be accessed
+ * anymore. The row access window therefore needs to be larger than the
+ * largest row spanning in the exported table.
+ * </p>
+ * <p>
+ * <b>Note:</b> This exporter requires the poi-ooxml library and its
+ * dependencies.
+ * </p>
+ *
+ * @since 2.1
+ */
+public class SXSSFExcelExporter extends PoiExcelExporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SXSSFExcelExporter.class);
+
+    private int rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+    private boolean compressTempFiles = true;
+
+    private IntConsumer progressListener;
+    private int exportedRows = 0;
+
+    public SXSSFExcelExporter() {
+        super(new FileOutputStreamProvider("table_export.xlsx", new String[] { "Excel Workbook (*.xlsx)" }, new String[] { "*.xlsx" })); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    public SXSSFExcelExporter(IOutputStreamProvider outputStreamProvider) {
+        super(outputStreamProvider);
+    }
+
+    @Override
+    protected Workbook createWorkbook() {
+        this.exportedRows = 0;
+        return new SXSSFWorkbook(null, this.rowAccessWindowSize, this.compressTempFiles);
+    }
+
+    @Override
+    public void exportRowEnd(OutputStream outputStream, int rowPosition) throws IOException {
+        super.exportRowEnd(outputStream, rowPosition);
+
+        this.exportedRows++;
+        if (this.progressListener != null && this.exportedRows % this.rowAccessWindowSize == 0) {
+            this.progressListener.accept(this.exportedRows);
+        }
+    }
+
+    @Override
+    public void exportEnd(OutputStream outputStream) throws IOException {
+        SXSSFWorkbook workbook = (SXSSFWorkbook) this.xlWorkbook;
+        try {
+            super.exportEnd(outputStream);
+            if (this.progressListener != null) {
+                this.progressListener.accept(this.exportedRows);
+            }
+        } finally {
+            // delete the temporary files
+            if (workbook != null && !workbook.dispose()) {
+                LOG.warn("Temporary files of the Excel export could not be deleted"); //$NON-NLS-1$
+            }
+        }
+    }
+
+    @Override
+    protected void setFillForegroundColor(CellStyle xlCellStyle, Color swtColor) {
+        ((XSSFCellStyle) xlCellStyle).setFillForegroundColor(getColor(swtColor));
+    }
+
+    @Override
+    protected void setFontColor(Font xlFont, Color swtColor) {
+        ((XSSFFont) xlFont).setColor(getColor(swtColor));
+    }
+
+    private XSSFColor getColor(Color swtColor) {
+        return new XSSFColor(
+                new byte[] { (byte) swtColor.getRed(), (byte) swtColor.getGreen(), (byte) swtColor.getBlue() },
+                null);
+    }
+
+    /**
+     *
+     * @return The number of rows that are kept in memory before they are
+     *         flushed to the temporary file.
+     */
+    public int getRowAccessWindowSize() {
+        return this.rowAccessWindowSize;
+    }
+
+    /**
+     * Configure the number of rows that are kept in memory before they are
+     * flushed to the temporary file. Needs to be larger than the largest row
+     * spanning in the exported table. Takes effect on the next export.
+     *
+     * @param rowAccessWindowSize
+     *            The number of rows that are kept in memory. Default is
+     *            {@link SXSSFWorkbook#DEFAULT_WINDOW_SIZE}.
+     */
+    public void setRowAccessWindowSize(int rowAccessWindowSize) {
+        if (rowAccessWindowSize < 1) {
+            throw new IllegalArgumentException("rowAccessWindowSize < 1"); //$NON-NLS-1$
+        }
+        this.rowAccessWindowSize = rowAccessWindowSize;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the temporary files are compressed.
+     */
+    public boolean isCompressTempFiles() {
+        return this.compressTempFiles;
+    }
+
+    /**
+     * Configure whether the temporary files should be compressed. Compressing
+     * reduces the disk space needed for large exports significantly, but
+     * increases the CPU usage. Takes effect on the next export.
+     *
+     * @param compressTempFiles
+     *            <code>true</code> if the temporary files should be compressed.
+     *            Default is <code>true</code>.
+     */
+    public void setCompressTempFiles(boolean compressTempFiles) {
+        this.compressTempFiles = compressTempFiles;
+    }
+
+    /**
+     * Set a listener that is informed about the export progress. It is called
+     * with the number of exported rows every time a row access window is
+     * completed and once at the end of the export.
+     *
+     * @param progressListener
+     *            The listener that is informed about the number of exported
+     *            rows, or <code>null</code> to remove a listener.
+     */
+    public void setProgressListener(IntConsumer progressListener) {
+        this.progressListener = progressListener;
+    }
+}
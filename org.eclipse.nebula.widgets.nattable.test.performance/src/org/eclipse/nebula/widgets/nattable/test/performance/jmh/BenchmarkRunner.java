@@ -0,0 +1,65 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance.jmh;
+
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point to execute the JMH benchmarks of this bundle. The results are
+ * written as JSON to the file given as first argument, or to
+ * <code>target/jmh/nattable-benchmarks.json</code> if no argument is given.
+ * That way the results of different releases can be compared with tools like
+ * the <a href="https://jmh.morethan.io/">JMH Visualizer</a>.
+ * <p>
+ * The optional second argument is a regular expression to select the
+ * benchmarks to execute. By default all benchmarks in this package are
+ * executed.
+ * </p>
+ * <p>
+ * <b>Note:</b> The JMH annotation processor
+ * (<code>org.openjdk.jmh:jmh-generator-annprocess</code>) needs to be
+ * registered for this project, otherwise the generated benchmark classes and
+ * the <code>META-INF/BenchmarkList</code> are missing.
+ * </p>
+ */
+public class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "target/jmh/nattable-benchmarks.json"; //$NON-NLS-1$
+
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = (args.length > 0) ? args[0] : DEFAULT_RESULT_FILE;
+        String include = (args.length > 1) ? args[1] : BenchmarkRunner.class.getPackage().getName() + ".*"; //$NON-NLS-1$
+
+        File parent = new File(resultFile).getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .jvmArgsAppend("-Djava.awt.headless=true") //$NON-NLS-1$
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
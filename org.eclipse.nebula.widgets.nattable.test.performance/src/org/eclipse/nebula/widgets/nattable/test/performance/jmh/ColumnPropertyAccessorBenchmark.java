@@ -0,0 +1,125 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance.jmh;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.data.ExtendedReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.MethodHandleColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.dataset.person.Address;
+import org.eclipse.nebula.widgets.nattable.dataset.person.Person.Gender;
+import org.eclipse.nebula.widgets.nattable.dataset.person.PersonWithAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark that compares the {@link ReflectiveColumnPropertyAccessor},
+ * the {@link ExtendedReflectiveColumnPropertyAccessor} and the
+ * {@link MethodHandleColumnPropertyAccessor}. No SWT Display is needed.
+ * <p>
+ * {@link #getValues(Blackhole)} reads all columns of all rows, similar to
+ * sorting or filtering. {@link #setValues()} writes a column of all rows,
+ * similar to a bulk update. The nested properties are only supported by the
+ * extended and the method handle accessor, so the columns of the reflective
+ * accessor are only first level properties.
+ * </p>
+ *
+ * @see BenchmarkRunner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnPropertyAccessorBenchmark {
+
+    private static final String[] PROPERTY_NAMES = {
+            "id", "firstName", "lastName", "gender", "married", "birthday" };
+
+    private static final String[] NESTED_PROPERTY_NAMES = {
+            "firstName", "lastName", "address.street", "address.housenumber", "address.city" };
+
+    @Param({ "10000" })
+    public int rowCount;
+
+    @Param({ "reflective", "extended", "methodHandle" })
+    public String accessorType;
+
+    @Param({ "false", "true" })
+    public boolean nested;
+
+    private List<PersonWithAddress> persons;
+
+    private IColumnPropertyAccessor<PersonWithAddress> accessor;
+
+    @Setup
+    public void setup() {
+        this.persons = new ArrayList<>(this.rowCount);
+        for (int i = 0; i < this.rowCount; i++) {
+            Address address = new Address();
+            address.setStreet("Evergreen Terrace");
+            address.setHousenumber(i);
+            address.setCity("Springfield");
+            this.persons.add(new PersonWithAddress(i, "Homer", "Simpson", Gender.MALE, true, new Date(), address));
+        }
+
+        String[] propertyNames = this.nested ? NESTED_PROPERTY_NAMES : PROPERTY_NAMES;
+        switch (this.accessorType) {
+            case "reflective":
+                // nested properties are not supported
+                this.accessor = new ReflectiveColumnPropertyAccessor<>(PROPERTY_NAMES);
+                break;
+            case "extended":
+                this.accessor = new ExtendedReflectiveColumnPropertyAccessor<>(propertyNames);
+                break;
+            default:
+                this.accessor = new MethodHandleColumnPropertyAccessor<>(propertyNames);
+                break;
+        }
+    }
+
+    @Benchmark
+    public void getValues(Blackhole blackhole) {
+        int columnCount = this.accessor.getColumnCount();
+        for (PersonWithAddress person : this.persons) {
+            for (int column = 0; column < columnCount; column++) {
+                blackhole.consume(this.accessor.getDataValue(person, column));
+            }
+        }
+    }
+
+    @Benchmark
+    public void setValues() {
+        for (PersonWithAddress person : this.persons) {
+            this.accessor.setDataValue(person, 1, "Marge");
+        }
+    }
+
+}
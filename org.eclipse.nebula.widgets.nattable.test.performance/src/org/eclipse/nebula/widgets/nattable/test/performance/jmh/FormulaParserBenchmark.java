@@ -0,0 +1,144 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.formula.FormulaDataProvider;
+import org.eclipse.nebula.widgets.nattable.formula.FormulaParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark that compares the formula evaluation of the
+ * {@link FormulaDataProvider} with compiled and cached formulas against the
+ * string based parsing on every evaluation. No SWT Display is needed.
+ * <p>
+ * The data model contains number values in the first columns and formulas
+ * that reference them in the last columns. The benchmarks evaluate all formula
+ * cells of a block of rows, similar to rendering the visible area of a
+ * spreadsheet. {@link #repaintFormulas(Blackhole)} evaluates the same block on
+ * every invocation, {@link #scrollFormulas(Blackhole)} moves the block on every
+ * invocation, so every formula is evaluated the first time.
+ * </p>
+ *
+ * @see BenchmarkRunner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormulaParserBenchmark {
+
+    private static final int VALUE_COLUMNS = 4;
+
+    private static final String[] FORMULAS = new String[] {
+            "=A%1$d+B%1$d*C%1$d",
+            "=SUM(A%1$d:D%1$d)/(C%1$d+1)",
+            "=(A%1$d-B%1$d)*2^2",
+            "=AVERAGE(A%1$d;B%1$d;SUM(C%1$d:D%1$d))" };
+
+    @Param({ "10000" })
+    public int rowCount;
+
+    /**
+     * The number of rows that are evaluated per invocation.
+     */
+    @Param({ "50" })
+    public int visibleRows;
+
+    @Param({ "true", "false" })
+    public boolean compiled;
+
+    private FormulaDataProvider formulaDataProvider;
+
+    private int startRow;
+
+    @Setup
+    public void setup() {
+        String[][] data = new String[this.rowCount][VALUE_COLUMNS + FORMULAS.length];
+        for (int row = 0; row < this.rowCount; row++) {
+            for (int column = 0; column < VALUE_COLUMNS; column++) {
+                data[row][column] = String.valueOf((row + 1) * (column + 1));
+            }
+            for (int f = 0; f < FORMULAS.length; f++) {
+                data[row][VALUE_COLUMNS + f] = String.format(FORMULAS[f], row + 1);
+            }
+        }
+
+        IDataProvider dataProvider = new IDataProvider() {
+
+            @Override
+            public Object getDataValue(int columnIndex, int rowIndex) {
+                return data[rowIndex][columnIndex];
+            }
+
+            @Override
+            public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+                data[rowIndex][columnIndex] = newValue != null ? newValue.toString() : null;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return VALUE_COLUMNS + FORMULAS.length;
+            }
+
+            @Override
+            public int getRowCount() {
+                return FormulaParserBenchmark.this.rowCount;
+            }
+        };
+
+        FormulaParser parser = new FormulaParser(dataProvider);
+        if (this.compiled) {
+            parser.setFormulaCacheSize(FormulaParser.DEFAULT_FORMULA_CACHE_SIZE);
+        }
+        this.formulaDataProvider = new FormulaDataProvider(dataProvider, parser);
+    }
+
+    @Benchmark
+    public void repaintFormulas(Blackhole blackhole) {
+        evaluateFormulas(blackhole, this.rowCount / 2);
+    }
+
+    @Benchmark
+    public void scrollFormulas(Blackhole blackhole) {
+        int start = this.startRow;
+        this.startRow = (start + this.visibleRows) % (this.rowCount - this.visibleRows);
+        evaluateFormulas(blackhole, start);
+    }
+
+    private void evaluateFormulas(Blackhole blackhole, int start) {
+        int columnCount = this.formulaDataProvider.getColumnCount();
+        for (int row = start; row < start + this.visibleRows; row++) {
+            for (int column = VALUE_COLUMNS; column < columnCount; column++) {
+                blackhole.consume(this.formulaDataProvider.getDataValue(column, row));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+/*****************************************************************************
+ * Copyright (c) 2020 Dirk Fauth.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Dirk Fauth <dirk.fauth@googlemail.com> - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
+import org.eclipse.nebula.widgets.nattable.hideshow.ColumnHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.swt.graphics.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark for the hot paths of a body layer stack that are called for
+ * every cell on painting. The stack is built without a NatTable instance and
+ * without a Shell, so no painting is involved. Only the default SWT Display is
+ * needed for the system colors used by the <code>SelectionLayerPainter</code>,
+ * which means on Linux CI servers the benchmark needs to be executed with a
+ * virtual display like Xvfb.
+ * <p>
+ * The stack consists of
+ * <code>DataLayer -&gt; ColumnReorderLayer -&gt; ColumnHideShowLayer -&gt;
+ * SelectionLayer -&gt; ViewportLayer</code>. The viewport is scrolled to the
+ * middle of the data so the visible cells are located far away from the
+ * origin, which is the expensive case for position and pixel calculations.
+ * </p>
+ *
+ * @see BenchmarkRunner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayerStackBenchmark {
+
+    /**
+     * The number of pixel and position samples that are taken across the
+     * whole width of the underlying layer.
+     */
+    private static final int SAMPLES = 64;
+
+    @Param({ "1000000" })
+    public int rowCount;
+
+    @Param({ "500" })
+    public int columnCount;
+
+    @Param({ "1800" })
+    public int clientAreaWidth;
+
+    @Param({ "800" })
+    public int clientAreaHeight;
+
+    private SelectionLayer selectionLayer;
+    private ViewportLayer viewportLayer;
+
+    private int[] columnPositionSamples;
+    private int[] xSamples;
+
+    @Setup
+    public void setup() {
+        DummyBodyDataProvider dataProvider = new DummyBodyDataProvider(this.columnCount, this.rowCount);
+        DataLayer dataLayer = new DataLayer(dataProvider);
+        ColumnReorderLayer reorderLayer = new ColumnReorderLayer(dataLayer);
+        ColumnHideShowLayer hideShowLayer = new ColumnHideShowLayer(reorderLayer);
+        this.selectionLayer = new SelectionLayer(hideShowLayer);
+        this.viewportLayer = new ViewportLayer(this.selectionLayer);
+        this.viewportLayer.setClientAreaProvider(() -> new Rectangle(0, 0, this.clientAreaWidth, this.clientAreaHeight));
+
+        // some custom sizes so the size calculations can not only multiply
+        for (int i = 0; i < this.columnCount; i += 10) {
+            dataLayer.setColumnWidthByPosition(i, 150, false);
+        }
+        for (int i = 0; i < this.rowCount; i += 1000) {
+            dataLayer.setRowHeightByPosition(i, 40, false);
+        }
+
+        this.viewportLayer.setOriginX(this.selectionLayer.getStartXOfColumnPosition(this.columnCount / 2));
+        this.viewportLayer.setOriginY(this.selectionLayer.getStartYOfRowPosition(this.rowCount / 2));
+
+        int width = this.selectionLayer.getWidth();
+        this.columnPositionSamples = new int[SAMPLES];
+        this.xSamples = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            this.columnPositionSamples[i] = (int) ((long) i * (this.columnCount - 1) / (SAMPLES - 1));
+            this.xSamples[i] = (int) ((long) i * (width - 1) / (SAMPLES - 1));
+        }
+    }
+
+    @Benchmark
+    public void getCellByPosition(Blackhole blackhole) {
+        ILayer layer = this.viewportLayer;
+        int columnCount = layer.getColumnCount();
+        int rowCount = layer.getRowCount();
+        for (int column = 0; column < columnCount; column++) {
+            for (int row = 0; row < rowCount; row++) {
+                blackhole.consume(layer.getCellByPosition(column, row));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getDataValueByPosition(Blackhole blackhole) {
+        ILayer layer = this.viewportLayer;
+        int columnCount = layer.getColumnCount();
+        int rowCount = layer.getRowCount();
+        for (int column = 0; column < columnCount; column++) {
+            for (int row = 0; row < rowCount; row++) {
+                blackhole.consume(layer.getDataValueByPosition(column, row));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getConfigLabelsByPosition(Blackhole blackhole) {
+        ILayer layer = this.viewportLayer;
+        int columnCount = layer.getColumnCount();
+        int rowCount = layer.getRowCount();
+        for (int column = 0; column < columnCount; column++) {
+            for (int row = 0; row < rowCount; row++) {
+                blackhole.consume(layer.getConfigLabelsByPosition(column, row));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getStartXOfColumnPosition(Blackhole blackhole) {
+        for (int columnPosition : this.columnPositionSamples) {
+            blackhole.consume(this.selectionLayer.getStartXOfColumnPosition(columnPosition));
+        }
+        // the viewport translates to the scrolled region
+        int columnCount = this.viewportLayer.getColumnCount();
+        for (int column = 0; column < columnCount; column++) {
+            blackhole.consume(this.viewportLayer.getStartXOfColumnPosition(column));
+        }
+    }
+
+    @Benchmark
+    public void getColumnPositionByX(Blackhole blackhole) {
+        for (int x : this.xSamples) {
+            blackhole.consume(this.selectionLayer.getColumnPositionByX(x));
+        }
+        // the viewport translates to the scrolled region
+        for (int x = 0; x < this.clientAreaWidth; x += 10) {
+            blackhole.consume(this.viewportLayer.getColumnPositionByX(x));
+        }
+    }
+
+}